@@ -0,0 +1,50 @@
+package com.odde.doughnut.algorithms;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ClozeBenchmark {
+  @Param({"60", "2000", "50000"})
+  int detailsLength;
+
+  @Param({"english", "cjk"})
+  String titleKind;
+
+  ClozeReplacement clozeReplacement = new ClozeReplacement("[..~]", "[...]", "/.../", "<...>");
+  String details;
+  List<NoteTitle> noteTitles;
+
+  @Setup
+  public void setup() {
+    details = NoteSamples.markdownOfLength(detailsLength);
+    noteTitles = List.of(new NoteTitle(NoteSamples.title(titleKind)));
+  }
+
+  @Benchmark
+  public String maskPronunciationsAndTitles() {
+    return clozeReplacement.maskPronunciationsAndTitles(details, noteTitles);
+  }
+
+  @Benchmark
+  public String clozeDetails() {
+    return ClozedString.htmlClozedString(details).hide(noteTitles.getFirst()).clozeDetails();
+  }
+
+  @Benchmark
+  public String clozeTitle() {
+    return ClozedString.htmlClozedString(NoteSamples.title(titleKind))
+        .hide(noteTitles.getFirst())
+        .clozeTitle();
+  }
+}
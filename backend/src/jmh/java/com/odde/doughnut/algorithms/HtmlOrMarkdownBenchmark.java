@@ -0,0 +1,43 @@
+package com.odde.doughnut.algorithms;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HtmlOrMarkdownBenchmark {
+  @Param({"60", "2000", "50000"})
+  int detailsLength;
+
+  HtmlOrMarkdown details;
+  HtmlOrMarkdown blankDetails;
+
+  @Setup
+  public void setup() {
+    details = new HtmlOrMarkdown(NoteSamples.markdownOfLength(detailsLength));
+    blankDetails = new HtmlOrMarkdown("<p> <br> </p>\n".repeat(detailsLength / 14 + 1));
+  }
+
+  @Benchmark
+  public String replaceText() {
+    return details.replaceText(String::toUpperCase);
+  }
+
+  @Benchmark
+  public boolean isBlank() {
+    return details.isBlank();
+  }
+
+  @Benchmark
+  public boolean isBlankWhenBlank() {
+    return blankDetails.isBlank();
+  }
+}
@@ -0,0 +1,29 @@
+package com.odde.doughnut.algorithms;
+
+// Deterministic note contents of realistic sizes for the benchmarks.
+final class NoteSamples {
+  static final String ENGLISH_TITLE = "sedition / seditious (law)";
+  static final String CJK_TITLE = "扇動／煽動／せんどう (法律)";
+
+  private static final String[] PARAGRAPHS = {
+    "Sedition /sɪˈdɪʃ(ə)n/ is conduct or speech inciting people to rebel against the authority"
+        + " of a state. A seditious libel was once a crime in many common law countries.",
+    "扇動（せんどう）とは、他人をあおり立てて、ある行動を起こすように仕向けることをいう。煽動とも書く。",
+    "- cats and dogs\n- *north* or up\n- [a link](https://example.com/sedition)\n",
+    "<p>Seditious speech was <b>prosecuted</b> under the act.</p><p><br></p>",
+  };
+
+  private NoteSamples() {}
+
+  static String title(String kind) {
+    return "cjk".equals(kind) ? CJK_TITLE : ENGLISH_TITLE;
+  }
+
+  static String markdownOfLength(int length) {
+    StringBuilder builder = new StringBuilder(length + PARAGRAPHS[0].length());
+    for (int i = 0; builder.length() < length; i++) {
+      builder.append(PARAGRAPHS[i % PARAGRAPHS.length]).append("\n\n");
+    }
+    return builder.substring(0, length);
+  }
+}
@@ -0,0 +1,37 @@
+package com.odde.doughnut.algorithms;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NoteTitleBenchmark {
+  @Param({"english", "cjk"})
+  String titleKind;
+
+  NoteTitle noteTitle;
+
+  @Setup
+  public void setup() {
+    noteTitle = new NoteTitle(NoteSamples.title(titleKind));
+  }
+
+  @Benchmark
+  public List<TitleFragment> getTitles() {
+    return noteTitle.getTitles();
+  }
+
+  @Benchmark
+  public boolean matches() {
+    return noteTitle.matches("seditious");
+  }
+}
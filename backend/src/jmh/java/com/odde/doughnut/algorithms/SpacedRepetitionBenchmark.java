@@ -0,0 +1,29 @@
+package com.odde.doughnut.algorithms;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SpacedRepetitionBenchmark {
+  static final String SPACE_INTERVALS = "0, 1, 2, 3, 5, 8, 13, 21, 34, 55";
+
+  SpacedRepetitionAlgorithm algorithm = new SpacedRepetitionAlgorithm(SPACE_INTERVALS);
+  float forgettingCurveIndex = 12.5f;
+
+  @Benchmark
+  public SpacedRepetitionAlgorithm parseSpaceIntervals() {
+    return new SpacedRepetitionAlgorithm(SPACE_INTERVALS);
+  }
+
+  @Benchmark
+  public Integer getRepeatInHours() {
+    return algorithm.getRepeatInHours(forgettingCurveIndex);
+  }
+}
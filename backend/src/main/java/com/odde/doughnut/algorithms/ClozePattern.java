@@ -0,0 +1,59 @@
+package com.odde.doughnut.algorithms;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+// The compiled patterns of the pronunciations and of the full, partial and subtitle matches of
+// the hidden note titles, in the order of their priority when ClozeReplacement resolves the
+// matches that overlap.
+final class ClozePattern {
+  static final Pattern PRONUNCIATION =
+      Pattern.compile("/[^\\s^/][^/\\n]*/(?!\\w)", ClozePatternCreator.FLAGS);
+  private static final int MAX_CACHED_TITLES = 1000;
+
+  private static final Map<List<String>, ClozePattern> cache =
+      Collections.synchronizedMap(
+          new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<String>, ClozePattern> eldest) {
+              return size() > MAX_CACHED_TITLES;
+            }
+          });
+
+  record TitlePatterns(List<Pattern> full, List<Pattern> partial, List<Pattern> subtitle) {}
+
+  private final List<TitlePatterns> titlePatterns;
+
+  private ClozePattern(List<NoteTitle> noteTitles) {
+    titlePatterns =
+        noteTitles.stream()
+            .map(
+                noteTitle ->
+                    new TitlePatterns(
+                        patterns(noteTitle.getTitles(), TitleFragment::literalWordsRegex),
+                        patterns(noteTitle.getTitles(), TitleFragment::similarRegex),
+                        patterns(noteTitle.getSubtitles(), TitleFragment::literalWordsRegex)))
+            .toList();
+  }
+
+  static ClozePattern of(List<NoteTitle> noteTitles) {
+    List<String> key = noteTitles.stream().map(NoteTitle::getTitle).toList();
+    return cache.computeIfAbsent(key, k -> new ClozePattern(noteTitles));
+  }
+
+  List<TitlePatterns> titlePatterns() {
+    return titlePatterns;
+  }
+
+  private static List<Pattern> patterns(
+      List<TitleFragment> fragments, Function<TitleFragment, String> regexOf) {
+    return fragments.stream()
+        .filter(fragment -> !fragment.isEmpty())
+        .map(fragment -> Pattern.compile(regexOf.apply(fragment), ClozePatternCreator.FLAGS))
+        .toList();
+  }
+}
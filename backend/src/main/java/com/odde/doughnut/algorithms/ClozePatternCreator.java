@@ -8,6 +8,8 @@ public class ClozePatternCreator {
   final boolean suffix;
   public static final String potentialWordBoundary =
       "\\b|\\p{IsHan}|\\p{IsKatakana}|\\p{IsHiragana}";
+  static final int FLAGS = Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CHARACTER_CLASS;
+  private static final Pattern DIGITS = Pattern.compile("^\\d+$");
 
   public ClozePatternCreator(boolean suffix) {
     this.suffix = suffix;
@@ -17,7 +19,7 @@ public class ClozePatternCreator {
     if (toMatch.length() >= 4 || suffix) {
       return ignoreConjunctions(toMatch);
     }
-    if (toMatch.matches("^\\d+$")) {
+    if (DIGITS.matcher(toMatch).matches()) {
       return "(?<!\\d)" + Pattern.quote(toMatch) + "(?!\\d)";
     }
     return Pattern.quote(toMatch) + "(?=" + potentialWordBoundary + ")";
@@ -37,9 +39,11 @@ public class ClozePatternCreator {
     return "(?<=" + potentialWordBoundary + ")" + pattern;
   }
 
+  String getRegex(String toMatch) {
+    return suffixIfNeeded(getPatternStringToMatch(toMatch));
+  }
+
   Pattern getPattern(String toMatch) {
-    return Pattern.compile(
-        suffixIfNeeded(getPatternStringToMatch(toMatch)),
-        Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CHARACTER_CLASS);
+    return Pattern.compile(getRegex(toMatch), FLAGS);
   }
 }
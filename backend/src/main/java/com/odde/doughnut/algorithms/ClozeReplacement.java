@@ -1,7 +1,9 @@
 package com.odde.doughnut.algorithms;
 
 import java.util.List;
-import java.util.function.BiFunction;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 record ClozeReplacement(
@@ -10,49 +12,64 @@ record ClozeReplacement(
     String pronunciationReplacement,
     String fullMatchSubtitleReplacement) {
 
-  private String replaceTitleFragments(String pronunciationMasked, NoteTitle noteTitle) {
-    final String internalPartialMatchReplacement = "__p_a_r_t_i_a_l__";
-    final String internalFullMatchReplacement = "__f_u_l_l__";
-    final String internalFullMatchReplacementForSubtitle = "__f_u_l_l_s_u_b__";
-
-    String step1 =
-        replaceTitlesWithInternalPlaceholder(
-            noteTitle.getTitles(),
-            pronunciationMasked,
-            (p, t) -> t.replaceLiteralWords(p, internalFullMatchReplacement));
-    String step2 =
-        replaceTitlesWithInternalPlaceholder(
-            noteTitle.getTitles(),
-            step1,
-            (p, t) -> t.replaceSimilar(p, internalPartialMatchReplacement));
-    String step3 =
-        replaceTitlesWithInternalPlaceholder(
-            noteTitle.getSubtitles(),
-            step2,
-            (p, t) -> t.replaceLiteralWords(p, internalFullMatchReplacementForSubtitle));
-    return step3
-        .replace(internalFullMatchReplacement, fullMatchReplacement)
-        .replace(internalPartialMatchReplacement, partialMatchReplacement)
-        .replace(internalFullMatchReplacementForSubtitle, fullMatchSubtitleReplacement);
+  String maskPronunciationsAndTitles(String originalContent, List<NoteTitle> noteTitles) {
+    Masks masks = new Masks(originalContent);
+    masks.add(List.of(ClozePattern.PRONUNCIATION), pronunciationReplacement);
+    for (ClozePattern.TitlePatterns titlePatterns : ClozePattern.of(noteTitles).titlePatterns()) {
+      masks.add(titlePatterns.full(), fullMatchReplacement);
+      masks.add(titlePatterns.partial(), partialMatchReplacement);
+      masks.add(titlePatterns.subtitle(), fullMatchSubtitleReplacement);
+    }
+    return masks.write();
   }
 
-  private static String replaceTitlesWithInternalPlaceholder(
-      List<TitleFragment> noteTitle,
-      String processed,
-      BiFunction<String, TitleFragment, String> replacer) {
-    return noteTitle.stream().reduce(processed, replacer, (x, y) -> y);
-  }
+  // The matches of all the stages over the original text, by where they start. A pattern only
+  // searches the gaps between the matches of the earlier ones, so the earlier stage wins where
+  // matches overlap and the leftmost match wins within a stage, and the text is written once.
+  private static final class Masks {
+    private record Mask(int end, String replacement) {}
+
+    private final String text;
+    private final TreeMap<Integer, Mask> masks = new TreeMap<>();
+
+    Masks(String text) {
+      this.text = text;
+    }
+
+    void add(List<Pattern> patterns, String replacement) {
+      for (Pattern pattern : patterns) {
+        Matcher matcher =
+            pattern.matcher(text).useTransparentBounds(true).useAnchoringBounds(false);
+        Map<Integer, Mask> found = new TreeMap<>();
+        int gapStart = 0;
+        for (Map.Entry<Integer, Mask> mask : masks.entrySet()) {
+          find(matcher, gapStart, mask.getKey(), replacement, found);
+          gapStart = mask.getValue().end();
+        }
+        find(matcher, gapStart, text.length(), replacement, found);
+        masks.putAll(found);
+      }
+    }
+
+    private static void find(
+        Matcher matcher, int start, int end, String replacement, Map<Integer, Mask> found) {
+      if (start >= end) return;
+      matcher.region(start, end);
+      while (matcher.find()) {
+        if (matcher.end() > matcher.start()) {
+          found.put(matcher.start(), new Mask(matcher.end(), replacement));
+        }
+      }
+    }
 
-  String maskPronunciationsAndTitles(String originalContent1, List<NoteTitle> noteTitles1) {
-    final String internalPronunciationReplacement = "__p_r_o_n_u_n_c__";
-    final Pattern pattern =
-        Pattern.compile(
-            "/[^\\s^/][^/\\n]*/(?!\\w)",
-            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CHARACTER_CLASS);
-    String pronunciationsReplaced =
-        pattern.matcher(originalContent1).replaceAll(internalPronunciationReplacement);
-    return noteTitles1.stream()
-        .reduce(pronunciationsReplaced, this::replaceTitleFragments, (s, s2) -> s)
-        .replace(internalPronunciationReplacement, pronunciationReplacement);
+    String write() {
+      StringBuilder written = new StringBuilder(text.length());
+      int copied = 0;
+      for (Map.Entry<Integer, Mask> mask : masks.entrySet()) {
+        written.append(text, copied, mask.getKey()).append(mask.getValue().replacement());
+        copied = mask.getValue().end();
+      }
+      return written.append(text, copied, text.length()).toString();
+    }
   }
 }
@@ -7,6 +7,8 @@ import java.util.List;
 import org.apache.logging.log4j.util.Strings;
 
 public class ClozedString {
+  private static final Parser PARSER = Parser.builder().build();
+  private static final HtmlRenderer RENDERER = HtmlRenderer.builder().build();
   private ClozeReplacement clozeReplacement;
   private String originalContent;
   private List<NoteTitle> noteTitles = new ArrayList<>();
@@ -55,8 +57,6 @@ public class ClozedString {
   }
 
   private String htmlContent() {
-    Parser parser = Parser.builder().build();
-    HtmlRenderer renderer = HtmlRenderer.builder().build();
-    return renderer.render(parser.parse(originalContent));
+    return RENDERER.render(PARSER.parse(originalContent));
   }
 }
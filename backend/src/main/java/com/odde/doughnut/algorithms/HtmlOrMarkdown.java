@@ -5,28 +5,26 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public record HtmlOrMarkdown(String htmlOrMarkdown) {
+  private static final Pattern TEXT_BETWEEN_TAGS = Pattern.compile("(?s)(?<=^|>)[^><]+?(?=<|$)");
+  private static final String BR = "(\\s*<br[^>]*/?>\\s*)";
+  private static final Pattern BLANK =
+      Pattern.compile("^(?:\\s*((<p[^>]*>)(\\s|" + BR + ")*</p>\\s*)|" + BR + ")*$");
+  private static final Pattern HTML_TAG = Pattern.compile("<[^>]*>");
+
   public String replaceText(Function<String, String> callback) {
-    Pattern pattern = Pattern.compile("(?s)(?<=^|>)[^><]+?(?=<|$)");
-    Matcher matcher = pattern.matcher(htmlOrMarkdown);
+    Matcher matcher = TEXT_BETWEEN_TAGS.matcher(htmlOrMarkdown);
     return matcher.replaceAll(
         matchResult -> Matcher.quoteReplacement(callback.apply(matchResult.group())));
   }
 
   public boolean isBlank() {
     if (htmlOrMarkdown == null) return true;
-
-    String regexBr = "(\\s*<br[^>]*/?>\\s*)";
-    String regex = "^(?:\\s*((<p[^>]*>)(\\s|" + regexBr + ")*</p>\\s*)|" + regexBr + ")*$";
-
-    Pattern pattern = Pattern.compile(regex);
-    Matcher matcher = pattern.matcher(htmlOrMarkdown);
-
-    return matcher.matches();
+    return BLANK.matcher(htmlOrMarkdown).matches();
   }
 
   public String beginning(int charCount) {
     if (isBlank()) return null;
-    String withoutHtmlTags = htmlOrMarkdown.replaceAll("<[^>]*>", "");
+    String withoutHtmlTags = HTML_TAG.matcher(htmlOrMarkdown).replaceAll("");
     if (withoutHtmlTags.length() <= charCount) return withoutHtmlTags;
     return withoutHtmlTags.substring(0, charCount) + "...";
   }
@@ -1,10 +1,17 @@
 package com.odde.doughnut.algorithms;
 
+import java.awt.Dimension;
 import java.awt.Graphics2D;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.InputStreamSource;
 
 public class ImageUtils {
@@ -13,15 +20,16 @@ public class ImageUtils {
 
   public ImageUtils() {}
 
-  public byte[] toResizedImageByteArray(InputStreamSource file, String originalFilename)
+  // Only the image header is read to find the dimensions, so an image that is small enough is
+  // passed on as it is without being decoded.
+  public InputStreamSource toResizedImage(InputStreamSource file, String originalFilename)
       throws IOException {
-    BufferedImage originalImage = ImageIO.read(file.getInputStream());
-    int width = originalImage.getWidth();
-    int height = originalImage.getHeight();
-
-    if (width <= MAX_WIDTH && height <= MAX_HEIGHT) {
-      return file.getInputStream().readAllBytes();
+    Dimension size = readDimension(file);
+    if (size == null || size.width <= MAX_WIDTH && size.height <= MAX_HEIGHT) {
+      return file;
     }
+    int width = size.width;
+    int height = size.height;
 
     if (width > MAX_WIDTH) {
       height = height * MAX_WIDTH / width;
@@ -33,12 +41,65 @@ public class ImageUtils {
       height = MAX_HEIGHT;
     }
 
-    BufferedImage resizedImage = resizeImage(originalImage, width, height);
+    BufferedImage originalImage;
+    try (InputStream in = file.getInputStream()) {
+      originalImage = ImageIO.read(in);
+    }
+    BufferedImage resizedImage =
+        resizeImage(originalImage, width, height, BufferedImage.TYPE_INT_RGB);
     ByteArrayOutputStream baos = new ByteArrayOutputStream();
     ImageIO.write(resizedImage, getFileExtension(originalFilename), baos);
+    return new ByteArrayResource(baos.toByteArray());
+  }
+
+  // A thumbnail no wider than maxWidth, or null when the image is already narrow enough or cannot
+  // be decoded, in which case the original should be used.
+  public byte[] toThumbnail(InputStreamSource file, int maxWidth, String formatName)
+      throws IOException {
+    Dimension size = readDimension(file);
+    if (size == null || size.width <= maxWidth) {
+      return null;
+    }
+    BufferedImage originalImage;
+    try (InputStream in = file.getInputStream()) {
+      originalImage = ImageIO.read(in);
+    }
+    if (originalImage == null) {
+      return null;
+    }
+    int height = Math.max(1, size.height * maxWidth / size.width);
+    int imageType =
+        originalImage.getColorModel().hasAlpha() && !formatName.equals("jpeg")
+            ? BufferedImage.TYPE_INT_ARGB
+            : BufferedImage.TYPE_INT_RGB;
+    BufferedImage thumbnail = resizeImage(originalImage, maxWidth, height, imageType);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    if (!ImageIO.write(thumbnail, formatName, baos)) {
+      return null;
+    }
     return baos.toByteArray();
   }
 
+  private Dimension readDimension(InputStreamSource file) throws IOException {
+    try (InputStream content = file.getInputStream();
+        ImageInputStream in = ImageIO.createImageInputStream(content)) {
+      if (in == null) {
+        return null;
+      }
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+      if (!readers.hasNext()) {
+        return null;
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(in, true, true);
+        return new Dimension(reader.getWidth(0), reader.getHeight(0));
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
   private String getFileExtension(String name) {
     int lastIndexOf = name.lastIndexOf(".");
     if (lastIndexOf == -1) {
@@ -48,10 +109,11 @@ public class ImageUtils {
   }
 
   private BufferedImage resizeImage(
-      BufferedImage originalImage, int targetWidth, int targetHeight) {
-    BufferedImage resizedImage =
-        new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+      BufferedImage originalImage, int targetWidth, int targetHeight, int imageType) {
+    BufferedImage resizedImage = new BufferedImage(targetWidth, targetHeight, imageType);
     Graphics2D graphics2D = resizedImage.createGraphics();
+    graphics2D.setRenderingHint(
+        RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
     graphics2D.drawImage(originalImage, 0, 0, targetWidth, targetHeight, null);
     graphics2D.dispose();
     return resizedImage;
@@ -10,6 +10,9 @@ import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 public class NoteTitle {
+  private static final Pattern TITLE_AND_SUBTITLE =
+      Pattern.compile("(?U)(.+?)(\\p{Ps}([^\\p{Ps}\\p{Pe}]+)\\p{Pe})?$");
+  private static final Pattern ALTERNATIVE_SEPARATOR = Pattern.compile("(?<!/)[/／](?!/)");
 
   private final String title;
 
@@ -30,8 +33,7 @@ public class NoteTitle {
 
   private List<TitleFragment> getTitleFragments(boolean subtitle) {
     List<TitleFragment> result = new ArrayList<>();
-    Pattern pattern = Pattern.compile("(?U)(.+?)(\\p{Ps}([^\\p{Ps}\\p{Pe}]+)\\p{Pe})?$");
-    Matcher matcher = pattern.matcher(title);
+    Matcher matcher = TITLE_AND_SUBTITLE.matcher(title);
     if (matcher.find()) {
       getFragments(matcher.group(subtitle ? 3 : 1)).forEach(result::add);
     }
@@ -41,11 +43,16 @@ public class NoteTitle {
   }
 
   private Stream<TitleFragment> getFragments(String subString) {
-    return Arrays.stream(subString != null ? subString.split("(?<!/)[/／](?!/)") : new String[] {})
+    return Arrays.stream(
+            subString != null ? ALTERNATIVE_SEPARATOR.split(subString) : new String[] {})
         .map(TitleFragment::from);
   }
 
   public List<TitleFragment> getSubtitles() {
     return getTitleFragments(true);
   }
+
+  String getTitle() {
+    return title;
+  }
 }
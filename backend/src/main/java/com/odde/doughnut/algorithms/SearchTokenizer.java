@@ -0,0 +1,30 @@
+package com.odde.doughnut.algorithms;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public record SearchTokenizer(String text) {
+  public static final int MAX_TOKEN_LENGTH = 50;
+  private static final Pattern HTML_TAG = Pattern.compile("<[^>]*>");
+  // Han, Katakana and Hiragana have no word boundaries, so each character is a token
+  private static final Pattern TOKEN =
+      Pattern.compile(
+          "\\p{IsHan}|\\p{IsKatakana}|\\p{IsHiragana}"
+              + "|[\\p{L}\\p{M}\\p{N}&&[^\\p{IsHan}\\p{IsKatakana}\\p{IsHiragana}]]+");
+
+  public List<String> tokens() {
+    if (text == null) return List.of();
+    Set<String> result = new LinkedHashSet<>();
+    Matcher matcher = TOKEN.matcher(HTML_TAG.matcher(text).replaceAll(" "));
+    while (matcher.find()) {
+      String token = matcher.group().toLowerCase(Locale.ROOT);
+      if (token.length() > MAX_TOKEN_LENGTH) token = token.substring(0, MAX_TOKEN_LENGTH);
+      result.add(token);
+    }
+    return List.copyOf(result);
+  }
+}
@@ -1,26 +1,101 @@
 package com.odde.doughnut.algorithms;
 
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
 public class SiblingOrder {
   //
   // SiblingOrder is used to decide the order among the notes under the same
-  // parent. In a real life situation, using millisecond * 1000 is good enough
-  // for ordering and also leave enough space for inserting items in between.
-  // However, in extreme cases like unit testing or importing batch of notes,
-  // there is still a chance of duplicated order number. Since this will likely
-  // to happy within the same java running instance, a simple static variable
-  // `localLastOrderNumberForGoodEnoughSiblingOrder` is introduced to detect and
-  // remove the duplicates.
+  // parent. A new order number is made of a tick and the slot of the backend
+  // node. The tick is the current millisecond, or the last tick plus one when
+  // the numbers are taken faster than that, and is advanced with a CAS so that
+  // no two threads get the same tick. The node slot makes the numbers of
+  // different nodes differ even when they take the same tick. Every number is a
+  // multiple of MINIMUM_SIBLING_ORDER_INCREMENT, which leaves space for moving
+  // notes in between.
   //
-  public static long localLastOrderNumberForGoodEnoughSiblingOrder;
   public static final long MINIMUM_SIBLING_ORDER_INCREMENT = 1000;
+  public static final int NODE_SLOTS = 1000;
+
+  private static final AtomicLong lastTick = new AtomicLong();
+  // a node without a configured slot takes a random one, which makes a clash
+  // with another node unlikely, though not impossible
+  private static volatile int nodeSlot = ThreadLocalRandom.current().nextInt(NODE_SLOTS);
+
+  public static void useNodeSlot(int slot) {
+    if (slot < 0 || slot >= NODE_SLOTS) {
+      throw new IllegalArgumentException("The node slot must be in [0, " + NODE_SLOTS + ")");
+    }
+    nodeSlot = slot;
+  }
+
+  public static int getNodeSlot() {
+    return nodeSlot;
+  }
 
   public static Long getGoodEnoughOrderNumber() {
-    long newNumber = System.currentTimeMillis() * MINIMUM_SIBLING_ORDER_INCREMENT;
-    if (newNumber <= localLastOrderNumberForGoodEnoughSiblingOrder) {
-      localLastOrderNumberForGoodEnoughSiblingOrder += MINIMUM_SIBLING_ORDER_INCREMENT;
+    long tick =
+        lastTick.accumulateAndGet(
+            System.currentTimeMillis(), (last, now) -> Math.max(last + 1, now));
+    return (tick * NODE_SLOTS + nodeSlot) * MINIMUM_SIBLING_ORDER_INCREMENT;
+  }
+
+  // The order of a note put at the index among the siblings, and the new orders of the siblings
+  // from `from` on that had to move to make room for it.
+  public record Placement(long order, int from, long[] renumbered) {}
+
+  // Puts a note in the middle of the gap between its neighbours. When there is no gap left, the
+  // siblings in a window around the index are spread evenly, with the window doubled until the
+  // space between the notes just outside of it is wide enough, or it reaches the first or the
+  // last sibling, where there is always space. So only the crowded part is renumbered, and a
+  // note can be put at the same place again and again.
+  public static Placement placeAt(long[] orders, int index) {
+    int count = orders.length;
+    if (index == 0) {
+      return new Placement(orders[0] - MINIMUM_SIBLING_ORDER_INCREMENT, 0, new long[0]);
+    }
+    if (index == count) {
+      return new Placement(orders[count - 1] + MINIMUM_SIBLING_ORDER_INCREMENT, count, new long[0]);
+    }
+    long previous = orders[index - 1];
+    long next = orders[index];
+    if (next - previous >= 2) {
+      return new Placement(previous + (next - previous) / 2, index, new long[0]);
+    }
+    for (int reach = 1; ; reach *= 2) {
+      int from = Math.max(0, index - reach);
+      int to = Math.min(count, index + reach);
+      long[] spread = spread(orders, from, to);
+      if (spread == null) continue;
+      long[] renumbered = new long[spread.length - 1];
+      System.arraycopy(spread, 0, renumbered, 0, index - from);
+      System.arraycopy(spread, index - from + 1, renumbered, index - from, to - index);
+      return new Placement(spread[index - from], from, renumbered);
+    }
+  }
+
+  // evenly spaced orders for the siblings in [from, to) plus the new note, or null when the
+  // space between the siblings around them is too narrow
+  private static long[] spread(long[] orders, int from, int to) {
+    int slots = to - from + 1;
+    long step = MINIMUM_SIBLING_ORDER_INCREMENT;
+    long start;
+    if (from > 0 && to < orders.length) {
+      long lower = orders[from - 1];
+      step = (orders[to] - lower) / (slots + 1);
+      if (step < MINIMUM_SIBLING_ORDER_INCREMENT) return null;
+      start = lower + step;
+    } else if (from > 0) {
+      start = orders[from - 1] + step;
+    } else if (to < orders.length) {
+      start = orders[to] - step * slots;
     } else {
-      localLastOrderNumberForGoodEnoughSiblingOrder = newNumber;
+      start = orders[0];
+    }
+    long[] spread = new long[slots];
+    for (int i = 0; i < slots; i++) {
+      spread[i] = start + step * i;
     }
-    return localLastOrderNumberForGoodEnoughSiblingOrder;
+    return spread;
   }
 }
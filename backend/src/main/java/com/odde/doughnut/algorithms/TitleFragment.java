@@ -26,10 +26,16 @@ record TitleFragment(boolean suffix, String stem) {
     return pattern.matcher(details).replaceAll(replacement);
   }
 
-  public String replaceSimilar(String literal, String replacement) {
-    String substring = stem.substring(0, (stem.length() + 1) * 3 / 4);
-    Pattern pattern = getClozePatternCreator().getPattern(substring);
-    return pattern.matcher(literal).replaceAll(replacement);
+  String literalWordsRegex() {
+    return getClozePatternCreator().getRegex(stem);
+  }
+
+  String similarRegex() {
+    return getClozePatternCreator().getRegex(stem.substring(0, (stem.length() + 1) * 3 / 4));
+  }
+
+  boolean isEmpty() {
+    return stem.isEmpty();
   }
 
   public int length() {
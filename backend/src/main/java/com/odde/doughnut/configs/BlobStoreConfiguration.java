@@ -0,0 +1,25 @@
+package com.odde.doughnut.configs;
+
+import com.odde.doughnut.services.blobs.BlobStore;
+import com.odde.doughnut.services.blobs.DatabaseBlobStore;
+import com.odde.doughnut.services.blobs.FileSystemBlobStore;
+import java.nio.file.Path;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class BlobStoreConfiguration {
+  // The file system store is only used when a root is configured explicitly, because the root
+  // has to be on persistent storage shared by every instance. Otherwise the contents are kept in
+  // the database.
+  @Bean
+  public BlobStore blobStore(
+      @Value("${spring.blob-store.root:}") String root, JdbcTemplate jdbcTemplate) {
+    if (root.isBlank()) {
+      return new DatabaseBlobStore(jdbcTemplate);
+    }
+    return new FileSystemBlobStore(Path.of(root));
+  }
+}
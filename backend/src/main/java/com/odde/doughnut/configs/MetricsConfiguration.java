@@ -0,0 +1,40 @@
+package com.odde.doughnut.configs;
+
+import com.odde.doughnut.services.metrics.EndpointMetricsInterceptor;
+import com.odde.doughnut.services.metrics.QueryCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class MetricsConfiguration implements WebMvcConfigurer {
+  @Autowired private EndpointMetricsInterceptor endpointMetricsInterceptor;
+
+  @Bean
+  public static HibernatePropertiesCustomizer statementCounting() {
+    return properties ->
+        properties.put(AvailableSettings.STATEMENT_INSPECTOR, QueryCounter.INSTANCE);
+  }
+
+  @Autowired
+  void countLoadedEntities(EntityManagerFactory entityManagerFactory) {
+    entityManagerFactory
+        .unwrap(SessionFactoryImplementor.class)
+        .getServiceRegistry()
+        .getService(EventListenerRegistry.class)
+        .appendListeners(EventType.POST_LOAD, QueryCounter.INSTANCE);
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(endpointMetricsInterceptor).addPathPatterns("/api/**");
+  }
+}
@@ -1,7 +1,10 @@
 package com.odde.doughnut.configs;
 
+import com.odde.doughnut.services.metrics.MetricsRegistry;
+import com.odde.doughnut.services.metrics.OpenAiCallTimer;
 import com.odde.doughnut.services.openAiApis.ApiExecutor;
 import com.odde.doughnut.services.openAiApis.OpenAiApiExtended;
+import com.odde.doughnut.services.openAiApis.OpenAiCallGuard;
 import com.odde.doughnut.testability.TestabilitySettings;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -18,7 +21,13 @@ public class OpenAiApiConfig {
   @Qualifier("testableOpenAiApi")
   public OpenAiApiExtended getTestableOpenAiApi(
       @Value("${spring.openai.token}") String openAiToken,
-      @Autowired TestabilitySettings testabilitySettings) {
-    return ApiExecutor.getOpenAiApi(openAiToken, testabilitySettings.getOpenAiApiUrl());
+      @Autowired TestabilitySettings testabilitySettings,
+      @Autowired MetricsRegistry metricsRegistry,
+      @Autowired OpenAiCallGuard openAiCallGuard) {
+    return ApiExecutor.getOpenAiApi(
+        openAiToken,
+        testabilitySettings.getOpenAiApiUrl(),
+        openAiCallGuard,
+        new OpenAiCallTimer(metricsRegistry));
   }
 }
@@ -4,7 +4,14 @@ import com.odde.doughnut.entities.Audio;
 import com.odde.doughnut.entities.Image;
 import com.odde.doughnut.exceptions.UnexpectedNoAccessRightException;
 import com.odde.doughnut.models.UserModel;
+import com.odde.doughnut.services.NotebookAccessService;
+import com.odde.doughnut.services.blobs.BlobStore;
+import com.odde.doughnut.services.blobs.ImageThumbnailService;
 import io.swagger.v3.oas.annotations.media.Schema;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.springframework.core.io.Resource;
 import org.springframework.http.*;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
@@ -12,24 +19,61 @@ import org.springframework.web.bind.annotation.*;
 @Controller
 @RequestMapping("/attachments")
 public class AttachmentController {
+  // An uploaded image is never changed, so its URL always refers to the same content. Only the
+  // images shown in the bazaar may be kept by shared caches. Whether an image is shown there is
+  // kept by NotebookAccessService, so serving it again does not query the bazaar.
+  private static final CacheControl PUBLIC_IMAGE_CACHE_CONTROL =
+      CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+  private static final CacheControl PRIVATE_IMAGE_CACHE_CONTROL =
+      CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable();
+
   private final UserModel currentUser;
+  private final BlobStore blobStore;
+  private final ImageThumbnailService imageThumbnailService;
+  private final NotebookAccessService notebookAccessService;
 
-  public AttachmentController(UserModel currentUser) {
+  public AttachmentController(
+      UserModel currentUser,
+      BlobStore blobStore,
+      ImageThumbnailService imageThumbnailService,
+      NotebookAccessService notebookAccessService) {
     this.currentUser = currentUser;
+    this.blobStore = blobStore;
+    this.imageThumbnailService = imageThumbnailService;
+    this.notebookAccessService = notebookAccessService;
   }
 
   @GetMapping("/audio/{audio}")
-  public ResponseEntity<byte[]> downloadAudio(
+  public ResponseEntity<Resource> downloadAudio(
       @PathVariable("audio") @Schema(type = "integer") Audio audio)
       throws UnexpectedNoAccessRightException {
     currentUser.assertReadAuthorization(audio);
-    return audio.getResponseEntity("attachment");
+    return audio.getResponseEntity("attachment", blobStore);
   }
 
   @GetMapping("/images/{image}/{fileName}")
-  public ResponseEntity<byte[]> showImage(
+  public ResponseEntity<Resource> showImage(
       @PathVariable("image") @Schema(type = "integer") Image image,
-      @PathVariable("fileName") String filename) {
-    return image.getResponseEntity("inline");
+      @PathVariable("fileName") String filename,
+      @RequestParam(value = "width", required = false) Integer width)
+      throws IOException {
+    CacheControl cacheControl =
+        notebookAccessService.isShownInBazaar(image)
+            ? PUBLIC_IMAGE_CACHE_CONTROL
+            : PRIVATE_IMAGE_CACHE_CONTROL;
+    Optional<ImageThumbnailService.Thumbnail> thumbnail =
+        imageThumbnailService.getThumbnail(image, width);
+    if (thumbnail.isEmpty()) {
+      ResponseEntity<Resource> original = image.getResponseEntity("inline", blobStore);
+      return ResponseEntity.ok()
+          .headers(original.getHeaders())
+          .cacheControl(cacheControl)
+          .body(original.getBody());
+    }
+    return ResponseEntity.ok()
+        .cacheControl(cacheControl)
+        .contentType(thumbnail.get().contentType())
+        .eTag(thumbnail.get().eTag())
+        .body(thumbnail.get().content());
   }
 }
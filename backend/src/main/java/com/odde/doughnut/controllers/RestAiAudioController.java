@@ -4,25 +4,35 @@ import com.odde.doughnut.controllers.dto.*;
 import com.odde.doughnut.entities.Audio;
 import com.odde.doughnut.entities.Note;
 import com.odde.doughnut.services.AiAdvisorService;
+import com.odde.doughnut.services.blobs.BlobStore;
 import com.theokanning.openai.client.OpenAiApi;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.Valid;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.*;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.annotation.SessionScope;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @SessionScope
 @RequestMapping("/api/notes")
 class RestAiAudioController {
+  private static final Duration STREAM_TIMEOUT = Duration.ofMinutes(30);
 
   private final AiAdvisorService aiAdvisorService;
+  private final BlobStore blobStore;
 
-  public RestAiAudioController(@Qualifier("testableOpenAiApi") OpenAiApi openAiApi) {
+  public RestAiAudioController(
+      @Qualifier("testableOpenAiApi") OpenAiApi openAiApi, BlobStore blobStore) {
     this.aiAdvisorService = new AiAdvisorService(openAiApi);
+    this.blobStore = blobStore;
   }
 
   @PatchMapping(path = "/{note}/audio-to-srt")
@@ -30,9 +40,54 @@ class RestAiAudioController {
   public SrtDto convertNoteAudioToSRT(
       @PathVariable(name = "note") @Schema(type = "integer") Note note) throws IOException {
     Audio audio = note.getNoteAccessory().getAudioAttachment();
-    return aiAdvisorService
-        .getOtherAiServices()
-        .getTranscription(audio.getName(), audio.getBlob().getData());
+    try (InputStream content = audio.getBlob().getContent(blobStore).getInputStream()) {
+      return aiAdvisorService
+          .getOtherAiServices()
+          .getTranscription(audio.getName(), content, progress -> {});
+    }
+  }
+
+  // the same as audio-to-srt, but sends a "progress" event as each segment of the audio is
+  // transcribed, and the SRT in the "done" event. An audio uploaded with the request, which is not
+  // saved to the note yet, is transcribed instead of the audio of the note. The content is opened
+  // here, as an uploaded file is cleaned up when the request returns.
+  @PostMapping(
+      path = "/{note}/audio-to-srt-stream",
+      consumes = {MediaType.MULTIPART_FORM_DATA_VALUE},
+      produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter convertNoteAudioToSRTStream(
+      @PathVariable(name = "note") @Schema(type = "integer") Note note,
+      @Valid @ModelAttribute AudioUploadDTO audioFile)
+      throws IOException {
+    MultipartFile upload = audioFile.getUploadAudioFile();
+    String name;
+    InputStream content;
+    if (upload != null) {
+      name = upload.getOriginalFilename();
+      content = upload.getInputStream();
+    } else {
+      Audio audio = note.getNoteAccessory().getAudioAttachment();
+      name = audio.getName();
+      content = audio.getBlob().getContent(blobStore).getInputStream();
+    }
+    SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT.toMillis());
+    Thread.ofVirtual()
+        .name("audio-transcription")
+        .start(
+            () -> {
+              try (InputStream in = content) {
+                SrtDto srt =
+                    aiAdvisorService
+                        .getOtherAiServices()
+                        .getTranscription(
+                            name, in, progress -> send(emitter, "progress", progress));
+                send(emitter, "done", srt);
+                emitter.complete();
+              } catch (IOException | RuntimeException e) {
+                emitter.completeWithError(e);
+              }
+            });
+    return emitter;
   }
 
   @PostMapping(
@@ -41,7 +96,18 @@ class RestAiAudioController {
   @Transactional
   public SrtDto convertSrt(@Valid @ModelAttribute AudioUploadDTO audioFile) throws IOException {
     String filename = audioFile.getUploadAudioFile().getOriginalFilename();
-    byte[] bytes = audioFile.getUploadAudioFile().getBytes();
-    return aiAdvisorService.getOtherAiServices().getTranscription(filename, bytes);
+    try (InputStream content = audioFile.getUploadAudioFile().getInputStream()) {
+      return aiAdvisorService
+          .getOtherAiServices()
+          .getTranscription(filename, content, progress -> {});
+    }
+  }
+
+  private static void send(SseEmitter emitter, String name, Object data) {
+    try {
+      emitter.send(SseEmitter.event().name(name).data(data));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
   }
 }
@@ -8,6 +8,7 @@ import com.odde.doughnut.exceptions.UnexpectedNoAccessRightException;
 import com.odde.doughnut.factoryServices.ModelFactoryService;
 import com.odde.doughnut.models.UserModel;
 import com.odde.doughnut.services.AiAdvisorWithStorageService;
+import com.odde.doughnut.services.openAiApis.AssistantSseBridge;
 import com.odde.doughnut.testability.TestabilitySettings;
 import com.theokanning.openai.assistants.message.Message;
 import com.theokanning.openai.client.OpenAiApi;
@@ -15,14 +16,14 @@ import com.theokanning.openai.service.assistant_stream.AssistantSSE;
 import io.reactivex.Flowable;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.annotation.Resource;
-import java.io.IOException;
 import java.sql.Timestamp;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.MediaType;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.annotation.SessionScope;
@@ -40,15 +41,22 @@ public class RestAiController {
 
   private final AiAdvisorWithStorageService aiAdvisorWithStorageService;
 
+  private final TransactionTemplate transactionTemplate;
+  private final AssistantSseBridge assistantSseBridge;
+
   public RestAiController(
       @Qualifier("testableOpenAiApi") OpenAiApi openAiApi,
       ModelFactoryService modelFactoryService,
       UserModel currentUser,
-      TestabilitySettings testabilitySettings) {
+      TestabilitySettings testabilitySettings,
+      PlatformTransactionManager transactionManager,
+      AssistantSseBridge assistantSseBridge) {
     this.aiAdvisorWithStorageService =
         new AiAdvisorWithStorageService(openAiApi, modelFactoryService);
     this.currentUser = currentUser;
     this.testabilitySettings = testabilitySettings;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.assistantSseBridge = assistantSseBridge;
   }
 
   @PostMapping("/{note}/completion")
@@ -89,21 +97,7 @@ public class RestAiController {
     currentUser.assertReadAuthorization(note);
     Flowable<AssistantSSE> runStream =
         aiAdvisorWithStorageService.getChatMessages(note, request, currentUser.getEntity());
-    SseEmitter emitter = new SseEmitter();
-    runStream.subscribe(
-        sse -> {
-          try {
-            SseEmitter.SseEventBuilder builder =
-                SseEmitter.event().name(sse.getEvent().eventName).data(sse.getData());
-            emitter.send(builder);
-            if (Objects.equals(sse.getEvent().eventName, "done")) {
-              emitter.complete();
-            }
-          } catch (Exception e) {
-            emitter.completeWithError(e);
-          }
-        });
-    return emitter;
+    return assistantSseBridge.bridge("chat", runStream);
   }
 
   @GetMapping("/dummy")
@@ -136,18 +130,19 @@ public class RestAiController {
     return aiAdvisorWithStorageService.recreateAllAssistants(currentUTCTimestamp);
   }
 
+  // not @Transactional, so that the knowledge is uploaded outside of the transaction
   @PostMapping("/recreate-notebook-assistant/{notebook}")
-  @Transactional
   public NotebookAssistant recreateNotebookAssistant(
       @PathVariable(value = "notebook") @Schema(type = "integer") Notebook notebook,
       @RequestBody NotebookAssistantCreationParams notebookAssistantCreationParams)
-      throws UnexpectedNoAccessRightException, IOException {
+      throws UnexpectedNoAccessRightException {
     currentUser.assertAdminAuthorization();
     Timestamp currentUTCTimestamp = testabilitySettings.getCurrentUTCTimestamp();
     return aiAdvisorWithStorageService.recreateNotebookAssistant(
         currentUTCTimestamp,
         currentUser.getEntity(),
         notebook,
-        notebookAssistantCreationParams.getAdditionalInstruction());
+        notebookAssistantCreationParams.getAdditionalInstruction(),
+        transactionTemplate);
   }
 }
@@ -1,7 +1,9 @@
 package com.odde.doughnut.controllers;
 
+import com.odde.doughnut.controllers.dto.MetricsReport;
 import com.odde.doughnut.exceptions.UnexpectedNoAccessRightException;
 import com.odde.doughnut.models.UserModel;
+import com.odde.doughnut.services.metrics.MetricsRegistry;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
@@ -17,6 +19,8 @@ class RestHealthCheckController {
 
   @Autowired private UserModel currentUser;
 
+  @Autowired private MetricsRegistry metricsRegistry;
+
   @GetMapping("/healthcheck")
   public String ping() {
     return "OK. Active Profile: " + String.join(", ", environment.getActiveProfiles());
@@ -28,4 +32,10 @@ class RestHealthCheckController {
     currentUser.assertAdminAuthorization();
     return List.of();
   }
+
+  @GetMapping("/metrics")
+  public MetricsReport metrics() throws UnexpectedNoAccessRightException {
+    currentUser.assertAdminAuthorization();
+    return metricsRegistry.report();
+  }
 }
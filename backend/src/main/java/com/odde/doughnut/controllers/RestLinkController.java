@@ -8,6 +8,7 @@ import com.odde.doughnut.exceptions.CyclicLinkDetectedException;
 import com.odde.doughnut.exceptions.UnexpectedNoAccessRightException;
 import com.odde.doughnut.factoryServices.ModelFactoryService;
 import com.odde.doughnut.models.NoteViewer;
+import com.odde.doughnut.models.NotebookAccess;
 import com.odde.doughnut.models.UserModel;
 import com.odde.doughnut.testability.TestabilitySettings;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -50,7 +51,7 @@ class RestLinkController {
     currentUser.assertAuthorization(link);
     link.setLinkType(linkCreation.linkType);
     modelFactoryService.save(link);
-    return getNoteRealm(link, currentUser.getEntity());
+    return getNoteRealm(link);
   }
 
   @PostMapping(value = "/create/{sourceNote}/{targetNote}")
@@ -79,15 +80,16 @@ class RestLinkController {
             linkCreation.linkType,
             testabilitySettings.getCurrentUTCTimestamp());
 
-    return getNoteRealm(link, user);
+    return getNoteRealm(link);
   }
 
-  private List<NoteRealm> getNoteRealm(Note link, User user) {
+  private List<NoteRealm> getNoteRealm(Note link) {
+    NotebookAccess viewer = currentUser.getNotebookAccess();
     Note nt = modelFactoryService.entityManager.find(Note.class, link.getTargetNote().getId());
     Note np = modelFactoryService.entityManager.find(Note.class, link.getParent().getId());
     return List.of(
-        new NoteViewer(user, link).toJsonObject(),
-        new NoteViewer(user, nt).toJsonObject(),
-        new NoteViewer(user, np).toJsonObject());
+        new NoteViewer(viewer, link).toJsonObject(),
+        new NoteViewer(viewer, nt).toJsonObject(),
+        new NoteViewer(viewer, np).toJsonObject());
   }
 }
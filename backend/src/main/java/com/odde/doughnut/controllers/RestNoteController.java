@@ -68,7 +68,7 @@ class RestNoteController {
       throw new BindException(bindingResult);
     }
     modelFactoryService.save(note);
-    return new NoteViewer(currentUser.getEntity(), note).toJsonObject();
+    return new NoteViewer(currentUser.getNotebookAccess(), note).toJsonObject();
   }
 
   @PostMapping(value = "/{parentNote}/create")
@@ -89,8 +89,8 @@ class RestNoteController {
                   noteCreation.getLinkTypeToParent(),
                   noteCreation.getTopicConstructor());
       return new NoteCreationRresult(
-          new NoteViewer(user, note).toJsonObject(),
-          new NoteViewer(user, parentNote).toJsonObject());
+          new NoteViewer(currentUser.getNotebookAccess(), note).toJsonObject(),
+          new NoteViewer(currentUser.getNotebookAccess(), parentNote).toJsonObject());
     } catch (DuplicateWikidataIdException e) {
       BindingResult bindingResult = new BeanPropertyBindingResult(noteCreation, "noteCreation");
       bindingResult.rejectValue("wikidataId", "duplicate", "Duplicate Wikidata ID Detected.");
@@ -104,11 +104,11 @@ class RestNoteController {
   }
 
   @GetMapping("/{note}")
+  @Transactional(readOnly = true)
   public NoteRealm show(@PathVariable("note") @Schema(type = "integer") Note note)
       throws UnexpectedNoAccessRightException {
     currentUser.assertReadAuthorization(note);
-    User user = currentUser.getEntity();
-    return new NoteViewer(user, note).toJsonObject();
+    return modelFactoryService.toNoteRealmProjection(currentUser.getEntity()).load(note);
   }
 
   @PatchMapping(
@@ -123,7 +123,8 @@ class RestNoteController {
 
     final User user = currentUser.getEntity();
     note.setUpdatedAt(testabilitySettings.getCurrentUTCTimestamp());
-    note.getOrInitializeNoteAccessory().setFromDTO(noteAccessoriesDTO, user);
+    note.getOrInitializeNoteAccessory()
+        .setFromDTO(noteAccessoriesDTO, user, modelFactoryService.blobStore);
     modelFactoryService.save(note);
     return note.getNoteAccessory();
   }
@@ -138,7 +139,8 @@ class RestNoteController {
       throws IOException {
     note.setUpdatedAt(testabilitySettings.getCurrentUTCTimestamp());
     final User user = currentUser.getEntity();
-    note.getOrInitializeNoteAccessory().setAudio(audioUploadDTO, user);
+    note.getOrInitializeNoteAccessory()
+        .setAudio(audioUploadDTO, user, modelFactoryService.blobStore);
     modelFactoryService.save(note.getNoteAccessory().getAudioAttachment());
     modelFactoryService.save(note);
 
@@ -158,7 +160,7 @@ class RestNoteController {
     currentUser.assertReadAuthorization(note);
     NoteInfo noteInfo = new NoteInfo();
     noteInfo.setReviewPoint(currentUser.getReviewPointFor(note));
-    noteInfo.setNote(new NoteViewer(currentUser.getEntity(), note).toJsonObject());
+    noteInfo.setNote(new NoteViewer(currentUser.getNotebookAccess(), note).toJsonObject());
     noteInfo.setCreatedAt(note.getCreatedAt());
     noteInfo.setReviewSetting(note.getReviewSetting());
     return noteInfo;
@@ -191,7 +193,7 @@ class RestNoteController {
     modelFactoryService.entityManager.flush();
     Note parentNote = note.getParent();
     if (parentNote != null) {
-      return List.of(new NoteViewer(currentUser.getEntity(), parentNote).toJsonObject());
+      return List.of(new NoteViewer(currentUser.getNotebookAccess(), parentNote).toJsonObject());
     }
     return List.of();
   }
@@ -204,7 +206,7 @@ class RestNoteController {
     modelFactoryService.toNoteModel(note).restore();
     modelFactoryService.entityManager.flush();
 
-    return new NoteViewer(currentUser.getEntity(), note).toJsonObject();
+    return new NoteViewer(currentUser.getNotebookAccess(), note).toJsonObject();
   }
 
   @PostMapping(value = "/{note}/review-setting")
@@ -247,7 +249,7 @@ class RestNoteController {
 
     return Stream.of(parentBefore, note.getParent())
         .distinct()
-        .map(parent -> new NoteViewer(currentUser.getEntity(), parent).toJsonObject())
+        .map(parent -> new NoteViewer(currentUser.getNotebookAccess(), parent).toJsonObject())
         .toList();
   }
 }
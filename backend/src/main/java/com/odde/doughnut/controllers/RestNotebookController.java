@@ -1,6 +1,7 @@
 package com.odde.doughnut.controllers;
 
 import com.odde.doughnut.controllers.dto.NoteCreationDTO;
+import com.odde.doughnut.controllers.dto.NoteTopic;
 import com.odde.doughnut.controllers.dto.NotebooksViewedByUser;
 import com.odde.doughnut.controllers.dto.RedirectToNoteResponse;
 import com.odde.doughnut.entities.Note;
@@ -12,18 +13,25 @@ import com.odde.doughnut.factoryServices.ModelFactoryService;
 import com.odde.doughnut.models.BazaarModel;
 import com.odde.doughnut.models.JsonViewer;
 import com.odde.doughnut.models.UserModel;
+import com.odde.doughnut.services.NotebookTransferService;
 import com.odde.doughnut.testability.TestabilitySettings;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.annotation.Resource;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/notebooks")
 class RestNotebookController {
+  static final String NDJSON = "application/x-ndjson";
+
   private final ModelFactoryService modelFactoryService;
+  private final NotebookTransferService notebookTransferService;
   private UserModel currentUser;
 
   @Resource(name = "testabilitySettings")
@@ -31,9 +39,11 @@ class RestNotebookController {
 
   public RestNotebookController(
       ModelFactoryService modelFactoryService,
+      NotebookTransferService notebookTransferService,
       UserModel currentUser,
       TestabilitySettings testabilitySettings) {
     this.modelFactoryService = modelFactoryService;
+    this.notebookTransferService = notebookTransferService;
     this.currentUser = currentUser;
     this.testabilitySettings = testabilitySettings;
   }
@@ -63,6 +73,16 @@ class RestNotebookController {
     return new RedirectToNoteResponse(note.getId());
   }
 
+  @PostMapping(value = "/import", consumes = NDJSON)
+  @Transactional
+  public RedirectToNoteResponse importNotebook(InputStream ndjson) throws IOException {
+    currentUser.assertLoggedIn();
+    Note note =
+        notebookTransferService.importNotebook(
+            currentUser.getEntity(), testabilitySettings.getCurrentUTCTimestamp(), ndjson);
+    return new RedirectToNoteResponse(note.getId());
+  }
+
   @PostMapping(value = "/{notebook}")
   @Transactional
   public Notebook update(
@@ -91,6 +111,24 @@ class RestNotebookController {
       @PathVariable("notebook") @Schema(type = "integer") Notebook notebook)
       throws UnexpectedNoAccessRightException {
     currentUser.assertAuthorization(notebook);
-    return notebook.getNoteBriefs();
+    return notebook.getNoteBriefs(modelFactoryService.notesWithAncestorsById(notebook));
+  }
+
+  @GetMapping("/{notebook}/trash")
+  public List<NoteTopic> trash(
+      @PathVariable("notebook") @Schema(type = "integer") Notebook notebook)
+      throws UnexpectedNoAccessRightException {
+    currentUser.assertAuthorization(notebook);
+    return modelFactoryService.noteRepository.findAllDeletedInNotebook(notebook.getId()).stream()
+        .map(Note::getNoteTopic)
+        .toList();
+  }
+
+  @GetMapping(value = "/{notebook}/export", produces = NDJSON)
+  public StreamingResponseBody exportNotebook(
+      @PathVariable("notebook") @Schema(type = "integer") Notebook notebook)
+      throws UnexpectedNoAccessRightException {
+    currentUser.assertAuthorization(notebook);
+    return out -> notebookTransferService.export(notebook, out);
   }
 }
@@ -1,5 +1,7 @@
 package com.odde.doughnut.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.NullNode;
 import com.odde.doughnut.controllers.dto.AnswerDTO;
 import com.odde.doughnut.controllers.dto.QuestionSuggestionCreationParams;
 import com.odde.doughnut.controllers.dto.QuizQuestionContestResult;
@@ -8,19 +10,29 @@ import com.odde.doughnut.entities.*;
 import com.odde.doughnut.exceptions.UnexpectedNoAccessRightException;
 import com.odde.doughnut.factoryServices.ModelFactoryService;
 import com.odde.doughnut.models.AnswerModel;
+import com.odde.doughnut.models.ReviewPointCache;
 import com.odde.doughnut.models.UserModel;
 import com.odde.doughnut.services.GlobalSettingsService;
 import com.odde.doughnut.services.QuizQuestionService;
 import com.odde.doughnut.services.ai.AiQuestionGenerator;
+import com.odde.doughnut.services.ai.AiQuestionGeneratorForNote;
+import com.odde.doughnut.services.ai.MCQWithAnswer;
+import com.odde.doughnut.services.openAiApis.AssistantSseBridge;
 import com.odde.doughnut.testability.TestabilitySettings;
 import com.theokanning.openai.client.OpenAiApi;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.annotation.Resource;
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/quiz-questions")
@@ -34,17 +46,26 @@ class RestQuizQuestionController {
   private final TestabilitySettings testabilitySettings;
 
   private final AiQuestionGenerator aiQuestionGenerator;
+  private final TransactionTemplate transactionTemplate;
+  private final AssistantSseBridge assistantSseBridge;
 
   public RestQuizQuestionController(
       @Qualifier("testableOpenAiApi") OpenAiApi openAiApi,
       ModelFactoryService modelFactoryService,
       UserModel currentUser,
-      TestabilitySettings testabilitySettings) {
+      TestabilitySettings testabilitySettings,
+      PlatformTransactionManager transactionManager,
+      AssistantSseBridge assistantSseBridge) {
     this.modelFactoryService = modelFactoryService;
+    this.assistantSseBridge = assistantSseBridge;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
     this.currentUser = currentUser;
     this.testabilitySettings = testabilitySettings;
     this.aiQuestionGenerator =
-        new AiQuestionGenerator(openAiApi, new GlobalSettingsService(modelFactoryService));
+        new AiQuestionGenerator(
+            openAiApi,
+            new GlobalSettingsService(modelFactoryService),
+            modelFactoryService.aiResponseCache);
     this.quizQuestionService = new QuizQuestionService(openAiApi, modelFactoryService);
   }
 
@@ -60,6 +81,39 @@ class RestQuizQuestionController {
     return quizQuestionAndAnswer.toQuizQuestionInNotebook();
   }
 
+  // sends the question as far as it has been generated in "partial" events, and the saved
+  // question in the "done" event
+  @PostMapping(path = "/generate-question-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter generateQuestionStream(
+      @RequestParam(value = "note") @Schema(type = "integer") Note note) {
+    currentUser.assertLoggedIn();
+    AiQuestionGeneratorForNote generator = aiQuestionGenerator.forQuestionGeneration(note);
+    Integer noteId = note.getId();
+    return streamInBackground(
+        "generate-question",
+        onPartialQuestion -> {
+          // the partials leave out the correct choice, which is only shown once answered
+          MCQWithAnswer mcqWithAnswer =
+              generator.getAiGeneratedQuestion(
+                  partial -> {
+                    JsonNode question = partial.get("multipleChoicesQuestion");
+                    if (question != null) onPartialQuestion.accept(question);
+                  });
+          if (mcqWithAnswer == null) {
+            return null;
+          }
+          return transactionTemplate.execute(
+              status -> {
+                Note theNote = modelFactoryService.entityManager.find(Note.class, noteId);
+                QuizQuestionAndAnswer question =
+                    QuizQuestionAndAnswer.fromMCQWithAnswer(mcqWithAnswer, theNote);
+                return quizQuestionService
+                    .addQuestion(theNote, question)
+                    .toQuizQuestionInNotebook();
+              });
+        });
+  }
+
   @PostMapping("/{quizQuestion}/regenerate")
   @Transactional
   public QuizQuestion regenerate(
@@ -86,6 +140,28 @@ class RestQuizQuestionController {
         quizQuestion.getQuizQuestionAndAnswer());
   }
 
+  // sends the evaluation as far as it has been generated in "partial" events, and the contest
+  // result in the "done" event
+  @PostMapping(
+      path = "/{quizQuestion}/contest-stream",
+      produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter contestStream(
+      @PathVariable("quizQuestion") @Schema(type = "integer") QuizQuestion quizQuestion) {
+    currentUser.assertLoggedIn();
+    QuizQuestionAndAnswer quizQuestionAndAnswer = quizQuestion.getQuizQuestionAndAnswer();
+    AiQuestionGeneratorForNote generator =
+        aiQuestionGenerator.forEvaluation(quizQuestionAndAnswer.getNote());
+    MCQWithAnswer mcqWithAnswer = quizQuestionAndAnswer.getMcqWithAnswer();
+    Integer correctAnswerIndex = quizQuestionAndAnswer.getCorrectAnswerIndex();
+    return streamInBackground(
+        "contest",
+        onPartialEvaluation ->
+            generator
+                .evaluateQuestion(mcqWithAnswer, onPartialEvaluation)
+                .map(e -> e.getQuizQuestionContestResult(correctAnswerIndex))
+                .orElse(null));
+  }
+
   @PostMapping("/{quizQuestion}/answer")
   @Transactional
   public AnsweredQuestion answerQuiz(
@@ -96,9 +172,10 @@ class RestQuizQuestionController {
     answer.setQuestion(quizQuestion.getQuizQuestionAndAnswer());
     answer.setFromDTO(answerDTO);
     AnswerModel answerModel = modelFactoryService.toAnswerModel(answer);
+    ReviewPointCache reviewPointCache = currentUser.getReviewPointCacheFor(currentUser.getEntity());
     answerModel.makeAnswerToQuestion(
-        testabilitySettings.getCurrentUTCTimestamp(), currentUser.getEntity());
-    return answerModel.getAnswerViewedByUser(currentUser.getEntity());
+        testabilitySettings.getCurrentUTCTimestamp(), reviewPointCache);
+    return answerModel.getAnswerViewedByUser(reviewPointCache);
   }
 
   @PostMapping("/{quizQuestion}/suggest-fine-tuning")
@@ -154,4 +231,14 @@ class RestQuizQuestionController {
     currentUser.assertAuthorization(quizQuestionAndAnswer.getNote());
     return quizQuestionService.toggleApproval(quizQuestionAndAnswer);
   }
+
+  private SseEmitter streamInBackground(
+      String name, Function<Consumer<JsonNode>, Object> generation) {
+    return assistantSseBridge.stream(
+        name,
+        send -> {
+          Object result = generation.apply(partial -> send.accept("partial", partial));
+          send.accept("done", result == null ? NullNode.getInstance() : result);
+        });
+  }
 }
@@ -2,6 +2,7 @@ package com.odde.doughnut.controllers;
 
 import com.odde.doughnut.controllers.dto.QuizQuestionInNotebook;
 import com.odde.doughnut.controllers.dto.SelfEvaluation;
+import com.odde.doughnut.entities.QuizQuestionAndAnswer;
 import com.odde.doughnut.entities.ReviewPoint;
 import com.odde.doughnut.exceptions.UnexpectedNoAccessRightException;
 import com.odde.doughnut.factoryServices.ModelFactoryService;
@@ -9,6 +10,7 @@ import com.odde.doughnut.factoryServices.quizFacotries.QuizQuestionGenerator;
 import com.odde.doughnut.models.Randomizer;
 import com.odde.doughnut.models.UserModel;
 import com.odde.doughnut.services.GlobalSettingsService;
+import com.odde.doughnut.services.QuizQuestionPrefetchService;
 import com.odde.doughnut.services.ai.AiQuestionGenerator;
 import com.odde.doughnut.testability.TestabilitySettings;
 import com.theokanning.openai.client.OpenAiApi;
@@ -30,17 +32,23 @@ class RestReviewPointController {
   private final TestabilitySettings testabilitySettings;
 
   private final AiQuestionGenerator questionGenerator;
+  private final QuizQuestionPrefetchService quizQuestionPrefetchService;
 
   public RestReviewPointController(
       @Qualifier("testableOpenAiApi") OpenAiApi openAiApi,
       ModelFactoryService modelFactoryService,
       UserModel currentUser,
-      TestabilitySettings testabilitySettings) {
+      TestabilitySettings testabilitySettings,
+      QuizQuestionPrefetchService quizQuestionPrefetchService) {
     this.modelFactoryService = modelFactoryService;
     this.currentUser = currentUser;
     this.testabilitySettings = testabilitySettings;
+    this.quizQuestionPrefetchService = quizQuestionPrefetchService;
     questionGenerator =
-        new AiQuestionGenerator(openAiApi, new GlobalSettingsService(modelFactoryService));
+        new AiQuestionGenerator(
+            openAiApi,
+            new GlobalSettingsService(modelFactoryService),
+            modelFactoryService.aiResponseCache);
   }
 
   @GetMapping("/{reviewPoint}")
@@ -57,13 +65,24 @@ class RestReviewPointController {
   public QuizQuestionInNotebook generateRandomQuestion(
       @PathVariable("reviewPoint") @Schema(type = "integer") ReviewPoint reviewPoint) {
     currentUser.assertLoggedIn();
-    Randomizer randomizer = testabilitySettings.getRandomizer();
-    QuizQuestionGenerator quizQuestionGenerator =
-        new QuizQuestionGenerator(
-            reviewPoint.getUser(), reviewPoint.getNote(), randomizer, modelFactoryService);
-    return quizQuestionGenerator
-        .generateAQuestionOfRandomType(questionGenerator)
-        .toQuizQuestionInNotebook();
+    QuizQuestionAndAnswer question =
+        quizQuestionPrefetchService
+            .take(reviewPoint)
+            .orElseGet(
+                () -> {
+                  Randomizer randomizer = testabilitySettings.getRandomizer();
+                  QuizQuestionGenerator quizQuestionGenerator =
+                      new QuizQuestionGenerator(
+                          reviewPoint.getUser(),
+                          reviewPoint.getNote(),
+                          randomizer,
+                          modelFactoryService,
+                          currentUser.getReviewPointCacheFor(reviewPoint.getUser()));
+                  return quizQuestionGenerator.generateAQuestionOfRandomType(questionGenerator);
+                });
+    quizQuestionPrefetchService.lookAhead(
+        reviewPoint.getUser(), reviewPoint, testabilitySettings.getCurrentUTCTimestamp());
+    return question.toQuizQuestionInNotebook();
   }
 
   @PostMapping(path = "/{reviewPoint}/remove")
@@ -9,6 +9,7 @@ import com.odde.doughnut.factoryServices.ModelFactoryService;
 import com.odde.doughnut.models.ReviewPointModel;
 import com.odde.doughnut.models.Reviewing;
 import com.odde.doughnut.models.UserModel;
+import com.odde.doughnut.services.ReviewQueueService;
 import com.odde.doughnut.testability.TestabilitySettings;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.annotation.Resource;
@@ -30,6 +31,7 @@ import org.springframework.web.context.annotation.SessionScope;
 class RestReviewsController {
   private final ModelFactoryService modelFactoryService;
   private final UserModel currentUser;
+  private final ReviewQueueService reviewQueueService;
 
   @Resource(name = "testabilitySettings")
   private final TestabilitySettings testabilitySettings;
@@ -37,9 +39,11 @@ class RestReviewsController {
   public RestReviewsController(
       ModelFactoryService modelFactoryService,
       UserModel currentUser,
+      ReviewQueueService reviewQueueService,
       TestabilitySettings testabilitySettings) {
     this.modelFactoryService = modelFactoryService;
     this.currentUser = currentUser;
+    this.reviewQueueService = reviewQueueService;
     this.testabilitySettings = testabilitySettings;
   }
 
@@ -48,9 +52,8 @@ class RestReviewsController {
   public ReviewStatus overview(@RequestParam(value = "timezone") String timezone) {
     currentUser.assertLoggedIn();
     ZoneId timeZone = ZoneId.of(timezone);
-    return currentUser
-        .createReviewing(testabilitySettings.getCurrentUTCTimestamp(), timeZone)
-        .getReviewStatus();
+    return reviewQueueService.getReviewStatus(
+        currentUser, testabilitySettings.getCurrentUTCTimestamp(), timeZone);
   }
 
   @GetMapping("/initial")
@@ -97,6 +100,8 @@ class RestReviewsController {
       @PathVariable("answer") @Schema(type = "integer") Answer answer)
       throws UnexpectedNoAccessRightException {
     currentUser.assertReadAuthorization(answer);
-    return modelFactoryService.toAnswerModel(answer).getAnswerViewedByUser(currentUser.getEntity());
+    return modelFactoryService
+        .toAnswerModel(answer)
+        .getAnswerViewedByUser(currentUser.getReviewPointCacheFor(currentUser.getEntity()));
   }
 }
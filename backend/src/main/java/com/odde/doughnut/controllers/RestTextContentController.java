@@ -61,6 +61,6 @@ class RestTextContentController {
     note.setUpdatedAt(currentUTCTimestamp);
     updateFunction.accept(note);
     modelFactoryService.save(note);
-    return new NoteViewer(currentUser.getEntity(), note).toJsonObject();
+    return new NoteViewer(currentUser.getNotebookAccess(), note).toJsonObject();
   }
 }
@@ -2,28 +2,34 @@ package com.odde.doughnut.controllers.dto;
 
 import com.odde.doughnut.entities.AttachmentBlob;
 import com.odde.doughnut.entities.Audio;
+import com.odde.doughnut.services.blobs.BlobStore;
 import com.odde.doughnut.validators.ValidateMultipartFile;
 import java.io.IOException;
+import java.io.InputStream;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.web.multipart.MultipartFile;
 
 public class AudioUploadDTO {
+  // only WAV can be cut into segments for the transcription; MP3 and M4A are sent to the API in
+  // one request, so they have to stay within its upload limit
   @ValidateMultipartFile(
-      maxSize = 20 * 1024 * 1024,
+      maxSize = 100 * 1024 * 1024,
+      maxSizeOfOtherTypes = 20 * 1024 * 1024,
+      largeTypes = {"audio/wav"},
       allowedTypes = {"audio/mpeg", "audio/wav", "audio/mp4"})
   @Getter
   @Setter
   private MultipartFile uploadAudioFile;
 
-  public Audio fetchUploadedAudio() throws IOException {
+  public Audio fetchUploadedAudio(BlobStore blobStore) throws IOException {
     Audio audio = new Audio();
     audio.setName(getUploadAudioFile().getOriginalFilename());
     audio.setContentType(getUploadAudioFile().getContentType());
 
-    AttachmentBlob audioBlob = new AttachmentBlob();
-    audioBlob.setData(getUploadAudioFile().getBytes());
-    audio.setBlob(audioBlob);
+    try (InputStream content = getUploadAudioFile().getInputStream()) {
+      audio.setBlob(AttachmentBlob.store(blobStore, content));
+    }
     return audio;
   }
 }
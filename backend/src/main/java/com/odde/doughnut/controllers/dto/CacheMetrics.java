@@ -0,0 +1,14 @@
+package com.odde.doughnut.controllers.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@JsonPropertyOrder({"name", "hits", "misses"})
+public class CacheMetrics {
+  String name;
+  long hits;
+  long misses;
+}
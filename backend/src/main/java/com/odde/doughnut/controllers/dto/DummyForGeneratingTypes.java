@@ -4,4 +4,5 @@ import com.theokanning.openai.assistants.message.content.MessageDelta;
 
 public class DummyForGeneratingTypes {
   public MessageDelta messageDelta;
+  public TranscriptionProgress transcriptionProgress;
 }
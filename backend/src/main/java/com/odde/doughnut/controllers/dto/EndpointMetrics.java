@@ -0,0 +1,31 @@
+package com.odde.doughnut.controllers.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@JsonPropertyOrder({
+  "name",
+  "count",
+  "totalMillis",
+  "maxMillis",
+  "latencyHistogram",
+  "statements",
+  "maxStatements",
+  "entitiesLoaded",
+  "maxEntitiesLoaded"
+})
+public class EndpointMetrics {
+  String name;
+  long count;
+  long totalMillis;
+  long maxMillis;
+  List<Long> latencyHistogram;
+  long statements;
+  long maxStatements;
+  long entitiesLoaded;
+  long maxEntitiesLoaded;
+}
@@ -0,0 +1,27 @@
+package com.odde.doughnut.controllers.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@JsonPropertyOrder({
+  "latencyBucketsMillis",
+  "endpoints",
+  "openAiCalls",
+  "aiResponseCache",
+  "streams"
+})
+public class MetricsReport {
+  // upper bounds of the latency histogram buckets; each histogram has one more bucket for the
+  // requests slower than the last bound
+  List<Long> latencyBucketsMillis;
+  List<EndpointMetrics> endpoints;
+  List<EndpointMetrics> openAiCalls;
+  // hits and misses of the cached AI responses, per model
+  List<CacheMetrics> aiResponseCache;
+  // how the server-sent event streams ended, per stream
+  List<StreamMetrics> streams;
+}
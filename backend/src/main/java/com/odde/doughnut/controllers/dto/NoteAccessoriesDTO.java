@@ -3,6 +3,7 @@ package com.odde.doughnut.controllers.dto;
 import com.odde.doughnut.entities.Image;
 import com.odde.doughnut.entities.User;
 import com.odde.doughnut.models.ImageBuilder;
+import com.odde.doughnut.services.blobs.BlobStore;
 import com.odde.doughnut.validators.ValidateNoteImage;
 import jakarta.validation.constraints.Pattern;
 import java.io.IOException;
@@ -27,10 +28,10 @@ public class NoteAccessoriesDTO {
 
   @Getter @Setter private MultipartFile uploadImage;
 
-  public Image fetchUploadedImage(User user) throws IOException {
+  public Image fetchUploadedImage(User user, BlobStore blobStore) throws IOException {
     MultipartFile file = getUploadImage();
     if (file != null && !file.isEmpty()) {
-      return new ImageBuilder().buildImageFromUploadedImage(user, file);
+      return new ImageBuilder().buildImageFromUploadedImage(user, file, blobStore);
     }
     return null;
   }
@@ -0,0 +1,38 @@
+package com.odde.doughnut.controllers.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.sql.Timestamp;
+import lombok.Data;
+
+// One line of a notebook export. The notes are written parent first, in the order of the note
+// tree, and a note refers to its parent by the position of the parent's line (counting from 0).
+// The id is the id of the note where it was exported from, and only used to resolve the targets
+// of the links in the same export.
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NoteExportLine {
+  private Integer id;
+  private Integer parentPosition;
+  private String topicConstructor;
+  private String details;
+  private Timestamp createdAt;
+  private String wikidataId;
+  private Long siblingOrder;
+  private Integer targetId;
+  private Boolean rememberSpelling;
+  private Boolean skipReview;
+  private Integer level;
+  private String url;
+  private String imageUrl;
+  private String imageMask;
+  private Boolean useParentImage;
+
+  @JsonIgnore
+  public boolean hasAccessory() {
+    return url != null
+        || imageUrl != null
+        || imageMask != null
+        || Boolean.TRUE.equals(useParentImage);
+  }
+}
@@ -16,6 +16,8 @@ public class NoteRealm {
 
   @Getter @Setter private Boolean fromBazaar;
 
+  @Getter @Setter private List<Note> children;
+
   public NoteRealm(Note note) {
     this.note = note;
   }
@@ -25,10 +27,6 @@ public class NoteRealm {
     return note.getId();
   }
 
-  public List<Note> getChildren() {
-    return note.getChildren();
-  }
-
   public Circle getCircle() {
     return note.getNotebook().getOwnership().getCircle();
   }
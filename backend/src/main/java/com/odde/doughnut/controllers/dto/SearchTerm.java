@@ -1,17 +1,32 @@
 package com.odde.doughnut.controllers.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
 
 public class SearchTerm {
+  public static final int DEFAULT_PAGE_SIZE = 50;
+
   @NotNull @Getter @Setter private String searchKey = "";
 
   @Getter @Setter private Boolean allMyNotebooksAndSubscriptions = false;
 
   @Getter @Setter private Boolean allMyCircles = false;
 
+  @Min(0)
+  @Getter
+  @Setter
+  private Integer pageIndex = 0;
+
+  @Min(1)
+  @Max(100)
+  @Getter
+  @Setter
+  private Integer pageSize = DEFAULT_PAGE_SIZE;
+
   @JsonIgnore
   public String getTrimmedSearchKey() {
     return searchKey.trim();
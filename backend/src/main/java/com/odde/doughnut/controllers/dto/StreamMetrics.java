@@ -0,0 +1,34 @@
+package com.odde.doughnut.controllers.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@JsonPropertyOrder({
+  "name",
+  "count",
+  "completed",
+  "clientGone",
+  "timedOut",
+  "failed",
+  "eventsReceived",
+  "eventsSent",
+  "keepAlives",
+  "totalMillis",
+  "maxMillis"
+})
+public class StreamMetrics {
+  String name;
+  long count;
+  long completed;
+  long clientGone;
+  long timedOut;
+  long failed;
+  long eventsReceived;
+  long eventsSent;
+  long keepAlives;
+  long totalMillis;
+  long maxMillis;
+}
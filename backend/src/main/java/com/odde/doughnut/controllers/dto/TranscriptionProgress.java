@@ -0,0 +1,11 @@
+package com.odde.doughnut.controllers.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TranscriptionProgress {
+  int transcribedSegments;
+  int totalSegments;
+}
@@ -0,0 +1,41 @@
+package com.odde.doughnut.entities;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import java.sql.Timestamp;
+import lombok.Getter;
+import lombok.Setter;
+
+@Entity
+@Table(name = "ai_response_cache")
+public class AiResponseCacheEntry extends EntityIdentifiedByIdOnly {
+  @NotNull
+  @Column(name = "cache_key")
+  @Getter
+  @Setter
+  private String cacheKey;
+
+  @NotNull
+  @Column(name = "model")
+  @Getter
+  @Setter
+  private String model;
+
+  @NotNull
+  @Column(name = "response")
+  @Getter
+  @Setter
+  private String response;
+
+  @NotNull
+  @Column(name = "created_at")
+  @Getter
+  @Setter
+  private Timestamp createdAt = new Timestamp(System.currentTimeMillis());
+
+  @NotNull
+  @Column(name = "last_used_at")
+  @Getter
+  @Setter
+  private Timestamp lastUsedAt = new Timestamp(System.currentTimeMillis());
+}
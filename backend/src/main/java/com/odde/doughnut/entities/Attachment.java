@@ -1,11 +1,13 @@
 package com.odde.doughnut.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.odde.doughnut.services.blobs.BlobStore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 
@@ -37,10 +39,11 @@ public abstract class Attachment extends EntityIdentifiedByIdOnly {
   private User user;
 
   @JsonIgnore
-  public ResponseEntity<byte[]> getResponseEntity(String disposition) {
+  public ResponseEntity<Resource> getResponseEntity(String disposition, BlobStore blobStore) {
     return ResponseEntity.ok()
         .header(HttpHeaders.CONTENT_DISPOSITION, disposition + "; filename=\"" + getName() + "\"")
         .header(HttpHeaders.CONTENT_TYPE, getContentType())
-        .body(getBlob().getData());
+        .eTag(getBlob().getETag())
+        .body(getBlob().getContent(blobStore));
   }
 }
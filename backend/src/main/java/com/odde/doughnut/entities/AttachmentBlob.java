@@ -1,14 +1,23 @@
 package com.odde.doughnut.entities;
 
+import com.odde.doughnut.services.blobs.BlobStore;
+import com.odde.doughnut.services.blobs.StoredBlob;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Lob;
 import jakarta.persistence.Table;
+import java.io.IOException;
+import java.io.InputStream;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 
+// The content lives in the blob store and is referenced by its content key. Blobs uploaded
+// before the blob store existed still have their bytes in the data column.
 @Entity
 @Table(name = "attachment_blob")
 public class AttachmentBlob {
@@ -18,4 +27,33 @@ public class AttachmentBlob {
   private Integer id;
 
   @Lob @Getter @Setter private byte[] data;
+
+  @Column(name = "content_key")
+  @Getter
+  @Setter
+  private String contentKey;
+
+  @Column(name = "size")
+  @Getter
+  @Setter
+  private Long size;
+
+  public static AttachmentBlob store(BlobStore blobStore, InputStream content) throws IOException {
+    StoredBlob stored = blobStore.save(content);
+    AttachmentBlob blob = new AttachmentBlob();
+    blob.setContentKey(stored.contentKey());
+    blob.setSize(stored.size());
+    return blob;
+  }
+
+  public Resource getContent(BlobStore blobStore) {
+    if (contentKey == null) {
+      return new ByteArrayResource(data);
+    }
+    return blobStore.load(contentKey);
+  }
+
+  public String getETag() {
+    return contentKey != null ? contentKey : "blob-" + id;
+  }
 }
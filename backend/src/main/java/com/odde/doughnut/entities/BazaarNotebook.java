@@ -1,7 +1,9 @@
 package com.odde.doughnut.entities;
 
+import com.odde.doughnut.services.NotebookAccessInvalidator;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -11,6 +13,7 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "bazaar_notebook")
+@EntityListeners(NotebookAccessInvalidator.class)
 public class BazaarNotebook extends EntityIdentifiedByIdOnly {
   @ManyToOne(cascade = CascadeType.DETACH)
   @JoinColumn(name = "notebook_id", referencedColumnName = "id")
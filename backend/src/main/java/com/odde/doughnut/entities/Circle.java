@@ -1,9 +1,11 @@
 package com.odde.doughnut.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.odde.doughnut.services.NotebookAccessInvalidator;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
@@ -20,6 +22,7 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "circle")
+@EntityListeners(NotebookAccessInvalidator.class)
 public class Circle extends EntityIdentifiedByIdOnly {
   @NotNull
   @Size(min = 1, max = 255)
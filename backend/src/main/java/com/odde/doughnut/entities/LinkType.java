@@ -4,6 +4,9 @@ import static com.odde.doughnut.services.LinkQuestionType.*;
 
 import com.fasterxml.jackson.annotation.JsonValue;
 import com.odde.doughnut.services.LinkQuestionType;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
 import lombok.Getter;
 
 public enum LinkType {
@@ -156,12 +159,19 @@ public enum LinkType {
     this.questionTypes = questionTypes;
   }
 
+  private static final Map<String, LinkType> byLabel =
+      Arrays.stream(values())
+          .collect(Collectors.toUnmodifiableMap(t -> t.label.toLowerCase(), t -> t));
+  private static final Map<Integer, LinkType> byId =
+      Arrays.stream(values()).collect(Collectors.toUnmodifiableMap(t -> t.id, t -> t));
+
   public static LinkType fromLabel(String text) {
-    for (LinkType b : LinkType.values()) {
-      if (b.label.equalsIgnoreCase(text)) {
-        return b;
-      }
-    }
-    return null;
+    if (text == null) return null;
+    return byLabel.get(text.toLowerCase());
+  }
+
+  public static LinkType fromId(Integer id) {
+    if (id == null) return null;
+    return byId.get(id);
   }
 }
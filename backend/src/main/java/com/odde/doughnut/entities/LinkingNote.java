@@ -1,8 +1,12 @@
 package com.odde.doughnut.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.odde.doughnut.entities.converters.LinkTypeConverter;
 import com.odde.doughnut.factoryServices.quizFacotries.QuizQuestionFactory;
 import com.odde.doughnut.factoryServices.quizFacotries.QuizQuestionServant;
+import com.odde.doughnut.models.NotebookAccess;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.PrimaryKeyJoinColumn;
 import jakarta.persistence.Table;
@@ -15,6 +19,13 @@ import java.util.stream.Stream;
 @Table(name = "linking_note")
 @PrimaryKeyJoinColumn(name = "note_id")
 public class LinkingNote extends Note {
+  // denormalized from the ":label" topic constructor so that the link graph can be queried by
+  // type without parsing the topic of every link
+  @Column(name = "link_type")
+  @Convert(converter = LinkTypeConverter.class)
+  @JsonIgnore
+  private LinkType linkType;
+
   private LinkingNote() {}
 
   public static LinkingNote createLink(
@@ -24,16 +35,29 @@ public class LinkingNote extends Note {
     return note;
   }
 
+  @Override
+  public void setTopicConstructor(String topicConstructor) {
+    super.setTopicConstructor(topicConstructor);
+    this.linkType = super.getLinkType();
+  }
+
+  @Override
+  @JsonIgnore
+  public LinkType getLinkType() {
+    if (linkType == null) return super.getLinkType();
+    return linkType;
+  }
+
   @JsonIgnore
-  public Stream<LinkingNote> getSiblingLinksOfSameLinkType(User user) {
-    return targetNoteViewer(user)
+  public Stream<LinkingNote> getSiblingLinksOfSameLinkType(NotebookAccess viewer) {
+    return targetNoteViewer(viewer)
         .linksOfTypeThroughReverse(getLinkType())
         .filter(l -> !l.equals(this));
   }
 
   @JsonIgnore
-  public List<Note> getLinkedSiblingsOfSameLinkType(User user) {
-    return getSiblingLinksOfSameLinkType(user).map(Note::getParent).toList();
+  public List<Note> getLinkedSiblingsOfSameLinkType(NotebookAccess viewer) {
+    return getSiblingLinksOfSameLinkType(viewer).map(Note::getParent).toList();
   }
 
   @Override
@@ -9,12 +9,15 @@ import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.odde.doughnut.algorithms.ClozedString;
 import com.odde.doughnut.algorithms.HtmlOrMarkdown;
 import com.odde.doughnut.algorithms.NoteTitle;
+import com.odde.doughnut.algorithms.SearchTokenizer;
 import com.odde.doughnut.algorithms.SiblingOrder;
 import com.odde.doughnut.controllers.dto.NoteTopic;
 import com.odde.doughnut.factoryServices.quizFacotries.QuizQuestionFactory;
 import com.odde.doughnut.factoryServices.quizFacotries.QuizQuestionServant;
 import com.odde.doughnut.models.NoteViewer;
+import com.odde.doughnut.models.NotebookAccess;
 import com.odde.doughnut.models.TimestampOperations;
+import com.odde.doughnut.services.ReviewQueueInvalidator;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -25,14 +28,17 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.SQLRestriction;
 
 @Entity
 @Inheritance(strategy = InheritanceType.JOINED)
 @Table(name = "note")
+@EntityListeners(ReviewQueueInvalidator.class)
 @JsonPropertyOrder({"topic", "noteTopic", "details", "parentId", "linkType", "updatedAt"})
 public abstract class Note extends EntityIdentifiedByIdOnly {
   public static final int MAX_TITLE_LENGTH = 150;
   private static final String PATH_DELIMITER = " › ";
+  private static final String ANCESTOR_PATH_SEPARATOR = "/";
 
   @OneToOne
   @JoinColumn(name = "creator_id")
@@ -54,13 +60,11 @@ public abstract class Note extends EntityIdentifiedByIdOnly {
 
   @Column(name = "description")
   @Getter
-  @Setter
   @JsonPropertyDescription("The details of the note is in markdown format.")
   private String details;
 
   @Size(min = 1, max = Note.MAX_TITLE_LENGTH)
   @Getter
-  @Setter
   @Column(name = "topic_constructor")
   @NotNull
   @JsonIgnore
@@ -78,18 +82,29 @@ public abstract class Note extends EntityIdentifiedByIdOnly {
   @JsonProperty(access = JsonProperty.Access.READ_ONLY)
   private Timestamp deletedAt;
 
+  // The deleted notes are left out of the note collections when they are loaded; they are
+  // found through the trash queries of NoteRepository. The links and refers are mapped as notes
+  // so that the restriction applies to the note table rather than the linking_note table; only
+  // linking notes have a target.
   @OneToMany(mappedBy = "targetNote")
-  private List<LinkingNote> refers = new ArrayList<>();
+  @SQLRestriction("deleted_at is null")
+  private List<Note> refers = new ArrayList<>();
 
   @OneToMany(mappedBy = "parent", cascade = CascadeType.DETACH)
+  @SQLRestriction("deleted_at is null and target_note_id is not null")
   @OrderBy("siblingOrder")
-  private final List<LinkingNote> links = new ArrayList<>();
+  private final List<Note> links = new ArrayList<>();
 
   @OneToMany(mappedBy = "parent", cascade = CascadeType.DETACH)
+  @SQLRestriction("deleted_at is null")
   @JsonIgnore
   @OrderBy("siblingOrder")
   private final List<Note> children = new ArrayList<>();
 
+  @Transient private final ReadOnlyView<Note> refersView = new ReadOnlyView<>();
+  @Transient private final ReadOnlyView<Note> linksView = new ReadOnlyView<>();
+  @Transient private final ReadOnlyView<Note> childrenView = new ReadOnlyView<>();
+
   @OneToMany(mappedBy = "note")
   @JsonIgnore
   private Set<ReviewPoint> reviewPoints;
@@ -123,6 +138,14 @@ public abstract class Note extends EntityIdentifiedByIdOnly {
   @Getter
   private Note parent;
 
+  // materialized path of the ancestor ids, e.g. "/1/5/12/", so that a whole subtree or
+  // ancestor chain can be fetched with one query. It's kept in sync on persist and by
+  // NoteMotionModel when a note is moved.
+  @Column(name = "ancestor_path")
+  @JsonIgnore
+  @Getter
+  private String ancestorPath = ANCESTOR_PATH_SEPARATOR;
+
   @OneToMany(mappedBy = "note")
   @Getter
   @JsonIgnore
@@ -130,29 +153,73 @@ public abstract class Note extends EntityIdentifiedByIdOnly {
 
   @Embedded @JsonIgnore @Getter private ReviewSetting reviewSetting = new ReviewSetting();
 
+  // inverted index of the topic and details for the note search
+  @ElementCollection
+  @CollectionTable(name = "note_search_token", joinColumns = @JoinColumn(name = "note_id"))
+  @JsonIgnore
+  private Set<NoteSearchToken> searchTokens = new HashSet<>();
+
+  public void setTopicConstructor(String topicConstructor) {
+    this.topicConstructor = topicConstructor;
+    refreshSearchTokens();
+  }
+
+  public void setDetails(String details) {
+    this.details = details;
+    refreshSearchTokens();
+  }
+
+  private void refreshSearchTokens() {
+    Set<NoteSearchToken> tokens = new HashSet<>();
+    new SearchTokenizer(details).tokens().forEach(t -> tokens.add(new NoteSearchToken(t, false)));
+    new SearchTokenizer(topicConstructor)
+        .tokens()
+        .forEach(t -> tokens.add(new NoteSearchToken(t, true)));
+    searchTokens.retainAll(tokens);
+    searchTokens.addAll(tokens);
+  }
+
   @JsonIgnore
   public List<Note> getChildren() {
-    return filterDeletedUnmodifiableNoteList(children);
+    return childrenView.of(children);
   }
 
   @JsonIgnore
+  @SuppressWarnings("unchecked")
   public List<LinkingNote> getLinks() {
-    return filterDeletedUnmodifiableNoteList(links);
+    return (List<LinkingNote>) (List<?>) linksView.of(links);
   }
 
   @JsonIgnore
+  @SuppressWarnings("unchecked")
   public List<LinkingNote> getRefers() {
-    return filterDeletedUnmodifiableNoteList(refers);
+    return (List<LinkingNote>) (List<?>) refersView.of(refers);
+  }
+
+  // The collections holding the note were filtered when they were loaded, so the ones already
+  // loaded in this session are kept in line with the change here.
+  public void softDelete(Timestamp currentUTCTimestamp) {
+    setDeletedAt(currentUTCTimestamp);
+    keepInLoadedCollections(false);
   }
 
-  public static <T extends Note> List<T> filterDeletedUnmodifiableNoteList(List<T> notes) {
-    return notes.stream().filter(n -> n.getDeletedAt() == null).toList();
+  public void restoreSoftDeleted() {
+    setDeletedAt(null);
+    keepInLoadedCollections(true);
+  }
+
+  private void keepInLoadedCollections(boolean present) {
+    if (parent != null) {
+      parent.childrenView.keepLoaded(parent.children, this, present);
+      if (targetNote != null) parent.linksView.keepLoaded(parent.links, this, present);
+    }
+    if (targetNote != null) targetNote.refersView.keepLoaded(targetNote.refers, this, present);
+    if (notebook != null) notebook.keepInLoadedNotes(this, present);
   }
 
   @JsonIgnore
-  public boolean targetVisibleAsSourceOrTo(User viewer) {
+  public boolean targetVisibleAsSourceOrTo(NotebookAccess viewer) {
     if (getParent().getNotebook() == getTargetNote().getNotebook()) return true;
-    if (viewer == null) return false;
     return viewer.canReferTo(getTargetNote().getNotebook());
   }
 
@@ -194,11 +261,20 @@ public abstract class Note extends EntityIdentifiedByIdOnly {
 
   @JsonIgnore
   public List<Note> getAncestors() {
+    return getAncestors(Map.of());
+  }
+
+  // The ancestors are taken from knownNotes by the ids in the ancestor path, e.g. when the
+  // caller has loaded them with NoteRepository.findAllByIds. If any of them is not known, or the
+  // note is not saved yet, they are read from the parents instead.
+  public List<Note> getAncestors(Map<Integer, Note> knownNotes) {
+    List<Integer> ancestorIds = getAncestorIds();
+    if (!ancestorIds.isEmpty() && knownNotes.keySet().containsAll(ancestorIds)) {
+      return ancestorIds.stream().map(knownNotes::get).toList();
+    }
     List<Note> result = new ArrayList<>();
-    Note p = getParent();
-    while (p != null) {
-      result.add(0, p);
-      p = p.getParent();
+    for (Note p = getParent(); p != null; p = p.getParent()) {
+      result.addFirst(p);
     }
     return result;
   }
@@ -219,25 +295,62 @@ public abstract class Note extends EntityIdentifiedByIdOnly {
     this.notebook = notebook;
   }
 
-  public void updateSiblingOrder(Note relativeToNote, boolean asFirstChildOfNote) {
-    if (!asFirstChildOfNote) {
-      this.siblingOrder =
-          relativeToNote
-              .nextSibling()
-              .map(x -> (relativeToNote.siblingOrder + x.getSiblingOrder()) / 2)
-              .orElse(relativeToNote.siblingOrder + SiblingOrder.MINIMUM_SIBLING_ORDER_INCREMENT);
+  // the path is made of the ids, so the parent has to be saved before its children
+  @PrePersist
+  public void refreshAncestorPath() {
+    if (parent == null) {
+      ancestorPath = ANCESTOR_PATH_SEPARATOR;
       return;
     }
-    relativeToNote.getChildren().stream()
-        .findFirst()
-        .ifPresent(
-            firstChild ->
-                this.siblingOrder =
-                    firstChild.getSiblingOrder() - SiblingOrder.MINIMUM_SIBLING_ORDER_INCREMENT);
+    if (parent.getId() == null) {
+      throw new IllegalStateException("the parent of a note must be saved before the note");
+    }
+    ancestorPath = parent.getDescendantPathPrefix();
+  }
+
+  @JsonIgnore
+  public String getDescendantPathPrefix() {
+    return ancestorPath + getId() + ANCESTOR_PATH_SEPARATOR;
   }
 
-  private Optional<Note> nextSibling() {
-    return getSiblings().stream().filter(nc -> nc.getSiblingOrder() > siblingOrder).findFirst();
+  @JsonIgnore
+  public List<Integer> getAncestorIds() {
+    return idsInPath(ancestorPath);
+  }
+
+  public static List<Integer> idsInPath(String path) {
+    return Arrays.stream(path.split(ANCESTOR_PATH_SEPARATOR))
+        .filter(s -> !s.isEmpty())
+        .map(Integer::valueOf)
+        .toList();
+  }
+
+  @JsonIgnore
+  public Integer getParentIdFromAncestorPath() {
+    List<Integer> ancestorIds = getAncestorIds();
+    if (ancestorIds.isEmpty()) return null;
+    return ancestorIds.getLast();
+  }
+
+  // returns the siblings whose order changed to make room for the note
+  public List<Note> updateSiblingOrder(Note relativeToNote, boolean asFirstChildOfNote) {
+    Note newParent = asFirstChildOfNote ? relativeToNote : relativeToNote.getParent();
+    List<Note> siblings =
+        newParent.getChildren().stream()
+            .filter(n -> n != this)
+            .sorted(Comparator.comparing(Note::getSiblingOrder))
+            .toList();
+    if (siblings.isEmpty()) return List.of();
+    int index = asFirstChildOfNote ? 0 : siblings.indexOf(relativeToNote) + 1;
+    SiblingOrder.Placement placement =
+        SiblingOrder.placeAt(siblings.stream().mapToLong(Note::getSiblingOrder).toArray(), index);
+    this.siblingOrder = placement.order();
+    long[] renumbered = placement.renumbered();
+    List<Note> moved = siblings.subList(placement.from(), placement.from() + renumbered.length);
+    for (int i = 0; i < renumbered.length; i++) {
+      moved.get(i).siblingOrder = renumbered[i];
+    }
+    return moved;
   }
 
   public Integer getParentId() {
@@ -261,7 +374,11 @@ public abstract class Note extends EntityIdentifiedByIdOnly {
 
   @JsonIgnore
   public String getContextPathString() {
-    return getAncestors().stream()
+    return getContextPathString(Map.of());
+  }
+
+  private String getContextPathString(Map<Integer, Note> knownNotes) {
+    return getAncestors(knownNotes).stream()
         .map(Note::getTopicConstructor)
         .collect(Collectors.joining(PATH_DELIMITER));
   }
@@ -343,16 +460,23 @@ The note of current focus (in JSON format):
 
   @JsonIgnore
   public NoteBrief getNoteBrief() {
+    return getNoteBrief(Map.of());
+  }
+
+  // knownNotes holds the notes that are loaded already, e.g. all the notes of the notebook
+  public NoteBrief getNoteBrief(Map<Integer, Note> knownNotes) {
     NoteBrief noteBrief = new NoteBrief();
     noteBrief.uri = "https://doughnut.odde.com/n" + getId();
-    noteBrief.contextPath = getContextPathString();
+    noteBrief.contextPath = getContextPathString(knownNotes);
     noteBrief.topic = getTopicConstructor();
     noteBrief.details = getDetails();
     noteBrief.createdAt =
         TimestampOperations.getZonedDateTime(getCreatedAt(), ZoneId.systemDefault()).toString();
     if (targetNote != null) {
       noteBrief.target =
-          targetNote.getContextPathString() + PATH_DELIMITER + targetNote.getTopicConstructor();
+          targetNote.getContextPathString(knownNotes)
+              + PATH_DELIMITER
+              + targetNote.getTopicConstructor();
     }
     return noteBrief;
   }
@@ -375,7 +499,7 @@ The note of current focus (in JSON format):
     setNotebook(notebook);
   }
 
-  public NoteViewer targetNoteViewer(User user) {
-    return new NoteViewer(user, getTargetNote());
+  public NoteViewer targetNoteViewer(NotebookAccess viewer) {
+    return new NoteViewer(viewer, getTargetNote());
   }
 }
@@ -3,6 +3,7 @@ package com.odde.doughnut.entities;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.odde.doughnut.controllers.dto.AudioUploadDTO;
 import com.odde.doughnut.controllers.dto.NoteAccessoriesDTO;
+import com.odde.doughnut.services.blobs.BlobStore;
 import jakarta.persistence.*;
 import java.io.IOException;
 import lombok.Getter;
@@ -52,16 +53,18 @@ public class NoteAccessory extends EntityIdentifiedByIdOnly {
   private Audio audioAttachment;
 
   @JsonIgnore
-  public void setAudio(AudioUploadDTO audioUploadDTO, User user) throws IOException {
-    Audio audio = audioUploadDTO.fetchUploadedAudio();
+  public void setAudio(AudioUploadDTO audioUploadDTO, User user, BlobStore blobStore)
+      throws IOException {
+    Audio audio = audioUploadDTO.fetchUploadedAudio(blobStore);
     audio.setUser(user);
     setAudioAttachment(audio);
   }
 
   @JsonIgnore
-  public void setFromDTO(NoteAccessoriesDTO noteAccessoriesDTO, User user) throws IOException {
+  public void setFromDTO(NoteAccessoriesDTO noteAccessoriesDTO, User user, BlobStore blobStore)
+      throws IOException {
     BeanUtils.copyProperties(noteAccessoriesDTO, this);
-    Image uploadImage = noteAccessoriesDTO.fetchUploadedImage(user);
+    Image uploadImage = noteAccessoriesDTO.fetchUploadedImage(user, blobStore);
     if (uploadImage != null) {
       setImageAttachment(uploadImage);
     }
@@ -0,0 +1,22 @@
+package com.odde.doughnut.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Embeddable
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteSearchToken {
+  @Column(name = "token")
+  @Getter
+  private String token;
+
+  @Column(name = "in_topic")
+  @Getter
+  private Boolean inTopic;
+}
@@ -1,22 +1,31 @@
 package com.odde.doughnut.entities;
 
-import static com.theokanning.openai.service.OpenAiService.defaultObjectMapper;
-
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.odde.doughnut.services.NotebookAccessInvalidator;
+import com.odde.doughnut.services.ReviewQueueInvalidator;
 import jakarta.persistence.*;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.SQLRestriction;
 import org.springframework.lang.NonNull;
 
 @Entity
 @Table(name = "notebook")
+@EntityListeners({ReviewQueueInvalidator.class, NotebookAccessInvalidator.class})
 @JsonPropertyOrder({"id", "headNote"})
 public class Notebook extends EntityIdentifiedByIdOnly {
+  private static final Comparator<Note> DUMP_ORDER =
+      Comparator.comparing(Note::getParentId, Comparator.nullsFirst(Integer::compare))
+          .thenComparing(Note::getSiblingOrder, Comparator.nullsFirst(Long::compare));
+
   @OneToOne
   @JoinColumn(name = "creator_id")
   @JsonIgnore
@@ -42,9 +51,12 @@ public class Notebook extends EntityIdentifiedByIdOnly {
   private Note headNote;
 
   @OneToMany(mappedBy = "notebook", cascade = CascadeType.DETACH)
+  @SQLRestriction("deleted_at is null")
   @JsonIgnore
   private final List<Note> notes = new ArrayList<>();
 
+  @Transient private final ReadOnlyView<Note> notesView = new ReadOnlyView<>();
+
   @Embedded @Getter @NonNull private NotebookSettings notebookSettings = new NotebookSettings();
 
   @Column(name = "deleted_at")
@@ -58,32 +70,53 @@ public class Notebook extends EntityIdentifiedByIdOnly {
 
   @JsonIgnore
   public List<Note> getNotes() {
-    return Note.filterDeletedUnmodifiableNoteList(notes);
+    return notesView.of(notes);
+  }
+
+  void keepInLoadedNotes(Note note, boolean present) {
+    notesView.keepLoaded(notes, note, present);
   }
 
   // Hibernate and JPA does not maintain the consistency of the bidirectional relationships
   // Here we add the note to the notes of notebook in memory to avoid reload the notebook from
   // database
   public void addNoteInMemoryToSupportUnitTestOnly(Note note) {
-    this.notes.add(note);
+    notesView.add(notes, note);
   }
 
+  // notesById holds the notes of the notebook and the ancestors of its link targets, see
+  // ModelFactoryService.notesWithAncestorsById
   @JsonIgnore
-  public String getNotebookDump() {
-    List<Note.NoteBrief> noteBriefs = getNoteBriefs();
-    return defaultObjectMapper().valueToTree(noteBriefs).toPrettyString();
+  public List<Note.NoteBrief> getNoteBriefs(Map<Integer, Note> notesById) {
+    return notes.stream().sorted(DUMP_ORDER).map(note -> note.getNoteBrief(notesById)).toList();
   }
 
+  // the notes are loaded already, so the briefs need not load the ancestors again
   @JsonIgnore
-  public List<Note.NoteBrief> getNoteBriefs() {
-    List<Note.NoteBrief> noteBriefs =
-        notes.stream()
-            .sorted(
-                Comparator.comparing(Note::getParentId, Comparator.nullsFirst(Integer::compare))
-                    .thenComparing(Note::getSiblingOrder, Comparator.nullsFirst(Long::compare)))
-            .map(Note::getNoteBrief)
-            .toList();
-    ;
-    return noteBriefs;
+  public Map<Integer, Note> getNotesById() {
+    Map<Integer, Note> notesById = new HashMap<>();
+    notes.forEach(note -> notesById.put(note.getId(), note));
+    return notesById;
+  }
+
+  // the notes in the order of the dump, grouped by the id of the note directly under the head
+  // note whose subtree they are in; the head note makes a group of its own
+  @JsonIgnore
+  public Map<Integer, List<Note>> getNotesBySubtree() {
+    Map<Integer, List<Note>> subtrees = new LinkedHashMap<>();
+    getNotes().stream()
+        .sorted(DUMP_ORDER)
+        .forEach(
+            note ->
+                subtrees.computeIfAbsent(subtreeRootIdOf(note), id -> new ArrayList<>()).add(note));
+    return subtrees;
+  }
+
+  // read from the ancestor path, so no parent has to be loaded
+  private Integer subtreeRootIdOf(Note note) {
+    List<Integer> ancestorIds = note.getAncestorIds();
+    int headIndex = ancestorIds.indexOf(headNote.getId());
+    if (headIndex < 0 || headIndex == ancestorIds.size() - 1) return note.getId();
+    return ancestorIds.get(headIndex + 1);
   }
 }
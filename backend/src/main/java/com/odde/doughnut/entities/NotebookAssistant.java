@@ -1,5 +1,6 @@
 package com.odde.doughnut.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import java.sql.Timestamp;
@@ -26,4 +27,8 @@ public class NotebookAssistant extends EntityIdentifiedByIdOnly {
   @Column(name = "created_at")
   @NotNull
   private Timestamp createdAt;
+
+  @Column(name = "vector_store_id")
+  @JsonIgnore
+  private String vectorStoreId;
 }
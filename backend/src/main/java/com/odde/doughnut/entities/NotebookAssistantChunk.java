@@ -0,0 +1,32 @@
+package com.odde.doughnut.entities;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+// One uploaded file of the knowledge of a notebook assistant. A chunk holds the notes of one
+// subtree directly under the head note of the notebook; the hash of its content tells whether
+// it has to be uploaded again.
+@Entity
+@Table(name = "notebook_assistant_chunk")
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class NotebookAssistantChunk extends EntityIdentifiedByIdOnly {
+  @ManyToOne
+  @NotNull
+  @JoinColumn(name = "notebook_assistant_id")
+  private NotebookAssistant notebookAssistant;
+
+  @Column(name = "chunk_key")
+  @NotNull
+  private String chunkKey;
+
+  @Column(name = "content_hash")
+  @NotNull
+  private String contentHash;
+
+  @Column(name = "file_id")
+  @NotNull
+  private String fileId;
+}
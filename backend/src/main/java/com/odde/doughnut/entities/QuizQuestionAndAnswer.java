@@ -2,11 +2,17 @@ package com.odde.doughnut.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.odde.doughnut.controllers.dto.QuizQuestionInNotebook;
+import com.odde.doughnut.entities.converters.MCQToJsonConverter;
 import com.odde.doughnut.services.ai.MCQWithAnswer;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.Timestamp;
+import java.util.HexFormat;
 import java.util.Objects;
+import java.util.stream.Stream;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
@@ -35,6 +41,16 @@ public class QuizQuestionAndAnswer extends EntityIdentifiedByIdOnly {
   @Column(name = "is_approved")
   private boolean approved;
 
+  @Column(name = "content_hash")
+  @JsonIgnore
+  private String contentHash;
+
+  // when the question was last handed out, so that the unanswered questions still in use are not
+  // compacted away
+  @Column(name = "last_served_at")
+  @JsonIgnore
+  private Timestamp lastServedAt = new Timestamp(System.currentTimeMillis());
+
   @JsonIgnore
   public MCQWithAnswer getMcqWithAnswer() {
     MCQWithAnswer mcqWithAnswer = new MCQWithAnswer();
@@ -51,6 +67,33 @@ public class QuizQuestionAndAnswer extends EntityIdentifiedByIdOnly {
     return Objects.equals(answer.getChoiceIndex(), getCorrectAnswerIndex());
   }
 
+  // Identical questions generated for the same note have the same hash, so that the existing
+  // row can be reused instead of saving another copy.
+  @JsonIgnore
+  public String computeContentHash() {
+    ImageWithMask imageWithMask = quizQuestion.getImageWithMask();
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    Stream.of(
+            new MCQToJsonConverter()
+                .convertToDatabaseColumn(quizQuestion.getMultipleChoicesQuestion()),
+            quizQuestion.getCheckSpell(),
+            imageWithMask == null ? null : imageWithMask.noteImage,
+            imageWithMask == null ? null : imageWithMask.imageMask,
+            correctAnswerIndex)
+        .map(String::valueOf)
+        .forEach(
+            part -> {
+              digest.update(part.getBytes(StandardCharsets.UTF_8));
+              digest.update((byte) 0);
+            });
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
   public static QuizQuestionAndAnswer fromMCQWithAnswer(MCQWithAnswer MCQWithAnswer, Note note) {
     QuizQuestionAndAnswer quizQuestionAIQuestionAndAnswer = new QuizQuestionAndAnswer();
     quizQuestionAIQuestionAndAnswer.setNote(note);
@@ -0,0 +1,41 @@
+package com.odde.doughnut.entities;
+
+import java.util.List;
+import org.hibernate.Hibernate;
+
+// An immutable snapshot of a note collection of an entity, kept with the entity so that reading
+// the collection again and again does not allocate. The snapshot is taken again when Hibernate
+// replaces the collection, e.g. when the entity is persisted, and when the collection is changed
+// through this view, so a caller still iterating an earlier snapshot is not affected. Taking the
+// snapshot loads the collection.
+final class ReadOnlyView<N extends Note> {
+  private List<N> source;
+  private List<N> snapshot;
+
+  List<N> of(List<N> list) {
+    if (list != source || snapshot == null) {
+      source = list;
+      snapshot = List.copyOf(list);
+    }
+    return snapshot;
+  }
+
+  void add(List<N> notes, N note) {
+    notes.add(note);
+    snapshot = null;
+  }
+
+  // puts the note in, or takes it out of, a collection filtered by deleted_at when the
+  // collection is already loaded; one that is not loaded yet will be read with the change
+  void keepLoaded(List<N> notes, N note, boolean present) {
+    if (!Hibernate.isInitialized(notes)) return;
+    snapshot = null;
+    notes.remove(note);
+    if (!present) return;
+    int index = 0;
+    while (index < notes.size() && notes.get(index).getSiblingOrder() <= note.getSiblingOrder()) {
+      index++;
+    }
+    notes.add(index, note);
+  }
+}
@@ -2,9 +2,11 @@ package com.odde.doughnut.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.odde.doughnut.models.TimestampOperations;
+import com.odde.doughnut.services.ReviewQueueInvalidator;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -16,6 +18,7 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "review_point")
+@EntityListeners(ReviewQueueInvalidator.class)
 public class ReviewPoint extends EntityIdentifiedByIdOnly {
   public static ReviewPoint buildReviewPointForNote(Note note) {
     ReviewPoint entity = new ReviewPoint();
@@ -2,9 +2,12 @@ package com.odde.doughnut.entities;
 
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.odde.doughnut.controllers.dto.SubscriptionDTO;
+import com.odde.doughnut.services.NotebookAccessInvalidator;
+import com.odde.doughnut.services.ReviewQueueInvalidator;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -13,6 +16,7 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "subscription")
+@EntityListeners({ReviewQueueInvalidator.class, NotebookAccessInvalidator.class})
 @JsonPropertyOrder({"headNote", "title", "shortDescription"})
 public class Subscription extends EntityIdentifiedByIdOnly {
   @Column(name = "daily_target_of_new_notes")
@@ -2,6 +2,8 @@ package com.odde.doughnut.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.odde.doughnut.algorithms.SpacedRepetitionAlgorithm;
+import com.odde.doughnut.services.NotebookAccessInvalidator;
+import com.odde.doughnut.services.ReviewQueueInvalidator;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import java.util.ArrayList;
@@ -13,6 +15,7 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "user")
+@EntityListeners({ReviewQueueInvalidator.class, NotebookAccessInvalidator.class})
 public class User extends EntityIdentifiedByIdOnly {
   @NotNull @Getter @Setter private String name;
 
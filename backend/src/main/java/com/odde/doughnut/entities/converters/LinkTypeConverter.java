@@ -0,0 +1,18 @@
+package com.odde.doughnut.entities.converters;
+
+import com.odde.doughnut.entities.LinkType;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter
+public class LinkTypeConverter implements AttributeConverter<LinkType, Integer> {
+  @Override
+  public Integer convertToDatabaseColumn(LinkType attribute) {
+    return attribute == null ? null : attribute.id;
+  }
+
+  @Override
+  public LinkType convertToEntityAttribute(Integer dbData) {
+    return LinkType.fromId(dbData);
+  }
+}
@@ -0,0 +1,39 @@
+package com.odde.doughnut.entities.repositories;
+
+import com.odde.doughnut.entities.AiResponseCacheEntry;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+public interface AiResponseCacheRepository extends CrudRepository<AiResponseCacheEntry, Integer> {
+  Optional<AiResponseCacheEntry> findByCacheKey(String cacheKey);
+
+  // two requests missing the same key at the same time both insert it; the later one only
+  // touches the entry instead of failing on the unique key
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO ai_response_cache (cache_key, model, response, created_at, last_used_at)"
+              + " VALUES (:cacheKey, :model, :response, :now, :now)"
+              + " ON DUPLICATE KEY UPDATE last_used_at = VALUES(last_used_at)",
+      nativeQuery = true)
+  int insertOrTouch(
+      @Param("cacheKey") String cacheKey,
+      @Param("model") String model,
+      @Param("response") String response,
+      @Param("now") Timestamp now);
+
+  @Query(
+      value = "SELECT c.id FROM ai_response_cache c ORDER BY c.last_used_at, c.id LIMIT :limit",
+      nativeQuery = true)
+  List<Integer> findLeastRecentlyUsedIds(@Param("limit") long limit);
+
+  @Modifying
+  @Query(value = "DELETE FROM ai_response_cache WHERE id IN (:ids)", nativeQuery = true)
+  int deleteByIds(@Param("ids") Collection<Integer> ids);
+}
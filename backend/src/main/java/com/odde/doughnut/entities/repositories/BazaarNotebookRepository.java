@@ -1,14 +1,24 @@
 package com.odde.doughnut.entities.repositories;
 
 import com.odde.doughnut.entities.BazaarNotebook;
+import com.odde.doughnut.entities.Image;
 import com.odde.doughnut.entities.Notebook;
 import java.util.List;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 public interface BazaarNotebookRepository extends CrudRepository<BazaarNotebook, Integer> {
   BazaarNotebook findByNotebook(Notebook notebook);
 
+  @Query("SELECT b.notebook.id FROM BazaarNotebook b")
+  List<Integer> findAllNotebookIds();
+
+  @Query(
+      "SELECT COUNT(a) FROM NoteAccessory a, BazaarNotebook b"
+          + " WHERE a.imageAttachment = :image AND b.notebook = a.note.notebook")
+  long countNoteAccessoriesShowing(@Param("image") Image image);
+
   @Query(
       value =
           "SELECT bazaar_notebook.* from bazaar_notebook JOIN notebook on notebook.id = bazaar_notebook.notebook_id WHERE notebook.deleted_at IS NULL ",
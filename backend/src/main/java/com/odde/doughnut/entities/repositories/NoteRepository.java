@@ -1,44 +1,88 @@
 package com.odde.doughnut.entities.repositories;
 
+import com.odde.doughnut.entities.LinkingNote;
 import com.odde.doughnut.entities.Note;
+import com.odde.doughnut.models.LinkEdge;
 import java.util.List;
-import java.util.stream.Stream;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
-public interface NoteRepository extends CrudRepository<Note, Integer> {
+public interface NoteRepository extends CrudRepository<Note, Integer>, NoteSearchRepository {
 
   String selectFromNote = "SELECT n FROM Note n";
-  String searchForTopicLike = " WHERE n.topicConstructor LIKE :pattern AND n.deletedAt IS NULL ";
+
+  String selectLinkEdge =
+      "SELECT new com.odde.doughnut.models.LinkEdge("
+          + "l.id, l.linkType, s.id, s.notebook.id, t.id, t.notebook.id, l.siblingOrder)"
+          + " FROM LinkingNote l JOIN l.parent s JOIN l.targetNote t"
+          + " WHERE l.deletedAt IS NULL";
 
   @Query(value = selectFromNote + " WHERE n.id IN (:ids)")
-  Stream<Note> findAllByIds(List<Integer> ids);
+  List<Note> findAllByIds(@Param("ids") List<Integer> ids);
 
-  @Query(value = selectFromNote + " where n.topicConstructor = :key")
-  Note findFirstByTopicConstructor(@Param("key") String key);
+  @Query(value = selectFromNote + " WHERE n.ancestorPath LIKE CONCAT(:prefix, '%')")
+  List<Note> findAllByAncestorPathPrefix(@Param("prefix") String prefix);
 
+  // moves a whole subtree with one statement; the notes loaded already keep their old path
+  @Modifying(flushAutomatically = true)
   @Query(
-      value = selectFromNote + searchForTopicLike + "  AND n.notebook.ownership.user.id = :userId ")
-  Stream<Note> searchForUserInAllMyNotebooks(Integer userId, String pattern);
+      value =
+          "UPDATE note SET ancestor_path ="
+              + " CONCAT(:newPrefix, SUBSTRING(ancestor_path, LENGTH(:oldPrefix) + 1))"
+              + " WHERE ancestor_path LIKE CONCAT(:oldPrefix, '%')",
+      nativeQuery = true)
+  int replaceAncestorPathPrefix(
+      @Param("oldPrefix") String oldPrefix, @Param("newPrefix") String newPrefix);
 
   @Query(
       value =
           selectFromNote
-              + " JOIN n.notebook.subscriptions s ON s.user.id = :userId "
-              + searchForTopicLike)
-  Stream<Note> searchForUserInAllMySubscriptions(Integer userId, @Param("pattern") String pattern);
+              + " LEFT JOIN FETCH n.noteAccessory WHERE n.id IN (:ids)"
+              + " ORDER BY LENGTH(n.ancestorPath)")
+  List<Note> findAllWithAccessoryByIdsParentFirst(@Param("ids") List<Integer> ids);
 
   @Query(
       value =
           selectFromNote
-              + "              JOIN n.notebook.ownership.circle.members m"
-              + "                ON m.id = :userId "
-              + searchForTopicLike)
-  Stream<Note> searchForUserInAllMyCircle(Integer userId, @Param("pattern") String pattern);
+              + " LEFT JOIN FETCH n.noteAccessory LEFT JOIN FETCH n.targetNote"
+              + " WHERE n.parent.id = :noteId AND n.deletedAt IS NULL ORDER BY n.siblingOrder")
+  List<Note> findAllChildrenWithTargets(@Param("noteId") Integer noteId);
 
-  @Query(value = selectFromNote + searchForTopicLike + " AND n.notebook.id = :notebookId ")
-  Stream<Note> searchInNotebook(Integer notebookId, @Param("pattern") String pattern);
+  @Query(
+      value =
+          "SELECT n FROM LinkingNote n LEFT JOIN FETCH n.noteAccessory JOIN FETCH n.parent"
+              + " WHERE n.targetNote.id = :noteId AND n.deletedAt IS NULL")
+  List<LinkingNote> findAllRefersWithSources(@Param("noteId") Integer noteId);
+
+  @Query(
+      value =
+          "SELECT CONCAT(t.ancestorPath, CAST(t.id AS String), '/') FROM Note n"
+              + " JOIN n.targetNote t WHERE n.parent.id = :noteId AND n.deletedAt IS NULL")
+  List<String> findTargetPathsOfChildren(@Param("noteId") Integer noteId);
+
+  @Query(
+      value =
+          "SELECT CONCAT(s.ancestorPath, CAST(s.id AS String), '/') FROM Note n"
+              + " JOIN n.parent s WHERE n.targetNote.id = :noteId AND n.deletedAt IS NULL")
+  List<String> findSourcePathsOfRefers(@Param("noteId") Integer noteId);
+
+  @Query(value = selectLinkEdge + " AND s.notebook.id = :notebookId")
+  List<LinkEdge> findAllLinkEdgesFromNotebook(@Param("notebookId") Integer notebookId);
+
+  @Query(value = selectLinkEdge + " AND t.notebook.id = :notebookId")
+  List<LinkEdge> findAllLinkEdgesToNotebook(@Param("notebookId") Integer notebookId);
+
+  @Query(
+      value =
+          selectFromNote
+              + " WHERE n.notebook.id = :notebookId AND n.deletedAt IS NOT NULL"
+              + " ORDER BY n.deletedAt DESC")
+  List<Note> findAllDeletedInNotebook(@Param("notebookId") Integer notebookId);
+
+  @Query(value = selectFromNote + " where n.topicConstructor = :key")
+  Note findFirstByTopicConstructor(@Param("key") String key);
 
   @Query(
       value =
@@ -0,0 +1,11 @@
+package com.odde.doughnut.entities.repositories;
+
+import com.odde.doughnut.entities.Note;
+import java.util.List;
+
+public interface NoteSearchRepository {
+  List<Note> searchByTokenPrefixes(
+      NoteSearchScope scope, List<String> termPrefixes, int pageIndex, int pageSize);
+
+  List<Note> searchByTopicLike(NoteSearchScope scope, String pattern, int pageIndex, int pageSize);
+}
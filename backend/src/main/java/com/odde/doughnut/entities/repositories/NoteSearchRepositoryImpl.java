@@ -0,0 +1,120 @@
+package com.odde.doughnut.entities.repositories;
+
+import com.odde.doughnut.entities.Note;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+class NoteSearchRepositoryImpl implements NoteSearchRepository {
+  @PersistenceContext private EntityManager entityManager;
+
+  // every term has to match a token of the note by prefix. Notes are ranked by how many
+  // of their tokens match, and tokens from the topic count twice as much as those from
+  // the details.
+  @Override
+  public List<Note> searchByTokenPrefixes(
+      NoteSearchScope scope, List<String> termPrefixes, int pageIndex, int pageSize) {
+    List<String> scopeConditions = getScopeConditions(scope);
+    if (scopeConditions.isEmpty() || termPrefixes.isEmpty()) return List.of();
+
+    String anyTermMatches =
+        IntStream.range(0, termPrefixes.size())
+            .mapToObj(i -> "t.token LIKE :term" + i)
+            .collect(Collectors.joining(" OR "));
+    String everyTermMatches =
+        termPrefixes.size() == 1
+            ? ""
+            : IntStream.range(0, termPrefixes.size())
+                .mapToObj(
+                    i ->
+                        " AND EXISTS (SELECT m.id FROM Note m JOIN m.searchTokens mt"
+                            + " WHERE m.id = n.id AND mt.token LIKE :term%d)".formatted(i))
+                .collect(Collectors.joining());
+    String jpql =
+        "SELECT n.id FROM Note n JOIN n.searchTokens t JOIN n.notebook nb JOIN nb.ownership o"
+            + " WHERE n.deletedAt IS NULL"
+            + " AND ("
+            + String.join(" OR ", scopeConditions)
+            + ") AND ("
+            + anyTermMatches
+            + ")"
+            + everyTermMatches
+            + " GROUP BY n.id"
+            + " ORDER BY SUM(CASE WHEN t.inTopic = TRUE THEN 2 ELSE 1 END) DESC, n.id";
+
+    TypedQuery<Integer> query = createScopedQuery(jpql, scope);
+    for (int i = 0; i < termPrefixes.size(); i++) {
+      query.setParameter("term" + i, termPrefixes.get(i) + "%");
+    }
+    return findPage(query, pageIndex, pageSize);
+  }
+
+  // for search keys that have no tokens, such as punctuation only
+  @Override
+  public List<Note> searchByTopicLike(
+      NoteSearchScope scope, String pattern, int pageIndex, int pageSize) {
+    List<String> scopeConditions = getScopeConditions(scope);
+    if (scopeConditions.isEmpty()) return List.of();
+
+    String jpql =
+        "SELECT n.id FROM Note n JOIN n.notebook nb JOIN nb.ownership o"
+            + " WHERE n.deletedAt IS NULL"
+            + " AND ("
+            + String.join(" OR ", scopeConditions)
+            + ") AND n.topicConstructor LIKE :pattern"
+            + " ORDER BY n.id";
+    TypedQuery<Integer> query = createScopedQuery(jpql, scope);
+    query.setParameter("pattern", pattern);
+    return findPage(query, pageIndex, pageSize);
+  }
+
+  private TypedQuery<Integer> createScopedQuery(String jpql, NoteSearchScope scope) {
+    TypedQuery<Integer> query = entityManager.createQuery(jpql, Integer.class);
+    if (scope.notebookId() != null) query.setParameter("notebookId", scope.notebookId());
+    if (scope.includeMyNotebooksAndSubscriptions() || scope.includeMyCircles()) {
+      query.setParameter("userId", scope.userId());
+    }
+    return query;
+  }
+
+  private List<Note> findPage(TypedQuery<Integer> query, int pageIndex, int pageSize) {
+    List<Integer> ids =
+        query.setFirstResult(pageIndex * pageSize).setMaxResults(pageSize).getResultList();
+    return findAllInOrder(ids);
+  }
+
+  private static List<String> getScopeConditions(NoteSearchScope scope) {
+    List<String> conditions = new ArrayList<>();
+    if (scope.notebookId() != null) {
+      conditions.add("nb.id = :notebookId");
+    }
+    if (scope.includeMyNotebooksAndSubscriptions() || scope.includeMyCircles()) {
+      conditions.add("o.user.id = :userId");
+      conditions.add(
+          "nb.id IN (SELECT s.notebook.id FROM Subscription s WHERE s.user.id = :userId)");
+    }
+    if (scope.includeMyCircles()) {
+      conditions.add(
+          "o.circle.id IN (SELECT c.id FROM Circle c JOIN c.members cm WHERE cm.id = :userId)");
+    }
+    return conditions;
+  }
+
+  private List<Note> findAllInOrder(List<Integer> ids) {
+    if (ids.isEmpty()) return List.of();
+    Map<Integer, Note> notes =
+        entityManager
+            .createQuery("SELECT n FROM Note n WHERE n.id IN (:ids)", Note.class)
+            .setParameter("ids", ids)
+            .getResultStream()
+            .collect(Collectors.toMap(Note::getId, Function.identity()));
+    return ids.stream().map(notes::get).filter(Objects::nonNull).toList();
+  }
+}
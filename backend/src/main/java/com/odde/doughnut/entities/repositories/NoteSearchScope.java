@@ -0,0 +1,7 @@
+package com.odde.doughnut.entities.repositories;
+
+public record NoteSearchScope(
+    Integer userId,
+    Integer notebookId,
+    boolean includeMyNotebooksAndSubscriptions,
+    boolean includeMyCircles) {}
@@ -0,0 +1,11 @@
+package com.odde.doughnut.entities.repositories;
+
+import com.odde.doughnut.entities.NotebookAssistant;
+import com.odde.doughnut.entities.NotebookAssistantChunk;
+import java.util.List;
+import org.springframework.data.repository.CrudRepository;
+
+public interface NotebookAssistantChunkRepository
+    extends CrudRepository<NotebookAssistantChunk, Integer> {
+  List<NotebookAssistantChunk> findByNotebookAssistant(NotebookAssistant notebookAssistant);
+}
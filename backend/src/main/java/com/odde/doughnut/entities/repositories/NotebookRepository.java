@@ -1,6 +1,15 @@
 package com.odde.doughnut.entities.repositories;
 
 import com.odde.doughnut.entities.Notebook;
+import java.util.List;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
-public interface NotebookRepository extends CrudRepository<Notebook, Integer> {}
+public interface NotebookRepository extends CrudRepository<Notebook, Integer> {
+  @Query(
+      "SELECT DISTINCT nb.id FROM Notebook nb JOIN nb.ownership o"
+          + " LEFT JOIN o.user u LEFT JOIN o.circle c LEFT JOIN c.members m"
+          + " WHERE u.id = :userId OR m.id = :userId")
+  List<Integer> findAllIdsOwnedBy(@Param("userId") Integer userId);
+}
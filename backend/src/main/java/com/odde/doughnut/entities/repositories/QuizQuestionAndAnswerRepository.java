@@ -1,7 +1,53 @@
 package com.odde.doughnut.entities.repositories;
 
+import com.odde.doughnut.entities.Note;
 import com.odde.doughnut.entities.QuizQuestionAndAnswer;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 public interface QuizQuestionAndAnswerRepository
-    extends CrudRepository<QuizQuestionAndAnswer, Integer> {}
+    extends CrudRepository<QuizQuestionAndAnswer, Integer> {
+  // only the generated questions are deduplicated by their content hash; the ones added by hand
+  // and those from before the hash was introduced have none and are never compacted
+  String GENERATED = "   AND qqa.content_hash IS NOT NULL ";
+  String NOT_ANSWERED =
+      "   AND NOT EXISTS (SELECT 1 FROM quiz_answer a WHERE a.quiz_question_id = qqa.id) ";
+
+  Optional<QuizQuestionAndAnswer> findFirstByNoteAndContentHash(Note note, String contentHash);
+
+  @Query(
+      value =
+          "SELECT qqa.id FROM quiz_question_and_answer qqa "
+              + " WHERE qqa.last_served_at < :before "
+              + "   AND qqa.is_approved IS FALSE "
+              + GENERATED
+              + NOT_ANSWERED
+              + " ORDER BY qqa.id LIMIT :limit",
+      nativeQuery = true)
+  List<Integer> findUnansweredIdsLastServedBefore(
+      @Param("before") Timestamp before, @Param("limit") int limit);
+
+  @Query(
+      value =
+          "SELECT qqa.quiz_question_id FROM quiz_question_and_answer qqa "
+              + " WHERE qqa.id IN (:ids)",
+      nativeQuery = true)
+  List<Integer> findQuizQuestionIds(@Param("ids") Collection<Integer> ids);
+
+  @Modifying(clearAutomatically = true)
+  @Query(
+      value =
+          "DELETE FROM quiz_question_and_answer qqa "
+              + " WHERE qqa.id IN (:ids) "
+              + "   AND qqa.is_approved IS FALSE "
+              + GENERATED
+              + NOT_ANSWERED,
+      nativeQuery = true)
+  int deleteUnansweredByIds(@Param("ids") Collection<Integer> ids);
+}
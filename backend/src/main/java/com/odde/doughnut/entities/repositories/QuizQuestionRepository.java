@@ -1,6 +1,21 @@
 package com.odde.doughnut.entities.repositories;
 
 import com.odde.doughnut.entities.QuizQuestion;
+import java.util.Collection;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
-public interface QuizQuestionRepository extends CrudRepository<QuizQuestion, Integer> {}
+public interface QuizQuestionRepository extends CrudRepository<QuizQuestion, Integer> {
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM quiz_question qq "
+              + " WHERE qq.id IN (:ids) "
+              + "   AND NOT EXISTS "
+              + "     (SELECT 1 FROM quiz_question_and_answer qqa "
+              + "       WHERE qqa.quiz_question_id = qq.id)",
+      nativeQuery = true)
+  int deleteUnreferencedByIds(@Param("ids") Collection<Integer> ids);
+}
@@ -3,6 +3,7 @@ package com.odde.doughnut.entities.repositories;
 import com.odde.doughnut.entities.ReviewPoint;
 import com.odde.doughnut.entities.User;
 import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Stream;
 import org.springframework.data.jpa.repository.Query;
@@ -27,6 +28,10 @@ public interface ReviewPointRepository extends CrudRepository<ReviewPoint, Integ
   @Query(value = "SELECT * " + byUserId + "AND rp.note_id =:noteId", nativeQuery = true)
   ReviewPoint findByUserAndNote(Integer userId, @Param("noteId") Integer noteId);
 
+  @Query(value = "SELECT * " + byUserId + "AND rp.note_id IN (:noteIds)", nativeQuery = true)
+  List<ReviewPoint> findAllByUserAndNoteIds(
+      Integer userId, @Param("noteIds") Collection<Integer> noteIds);
+
   String byUserId =
       " FROM review_point rp "
           + " WHERE rp.user_id = :userId "
@@ -1,6 +1,12 @@
 package com.odde.doughnut.entities.repositories;
 
 import com.odde.doughnut.entities.Subscription;
+import java.util.List;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
-public interface SubscriptionRepository extends CrudRepository<Subscription, Integer> {}
+public interface SubscriptionRepository extends CrudRepository<Subscription, Integer> {
+  @Query("SELECT s.notebook.id FROM Subscription s WHERE s.user.id = :userId")
+  List<Integer> findAllNotebookIdsSubscribedBy(@Param("userId") Integer userId);
+}
@@ -4,10 +4,18 @@ import com.odde.doughnut.controllers.dto.SearchTerm;
 import com.odde.doughnut.entities.*;
 import com.odde.doughnut.entities.repositories.*;
 import com.odde.doughnut.models.*;
+import com.odde.doughnut.services.NotebookAccessService;
+import com.odde.doughnut.services.blobs.BlobStore;
+import com.odde.doughnut.services.openAiApis.AiResponseCache;
 import jakarta.persistence.EntityManager;
 import java.sql.Timestamp;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Predicate;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -22,8 +30,14 @@ public class ModelFactoryService {
   @Autowired public UserAssistantThreadRepository userAssistantThreadRepository;
   @Autowired public FailureReportRepository failureReportRepository;
   @Autowired public NotebookAssistantRepository notebookAssistantRepository;
+  @Autowired public NotebookAssistantChunkRepository notebookAssistantChunkRepository;
   @Autowired public GlobalSettingRepository globalSettingRepository;
+  @Autowired public QuizQuestionAndAnswerRepository quizQuestionAndAnswerRepository;
+  @Autowired public QuizQuestionRepository quizQuestionRepository;
   @Autowired public EntityManager entityManager;
+  @Autowired public BlobStore blobStore;
+  @Autowired public AiResponseCache aiResponseCache;
+  @Autowired public NotebookAccessService notebookAccessService;
 
   @Autowired
   public QuestionSuggestionForFineTuningRepository questionSuggestionForFineTuningRepository;
@@ -32,6 +46,18 @@ public class ModelFactoryService {
     return new NoteModel(note, this);
   }
 
+  public ReviewPointCache toReviewPointCache(User user) {
+    return new ReviewPointCache(user, this);
+  }
+
+  public NotebookAccess toNotebookAccess(User viewer) {
+    return notebookAccessService.of(viewer);
+  }
+
+  public LinkGraph toLinkGraph(User viewer) {
+    return new LinkGraph(toNotebookAccess(viewer), this);
+  }
+
   public NoteMotionModel motionOfMoveAfter(Note subject, Note target, Boolean asFirstChild) {
     return new NoteMotionModel(subject, target, asFirstChild, this);
   }
@@ -86,6 +112,10 @@ public class ModelFactoryService {
     return new SearchTermModel(entity, noteRepository, searchTerm);
   }
 
+  public NoteRealmProjection toNoteRealmProjection(User viewer) {
+    return new NoteRealmProjection(toNotebookAccess(viewer), noteRepository);
+  }
+
   public AnswerModel toAnswerModel(Answer answer) {
     return new AnswerModel(answer, this);
   }
@@ -103,6 +133,38 @@ public class ModelFactoryService {
     return entityManager.merge(entity);
   }
 
+  // a bulk update leaves the notes loaded already with their old state
+  public void refreshLoadedNotes(Predicate<Note> stale) {
+    Arrays.stream(
+            entityManager
+                .unwrap(SessionImplementor.class)
+                .getPersistenceContextInternal()
+                .reentrantSafeEntityEntries())
+        .map(Map.Entry::getKey)
+        .filter(Note.class::isInstance)
+        .map(Note.class::cast)
+        .filter(stale)
+        .forEach(entityManager::refresh);
+  }
+
+  // the notes of the notebook and the ancestors of its link targets in other notebooks, so that
+  // the context paths of the whole notebook take one more query at most
+  public Map<Integer, Note> notesWithAncestorsById(Notebook notebook) {
+    Map<Integer, Note> notesById = notebook.getNotesById();
+    List<Integer> unknownIds =
+        notebook.getNotes().stream()
+            .map(Note::getTargetNote)
+            .filter(Objects::nonNull)
+            .flatMap(target -> target.getAncestorIds().stream())
+            .filter(id -> !notesById.containsKey(id))
+            .distinct()
+            .toList();
+    if (!unknownIds.isEmpty()) {
+      noteRepository.findAllByIds(unknownIds).forEach(note -> notesById.put(note.getId(), note));
+    }
+    return notesById;
+  }
+
   public <T extends EntityIdentifiedByIdOnly> T remove(T entity) {
     T nb = entityManager.merge(entity);
     entityManager.remove(nb);
@@ -4,14 +4,25 @@ import com.odde.doughnut.entities.*;
 import com.odde.doughnut.factoryServices.ModelFactoryService;
 import com.odde.doughnut.factoryServices.quizFacotries.factories.AiQuestionFactory;
 import com.odde.doughnut.models.Randomizer;
+import com.odde.doughnut.models.ReviewPointCache;
 import com.odde.doughnut.services.ai.AiQuestionGenerator;
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
 public record QuizQuestionGenerator(
-    User user, Note note, Randomizer randomizer, ModelFactoryService modelFactoryService) {
+    User user,
+    Note note,
+    Randomizer randomizer,
+    ModelFactoryService modelFactoryService,
+    ReviewPointCache reviewPointCache) {
+
+  public QuizQuestionGenerator(
+      User user, Note note, Randomizer randomizer, ModelFactoryService modelFactoryService) {
+    this(user, note, randomizer, modelFactoryService, modelFactoryService.toReviewPointCache(user));
+  }
 
   private Optional<QuizQuestionAndAnswer> getQuizQuestionEntity(
       QuizQuestionFactory quizQuestionFactory) {
@@ -34,6 +45,13 @@ public record QuizQuestionGenerator(
 
   public QuizQuestionAndAnswer generateAQuestionOfRandomType(
       AiQuestionGenerator questionGenerator) {
+    return reuseOrSave(generateAQuestionOfRandomTypeWithoutSaving(questionGenerator));
+  }
+
+  // the generation may wait for OpenAI, so a caller that manages its own transactions can
+  // generate outside of one and save the question afterwards with reuseOrSave
+  public QuizQuestionAndAnswer generateAQuestionOfRandomTypeWithoutSaving(
+      AiQuestionGenerator questionGenerator) {
     List<QuizQuestionFactory> shuffled;
     if (note instanceof HierarchicalNote && user.getAiQuestionTypeOnlyForReview()) {
       shuffled = List.of(new AiQuestionFactory(note, questionGenerator));
@@ -41,14 +59,28 @@ public record QuizQuestionGenerator(
       shuffled =
           randomizer.shuffle(
               note.getQuizQuestionFactories(
-                  new QuizQuestionServant(user, randomizer, modelFactoryService)));
+                  new QuizQuestionServant(
+                      user, randomizer, modelFactoryService, reviewPointCache)));
     }
     QuizQuestionAndAnswer result = generateAQuestionOfFirstPossibleType(shuffled);
     if (result == null) {
       throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No question generated");
     }
-
-    modelFactoryService.save(result);
     return result;
   }
+
+  public QuizQuestionAndAnswer reuseOrSave(QuizQuestionAndAnswer generated) {
+    String contentHash = generated.computeContentHash();
+    Optional<QuizQuestionAndAnswer> existing =
+        modelFactoryService.quizQuestionAndAnswerRepository.findFirstByNoteAndContentHash(
+            generated.getNote(), contentHash);
+    if (existing.isPresent()) {
+      QuizQuestionAndAnswer reused = existing.get();
+      reused.setLastServedAt(new Timestamp(System.currentTimeMillis()));
+      return modelFactoryService.save(reused);
+    }
+    generated.setContentHash(contentHash);
+    modelFactoryService.save(generated);
+    return generated;
+  }
 }
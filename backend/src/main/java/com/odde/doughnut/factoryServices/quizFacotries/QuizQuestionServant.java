@@ -3,17 +3,20 @@ package com.odde.doughnut.factoryServices.quizFacotries;
 import com.odde.doughnut.entities.*;
 import com.odde.doughnut.entities.LinkType;
 import com.odde.doughnut.factoryServices.ModelFactoryService;
+import com.odde.doughnut.models.LinkEdge;
+import com.odde.doughnut.models.LinkGraph;
 import com.odde.doughnut.models.NoteViewer;
+import com.odde.doughnut.models.NotebookAccess;
 import com.odde.doughnut.models.Randomizer;
-import com.odde.doughnut.models.UserModel;
+import com.odde.doughnut.models.ReviewPointCache;
 import com.odde.doughnut.services.GlobalSettingsService;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class QuizQuestionServant {
-  private final User user;
   public final Randomizer randomizer;
   final ModelFactoryService modelFactoryService;
   final int maxFillingOptionCount = 2;
@@ -26,12 +29,27 @@ public class QuizQuestionServant {
           LinkType.ATTRIBUTE,
           LinkType.USES,
           LinkType.RELATED_TO);
+  private final List<LinkType> parentGrandLinkTypes =
+      List.of(LinkType.PART, LinkType.INSTANCE, LinkType.SPECIALIZE, LinkType.APPLICATION);
+  private final NotebookAccess notebookAccess;
+  private final LinkGraph linkGraph;
+  private final ReviewPointCache reviewPointCache;
 
   public QuizQuestionServant(
       User user, Randomizer randomizer, ModelFactoryService modelFactoryService) {
-    this.user = user;
+    this(user, randomizer, modelFactoryService, modelFactoryService.toReviewPointCache(user));
+  }
+
+  public QuizQuestionServant(
+      User user,
+      Randomizer randomizer,
+      ModelFactoryService modelFactoryService,
+      ReviewPointCache reviewPointCache) {
     this.randomizer = randomizer;
     this.modelFactoryService = modelFactoryService;
+    this.notebookAccess = modelFactoryService.toNotebookAccess(user);
+    this.linkGraph = new LinkGraph(notebookAccess, modelFactoryService);
+    this.reviewPointCache = reviewPointCache;
   }
 
   public List<Note> chooseFromCohort(Note answerNote, Predicate<Note> notePredicate) {
@@ -48,7 +66,11 @@ public class QuizQuestionServant {
       if (grand.getParent() != null) {
         grand = grand.getParent();
       }
-    return grand.getAllNoneLinkDescendants().filter(notePredicate).collect(Collectors.toList());
+    return modelFactoryService
+        .toNoteModel(grand)
+        .getAllNoneLinkDescendants()
+        .filter(notePredicate)
+        .collect(Collectors.toList());
   }
 
   public <T> List<T> chooseFillingOptionsRandomly(List<T> candidates) {
@@ -56,51 +78,57 @@ public class QuizQuestionServant {
   }
 
   public Stream<LinkingNote> getSiblingLinksOfSameLinkTypeHavingReviewPoint(LinkingNote link) {
-    return linksWithReviewPoint(link.getSiblingLinksOfSameLinkType(this.user));
+    return linksWithReviewPoint(link.getSiblingLinksOfSameLinkType(this.notebookAccess));
   }
 
   public Stream<LinkingNote> getLinksFromSameSourceHavingReviewPoint(Note link) {
     List<LinkingNote> list =
-        new NoteViewer(this.user, link.getParent())
+        new NoteViewer(this.notebookAccess, link.getParent())
             .linksOfTypeThroughDirect(candidateQuestionLinkTypes);
     return linksWithReviewPoint(list.stream()).filter(l -> !link.equals(l));
   }
 
   private Stream<LinkingNote> linksWithReviewPoint(Stream<LinkingNote> cousinLinksOfSameLinkType) {
-    return cousinLinksOfSameLinkType.filter(l -> getReviewPoint(l) != null);
+    List<LinkingNote> links = cousinLinksOfSameLinkType.toList();
+    Set<Integer> withReviewPoint =
+        reviewPointCache.noteIdsWithReviewPoint(links.stream().map(Note::getId).toList());
+    return links.stream().filter(l -> withReviewPoint.contains(l.getId()));
   }
 
   public LinkingNote getParentGrandLink(LinkingNote link) {
+    LinkEdge edge = LinkEdge.of(link);
+    List<Integer> candidates =
+        linkGraph
+            .linksFrom(edge.targetId(), edge.targetNotebookId(), parentGrandLinkTypes)
+            .map(LinkEdge::linkId)
+            .toList();
     return randomizer
-        .chooseOneRandomly(
-            link.targetNoteViewer(this.user)
-                .linksOfTypeThroughDirect(
-                    List.of(
-                        LinkType.PART,
-                        LinkType.INSTANCE,
-                        LinkType.SPECIALIZE,
-                        LinkType.APPLICATION)))
+        .chooseOneRandomly(candidates)
+        .map(id -> linkGraph.loadLinks(List.of(id)).getFirst())
         .orElse(null);
   }
 
   public List<Note> chooseBackwardPeers(LinkingNote instanceLink, LinkingNote link1) {
-    List<Note> instanceReverse = instanceLink.getLinkedSiblingsOfSameLinkType(user);
-    List<Note> specReverse = link1.getLinkedSiblingsOfSameLinkType(user);
-    List<Note> backwardPeers =
+    List<Integer> instanceReverse = linkedSiblingIdsOfSameLinkType(instanceLink);
+    List<Integer> specReverse = linkedSiblingIdsOfSameLinkType(link1);
+    List<Integer> backwardPeers =
         Stream.concat(instanceReverse.stream(), specReverse.stream())
             .filter(n -> !(instanceReverse.contains(n) && specReverse.contains(n)))
-            .collect(Collectors.toList());
-    return chooseFillingOptionsRandomly(backwardPeers);
+            .toList();
+    return linkGraph.loadNotes(chooseFillingOptionsRandomly(backwardPeers));
+  }
+
+  private List<Integer> linkedSiblingIdsOfSameLinkType(LinkingNote link) {
+    return linkGraph.siblingLinksOfSameLinkType(LinkEdge.of(link)).map(LinkEdge::sourceId).toList();
   }
 
   public ReviewPoint getReviewPoint(Note thing) {
-    UserModel userModel = modelFactoryService.toUserModel(user);
-    return userModel.getReviewPointFor(thing);
+    return reviewPointCache.getReviewPointFor(thing);
   }
 
   public List<Note> chooseFromCohortAvoidUncles(Note note, Note answerNote) {
     List<Note> uncles =
-        new NoteViewer(user, note.getParent())
+        new NoteViewer(notebookAccess, note.getParent())
             .linksOfTypeThroughDirect(List.of(note.getLinkType())).stream()
                 .filter(l -> !l.equals(note))
                 .map(Note::getTargetNote)
@@ -114,7 +142,8 @@ public class QuizQuestionServant {
   }
 
   public List<Note> chooseFromCohortAvoidSiblings(LinkingNote answerLink) {
-    List<Note> linkedSiblingsOfSameLinkType = answerLink.getLinkedSiblingsOfSameLinkType(user);
+    List<Note> linkedSiblingsOfSameLinkType =
+        answerLink.getLinkedSiblingsOfSameLinkType(notebookAccess);
     return chooseCohortAndAvoid(
         answerLink.getParent(), answerLink.getTargetNote(), linkedSiblingsOfSameLinkType);
   }
@@ -126,20 +155,24 @@ public class QuizQuestionServant {
   public List<LinkingNote> getCousinLinksAvoidingSiblings(
       LinkingNote link, LinkingNote parentGrandLink) {
     if (parentGrandLink == null) return List.of();
-    List<Note> linkedSiblingsOfSameLinkType = link.getLinkedSiblingsOfSameLinkType(user);
-    List<Note> linkTargetOfType =
-        new NoteViewer(user, link.getParent())
-            .linksOfTypeThroughDirect(List.of(link.getLinkType())).stream()
-                .map(Note::getTargetNote)
-                .toList();
-    Stream<LinkingNote> uncles =
-        parentGrandLink
-            .getSiblingLinksOfSameLinkType(user)
-            .filter(cl1 -> !linkTargetOfType.contains(cl1.getParent()));
-    return uncles
-        .flatMap(
-            p -> new NoteViewer(user, p.getParent()).linksOfTypeThroughReverse(link.getLinkType()))
-        .filter(cousinLink -> !linkedSiblingsOfSameLinkType.contains(cousinLink.getParent()))
-        .toList();
+    LinkEdge edge = LinkEdge.of(link);
+    Set<Integer> linkedSiblingsOfSameLinkType = Set.copyOf(linkedSiblingIdsOfSameLinkType(link));
+    Set<Integer> linkTargetOfType =
+        linkGraph
+            .linksFrom(edge.sourceId(), edge.sourceNotebookId(), List.of(edge.type()))
+            .map(LinkEdge::targetId)
+            .collect(Collectors.toSet());
+    Stream<LinkEdge> uncles =
+        linkGraph
+            .siblingLinksOfSameLinkType(LinkEdge.of(parentGrandLink))
+            .filter(uncle -> !linkTargetOfType.contains(uncle.sourceId()));
+    List<Integer> cousinLinkIds =
+        uncles
+            .flatMap(
+                uncle -> linkGraph.linksTo(uncle.sourceId(), uncle.sourceNotebookId(), edge.type()))
+            .filter(cousinLink -> !linkedSiblingsOfSameLinkType.contains(cousinLink.sourceId()))
+            .map(LinkEdge::linkId)
+            .toList();
+    return linkGraph.loadLinks(cousinLinkIds);
   }
 }
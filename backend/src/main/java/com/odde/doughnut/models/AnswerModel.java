@@ -17,11 +17,11 @@ public class AnswerModel {
     modelFactoryService.save(answer);
   }
 
-  public AnsweredQuestion getAnswerViewedByUser(User user) {
+  public AnsweredQuestion getAnswerViewedByUser(ReviewPointCache reviewPointCache) {
     AnsweredQuestion answerResult = new AnsweredQuestion();
     answerResult.answerId = answer.getId();
     answerResult.answerDisplay = answer.getAnswerDisplay();
-    answerResult.reviewPoint = getReviewPoint(user);
+    answerResult.reviewPoint = getReviewPoint(reviewPointCache);
     answerResult.correct = answer.isCorrect();
     answerResult.correctChoiceIndex = getQuestion().getCorrectAnswerIndex();
     answerResult.choiceIndex = answer.getChoiceIndex();
@@ -33,16 +33,17 @@ public class AnswerModel {
     return answer.getQuestion();
   }
 
-  public void makeAnswerToQuestion(Timestamp currentUTCTimestamp, User user) {
+  public void makeAnswerToQuestion(
+      Timestamp currentUTCTimestamp, ReviewPointCache reviewPointCache) {
     save();
-    ReviewPoint reviewPoint = getReviewPoint(user);
+    ReviewPoint reviewPoint = getReviewPoint(reviewPointCache);
     if (reviewPoint == null) return;
     modelFactoryService
         .toReviewPointModel(reviewPoint)
         .markAsRepeated(currentUTCTimestamp, answer.isCorrect());
   }
 
-  private ReviewPoint getReviewPoint(User user) {
-    return modelFactoryService.toUserModel(user).getReviewPointFor(getQuestion().getNote());
+  private ReviewPoint getReviewPoint(ReviewPointCache reviewPointCache) {
+    return reviewPointCache.getReviewPointFor(getQuestion().getNote());
   }
 }
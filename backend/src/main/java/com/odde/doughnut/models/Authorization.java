@@ -77,19 +77,13 @@ public record Authorization(User user, ModelFactoryService modelFactoryService)
   }
 
   private boolean hasFullAuthority(Notebook notebook) {
-    if (user == null) return false;
-    return user.owns(notebook);
+    return notebookAccess().owns(notebook);
   }
 
   private void assertReadAuthorizationNotebook(Notebook notebook)
       throws UnexpectedNoAccessRightException {
-    if (notebook != null) {
-      if (user != null && user.canReferTo(notebook)) {
-        return;
-      }
-      if (modelFactoryService.bazaarNotebookRepository.findByNotebook(notebook) != null) {
-        return;
-      }
+    if (notebookAccess().canRead(notebook)) {
+      return;
     }
     assertLoggedIn();
     throw new UnexpectedNoAccessRightException();
@@ -124,6 +118,10 @@ public record Authorization(User user, ModelFactoryService modelFactoryService)
     }
   }
 
+  private NotebookAccess notebookAccess() {
+    return modelFactoryService.toNotebookAccess(user);
+  }
+
   public void assertAdminAuthorization() throws UnexpectedNoAccessRightException {
     if (!isAdmin()) {
       throw new UnexpectedNoAccessRightException();
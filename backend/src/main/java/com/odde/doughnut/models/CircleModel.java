@@ -14,8 +14,11 @@ public class CircleModel {
     this.modelFactoryService = modelFactoryService;
   }
 
+  // adding a member only changes the join table, which fires no entity callback for the
+  // NotebookAccessInvalidator to see
   public void joinAndSave(User user) {
     entity.getMembers().add(user);
     modelFactoryService.save(entity);
+    modelFactoryService.notebookAccessService.invalidate(user.getId());
   }
 }
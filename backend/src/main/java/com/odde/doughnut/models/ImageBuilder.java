@@ -4,7 +4,9 @@ import com.odde.doughnut.algorithms.ImageUtils;
 import com.odde.doughnut.entities.AttachmentBlob;
 import com.odde.doughnut.entities.Image;
 import com.odde.doughnut.entities.User;
+import com.odde.doughnut.services.blobs.BlobStore;
 import java.io.IOException;
+import java.io.InputStream;
 import org.springframework.web.multipart.MultipartFile;
 
 public class ImageBuilder {
@@ -12,20 +14,21 @@ public class ImageBuilder {
 
   public ImageBuilder() {}
 
-  public Image buildImageFromUploadedImage(User user, MultipartFile file) throws IOException {
+  public Image buildImageFromUploadedImage(User user, MultipartFile file, BlobStore blobStore)
+      throws IOException {
     Image image = new Image();
     image.setUser(user);
     image.setName(file.getOriginalFilename());
     image.setContentType(file.getContentType());
-    AttachmentBlob attachmentBlob = getImageBlob(file);
+    AttachmentBlob attachmentBlob = getImageBlob(file, blobStore);
     image.setBlob(attachmentBlob);
     return image;
   }
 
-  private AttachmentBlob getImageBlob(MultipartFile file) throws IOException {
-    byte[] data = imageUtils.toResizedImageByteArray(file, file.getOriginalFilename());
-    AttachmentBlob attachmentBlob = new AttachmentBlob();
-    attachmentBlob.setData(data);
-    return attachmentBlob;
+  private AttachmentBlob getImageBlob(MultipartFile file, BlobStore blobStore) throws IOException {
+    try (InputStream content =
+        imageUtils.toResizedImage(file, file.getOriginalFilename()).getInputStream()) {
+      return AttachmentBlob.store(blobStore, content);
+    }
   }
 }
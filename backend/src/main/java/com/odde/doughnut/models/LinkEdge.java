@@ -0,0 +1,29 @@
+package com.odde.doughnut.models;
+
+import com.odde.doughnut.entities.LinkType;
+import com.odde.doughnut.entities.LinkingNote;
+
+public record LinkEdge(
+    Integer linkId,
+    LinkType type,
+    Integer sourceId,
+    Integer sourceNotebookId,
+    Integer targetId,
+    Integer targetNotebookId,
+    Long siblingOrder) {
+
+  public static LinkEdge of(LinkingNote link) {
+    return new LinkEdge(
+        link.getId(),
+        link.getLinkType(),
+        link.getParent().getId(),
+        link.getParent().getNotebook().getId(),
+        link.getTargetNote().getId(),
+        link.getTargetNote().getNotebook().getId(),
+        link.getSiblingOrder());
+  }
+
+  boolean withinOneNotebook() {
+    return sourceNotebookId.equals(targetNotebookId);
+  }
+}
@@ -0,0 +1,97 @@
+package com.odde.doughnut.models;
+
+import com.odde.doughnut.entities.LinkType;
+import com.odde.doughnut.entities.LinkingNote;
+import com.odde.doughnut.entities.Note;
+import com.odde.doughnut.factoryServices.ModelFactoryService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// The links seen by a viewer as an adjacency list of id-only edges. The edges of a notebook are
+// loaded with two queries the first time a note in it is visited. A link is stored with its
+// source notebook and is pointed to from its target notebook, so after the notebook of a note is
+// loaded both the links from and the links to that note are complete. Visibility follows
+// NoteViewer: a link across notebooks can be followed to its target only when the viewer can
+// refer to the target notebook, and back to its source only when they can refer to the source
+// notebook.
+public class LinkGraph {
+  private final NotebookAccess viewer;
+  private final ModelFactoryService modelFactoryService;
+  private final Set<Integer> loadedNotebookIds = new HashSet<>();
+  private final Set<Integer> loadedLinkIds = new HashSet<>();
+  private final Map<Integer, List<LinkEdge>> linksFrom = new HashMap<>();
+  private final Map<Integer, List<LinkEdge>> linksTo = new HashMap<>();
+
+  public LinkGraph(NotebookAccess viewer, ModelFactoryService modelFactoryService) {
+    this.viewer = viewer;
+    this.modelFactoryService = modelFactoryService;
+  }
+
+  // in the sibling order of the links
+  public Stream<LinkEdge> linksFrom(
+      Integer noteId, Integer notebookId, Collection<LinkType> types) {
+    loadNotebook(notebookId);
+    return linksFrom.getOrDefault(noteId, List.of()).stream()
+        .filter(edge -> types.contains(edge.type()))
+        .filter(edge -> edge.withinOneNotebook() || canReferTo(edge.targetNotebookId()));
+  }
+
+  // in the order the links were created
+  public Stream<LinkEdge> linksTo(Integer noteId, Integer notebookId, LinkType type) {
+    loadNotebook(notebookId);
+    return linksTo.getOrDefault(noteId, List.of()).stream()
+        .filter(edge -> edge.type() == type)
+        .filter(edge -> edge.withinOneNotebook() || canReferTo(edge.sourceNotebookId()));
+  }
+
+  public Stream<LinkEdge> siblingLinksOfSameLinkType(LinkEdge link) {
+    return linksTo(link.targetId(), link.targetNotebookId(), link.type())
+        .filter(edge -> !edge.linkId().equals(link.linkId()));
+  }
+
+  public List<LinkingNote> loadLinks(List<Integer> linkIds) {
+    return load(linkIds).stream().map(LinkingNote.class::cast).toList();
+  }
+
+  public List<Note> loadNotes(List<Integer> noteIds) {
+    return load(noteIds);
+  }
+
+  private List<Note> load(List<Integer> ids) {
+    if (ids.isEmpty()) return List.of();
+    Map<Integer, Note> notes =
+        modelFactoryService.noteRepository.findAllByIds(ids).stream()
+            .collect(Collectors.toMap(Note::getId, Function.identity()));
+    return ids.stream().map(notes::get).filter(Objects::nonNull).toList();
+  }
+
+  private void loadNotebook(Integer notebookId) {
+    if (!loadedNotebookIds.add(notebookId)) return;
+    List<LinkEdge> edges = new ArrayList<>();
+    edges.addAll(modelFactoryService.noteRepository.findAllLinkEdgesFromNotebook(notebookId));
+    edges.addAll(modelFactoryService.noteRepository.findAllLinkEdgesToNotebook(notebookId));
+    edges.stream()
+        .filter(edge -> loadedLinkIds.add(edge.linkId()))
+        .forEach(
+            edge -> {
+              linksFrom.computeIfAbsent(edge.sourceId(), k -> new ArrayList<>()).add(edge);
+              linksTo.computeIfAbsent(edge.targetId(), k -> new ArrayList<>()).add(edge);
+            });
+    linksFrom.values().forEach(l -> l.sort(Comparator.comparing(LinkEdge::siblingOrder)));
+    linksTo.values().forEach(l -> l.sort(Comparator.comparing(LinkEdge::linkId)));
+  }
+
+  private boolean canReferTo(Integer notebookId) {
+    return viewer.canReferTo(notebookId);
+  }
+}
@@ -3,7 +3,11 @@ package com.odde.doughnut.models;
 import com.odde.doughnut.entities.Note;
 import com.odde.doughnut.factoryServices.ModelFactoryService;
 import java.sql.Timestamp;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.logging.log4j.util.Strings;
 
 public class NoteModel {
@@ -23,7 +27,7 @@ public class NoteModel {
       }
     }
 
-    entity.setDeletedAt(currentUTCTimestamp);
+    entity.softDelete(currentUTCTimestamp);
     modelFactoryService.save(entity);
   }
 
@@ -34,7 +38,7 @@ public class NoteModel {
         modelFactoryService.save(entity.getNotebook());
       }
     }
-    entity.setDeletedAt(null);
+    entity.restoreSoftDeleted();
     modelFactoryService.save(entity);
   }
 
@@ -47,4 +51,23 @@ public class NoteModel {
             entity.getNotebook().getId(), entity.getWikidataId());
     return (existingNotes.stream().anyMatch(n -> !n.equals(entity)));
   }
+
+  public Stream<Note> getAllNoneLinkDescendants() {
+    Map<Integer, List<Note>> childrenByParentId =
+        modelFactoryService
+            .noteRepository
+            .findAllByAncestorPathPrefix(entity.getDescendantPathPrefix())
+            .stream()
+            .collect(Collectors.groupingBy(Note::getParentIdFromAncestorPath));
+    return noneLinkDescendantsOf(entity.getId(), childrenByParentId);
+  }
+
+  private static Stream<Note> noneLinkDescendantsOf(
+      Integer noteId, Map<Integer, List<Note>> childrenByParentId) {
+    return childrenByParentId.getOrDefault(noteId, List.of()).stream()
+        .filter(c -> c.getDeletedAt() == null && c.getLinkType() == null)
+        .sorted(Comparator.comparing(Note::getSiblingOrder))
+        .flatMap(
+            c -> Stream.concat(Stream.of(c), noneLinkDescendantsOf(c.getId(), childrenByParentId)));
+  }
 }
@@ -18,13 +18,22 @@ public class NoteMotionModel {
     Notebook notebook = subject.getNotebook();
     moveHeadNoteOnly();
     Note parent = getNewParent();
+    String oldPrefix = subject.getDescendantPathPrefix();
     subject.setParentNote(parent);
+    subject.refreshAncestorPath();
     modelFactoryService.save(subject);
+    updateDescendantPaths(oldPrefix, subject.getDescendantPathPrefix());
     if (notebook.getHeadNote() == subject) {
       modelFactoryService.remove(notebook);
     }
   }
 
+  private void updateDescendantPaths(String oldPrefix, String newPrefix) {
+    if (oldPrefix.equals(newPrefix)) return;
+    modelFactoryService.noteRepository.replaceAncestorPathPrefix(oldPrefix, newPrefix);
+    modelFactoryService.refreshLoadedNotes(note -> note.getAncestorPath().startsWith(oldPrefix));
+  }
+
   private Note getNewParent() {
     if (asFirstChildOfNote) {
       return relativeToNote;
@@ -33,10 +42,12 @@ public class NoteMotionModel {
   }
 
   private void moveHeadNoteOnly() throws CyclicLinkDetectedException {
-    if (relativeToNote.getAncestors().contains(subject)) {
+    if (relativeToNote.getAncestorIds().contains(subject.getId())) {
       throw new CyclicLinkDetectedException();
     }
-    subject.updateSiblingOrder(relativeToNote, asFirstChildOfNote);
+    subject
+        .updateSiblingOrder(relativeToNote, asFirstChildOfNote)
+        .forEach(modelFactoryService::save);
   }
 
   public void validate() throws MovementNotPossibleException {
@@ -0,0 +1,44 @@
+package com.odde.doughnut.models;
+
+import com.odde.doughnut.controllers.dto.NoteRealm;
+import com.odde.doughnut.entities.LinkingNote;
+import com.odde.doughnut.entities.Note;
+import com.odde.doughnut.entities.repositories.NoteRepository;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Loads everything a NoteRealm serializes with a fixed number of queries: the note with its
+// ancestors, the targets of its links and the sources of its refers (with their ancestors,
+// which are needed for the NoteTopic) are prefetched together, parents first, so that the
+// children and refers queries find all their eager associations already loaded.
+public class NoteRealmProjection {
+  private final NotebookAccess viewer;
+  private final NoteRepository noteRepository;
+
+  public NoteRealmProjection(NotebookAccess viewer, NoteRepository noteRepository) {
+    this.viewer = viewer;
+    this.noteRepository = noteRepository;
+  }
+
+  public NoteRealm load(Note note) {
+    Integer noteId = note.getId();
+    Set<Integer> ids = new LinkedHashSet<>(note.getAncestorIds());
+    ids.add(noteId);
+    noteRepository.findTargetPathsOfChildren(noteId).forEach(p -> ids.addAll(Note.idsInPath(p)));
+    noteRepository.findSourcePathsOfRefers(noteId).forEach(p -> ids.addAll(Note.idsInPath(p)));
+    Note loaded =
+        noteRepository.findAllWithAccessoryByIdsParentFirst(List.copyOf(ids)).stream()
+            .filter(n -> n.getId().equals(noteId))
+            .findFirst()
+            .orElse(note);
+
+    NoteViewer noteViewer = new NoteViewer(viewer, loaded);
+    NoteRealm noteRealm = new NoteRealm(loaded);
+    noteRealm.setChildren(noteRepository.findAllChildrenWithTargets(noteId));
+    List<LinkingNote> refers = noteRepository.findAllRefersWithSources(noteId);
+    noteRealm.setRefers(noteViewer.visibleRefers(refers));
+    noteRealm.setFromBazaar(noteViewer.isFromBazaar());
+    return noteRealm;
+  }
+}
@@ -7,24 +7,33 @@ import java.util.stream.Stream;
 
 public class NoteViewer {
 
-  private User viewer;
+  private NotebookAccess viewer;
   private Note note;
 
-  public NoteViewer(User viewer, Note note) {
+  public NoteViewer(NotebookAccess viewer, Note note) {
     this.viewer = viewer;
     this.note = note;
   }
 
   public NoteRealm toJsonObject() {
     NoteRealm nvb = new NoteRealm(note);
+    nvb.setChildren(note.getChildren());
     nvb.setRefers(getRefers());
-    nvb.setFromBazaar(viewer == null || !viewer.owns(note.getNotebook()));
+    nvb.setFromBazaar(isFromBazaar());
 
     return nvb;
   }
 
+  boolean isFromBazaar() {
+    return !viewer.owns(note.getNotebook());
+  }
+
   public List<LinkingNote> getRefers() {
-    return note.getRefers().stream().filter(l -> allowed(l)).toList();
+    return visibleRefers(note.getRefers());
+  }
+
+  List<LinkingNote> visibleRefers(List<LinkingNote> refers) {
+    return refers.stream().filter(l -> allowed(l)).toList();
   }
 
   public List<LinkingNote> linksOfTypeThroughDirect(List<LinkType> linkTypes) {
@@ -42,7 +51,6 @@ public class NoteViewer {
 
   private boolean allowed(LinkingNote l) {
     if (l.getParent().getNotebook() == l.getTargetNote().getNotebook()) return true;
-    if (viewer == null) return false;
     return viewer.canReferTo(l.getParent().getNotebook());
   }
 }
@@ -0,0 +1,46 @@
+package com.odde.doughnut.models;
+
+import com.odde.doughnut.entities.Notebook;
+import com.odde.doughnut.entities.User;
+import java.util.BitSet;
+
+// The notebooks a viewer can reach, as sets of notebook ids: the ones they own (by themselves or
+// through a circle), the ones they can refer to (owned or subscribed), and the ones shared in
+// the bazaar, which anyone can read. A notebook that is not saved yet is not in the sets, so it
+// is answered from the entities. See NotebookAccessService.
+public class NotebookAccess {
+  private final User viewer;
+  private final BitSet owned;
+  private final BitSet referable;
+  private final BitSet bazaar;
+
+  public NotebookAccess(User viewer, BitSet owned, BitSet referable, BitSet bazaar) {
+    this.viewer = viewer;
+    this.owned = owned;
+    this.referable = referable;
+    this.bazaar = bazaar;
+  }
+
+  public boolean owns(Notebook notebook) {
+    if (viewer == null || notebook == null) return false;
+    if (notebook.getId() == null) return viewer.owns(notebook);
+    return owned.get(notebook.getId());
+  }
+
+  public boolean canReferTo(Notebook notebook) {
+    if (viewer == null || notebook == null) return false;
+    if (notebook.getId() == null) return viewer.canReferTo(notebook);
+    return referable.get(notebook.getId());
+  }
+
+  public boolean canReferTo(Integer notebookId) {
+    if (viewer == null || notebookId == null) return false;
+    return referable.get(notebookId);
+  }
+
+  public boolean canRead(Notebook notebook) {
+    if (notebook == null) return false;
+    if (canReferTo(notebook)) return true;
+    return notebook.getId() != null && bazaar.get(notebook.getId());
+  }
+}
@@ -0,0 +1,50 @@
+package com.odde.doughnut.models;
+
+import com.odde.doughnut.entities.Note;
+import com.odde.doughnut.entities.ReviewPoint;
+import com.odde.doughnut.entities.User;
+import com.odde.doughnut.factoryServices.ModelFactoryService;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Remembers the review points of the user, and which notes have none, for the length of one
+// request, so that checking a whole cohort of candidate notes costs one query instead of one per
+// note, and looking up the review point of a candidate afterwards costs none.
+public class ReviewPointCache {
+  private final User user;
+  private final ModelFactoryService modelFactoryService;
+  private final Map<Integer, ReviewPoint> reviewPoints = new HashMap<>();
+
+  public ReviewPointCache(User user, ModelFactoryService modelFactoryService) {
+    this.user = user;
+    this.modelFactoryService = modelFactoryService;
+  }
+
+  public Set<Integer> noteIdsWithReviewPoint(Collection<Integer> noteIds) {
+    if (user == null) return Set.of();
+    load(noteIds);
+    return noteIds.stream().filter(id -> reviewPoints.get(id) != null).collect(Collectors.toSet());
+  }
+
+  public ReviewPoint getReviewPointFor(Note note) {
+    if (user == null || note.getId() == null) return null;
+    load(List.of(note.getId()));
+    return reviewPoints.get(note.getId());
+  }
+
+  // a note without a review point is kept with null, so that it is not queried again
+  private void load(Collection<Integer> noteIds) {
+    List<Integer> unknown =
+        noteIds.stream().filter(id -> !reviewPoints.containsKey(id)).distinct().toList();
+    if (unknown.isEmpty()) return;
+    unknown.forEach(id -> reviewPoints.put(id, null));
+    modelFactoryService
+        .reviewPointRepository
+        .findAllByUserAndNoteIds(user.getId(), unknown)
+        .forEach(reviewPoint -> reviewPoints.put(reviewPoint.getNote().getId(), reviewPoint));
+  }
+}
@@ -28,12 +28,16 @@ public class Reviewing {
   }
 
   public Stream<Note> getDueInitialReviewPoints() {
-    int count = remainingDailyNewNotesCount();
+    return getDueInitialReviewPoints(getNewReviewPointsOfToday());
+  }
+
+  private Stream<Note> getDueInitialReviewPoints(List<ReviewPoint> newReviewPointsOfToday) {
+    int count = remainingDailyNewNotesCount(newReviewPointsOfToday);
     if (count == 0) {
       return Stream.empty();
     }
     List<Integer> alreadyInitialReviewed =
-        getNewReviewPointsOfToday().stream().map(ReviewPoint::getNote).map(Note::getId).toList();
+        newReviewPointsOfToday.stream().map(ReviewPoint::getNote).map(Note::getId).toList();
     return Stream.concat(
             getSubscriptionModelStream()
                 .flatMap(
@@ -66,16 +70,15 @@ public class Reviewing {
     return reviewScope.getThingsHaveNotBeenReviewedAtAllCount();
   }
 
-  private int toInitialReviewCount() {
-    if (getDueInitialReviewPoints().findFirst().isEmpty()) {
+  private int toInitialReviewCount(List<ReviewPoint> newReviewPointsOfToday, int notLearntCount) {
+    if (getDueInitialReviewPoints(newReviewPointsOfToday).findFirst().isEmpty()) {
       return 0;
     }
-    return Math.min(remainingDailyNewNotesCount(), notLearntCount());
+    return Math.min(remainingDailyNewNotesCount(newReviewPointsOfToday), notLearntCount);
   }
 
-  private int remainingDailyNewNotesCount() {
-    long sameDayCount = getNewReviewPointsOfToday().size();
-    return (int) (userModel.entity.getDailyNewNotesCount() - sameDayCount);
+  private int remainingDailyNewNotesCount(List<ReviewPoint> newReviewPointsOfToday) {
+    return userModel.entity.getDailyNewNotesCount() - newReviewPointsOfToday.size();
   }
 
   private List<ReviewPoint> getNewReviewPointsOfToday() {
@@ -101,11 +104,13 @@ public class Reviewing {
   }
 
   public ReviewStatus getReviewStatus() {
+    List<ReviewPoint> newReviewPointsOfToday = getNewReviewPointsOfToday();
     ReviewStatus reviewStatus = new ReviewStatus();
     reviewStatus.toRepeatCount = (int) getReviewPointsNeedToRepeat(0).count();
     reviewStatus.learntCount = userModel.learntCount();
     reviewStatus.notLearntCount = notLearntCount();
-    reviewStatus.toInitialReviewCount = toInitialReviewCount();
+    reviewStatus.toInitialReviewCount =
+        toInitialReviewCount(newReviewPointsOfToday, reviewStatus.notLearntCount);
 
     return reviewStatus;
   }
@@ -1,12 +1,13 @@
 package com.odde.doughnut.models;
 
+import com.odde.doughnut.algorithms.SearchTokenizer;
 import com.odde.doughnut.controllers.dto.NoteTopic;
 import com.odde.doughnut.controllers.dto.SearchTerm;
 import com.odde.doughnut.entities.Note;
 import com.odde.doughnut.entities.User;
 import com.odde.doughnut.entities.repositories.NoteRepository;
+import com.odde.doughnut.entities.repositories.NoteSearchScope;
 import java.util.List;
-import java.util.stream.Stream;
 import org.apache.logging.log4j.util.Strings;
 
 public class SearchTermModel {
@@ -20,30 +21,26 @@ public class SearchTermModel {
     this.noteRepository = noteRepository;
   }
 
-  private Stream<Note> search(Integer notebookId) {
-    if (searchTerm.getAllMyCircles()) {
-      return Stream.concat(
-          searchInMyNotebooksAndSubscriptions(),
-          noteRepository.searchForUserInAllMyCircle(user.getId(), getPattern()));
+  private List<Note> search(Integer notebookId) {
+    boolean allMyCircles = searchTerm.getAllMyCircles();
+    boolean allMyNotebooksAndSubscriptions =
+        allMyCircles || searchTerm.getAllMyNotebooksAndSubscriptions();
+    NoteSearchScope scope =
+        new NoteSearchScope(
+            user.getId(),
+            allMyNotebooksAndSubscriptions ? null : notebookId,
+            allMyNotebooksAndSubscriptions,
+            allMyCircles);
+    List<String> tokens = new SearchTokenizer(searchTerm.getTrimmedSearchKey()).tokens();
+    if (tokens.isEmpty()) {
+      return noteRepository.searchByTopicLike(
+          scope,
+          "%" + searchTerm.getTrimmedSearchKey() + "%",
+          searchTerm.getPageIndex(),
+          searchTerm.getPageSize());
     }
-    if (searchTerm.getAllMyNotebooksAndSubscriptions()) {
-      return searchInMyNotebooksAndSubscriptions();
-    }
-    return noteRepository.searchInNotebook(notebookId, getPattern());
-  }
-
-  private Stream<Note> searchInMyNotebooksAndSubscriptions() {
-    return Stream.concat(
-        searchInMyNotebooks(),
-        noteRepository.searchForUserInAllMySubscriptions(user.getId(), getPattern()));
-  }
-
-  private Stream<Note> searchInMyNotebooks() {
-    return noteRepository.searchForUserInAllMyNotebooks(user.getId(), getPattern());
-  }
-
-  private String getPattern() {
-    return "%" + searchTerm.getTrimmedSearchKey() + "%";
+    return noteRepository.searchByTokenPrefixes(
+        scope, tokens, searchTerm.getPageIndex(), searchTerm.getPageSize());
   }
 
   public List<NoteTopic> searchForNotesInRelateTo(Note note) {
@@ -55,7 +52,7 @@ public class SearchTermModel {
       avoidNoteId = note.getId();
     }
     Integer finalAvoidNoteId = avoidNoteId;
-    return search(note.getNotebook().getId())
+    return search(note.getNotebook().getId()).stream()
         .filter(n -> !n.getId().equals(finalAvoidNoteId))
         .map(Note::getNoteTopic)
         .toList();
@@ -65,6 +62,6 @@ public class SearchTermModel {
     if (Strings.isBlank(searchTerm.getTrimmedSearchKey())) {
       return List.of();
     }
-    return search(null).map(Note::getNoteTopic).toList();
+    return search(null).stream().map(Note::getNoteTopic).toList();
   }
 }
@@ -8,6 +8,7 @@ import com.odde.doughnut.factoryServices.ModelFactoryService;
 import java.sql.Timestamp;
 import java.time.ZoneId;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Stream;
 import lombok.Getter;
 
@@ -15,16 +16,31 @@ public class UserModel implements ReviewScope {
 
   @Getter protected final User entity;
   protected final ModelFactoryService modelFactoryService;
+  private ReviewPointCache reviewPointCache;
 
   public UserModel(User user, ModelFactoryService modelFactoryService) {
     this.entity = user;
     this.modelFactoryService = modelFactoryService;
   }
 
+  // the current user is request scoped, so the question generation and the answer of a request
+  // share this cache; the review points of another user get a cache of their own
+  public ReviewPointCache getReviewPointCacheFor(User user) {
+    if (!Objects.equals(entity, user)) return modelFactoryService.toReviewPointCache(user);
+    if (reviewPointCache == null) {
+      reviewPointCache = modelFactoryService.toReviewPointCache(entity);
+    }
+    return reviewPointCache;
+  }
+
   private Authorization getAuthorization() {
     return modelFactoryService.toAuthorization(entity);
   }
 
+  public NotebookAccess getNotebookAccess() {
+    return modelFactoryService.toNotebookAccess(entity);
+  }
+
   public String getName() {
     return entity.getName();
   }
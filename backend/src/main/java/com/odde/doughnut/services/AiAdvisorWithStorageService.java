@@ -9,11 +9,11 @@ import com.theokanning.openai.assistants.message.Message;
 import com.theokanning.openai.client.OpenAiApi;
 import com.theokanning.openai.service.assistant_stream.AssistantSSE;
 import io.reactivex.Flowable;
-import java.io.IOException;
 import java.sql.Timestamp;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import org.springframework.transaction.support.TransactionTemplate;
 
 public record AiAdvisorWithStorageService(
     AiAdvisorService aiAdvisorService, ModelFactoryService modelFactoryService) {
@@ -100,33 +100,44 @@ public record AiAdvisorWithStorageService(
     return getChatService(note).loadPreviousMessages(byUserAndNote.getThreadId());
   }
 
+  // the knowledge is uploaded after the assistant is committed; see NotebookAssistantKnowledge
   public NotebookAssistant recreateNotebookAssistant(
-      Timestamp currentUTCTimestamp, User creator, Notebook notebook, String additionalInstruction)
-      throws IOException {
+      Timestamp currentUTCTimestamp,
+      User creator,
+      Notebook notebook,
+      String additionalInstruction,
+      TransactionTemplate transactionTemplate) {
     AssistantService service = getDefaultChatService();
-    String modelName = getGlobalSettingsService().globalSettingOthers().getValue();
-    String fileContent = notebook.getNotebookDump();
-    Assistant chatAssistant =
-        service.createAssistantWithFile(
-            modelName,
-            "Assistant for notebook %s".formatted(notebook.getHeadNote().getTopicConstructor()),
-            fileContent,
-            additionalInstruction);
-    return updateNotebookAssistant(currentUTCTimestamp, creator, notebook, chatAssistant);
-  }
-
-  private NotebookAssistant updateNotebookAssistant(
-      Timestamp currentUTCTimestamp, User creator, Notebook notebook, Assistant chatAssistant) {
-    NotebookAssistant notebookAssistant =
-        this.modelFactoryService.notebookAssistantRepository.findByNotebook(notebook);
-    if (notebookAssistant == null) {
-      notebookAssistant = new NotebookAssistant();
-      notebookAssistant.setNotebook(notebook);
-    }
-    notebookAssistant.setCreator(creator);
-    notebookAssistant.setCreatedAt(currentUTCTimestamp);
-    notebookAssistant.setAssistantId(chatAssistant.getId());
-    this.modelFactoryService.save(notebookAssistant);
-    return notebookAssistant;
+    NotebookAssistantKnowledge knowledge =
+        new NotebookAssistantKnowledge(service.openAiApiHandler(), modelFactoryService);
+    NotebookAssistantKnowledge.Changes changes =
+        transactionTemplate.execute(
+            status -> {
+              String modelName = getGlobalSettingsService().globalSettingOthers().getValue();
+              String assistantName =
+                  "Assistant for notebook %s"
+                      .formatted(notebook.getHeadNote().getTopicConstructor());
+              NotebookAssistant notebookAssistant =
+                  this.modelFactoryService.notebookAssistantRepository.findByNotebook(notebook);
+              if (notebookAssistant == null) {
+                notebookAssistant = new NotebookAssistant();
+                notebookAssistant.setNotebook(notebook);
+              }
+              List<String> legacyVectorStoreIds =
+                  knowledge.legacyVectorStoreIdsOf(notebookAssistant);
+              Assistant chatAssistant =
+                  service.createAssistantWithVectorStore(
+                      modelName,
+                      assistantName,
+                      knowledge.vectorStoreIdOf(notebookAssistant, assistantName),
+                      additionalInstruction);
+              notebookAssistant.setCreator(creator);
+              notebookAssistant.setCreatedAt(currentUTCTimestamp);
+              notebookAssistant.setAssistantId(chatAssistant.getId());
+              notebookAssistant = this.modelFactoryService.save(notebookAssistant);
+              return knowledge.changesOf(notebookAssistant, notebook, legacyVectorStoreIds);
+            });
+    knowledge.apply(changes, transactionTemplate);
+    return changes.notebookAssistant();
   }
 }
@@ -9,7 +9,9 @@ import com.odde.doughnut.factoryServices.ModelFactoryService;
 import com.odde.doughnut.services.wikidataApis.WikidataIdWithApi;
 import java.io.IOException;
 import java.sql.Timestamp;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import lombok.SneakyThrows;
 
 public record NoteConstructionService(
@@ -35,8 +37,12 @@ public record NoteConstructionService(
         note, note.getParent(), user, linkTypeToParent, currentUTCTimestamp);
     if (wikidataIdWithApi != null) {
       wikidataIdWithApi.associateNoteToWikidata(note, modelFactoryService);
-      wikidataIdWithApi.getCountryOfOrigin().ifPresent(wwa -> createSubNote(note, wwa));
-      wikidataIdWithApi.getAuthors().forEach(wwa -> createSubNote(note, wwa));
+      List<WikidataIdWithApi> related =
+          Stream.concat(
+                  wikidataIdWithApi.getCountryOfOrigin().stream(), wikidataIdWithApi.getAuthors())
+              .toList();
+      WikidataIdWithApi.prefetch(related);
+      related.forEach(wwa -> createSubNote(note, wwa));
     }
     modelFactoryService.entityManager.flush();
     modelFactoryService.entityManager.refresh(note);
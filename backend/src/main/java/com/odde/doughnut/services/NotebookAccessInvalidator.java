@@ -0,0 +1,44 @@
+package com.odde.doughnut.services;
+
+import com.odde.doughnut.entities.BazaarNotebook;
+import com.odde.doughnut.entities.Notebook;
+import com.odde.doughnut.entities.Subscription;
+import com.odde.doughnut.entities.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class NotebookAccessInvalidator {
+  @Autowired NotebookAccessService notebookAccessService;
+
+  // a new notebook of a user only changes what that user owns
+  @PostPersist
+  public void entityCreated(Object entity) {
+    if (entity instanceof Notebook notebook
+        && notebook.getOwnership() != null
+        && notebook.getOwnership().getUser() != null) {
+      invalidate(notebook.getOwnership().getUser());
+      return;
+    }
+    entityChanged(entity);
+  }
+
+  @PostUpdate
+  @PostRemove
+  public void entityChanged(Object entity) {
+    switch (entity) {
+      case Subscription subscription -> invalidate(subscription.getUser());
+      case User user -> invalidate(user);
+      case BazaarNotebook ignored -> notebookAccessService.invalidateBazaar();
+      default -> notebookAccessService.invalidateAll();
+    }
+  }
+
+  private void invalidate(User user) {
+    if (user == null) return;
+    notebookAccessService.invalidate(user.getId());
+  }
+}
@@ -0,0 +1,109 @@
+package com.odde.doughnut.services;
+
+import com.odde.doughnut.entities.Image;
+import com.odde.doughnut.entities.User;
+import com.odde.doughnut.entities.repositories.BazaarNotebookRepository;
+import com.odde.doughnut.entities.repositories.NotebookRepository;
+import com.odde.doughnut.entities.repositories.SubscriptionRepository;
+import com.odde.doughnut.models.NotebookAccess;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Service;
+
+// Keeps the ids of the notebooks each user owns and can refer to, the ids of the notebooks in
+// the bazaar, and whether each image is shown in the bazaar, between requests. An entry is
+// dropped whenever the user's subscriptions or circles change. Changes to notebooks and circles
+// may affect many users, so they invalidate every entry, and changes to the bazaar only
+// invalidate the bazaar and the images. See NotebookAccessInvalidator.
+@Service
+public class NotebookAccessService {
+  static final int MAX_CACHED_USERS = 10_000;
+  static final int MAX_CACHED_IMAGES = 10_000;
+
+  private record Entry(BitSet owned, BitSet referable) {}
+
+  private record Bazaar(long generation, BitSet notebookIds) {}
+
+  private record ImageInBazaar(long generation, boolean shown) {}
+
+  private final NotebookRepository notebookRepository;
+  private final SubscriptionRepository subscriptionRepository;
+  private final BazaarNotebookRepository bazaarNotebookRepository;
+  private final VersionedUserCache<Entry> entries = new VersionedUserCache<>(MAX_CACHED_USERS);
+  private final AtomicLong bazaarGeneration = new AtomicLong();
+  private volatile Bazaar bazaar;
+  private final Map<Integer, ImageInBazaar> imagesInBazaar = new ConcurrentHashMap<>();
+
+  public NotebookAccessService(
+      NotebookRepository notebookRepository,
+      SubscriptionRepository subscriptionRepository,
+      BazaarNotebookRepository bazaarNotebookRepository) {
+    this.notebookRepository = notebookRepository;
+    this.subscriptionRepository = subscriptionRepository;
+    this.bazaarNotebookRepository = bazaarNotebookRepository;
+  }
+
+  public NotebookAccess of(User user) {
+    BitSet bazaarNotebookIds = getBazaarNotebookIds();
+    if (user == null || user.getId() == null) {
+      return new NotebookAccess(user, new BitSet(), new BitSet(), bazaarNotebookIds);
+    }
+    Integer userId = user.getId();
+    Entry entry =
+        entries.get(
+            userId,
+            cached -> true,
+            () -> {
+              BitSet owned = toBitSet(notebookRepository.findAllIdsOwnedBy(userId));
+              BitSet referable =
+                  toBitSet(subscriptionRepository.findAllNotebookIdsSubscribedBy(userId));
+              referable.or(owned);
+              return new Entry(owned, referable);
+            });
+    return new NotebookAccess(user, entry.owned(), entry.referable(), bazaarNotebookIds);
+  }
+
+  private BitSet getBazaarNotebookIds() {
+    long currentGeneration = bazaarGeneration.get();
+    Bazaar current = bazaar;
+    if (current == null || current.generation() != currentGeneration) {
+      current =
+          new Bazaar(currentGeneration, toBitSet(bazaarNotebookRepository.findAllNotebookIds()));
+      bazaar = current;
+    }
+    return current.notebookIds();
+  }
+
+  // an image is shown in the bazaar when a note of a notebook in the bazaar has it attached
+  public boolean isShownInBazaar(Image image) {
+    if (imagesInBazaar.size() >= MAX_CACHED_IMAGES) imagesInBazaar.clear();
+    long currentGeneration = bazaarGeneration.get();
+    ImageInBazaar cached = imagesInBazaar.get(image.getId());
+    if (cached != null && cached.generation() == currentGeneration) return cached.shown();
+    boolean shown = bazaarNotebookRepository.countNoteAccessoriesShowing(image) > 0;
+    imagesInBazaar.put(image.getId(), new ImageInBazaar(currentGeneration, shown));
+    return shown;
+  }
+
+  public void invalidate(Integer userId) {
+    entries.invalidate(userId);
+  }
+
+  public void invalidateAll() {
+    entries.invalidateAll();
+  }
+
+  public void invalidateBazaar() {
+    bazaarGeneration.incrementAndGet();
+    VersionedUserCache.afterCompletion(bazaarGeneration::incrementAndGet);
+  }
+
+  private static BitSet toBitSet(List<Integer> ids) {
+    BitSet bitSet = new BitSet();
+    ids.forEach(bitSet::set);
+    return bitSet;
+  }
+}
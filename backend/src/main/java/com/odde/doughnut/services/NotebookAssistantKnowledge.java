@@ -0,0 +1,184 @@
+package com.odde.doughnut.services;
+
+import static com.theokanning.openai.service.OpenAiService.defaultObjectMapper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.odde.doughnut.entities.Note;
+import com.odde.doughnut.entities.Notebook;
+import com.odde.doughnut.entities.NotebookAssistant;
+import com.odde.doughnut.entities.NotebookAssistantChunk;
+import com.odde.doughnut.exceptions.OpenAIServiceErrorException;
+import com.odde.doughnut.factoryServices.ModelFactoryService;
+import com.odde.doughnut.services.openAiApis.OpenAiApiHandler;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Keeps the vector store of a notebook assistant in line with the notes of the notebook. The
+// notes are uploaded in one file per subtree under the head note. Each file is written to the
+// disk while it is generated and hashed on the way, and only the files whose hash differs from
+// the last upload are uploaded again; the files of the subtrees that are gone are removed.
+//
+// The changes are worked out in a transaction, but the uploads run outside of it and the
+// chunks are recorded in a transaction of their own afterwards. A replaced file is only
+// deleted once the chunk that points to its replacement is committed, so a failure leaves the
+// chunks pointing to files that still exist.
+public record NotebookAssistantKnowledge(
+    OpenAiApiHandler openAiApiHandler, ModelFactoryService modelFactoryService) {
+  private static final String PURPOSE = "assistants";
+
+  // a subtree whose content changed; previous is null for a new subtree
+  record Upload(String chunkKey, Path file, String contentHash, NotebookAssistantChunk previous) {}
+
+  public record Changes(
+      NotebookAssistant notebookAssistant,
+      String vectorStoreId,
+      List<Upload> uploads,
+      List<NotebookAssistantChunk> gone,
+      List<String> legacyVectorStoreIds) {}
+
+  public String vectorStoreIdOf(NotebookAssistant notebookAssistant, String storeName) {
+    if (notebookAssistant.getVectorStoreId() == null) {
+      notebookAssistant.setVectorStoreId(openAiApiHandler.createVectorStore(storeName));
+    }
+    return notebookAssistant.getVectorStoreId();
+  }
+
+  // assistants created before the vector store was kept have a store of their own, which is
+  // deleted once the new one is in place. The old assistant may be deleted already.
+  public List<String> legacyVectorStoreIdsOf(NotebookAssistant notebookAssistant) {
+    if (notebookAssistant.getVectorStoreId() != null
+        || notebookAssistant.getAssistantId() == null) {
+      return List.of();
+    }
+    try {
+      return openAiApiHandler.getVectorStoreIdsOfAssistant(notebookAssistant.getAssistantId());
+    } catch (OpenAIServiceErrorException e) {
+      return List.of();
+    }
+  }
+
+  public Changes changesOf(
+      NotebookAssistant notebookAssistant, Notebook notebook, List<String> legacyVectorStoreIds) {
+    Map<String, NotebookAssistantChunk> uploaded = new HashMap<>();
+    modelFactoryService
+        .notebookAssistantChunkRepository
+        .findByNotebookAssistant(notebookAssistant)
+        .forEach(chunk -> uploaded.put(chunk.getChunkKey(), chunk));
+    List<Upload> uploads = new ArrayList<>();
+    Map<Integer, Note> notesById = modelFactoryService.notesWithAncestorsById(notebook);
+    try {
+      for (Map.Entry<Integer, List<Note>> subtree : notebook.getNotesBySubtree().entrySet()) {
+        String chunkKey = "note-" + subtree.getKey();
+        NotebookAssistantChunk chunk = uploaded.remove(chunkKey);
+        Path file = Files.createTempFile(chunkKey + "-", ".json");
+        String contentHash = writeNoteBriefs(subtree.getValue(), notesById, file);
+        if (chunk != null && chunk.getContentHash().equals(contentHash)) {
+          Files.delete(file);
+          continue;
+        }
+        uploads.add(new Upload(chunkKey, file, contentHash, chunk));
+      }
+    } catch (IOException e) {
+      deleteFiles(uploads);
+      throw new UncheckedIOException(e);
+    }
+    return new Changes(
+        notebookAssistant,
+        notebookAssistant.getVectorStoreId(),
+        uploads,
+        List.copyOf(uploaded.values()),
+        legacyVectorStoreIds);
+  }
+
+  public void apply(Changes changes, TransactionTemplate transactionTemplate) {
+    List<String> fileIds = new ArrayList<>();
+    try {
+      for (Upload upload : changes.uploads()) {
+        String fileId = openAiApiHandler.uploadFile(upload.file().toFile(), PURPOSE);
+        openAiApiHandler.addVectorStoreFile(changes.vectorStoreId(), fileId);
+        fileIds.add(fileId);
+      }
+    } catch (RuntimeException e) {
+      fileIds.forEach(
+          fileId -> openAiApiHandler.removeVectorStoreFile(changes.vectorStoreId(), fileId));
+      throw e;
+    } finally {
+      deleteFiles(changes.uploads());
+    }
+    transactionTemplate.executeWithoutResult(status -> record(changes, fileIds));
+    changes.uploads().stream()
+        .filter(upload -> upload.previous() != null)
+        .forEach(
+            upload ->
+                openAiApiHandler.removeVectorStoreFile(
+                    changes.vectorStoreId(), upload.previous().getFileId()));
+    changes
+        .gone()
+        .forEach(
+            gone ->
+                openAiApiHandler.removeVectorStoreFile(changes.vectorStoreId(), gone.getFileId()));
+    changes.legacyVectorStoreIds().forEach(openAiApiHandler::deleteVectorStore);
+  }
+
+  private void record(Changes changes, List<String> fileIds) {
+    for (int i = 0; i < fileIds.size(); i++) {
+      Upload upload = changes.uploads().get(i);
+      NotebookAssistantChunk chunk = upload.previous();
+      if (chunk == null) {
+        chunk = new NotebookAssistantChunk();
+        chunk.setNotebookAssistant(changes.notebookAssistant());
+        chunk.setChunkKey(upload.chunkKey());
+      }
+      chunk.setContentHash(upload.contentHash());
+      chunk.setFileId(fileIds.get(i));
+      modelFactoryService.save(chunk);
+    }
+    changes.gone().forEach(modelFactoryService.notebookAssistantChunkRepository::delete);
+  }
+
+  private static void deleteFiles(List<Upload> uploads) {
+    for (Upload upload : uploads) {
+      try {
+        Files.deleteIfExists(upload.file());
+      } catch (IOException e) {
+        upload.file().toFile().deleteOnExit();
+      }
+    }
+  }
+
+  // writes the briefs of the notes as a JSON array and returns the SHA-256 of what was written
+  private static String writeNoteBriefs(List<Note> notes, Map<Integer, Note> notesById, Path file)
+      throws IOException {
+    MessageDigest digest = sha256();
+    try (OutputStream out = new DigestOutputStream(Files.newOutputStream(file), digest);
+        JsonGenerator generator = defaultObjectMapper().createGenerator(out)) {
+      generator.useDefaultPrettyPrinter();
+      generator.writeStartArray();
+      for (Note note : notes) {
+        generator.writeObject(note.getNoteBrief(notesById));
+      }
+      generator.writeEndArray();
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
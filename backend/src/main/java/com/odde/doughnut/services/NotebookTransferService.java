@@ -0,0 +1,429 @@
+package com.odde.doughnut.services;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.odde.doughnut.algorithms.SearchTokenizer;
+import com.odde.doughnut.algorithms.SiblingOrder;
+import com.odde.doughnut.controllers.dto.NoteExportLine;
+import com.odde.doughnut.entities.LinkType;
+import com.odde.doughnut.entities.Note;
+import com.odde.doughnut.entities.NoteAccessory;
+import com.odde.doughnut.entities.NoteSearchToken;
+import com.odde.doughnut.entities.Notebook;
+import com.odde.doughnut.entities.User;
+import com.odde.doughnut.factoryServices.ModelFactoryService;
+import com.odde.doughnut.models.NotebookAccess;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+// Moves a whole notebook in and out as NDJSON, one note per line (see NoteExportLine), without
+// holding the notebook in memory. The export reads the notes with one query whose result is
+// streamed by the driver, in the order of the materialized paths, which is a pre-order walk of
+// the tree: every note comes right after its parent or the subtree of its previous sibling. The
+// import reads the lines one by one and writes them with JDBC batches; only a stack of the
+// ancestors of the current note and a map from the exported ids to the new ids (for the link
+// targets) are kept.
+@Service
+public class NotebookTransferService {
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+  private static final ObjectReader lineReader = objectMapper.readerFor(NoteExportLine.class);
+
+  // no index can serve the computed sort key, so MySQL sorts the notes of the notebook with a
+  // filesort (on disk for a large notebook) before the first row is streamed
+  private static final String SELECT_NOTES_IN_TREE_ORDER =
+      "SELECT n.id, n.parent_id, n.ancestor_path, n.topic_constructor, n.description,"
+          + " n.created_at, n.wikidata_id, n.sibling_order, n.target_note_id,"
+          + " n.remember_spelling, n.skip_review, n.level,"
+          + " a.url, a.image_url, a.image_mask, a.use_parent_image"
+          + " FROM note n LEFT JOIN note_accessory a ON a.note_id = n.id"
+          + " WHERE n.notebook_id = ? AND n.deleted_at IS NULL"
+          + " ORDER BY CONCAT(n.ancestor_path, n.id, '/')";
+  private static final String INSERT_NOTE =
+      "INSERT INTO note (creator_id, notebook_id, topic_constructor, description, created_at,"
+          + " updated_at, wikidata_id, sibling_order, remember_spelling, skip_review, level)"
+          + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+  private static final String UPDATE_PARENT =
+      "UPDATE note SET parent_id = ?, ancestor_path = ? WHERE id = ?";
+  private static final String INSERT_HIERARCHICAL_NOTE =
+      "INSERT INTO hierarchical_note (note_id) VALUES (?)";
+  private static final String INSERT_LINKING_NOTE =
+      "INSERT INTO linking_note (note_id, link_type) VALUES (?, ?)";
+  private static final String INSERT_ACCESSORY =
+      "INSERT INTO note_accessory (note_id, url, image_url, image_mask, use_parent_image)"
+          + " VALUES (?, ?, ?, ?, ?)";
+  private static final String INSERT_SEARCH_TOKEN =
+      "INSERT INTO note_search_token (note_id, token, in_topic) VALUES (?, ?, ?)";
+  private static final String UPDATE_TARGET = "UPDATE note SET target_note_id = ? WHERE id = ?";
+  private static final String SOFT_DELETE = "UPDATE note SET deleted_at = ? WHERE id = ?";
+
+  // a note whose descendants may still follow in the stream
+  private record Placed(int id, int position, String descendantPathPrefix) {}
+
+  private record PendingLink(int noteId, int exportedTargetId) {}
+
+  private final int batchSize;
+  private final JdbcTemplate jdbcTemplate;
+  private final JdbcTemplate streamingJdbcTemplate;
+  private final ModelFactoryService modelFactoryService;
+  private final ReviewQueueService reviewQueueService;
+
+  public NotebookTransferService(
+      @Value("${spring.notebook-transfer.batch-size:500}") int batchSize,
+      JdbcTemplate jdbcTemplate,
+      ModelFactoryService modelFactoryService,
+      ReviewQueueService reviewQueueService) {
+    this.batchSize = batchSize;
+    this.jdbcTemplate = jdbcTemplate;
+    this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+    // makes the MySQL driver stream the rows instead of reading the whole result first
+    this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    this.modelFactoryService = modelFactoryService;
+    this.reviewQueueService = reviewQueueService;
+  }
+
+  public void export(Notebook notebook, OutputStream outputStream) throws IOException {
+    OutputStream out = new BufferedOutputStream(outputStream);
+    Deque<Placed> ancestors = new ArrayDeque<>();
+    int[] position = {0};
+    try {
+      streamingJdbcTemplate.query(
+          SELECT_NOTES_IN_TREE_ORDER,
+          rs -> {
+            int id = rs.getInt("id");
+            Integer parentId = integerOrNull(rs, "parent_id");
+            String ancestorPath = rs.getString("ancestor_path");
+            while (!ancestors.isEmpty()
+                && !ancestorPath.startsWith(ancestors.peek().descendantPathPrefix())) {
+              ancestors.pop();
+            }
+            Placed parent = ancestors.peek();
+            boolean placed =
+                parentId == null ? position[0] == 0 : parent != null && parent.id() == parentId;
+            // the notes under a deleted note are left out with it
+            if (!placed) return;
+            NoteExportLine line = toLine(rs);
+            if (parent != null) line.setParentPosition(parent.position());
+            ancestors.push(new Placed(id, position[0]++, ancestorPath + id + "/"));
+            try {
+              out.write(objectMapper.writeValueAsBytes(line));
+              out.write('\n');
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          },
+          notebook.getId());
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    out.flush();
+  }
+
+  private static NoteExportLine toLine(ResultSet rs) throws SQLException {
+    NoteExportLine line = new NoteExportLine();
+    line.setId(rs.getInt("id"));
+    line.setTopicConstructor(rs.getString("topic_constructor"));
+    line.setDetails(rs.getString("description"));
+    line.setCreatedAt(rs.getTimestamp("created_at"));
+    line.setWikidataId(rs.getString("wikidata_id"));
+    line.setSiblingOrder(rs.getLong("sibling_order"));
+    line.setTargetId(integerOrNull(rs, "target_note_id"));
+    line.setRememberSpelling(rs.getBoolean("remember_spelling"));
+    line.setSkipReview(rs.getBoolean("skip_review"));
+    line.setLevel(rs.getInt("level"));
+    line.setUrl(rs.getString("url"));
+    line.setImageUrl(rs.getString("image_url"));
+    line.setImageMask(rs.getString("image_mask"));
+    if (rs.getBoolean("use_parent_image")) line.setUseParentImage(true);
+    return line;
+  }
+
+  private static Integer integerOrNull(ResultSet rs, String column) throws SQLException {
+    int value = rs.getInt(column);
+    return rs.wasNull() ? null : value;
+  }
+
+  public Note importNotebook(User user, Timestamp currentUTCTimestamp, InputStream inputStream)
+      throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, UTF_8));
+    NoteExportLine headLine = nextLine(reader);
+    if (headLine == null || headLine.getParentPosition() != null) {
+      throw badRequest("The export must start with the head note of the notebook.");
+    }
+    Note head = createNotebook(user, currentUTCTimestamp, headLine);
+    Importer importer = new Importer(user, head, currentUTCTimestamp);
+    for (NoteExportLine line = nextLine(reader); line != null; line = nextLine(reader)) {
+      importer.add(line);
+    }
+    importer.finish();
+    // the notes written with JDBC do not go through ReviewQueueInvalidator
+    reviewQueueService.invalidate(user.getId());
+    return head;
+  }
+
+  private static NoteExportLine nextLine(BufferedReader reader) throws IOException {
+    String text;
+    do {
+      text = reader.readLine();
+      if (text == null) return null;
+    } while (text.isBlank());
+    NoteExportLine line = lineReader.readValue(text);
+    if (line.getTopicConstructor() == null) throw badRequest("A note without a topic.");
+    return line;
+  }
+
+  private Note createNotebook(User user, Timestamp currentUTCTimestamp, NoteExportLine headLine) {
+    Note head =
+        user.getOwnership()
+            .createAndPersistNotebook(
+                user, currentUTCTimestamp, modelFactoryService, headLine.getTopicConstructor());
+    head.setDetails(headLine.getDetails());
+    head.setWikidataId(headLine.getWikidataId());
+    if (headLine.getCreatedAt() != null) head.setCreatedAt(headLine.getCreatedAt());
+    if (headLine.getRememberSpelling() != null) {
+      head.getReviewSetting().setRememberSpelling(headLine.getRememberSpelling());
+    }
+    if (headLine.getSkipReview() != null) {
+      head.getReviewSetting().setSkipReview(headLine.getSkipReview());
+    }
+    if (headLine.getLevel() != null) head.getReviewSetting().setLevel(headLine.getLevel());
+    if (headLine.hasAccessory()) {
+      NoteAccessory accessory = head.getOrInitializeNoteAccessory();
+      accessory.setUrl(headLine.getUrl());
+      accessory.setImageUrl(headLine.getImageUrl());
+      accessory.setImageMask(headLine.getImageMask());
+      accessory.setUseParentImage(Boolean.TRUE.equals(headLine.getUseParentImage()));
+    }
+    modelFactoryService.save(head);
+    // the notes below are written with JDBC and refer to the head note and the notebook
+    modelFactoryService.entityManager.flush();
+    return head;
+  }
+
+  private static ResponseStatusException badRequest(String reason) {
+    return new ResponseStatusException(HttpStatus.BAD_REQUEST, reason);
+  }
+
+  private class Importer {
+    private final User user;
+    private final Note head;
+    private final Timestamp currentUTCTimestamp;
+    private final Deque<Placed> ancestors = new ArrayDeque<>();
+    private final Map<Integer, Integer> newIdsByExportedId = new HashMap<>();
+    private final List<PendingLink> links = new ArrayList<>();
+    private final List<NoteExportLine> batch = new ArrayList<>();
+    private int nextPosition = 1;
+
+    Importer(User user, Note head, Timestamp currentUTCTimestamp) {
+      this.user = user;
+      this.head = head;
+      this.currentUTCTimestamp = currentUTCTimestamp;
+      ancestors.push(new Placed(head.getId(), 0, head.getDescendantPathPrefix()));
+    }
+
+    void add(NoteExportLine line) {
+      if (line.getParentPosition() == null) {
+        throw badRequest("Only the head note can be without a parent.");
+      }
+      batch.add(line);
+      if (batch.size() >= batchSize) flush();
+    }
+
+    void finish() {
+      flush();
+      resolveLinks();
+    }
+
+    private void flush() {
+      if (batch.isEmpty()) return;
+      List<Integer> ids = insertNotes();
+      List<Object[]> parents = new ArrayList<>();
+      List<Object[]> hierarchicalNotes = new ArrayList<>();
+      List<Object[]> linkingNotes = new ArrayList<>();
+      List<Object[]> accessories = new ArrayList<>();
+      List<Object[]> searchTokens = new ArrayList<>();
+      for (int i = 0; i < batch.size(); i++) {
+        NoteExportLine line = batch.get(i);
+        int id = ids.get(i);
+        Placed parent = placeUnderParent(line, id);
+        parents.add(new Object[] {parent.id(), parent.descendantPathPrefix(), id});
+        if (line.getTargetId() == null) {
+          hierarchicalNotes.add(new Object[] {id});
+        } else {
+          linkingNotes.add(new Object[] {id, linkTypeId(line.getTopicConstructor())});
+          links.add(new PendingLink(id, line.getTargetId()));
+        }
+        if (line.hasAccessory()) {
+          accessories.add(
+              new Object[] {
+                id,
+                line.getUrl(),
+                line.getImageUrl(),
+                line.getImageMask(),
+                Boolean.TRUE.equals(line.getUseParentImage())
+              });
+        }
+        searchTokensOf(line)
+            .forEach(t -> searchTokens.add(new Object[] {id, t.getToken(), t.getInTopic()}));
+        if (line.getId() != null) newIdsByExportedId.put(line.getId(), id);
+      }
+      jdbcTemplate.batchUpdate(UPDATE_PARENT, parents);
+      if (!hierarchicalNotes.isEmpty()) {
+        jdbcTemplate.batchUpdate(INSERT_HIERARCHICAL_NOTE, hierarchicalNotes);
+      }
+      if (!linkingNotes.isEmpty()) jdbcTemplate.batchUpdate(INSERT_LINKING_NOTE, linkingNotes);
+      if (!accessories.isEmpty()) jdbcTemplate.batchUpdate(INSERT_ACCESSORY, accessories);
+      if (!searchTokens.isEmpty()) jdbcTemplate.batchUpdate(INSERT_SEARCH_TOKEN, searchTokens);
+      batch.clear();
+    }
+
+    // the parent ids are only known once the batch is inserted, so the notes are inserted
+    // without a parent and moved under it right after
+    private List<Integer> insertNotes() {
+      List<Object[]> rows = new ArrayList<>();
+      for (NoteExportLine line : batch) {
+        rows.add(
+            new Object[] {
+              user.getId(),
+              head.getNotebook().getId(),
+              line.getTopicConstructor(),
+              line.getDetails(),
+              line.getCreatedAt() != null ? line.getCreatedAt() : currentUTCTimestamp,
+              currentUTCTimestamp,
+              line.getWikidataId(),
+              line.getSiblingOrder() != null
+                  ? line.getSiblingOrder()
+                  : SiblingOrder.getGoodEnoughOrderNumber(),
+              Boolean.TRUE.equals(line.getRememberSpelling()),
+              Boolean.TRUE.equals(line.getSkipReview()),
+              line.getLevel() != null ? line.getLevel() : 0
+            });
+      }
+      GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+      jdbcTemplate.batchUpdate(
+          con -> con.prepareStatement(INSERT_NOTE, Statement.RETURN_GENERATED_KEYS),
+          new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+              new ArgumentPreparedStatementSetter(rows.get(i)).setValues(ps);
+            }
+
+            @Override
+            public int getBatchSize() {
+              return rows.size();
+            }
+          },
+          keyHolder);
+      return keyHolder.getKeyList().stream()
+          .map(keys -> ((Number) keys.values().iterator().next()).intValue())
+          .toList();
+    }
+
+    // the lines come in a pre-order walk of the tree, so the parent of a note is always on the
+    // stack of the notes whose subtrees are not finished yet
+    private Placed placeUnderParent(NoteExportLine line, int id) {
+      while (!ancestors.isEmpty() && ancestors.peek().position() != line.getParentPosition()) {
+        ancestors.pop();
+      }
+      if (ancestors.isEmpty()) {
+        throw badRequest(
+            "The note at position %d does not follow its parent.".formatted(nextPosition));
+      }
+      Placed parent = ancestors.peek();
+      ancestors.push(new Placed(id, nextPosition++, parent.descendantPathPrefix() + id + "/"));
+      return parent;
+    }
+
+    private void resolveLinks() {
+      List<Object[]> targets = new ArrayList<>();
+      Map<Integer, List<Integer>> outsideTargets = new HashMap<>();
+      for (PendingLink link : links) {
+        Integer targetId = newIdsByExportedId.get(link.exportedTargetId());
+        if (targetId != null) {
+          targets.add(new Object[] {targetId, link.noteId()});
+        } else {
+          outsideTargets
+              .computeIfAbsent(link.exportedTargetId(), k -> new ArrayList<>())
+              .add(link.noteId());
+        }
+      }
+      // a target outside of the export is kept only when it is still there and can be referred
+      // to by the importing user
+      List<Integer> outsideTargetIds = new ArrayList<>(outsideTargets.keySet());
+      NotebookAccess notebookAccess = modelFactoryService.toNotebookAccess(user);
+      for (int from = 0; from < outsideTargetIds.size(); from += batchSize) {
+        List<Integer> ids =
+            outsideTargetIds.subList(from, Math.min(from + batchSize, outsideTargetIds.size()));
+        modelFactoryService.noteRepository.findAllByIds(ids).stream()
+            .filter(n -> n.getDeletedAt() == null && notebookAccess.canReferTo(n.getNotebook()))
+            .forEach(
+                n ->
+                    outsideTargets
+                        .remove(n.getId())
+                        .forEach(linkId -> targets.add(new Object[] {n.getId(), linkId})));
+      }
+      List<Object[]> unresolved = new ArrayList<>();
+      outsideTargets
+          .values()
+          .forEach(
+              linkIds ->
+                  linkIds.forEach(
+                      linkId -> unresolved.add(new Object[] {currentUTCTimestamp, linkId})));
+      batchUpdate(UPDATE_TARGET, targets);
+      batchUpdate(SOFT_DELETE, unresolved);
+    }
+
+    private void batchUpdate(String sql, List<Object[]> rows) {
+      for (int from = 0; from < rows.size(); from += batchSize) {
+        jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + batchSize, rows.size())));
+      }
+    }
+  }
+
+  private static Integer linkTypeId(String topicConstructor) {
+    LinkType linkType =
+        topicConstructor.startsWith(":") ? LinkType.fromLabel(topicConstructor.substring(1)) : null;
+    if (linkType == null) {
+      throw badRequest("Unknown link type \"%s\".".formatted(topicConstructor));
+    }
+    return linkType.id;
+  }
+
+  private static Set<NoteSearchToken> searchTokensOf(NoteExportLine line) {
+    Set<NoteSearchToken> tokens = new LinkedHashSet<>();
+    new SearchTokenizer(line.getDetails())
+        .tokens()
+        .forEach(t -> tokens.add(new NoteSearchToken(t, false)));
+    new SearchTokenizer(line.getTopicConstructor())
+        .tokens()
+        .forEach(t -> tokens.add(new NoteSearchToken(t, true)));
+    return tokens;
+  }
+}
@@ -0,0 +1,64 @@
+package com.odde.doughnut.services;
+
+import com.odde.doughnut.factoryServices.ModelFactoryService;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Removes the generated questions that were never answered nor approved once they have not been
+// served for the retention period. Only the rows that carry a content hash were generated and
+// deduplicated; questions added by hand are never removed. The rows are deleted by primary key
+// in small batches, each in its own transaction, so that no lock is held on the tables for long.
+// Whether a question has been answered is checked again in the DELETE itself, so an answer
+// submitted in the meantime keeps its question.
+@Service
+public class QuizQuestionCompactionService {
+  static final Duration RETENTION = Duration.ofDays(30);
+
+  private final int batchSize;
+  private final TransactionTemplate transactionTemplate;
+  private final ModelFactoryService modelFactoryService;
+
+  public QuizQuestionCompactionService(
+      @Value("${spring.quiz-question-compaction.batch-size:500}") int batchSize,
+      PlatformTransactionManager transactionManager,
+      ModelFactoryService modelFactoryService) {
+    this.batchSize = batchSize;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.modelFactoryService = modelFactoryService;
+  }
+
+  @Scheduled(cron = "${spring.quiz-question-compaction.cron}")
+  public void compact() {
+    removeUnansweredQuestionsLastServedBefore(
+        new Timestamp(System.currentTimeMillis() - RETENTION.toMillis()));
+  }
+
+  public int removeUnansweredQuestionsLastServedBefore(Timestamp before) {
+    int removed = 0;
+    while (true) {
+      Integer count = transactionTemplate.execute(status -> removeOneBatch(before));
+      if (count == null || count == 0) return removed;
+      removed += count;
+    }
+  }
+
+  private int removeOneBatch(Timestamp before) {
+    List<Integer> ids =
+        modelFactoryService.quizQuestionAndAnswerRepository.findUnansweredIdsLastServedBefore(
+            before, batchSize);
+    if (ids.isEmpty()) return 0;
+    List<Integer> quizQuestionIds =
+        modelFactoryService.quizQuestionAndAnswerRepository.findQuizQuestionIds(ids);
+    int removed = modelFactoryService.quizQuestionAndAnswerRepository.deleteUnansweredByIds(ids);
+    if (!quizQuestionIds.isEmpty()) {
+      modelFactoryService.quizQuestionRepository.deleteUnreferencedByIds(quizQuestionIds);
+    }
+    return removed;
+  }
+}
@@ -0,0 +1,196 @@
+package com.odde.doughnut.services;
+
+import com.odde.doughnut.entities.QuizQuestionAndAnswer;
+import com.odde.doughnut.entities.ReviewPoint;
+import com.odde.doughnut.entities.User;
+import com.odde.doughnut.factoryServices.ModelFactoryService;
+import com.odde.doughnut.factoryServices.quizFacotries.QuizQuestionGenerator;
+import com.odde.doughnut.services.ai.AiQuestionGenerator;
+import com.odde.doughnut.testability.TestabilitySettings;
+import com.theokanning.openai.client.OpenAiApi;
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Generates the questions of a user's next due review points in the background while they are
+// answering the current one, so that the next question, which may need an OpenAI round trip,
+// is ready when it is asked for. The work queue and the number of workers are bounded; when the
+// queue is full the look-ahead is simply skipped. A prepared question is only served if its
+// note has not been updated since it was generated. Prepared questions that are not asked for
+// within PREPARED_TTL are dropped, and when MAX_PREPARED is reached the oldest ones make room.
+@Service
+@Slf4j
+public class QuizQuestionPrefetchService {
+  static final int LOOK_AHEAD = 5;
+  static final int MAX_PREPARED = 10_000;
+  static final Duration PREPARED_TTL = Duration.ofHours(1);
+
+  private record Prepared(
+      Integer quizQuestionAndAnswerId, Timestamp noteUpdatedAt, long preparedAtMillis) {
+    boolean isExpired(long nowMillis) {
+      return nowMillis - preparedAtMillis > PREPARED_TTL.toMillis();
+    }
+  }
+
+  private final Map<Integer, Prepared> prepared = new LinkedHashMap<>();
+  private final Set<Integer> pending = ConcurrentHashMap.newKeySet();
+  private final boolean enabled;
+  private final ThreadPoolExecutor workers;
+  private final TransactionTemplate transactionTemplate;
+  private final ModelFactoryService modelFactoryService;
+  private final TestabilitySettings testabilitySettings;
+  private final AiQuestionGenerator aiQuestionGenerator;
+
+  public QuizQuestionPrefetchService(
+      @Value("${spring.quiz-question-prefetch.enabled}") boolean enabled,
+      @Value("${spring.quiz-question-prefetch.workers:2}") int workerCount,
+      @Value("${spring.quiz-question-prefetch.queue-capacity:100}") int queueCapacity,
+      @Qualifier("testableOpenAiApi") OpenAiApi openAiApi,
+      PlatformTransactionManager transactionManager,
+      ModelFactoryService modelFactoryService,
+      TestabilitySettings testabilitySettings) {
+    this.enabled = enabled;
+    this.workers =
+        new ThreadPoolExecutor(
+            workerCount,
+            workerCount,
+            30,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            Thread.ofVirtual().name("quiz-question-prefetch-", 0).factory());
+    this.workers.allowCoreThreadTimeOut(true);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.modelFactoryService = modelFactoryService;
+    this.testabilitySettings = testabilitySettings;
+    this.aiQuestionGenerator =
+        new AiQuestionGenerator(
+            openAiApi,
+            new GlobalSettingsService(modelFactoryService),
+            modelFactoryService.aiResponseCache);
+  }
+
+  public Optional<QuizQuestionAndAnswer> take(ReviewPoint reviewPoint) {
+    Prepared question;
+    synchronized (prepared) {
+      question = prepared.remove(reviewPoint.getId());
+    }
+    if (question == null || question.isExpired(System.currentTimeMillis())) {
+      return Optional.empty();
+    }
+    if (!Objects.equals(question.noteUpdatedAt(), reviewPoint.getNote().getUpdatedAt())) {
+      return Optional.empty();
+    }
+    QuizQuestionAndAnswer quizQuestionAndAnswer =
+        modelFactoryService.entityManager.find(
+            QuizQuestionAndAnswer.class, question.quizQuestionAndAnswerId());
+    if (quizQuestionAndAnswer == null) return Optional.empty();
+    quizQuestionAndAnswer.setLastServedAt(new Timestamp(System.currentTimeMillis()));
+    return Optional.of(modelFactoryService.save(quizQuestionAndAnswer));
+  }
+
+  public void lookAhead(User user, ReviewPoint current, Timestamp currentUTCTimestamp) {
+    if (!enabled) return;
+    List<Integer> upcoming;
+    try (Stream<ReviewPoint> due =
+        modelFactoryService.reviewPointRepository
+            .findAllByUserAndNextReviewAtLessThanEqualOrderByNextReviewAt(
+                user.getId(), currentUTCTimestamp)) {
+      upcoming =
+          due.map(ReviewPoint::getId)
+              .filter(id -> !id.equals(current.getId()))
+              .limit(LOOK_AHEAD)
+              .toList();
+    }
+    List<Integer> toPrepare;
+    synchronized (prepared) {
+      toPrepare = upcoming.stream().filter(id -> !prepared.containsKey(id)).toList();
+    }
+    toPrepare.stream().filter(pending::add).forEach(this::submit);
+  }
+
+  public void clear() {
+    synchronized (prepared) {
+      prepared.clear();
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    workers.shutdownNow();
+  }
+
+  private void submit(Integer reviewPointId) {
+    try {
+      workers.execute(
+          () -> {
+            try {
+              prepare(reviewPointId);
+            } catch (RuntimeException e) {
+              // the question will be generated when it is asked for
+              log.warn("Failed to prepare a question for review point {}", reviewPointId, e);
+            } finally {
+              pending.remove(reviewPointId);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      pending.remove(reviewPointId);
+    }
+  }
+
+  // the question is generated outside of a transaction, so that no database connection is held
+  // while waiting for OpenAI, and only saved in a transaction of its own
+  void prepare(Integer reviewPointId) {
+    ReviewPoint reviewPoint =
+        modelFactoryService.entityManager.find(ReviewPoint.class, reviewPointId);
+    if (reviewPoint == null) return;
+    if (Boolean.TRUE.equals(reviewPoint.getRemovedFromReview())) return;
+    QuizQuestionGenerator generator =
+        new QuizQuestionGenerator(
+            reviewPoint.getUser(),
+            reviewPoint.getNote(),
+            testabilitySettings.getRandomizer(),
+            modelFactoryService);
+    QuizQuestionAndAnswer generated =
+        generator.generateAQuestionOfRandomTypeWithoutSaving(aiQuestionGenerator);
+    QuizQuestionAndAnswer question =
+        transactionTemplate.execute(status -> generator.reuseOrSave(generated));
+    Prepared entry =
+        new Prepared(
+            question.getId(), reviewPoint.getNote().getUpdatedAt(), System.currentTimeMillis());
+    synchronized (prepared) {
+      makeRoom(entry.preparedAtMillis());
+      prepared.remove(reviewPointId);
+      prepared.put(reviewPointId, entry);
+    }
+  }
+
+  // the questions are kept in the order they were prepared, so the expired ones and the oldest
+  // ones are at the head
+  private void makeRoom(long nowMillis) {
+    Iterator<Prepared> oldestFirst = prepared.values().iterator();
+    while (oldestFirst.hasNext()) {
+      Prepared oldest = oldestFirst.next();
+      if (prepared.size() < MAX_PREPARED && !oldest.isExpired(nowMillis)) return;
+      oldestFirst.remove();
+    }
+  }
+}
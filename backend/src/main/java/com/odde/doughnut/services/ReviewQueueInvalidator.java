@@ -0,0 +1,58 @@
+package com.odde.doughnut.services;
+
+import com.odde.doughnut.entities.Note;
+import com.odde.doughnut.entities.Notebook;
+import com.odde.doughnut.entities.ReviewPoint;
+import com.odde.doughnut.entities.Subscription;
+import com.odde.doughnut.entities.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// A change to a note or notebook only affects the users who review the notebook: its owner, the
+// members of the owning circle and the subscribers. They are looked up with JDBC on the
+// connection of the transaction, as a JPA query here would flush the session in the middle of
+// its flush.
+@Component
+public class ReviewQueueInvalidator {
+  private static final String READERS_OF_NOTEBOOK =
+      "SELECT o.user_id FROM notebook nb JOIN ownership o ON o.id = nb.ownership_id"
+          + " WHERE nb.id = ? AND o.user_id IS NOT NULL"
+          + " UNION SELECT cu.user_id FROM notebook nb JOIN ownership o ON o.id = nb.ownership_id"
+          + " JOIN circle_user cu ON cu.circle_id = o.circle_id WHERE nb.id = ?"
+          + " UNION SELECT s.user_id FROM subscription s WHERE s.notebook_id = ?";
+
+  @Autowired ReviewQueueService reviewQueueService;
+  @Autowired JdbcTemplate jdbcTemplate;
+
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  public void entityChanged(Object entity) {
+    switch (entity) {
+      case ReviewPoint reviewPoint -> invalidate(reviewPoint.getUser());
+      case Subscription subscription -> invalidate(subscription.getUser());
+      case User user -> invalidate(user);
+      case Note note -> invalidateReadersOf(note.getNotebook());
+      case Notebook notebook -> invalidateReadersOf(notebook);
+      default -> reviewQueueService.invalidateAll();
+    }
+  }
+
+  private void invalidate(User user) {
+    if (user == null) return;
+    reviewQueueService.invalidate(user.getId());
+  }
+
+  // a note that is created with its notebook has none yet; the notebook invalidates its readers
+  private void invalidateReadersOf(Notebook notebook) {
+    if (notebook == null || notebook.getId() == null) return;
+    Integer id = notebook.getId();
+    jdbcTemplate
+        .queryForList(READERS_OF_NOTEBOOK, Integer.class, id, id, id)
+        .forEach(reviewQueueService::invalidate);
+  }
+}
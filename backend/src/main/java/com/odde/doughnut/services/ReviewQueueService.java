@@ -0,0 +1,53 @@
+package com.odde.doughnut.services;
+
+import com.odde.doughnut.controllers.dto.ReviewStatus;
+import com.odde.doughnut.models.TimestampOperations;
+import com.odde.doughnut.models.UserModel;
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import org.springframework.stereotype.Service;
+
+// Keeps the review status of each user between requests. An entry is only valid for the same
+// half-day window and time zone, and is dropped whenever the user's review points,
+// subscriptions or settings change, or a note or notebook the user reviews. See
+// ReviewQueueInvalidator.
+@Service
+public class ReviewQueueService {
+  static final int MAX_CACHED_USERS = 10_000;
+
+  private record Entry(String window, ReviewStatus reviewStatus) {}
+
+  private final VersionedUserCache<Entry> entries = new VersionedUserCache<>(MAX_CACHED_USERS);
+
+  public ReviewStatus getReviewStatus(
+      UserModel userModel, Timestamp currentUTCTimestamp, ZoneId timeZone) {
+    String window = getWindow(currentUTCTimestamp, timeZone);
+    return entries
+        .get(
+            userModel.getEntity().getId(),
+            entry -> entry.window().equals(window),
+            () ->
+                new Entry(
+                    window,
+                    userModel.createReviewing(currentUTCTimestamp, timeZone).getReviewStatus()))
+        .reviewStatus();
+  }
+
+  public void invalidate(Integer userId) {
+    entries.invalidate(userId);
+  }
+
+  public void invalidateAll() {
+    entries.invalidateAll();
+  }
+
+  public void clear() {
+    entries.clear();
+  }
+
+  private static String getWindow(Timestamp currentUTCTimestamp, ZoneId timeZone) {
+    return timeZone.getId()
+        + "@"
+        + TimestampOperations.alignByHalfADay(currentUTCTimestamp, timeZone).getTime();
+  }
+}
@@ -0,0 +1,101 @@
+package com.odde.doughnut.services;
+
+import com.odde.doughnut.algorithms.SiblingOrder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+// Gives this backend node a sibling order slot of its own, so that the sibling orders taken on
+// different nodes never clash, without configuring each node of the instance group. A node leases
+// a row of sibling_order_node_slot and keeps it with a heartbeat; a slot whose holder has stopped
+// beating for the lease period is free to be taken by another node. A slot set with
+// spring.sibling-order.node-slot is used as it is.
+@Slf4j
+@Service
+public class SiblingOrderSlotLease {
+  static final Duration LEASE = Duration.ofMinutes(5);
+
+  // the holder and the heartbeat are only taken over when the lease has run out; the
+  // assignments are made from left to right, so the heartbeat sees the new holder
+  private static final String CLAIM =
+      "INSERT INTO sibling_order_node_slot (slot, holder, heartbeat_at) VALUES (?, ?, NOW())"
+          + " ON DUPLICATE KEY UPDATE"
+          + " holder = IF(heartbeat_at < NOW() - INTERVAL ? SECOND, VALUES(holder), holder),"
+          + " heartbeat_at = IF(holder = VALUES(holder), NOW(), heartbeat_at)";
+
+  private final int configuredSlot;
+  private final JdbcTemplate jdbcTemplate;
+  private final String holder = UUID.randomUUID().toString();
+  private volatile Integer leasedSlot;
+
+  public SiblingOrderSlotLease(
+      @Value("${spring.sibling-order.node-slot:-1}") int configuredSlot,
+      JdbcTemplate jdbcTemplate) {
+    this.configuredSlot = configuredSlot;
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @PostConstruct
+  public void start() {
+    if (configuredSlot >= 0) {
+      SiblingOrder.useNodeSlot(configuredSlot);
+      return;
+    }
+    lease().ifPresent(SiblingOrder::useNodeSlot);
+  }
+
+  // tries the slots from a random one on, so that nodes starting together seldom compete
+  public OptionalInt lease() {
+    int first = ThreadLocalRandom.current().nextInt(SiblingOrder.NODE_SLOTS);
+    for (int i = 0; i < SiblingOrder.NODE_SLOTS; i++) {
+      int slot = (first + i) % SiblingOrder.NODE_SLOTS;
+      if (claim(slot)) {
+        leasedSlot = slot;
+        return OptionalInt.of(slot);
+      }
+    }
+    log.warn("No sibling order slot is free, keeping slot {}", SiblingOrder.getNodeSlot());
+    return OptionalInt.empty();
+  }
+
+  @Scheduled(fixedDelayString = "${spring.sibling-order.heartbeat-interval:PT1M}")
+  public void heartbeat() {
+    Integer slot = leasedSlot;
+    if (slot == null) return;
+    int kept =
+        jdbcTemplate.update(
+            "UPDATE sibling_order_node_slot SET heartbeat_at = NOW() WHERE slot = ? AND holder = ?",
+            slot,
+            holder);
+    if (kept == 0) {
+      log.warn("The lease of sibling order slot {} was lost; leasing again", slot);
+      lease().ifPresent(SiblingOrder::useNodeSlot);
+    }
+  }
+
+  @PreDestroy
+  public void release() {
+    Integer slot = leasedSlot;
+    if (slot == null) return;
+    leasedSlot = null;
+    jdbcTemplate.update(
+        "DELETE FROM sibling_order_node_slot WHERE slot = ? AND holder = ?", slot, holder);
+  }
+
+  boolean claim(int slot) {
+    jdbcTemplate.update(CLAIM, slot, holder, LEASE.toSeconds());
+    String current =
+        jdbcTemplate.queryForObject(
+            "SELECT holder FROM sibling_order_node_slot WHERE slot = ?", String.class, slot);
+    return Objects.equals(current, holder);
+  }
+}
@@ -0,0 +1,88 @@
+package com.odde.doughnut.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Keeps a value per user between requests. Each user has a version that is bumped when their
+// value is invalidated, and a generation that moves when every value is, so a reader that loaded
+// before the change cannot put its stale value back. An invalidation made in a transaction is
+// repeated when the transaction completes, committed or rolled back, as a reader in between may
+// have loaded the uncommitted data.
+final class VersionedUserCache<V> {
+  private record Entry<V>(long generation, long userVersion, V value) {}
+
+  private final int maxUsers;
+  private final Map<Integer, Entry<V>> entries = new ConcurrentHashMap<>();
+  private final Map<Integer, Long> userVersions = new ConcurrentHashMap<>();
+  private final AtomicLong generation = new AtomicLong();
+
+  VersionedUserCache(int maxUsers) {
+    this.maxUsers = maxUsers;
+  }
+
+  // the cached value when it is still valid and usable, otherwise the loaded one, which is kept
+  // unless the user's value was invalidated while it was being loaded
+  V get(Integer userId, Predicate<V> usable, Supplier<V> loader) {
+    if (entries.size() >= maxUsers) clear();
+    long currentGeneration = generation.get();
+    long userVersion = userVersions.getOrDefault(userId, 0L);
+    Entry<V> entry = entries.get(userId);
+    if (entry != null
+        && entry.generation() == currentGeneration
+        && entry.userVersion() == userVersion
+        && usable.test(entry.value())) {
+      return entry.value();
+    }
+    V value = loader.get();
+    Entry<V> loaded = new Entry<>(currentGeneration, userVersion, value);
+    entries.compute(
+        userId,
+        (id, cached) ->
+            userVersions.getOrDefault(id, 0L) == userVersion
+                    && generation.get() == currentGeneration
+                ? loaded
+                : cached);
+    return value;
+  }
+
+  void invalidate(Integer userId) {
+    if (userId == null) return;
+    bumpUserVersion(userId);
+    afterCompletion(() -> bumpUserVersion(userId));
+  }
+
+  void invalidateAll() {
+    generation.incrementAndGet();
+    afterCompletion(generation::incrementAndGet);
+  }
+
+  // forgetting the user versions could let a stale put through, so the generation moves too
+  void clear() {
+    generation.incrementAndGet();
+    entries.clear();
+    userVersions.clear();
+  }
+
+  // the version is bumped before the entry is removed, so a put that comes after the removal
+  // is rejected
+  private void bumpUserVersion(Integer userId) {
+    userVersions.merge(userId, 1L, Long::sum);
+    entries.remove(userId);
+  }
+
+  static void afterCompletion(Runnable runnable) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCompletion(int status) {
+            runnable.run();
+          }
+        });
+  }
+}
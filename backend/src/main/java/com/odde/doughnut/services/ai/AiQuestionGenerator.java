@@ -5,34 +5,54 @@ import com.odde.doughnut.entities.Note;
 import com.odde.doughnut.entities.QuizQuestionAndAnswer;
 import com.odde.doughnut.services.GlobalSettingsService;
 import com.odde.doughnut.services.ai.builder.OpenAIChatRequestBuilder;
+import com.odde.doughnut.services.openAiApis.AiResponseCache;
 import com.odde.doughnut.services.openAiApis.OpenAiApiHandler;
 import com.theokanning.openai.client.OpenAiApi;
 
+// Questions are always generated by asking OpenAI, so that the users get a new question each
+// time, whether they ask for one or review the note again. Only the evaluations are served from
+// the response cache, when there is one, as evaluating the same question about an unchanged note
+// gives the same result.
 public record AiQuestionGenerator(
-    OpenAiApi openAiApi, GlobalSettingsService globalSettingsService) {
-  private AiQuestionGeneratorForNote forNote(Note note, String modelName1) {
+    OpenAiApi openAiApi,
+    GlobalSettingsService globalSettingsService,
+    AiResponseCache responseCache) {
+  public AiQuestionGenerator(OpenAiApi openAiApi, GlobalSettingsService globalSettingsService) {
+    this(openAiApi, globalSettingsService, null);
+  }
+
+  private AiQuestionGeneratorForNote forNote(Note note, String modelName1, boolean cached) {
     OpenAIChatRequestBuilder chatAboutNoteRequestBuilder =
         OpenAIChatRequestBuilder.chatAboutNoteRequestBuilder(modelName1, note);
-    return new AiQuestionGeneratorForNote(
-        new OpenAiApiHandler(openAiApi), chatAboutNoteRequestBuilder);
+    OpenAiApiHandler openAiApiHandler = new OpenAiApiHandler(openAiApi);
+    if (cached && responseCache != null) {
+      openAiApiHandler = openAiApiHandler.withResponseCache(responseCache, note.getUpdatedAt());
+    }
+    return new AiQuestionGeneratorForNote(openAiApiHandler, chatAboutNoteRequestBuilder);
+  }
+
+  // the returned generators have read all they need from the database, so they can also be used
+  // to stream the answer on another thread
+  public AiQuestionGeneratorForNote forQuestionGeneration(Note note) {
+    return forNote(
+        note, globalSettingsService.globalSettingQuestionGeneration().getValue(), false);
+  }
+
+  public AiQuestionGeneratorForNote forEvaluation(Note note) {
+    return forNote(note, globalSettingsService.globalSettingEvaluation().getValue(), true);
   }
 
   public MCQWithAnswer getAiGeneratedQuestion(Note note) {
-    return forNote(note, globalSettingsService.globalSettingQuestionGeneration().getValue())
-        .getAiGeneratedQuestion();
+    return forQuestionGeneration(note).getAiGeneratedQuestion();
   }
 
   public MCQWithAnswer getAiGeneratedRefineQuestion(Note note, MCQWithAnswer mcqWithAnswer) {
-    return forNote(note, globalSettingsService.globalSettingQuestionGeneration().getValue())
-        .refineQuestion(mcqWithAnswer)
-        .orElse(null);
+    return forQuestionGeneration(note).refineQuestion(mcqWithAnswer).orElse(null);
   }
 
   public QuizQuestionContestResult getQuizQuestionContestResult(
       QuizQuestionAndAnswer quizQuestionAndAnswer) {
-    return forNote(
-            quizQuestionAndAnswer.getNote(),
-            globalSettingsService.globalSettingEvaluation().getValue())
+    return forEvaluation(quizQuestionAndAnswer.getNote())
         .evaluateQuestion(quizQuestionAndAnswer.getMcqWithAnswer())
         .map(e -> e.getQuizQuestionContestResult(quizQuestionAndAnswer.getCorrectAnswerIndex()))
         .orElse(null);
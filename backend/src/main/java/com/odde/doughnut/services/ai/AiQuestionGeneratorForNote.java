@@ -9,6 +9,7 @@ import com.odde.doughnut.services.ai.tools.AiToolList;
 import com.odde.doughnut.services.openAiApis.OpenAiApiHandler;
 import com.theokanning.openai.completion.chat.ChatCompletionRequest;
 import java.util.Optional;
+import java.util.function.Consumer;
 import org.apache.logging.log4j.util.Strings;
 
 public record AiQuestionGeneratorForNote(
@@ -21,6 +22,13 @@ public record AiQuestionGeneratorForNote(
         .orElse(null);
   }
 
+  public MCQWithAnswer getAiGeneratedQuestion(Consumer<JsonNode> onPartialQuestion) {
+    AiToolList tool = AiToolFactory.mcqWithAnswerAiTool();
+    return streamFunctionCallArguments(tool, onPartialQuestion)
+        .flatMap(AiQuestionGeneratorForNote::getValidQuestion)
+        .orElse(null);
+  }
+
   private static Optional<MCQWithAnswer> getValidQuestion(JsonNode question) {
     try {
       MCQWithAnswer mcqWithAnswer = new ObjectMapper().treeToValue(question, MCQWithAnswer.class);
@@ -40,6 +48,13 @@ public record AiQuestionGeneratorForNote(
         .flatMap(QuestionEvaluation::getQuestionEvaluation);
   }
 
+  public Optional<QuestionEvaluation> evaluateQuestion(
+      MCQWithAnswer question, Consumer<JsonNode> onPartialEvaluation) {
+    AiToolList questionEvaluationAiTool = AiToolFactory.questionEvaluationAiTool(question);
+    return streamFunctionCallArguments(questionEvaluationAiTool, onPartialEvaluation)
+        .flatMap(QuestionEvaluation::getQuestionEvaluation);
+  }
+
   public Optional<MCQWithAnswer> refineQuestion(MCQWithAnswer question) {
     AiToolList questionEvaluationAiTool = AiToolFactory.questionRefineAiTool(question);
     return requestAndGetFunctionCallArguments(questionEvaluationAiTool)
@@ -58,4 +73,11 @@ public record AiQuestionGeneratorForNote(
         chatAboutNoteRequestBuilder.addTool(tool).maxTokens(1500).build();
     return openAiApiHandler.getFirstToolCallArguments(chatRequest);
   }
+
+  private Optional<JsonNode> streamFunctionCallArguments(
+      AiToolList tool, Consumer<JsonNode> onPartialArguments) {
+    ChatCompletionRequest chatRequest =
+        chatAboutNoteRequestBuilder.addTool(tool).maxTokens(1500).stream(true).build();
+    return openAiApiHandler.streamFirstToolCallArguments(chatRequest, onPartialArguments);
+  }
 }
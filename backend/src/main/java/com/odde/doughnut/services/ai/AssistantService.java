@@ -1,5 +1,8 @@
 package com.odde.doughnut.services.ai;
 
+import static com.theokanning.openai.service.OpenAiService.defaultObjectMapper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.odde.doughnut.controllers.dto.*;
 import com.odde.doughnut.entities.Note;
 import com.odde.doughnut.services.ai.builder.OpenAIChatRequestBuilder;
@@ -14,7 +17,7 @@ import com.theokanning.openai.assistants.run.ToolCall;
 import com.theokanning.openai.assistants.thread.ThreadRequest;
 import com.theokanning.openai.service.assistant_stream.AssistantSSE;
 import io.reactivex.Flowable;
-import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 public record AssistantService(
@@ -31,10 +34,11 @@ public record AssistantService(
     return openAiApiHandler.createAssistant(assistantRequest);
   }
 
-  public Assistant createAssistantWithFile(
-      String modelName, String assistantName, String textContent, String additionalInstruction)
-      throws IOException {
-    ToolResources tooResources = uploadToolResources(assistantName, textContent);
+  public Assistant createAssistantWithVectorStore(
+      String modelName, String assistantName, String vectorStoreId, String additionalInstruction) {
+    FileSearchResources fileSearchResources = new FileSearchResources();
+    fileSearchResources.setVectorStoreIds(List.of(vectorStoreId));
+    ToolResources tooResources = new ToolResources(null, fileSearchResources);
     List<Tool> toolList = new java.util.ArrayList<>(tools.stream().map(AiTool::getTool).toList());
     toolList.add(new FileSearchTool());
     AssistantRequest assistantRequest =
@@ -49,24 +53,11 @@ public record AssistantService(
     return openAiApiHandler.createAssistant(assistantRequest);
   }
 
-  private ToolResources uploadToolResources(String assistantName, String textContent)
-      throws IOException {
-    String fileId =
-        openAiApiHandler.uploadTextFile(
-            assistantName + ".json", textContent, "assistants", ".json");
-
-    String vectorStoreId = openAiApiHandler.createVectorFile(assistantName, fileId);
-    FileSearchResources fileSearchResources = new FileSearchResources();
-    fileSearchResources.setVectorStoreIds(List.of(vectorStoreId));
-    return new ToolResources(null, fileSearchResources);
-  }
-
   public AiAssistantResponse createThreadAndRunWithFirstMessage(Note note, String prompt) {
     String threadId = createThread(note);
     MessageRequest messageRequest = MessageRequest.builder().role("user").content(prompt).build();
     openAiApiHandler.createMessage(threadId, messageRequest);
-    Run run = openAiApiHandler.createRun(threadId, assistantId);
-    return getThreadResponse(threadId, run);
+    return getThreadResponse(threadId, openAiApiHandler.createRunStream(threadId, assistantId));
   }
 
   public Flowable<AssistantSSE> createMessageRunAndGetResponseStream(
@@ -78,11 +69,9 @@ public record AssistantService(
 
   public AiAssistantResponse answerAiCompletionClarifyingQuestion(
       AiCompletionAnswerClarifyingQuestionParams answerClarifyingQuestionParams) {
-    String threadId = answerClarifyingQuestionParams.getThreadId();
-
-    Run retrievedRun = openAiApiHandler.submitToolOutputs(answerClarifyingQuestionParams);
-
-    return getThreadResponse(threadId, retrievedRun);
+    return getThreadResponse(
+        answerClarifyingQuestionParams.getThreadId(),
+        openAiApiHandler.submitToolOutputsStream(answerClarifyingQuestionParams));
   }
 
   public String createThread(Note note) {
@@ -98,22 +87,45 @@ public record AssistantService(
     return openAiApiHandler.createThread(threadRequest).getId();
   }
 
-  private AiAssistantResponse getThreadResponse(String threadId, Run currentRun) {
-    String id = currentRun.getId();
+  // The run is followed through the events of its stream, which tell the final state of the run
+  // and carry the messages it creates, instead of polling the run and listing the messages.
+  private AiAssistantResponse getThreadResponse(String threadId, Flowable<AssistantSSE> runStream) {
+    Run run = null;
+    List<Message> messages = new ArrayList<>();
+    for (AssistantSSE sse : openAiApiHandler.waitForRunEvents(runStream)) {
+      String event = sse.getEvent() == null ? "" : sse.getEvent().eventName;
+      if (event.startsWith("thread.run.") && !event.startsWith("thread.run.step.")) {
+        run = readData(sse, Run.class);
+      } else if (event.equals("thread.message.completed")) {
+        messages.add(readData(sse, Message.class));
+      } else if (event.equals("error")) {
+        throw new RuntimeException("OpenAI run error: " + sse.getData());
+      }
+    }
+    if (run == null) {
+      throw new RuntimeException("OpenAI run stream ended without a run");
+    }
     AiAssistantResponse completionResponse = new AiAssistantResponse();
     completionResponse.setThreadId(threadId);
-    completionResponse.setRunId(id);
-
-    Run run = openAiApiHandler.retrieveUntilCompletedOrRequiresAction(threadId, currentRun);
+    completionResponse.setRunId(run.getId());
     if (run.getStatus().equals("requires_action")) {
       completionResponse.setRequiredAction(getAiCompletionRequiredAction(run.getRequiredAction()));
+    } else if (run.getStatus().equals("completed")) {
+      completionResponse.setMessages(messages);
     } else {
-      completionResponse.setMessages(openAiApiHandler.getThreadMessages(threadId, id));
+      throw new RuntimeException("OpenAI run status: " + run.getStatus());
     }
-
     return completionResponse;
   }
 
+  private static <T> T readData(AssistantSSE sse, Class<T> type) {
+    try {
+      return defaultObjectMapper().readValue(sse.getData(), type);
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   private AiCompletionRequiredAction getAiCompletionRequiredAction(RequiredAction requiredAction) {
     int size = requiredAction.getSubmitToolOutputs().getToolCalls().size();
     if (size != 1) {
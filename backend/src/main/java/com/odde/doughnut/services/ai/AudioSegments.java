@@ -0,0 +1,150 @@
+package com.odde.doughnut.services.ai;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+// Cuts an audio into segments that overlap by a little, so that the words at a cut are heard
+// whole in one of the segments. The audio is copied to the disk first and the segments are
+// written to the disk one by one, so the audio is never held in memory as a whole. Only the
+// formats the JDK can read without a decoder (WAV, AIFF, AU) can be cut; any other audio is
+// kept as one segment.
+final class AudioSegments {
+  // a segment of the audio in the file, which starts offsetMillis into the audio
+  record Segment(Path file, String name, long offsetMillis) {}
+
+  private AudioSegments() {}
+
+  static List<Segment> split(
+      String filename,
+      InputStream audio,
+      Duration segmentLength,
+      Duration overlap,
+      long maxSegmentBytes)
+      throws IOException {
+    Path source = Files.createTempFile("audio-", suffixOf(filename));
+    try {
+      try (OutputStream out = Files.newOutputStream(source)) {
+        audio.transferTo(out);
+      }
+      List<Segment> segments = splitPcm(source, segmentLength, overlap, maxSegmentBytes);
+      if (segments.size() > 1) {
+        Files.deleteIfExists(source);
+        return segments;
+      }
+      segments.forEach(AudioSegments::delete);
+      return List.of(new Segment(source, filename, 0));
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(source);
+      throw e;
+    }
+  }
+
+  static void delete(Segment segment) {
+    try {
+      Files.deleteIfExists(segment.file());
+    } catch (IOException e) {
+      // nothing more can be done about a temp file that cannot be deleted
+    }
+  }
+
+  private static List<Segment> splitPcm(
+      Path source, Duration segmentLength, Duration overlap, long maxSegmentBytes)
+      throws IOException {
+    List<Segment> segments = new ArrayList<>();
+    try (AudioInputStream in = AudioSystem.getAudioInputStream(source.toFile())) {
+      AudioFormat format = in.getFormat();
+      int frameSize = format.getFrameSize();
+      double framesPerMilli = format.getFrameRate() / 1000.0;
+      if (frameSize <= 0 || framesPerMilli <= 0) return segments;
+      long segmentFrames =
+          Math.max(
+              1,
+              Math.min(
+                  (long) (segmentLength.toMillis() * framesPerMilli), maxSegmentBytes / frameSize));
+      long overlapFrames =
+          Math.min((long) (overlap.toMillis() * framesPerMilli), segmentFrames / 2);
+      byte[] buffer = new byte[frameSize * 4096];
+      byte[] tail = new byte[0];
+      long startFrame = 0;
+      while (true) {
+        Path raw = Files.createTempFile("segment-", ".pcm");
+        try {
+          long newBytes;
+          try (OutputStream out = Files.newOutputStream(raw)) {
+            out.write(tail);
+            newBytes = copy(in, out, segmentFrames * frameSize, buffer);
+          }
+          if (newBytes == 0) break;
+          long tailFrames = tail.length / frameSize;
+          segments.add(
+              new Segment(
+                  toWav(raw, format),
+                  "segment-%d.wav".formatted(segments.size() + 1),
+                  (long) ((startFrame - tailFrames) / framesPerMilli)));
+          startFrame += newBytes / frameSize;
+          tail = lastBytes(raw, (int) (Math.min(overlapFrames, newBytes / frameSize) * frameSize));
+          if (newBytes < segmentFrames * frameSize) break;
+        } finally {
+          Files.deleteIfExists(raw);
+        }
+      }
+      return segments;
+    } catch (UnsupportedAudioFileException e) {
+      return segments;
+    } catch (IOException | RuntimeException e) {
+      segments.forEach(AudioSegments::delete);
+      throw e;
+    }
+  }
+
+  private static long copy(InputStream in, OutputStream out, long limit, byte[] buffer)
+      throws IOException {
+    long copied = 0;
+    while (copied < limit) {
+      int read = in.read(buffer, 0, (int) Math.min(buffer.length, limit - copied));
+      if (read < 0) break;
+      out.write(buffer, 0, read);
+      copied += read;
+    }
+    return copied;
+  }
+
+  private static Path toWav(Path raw, AudioFormat format) throws IOException {
+    Path wav = Files.createTempFile("segment-", ".wav");
+    try (AudioInputStream pcm =
+        new AudioInputStream(
+            Files.newInputStream(raw), format, Files.size(raw) / format.getFrameSize())) {
+      AudioSystem.write(pcm, AudioFileFormat.Type.WAVE, wav.toFile());
+      return wav;
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(wav);
+      throw e;
+    }
+  }
+
+  private static byte[] lastBytes(Path file, int length) throws IOException {
+    try (RandomAccessFile in = new RandomAccessFile(file.toFile(), "r")) {
+      byte[] bytes = new byte[length];
+      in.seek(in.length() - length);
+      in.readFully(bytes);
+      return bytes;
+    }
+  }
+
+  private static String suffixOf(String filename) {
+    int dot = filename == null ? -1 : filename.lastIndexOf('.');
+    return dot < 0 ? ".audio" : filename.substring(dot);
+  }
+}
@@ -1,14 +1,14 @@
 package com.odde.doughnut.services.ai;
 
 import com.odde.doughnut.controllers.dto.SrtDto;
+import com.odde.doughnut.controllers.dto.TranscriptionProgress;
 import com.odde.doughnut.services.openAiApis.FineTuningExamples;
 import com.odde.doughnut.services.openAiApis.OpenAiApiHandler;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
-import okhttp3.MediaType;
-import okhttp3.MultipartBody;
-import okhttp3.RequestBody;
+import java.util.function.Consumer;
 
 public record OtherAiServices(OpenAiApiHandler openAiApiHandler) {
   public String getTimage(String prompt) {
@@ -40,19 +40,9 @@ public record OtherAiServices(OpenAiApiHandler openAiApiHandler) {
     return openAiApiHandler.triggerFineTuning(fileId).getFineTunedModel();
   }
 
-  public SrtDto getTranscription(String filename, byte[] bytes) throws IOException {
-    RequestBody requestFile = RequestBody.create(bytes, MediaType.parse("multipart/form-data"));
-
-    MultipartBody.Part body = MultipartBody.Part.createFormData("file", filename, requestFile);
-
-    MultipartBody.Builder builder =
-        new MultipartBody.Builder()
-            .setType(MultipartBody.FORM)
-            .addPart(body)
-            .addFormDataPart("model", "whisper-1")
-            .addFormDataPart("response_format", "srt");
-
-    RequestBody requestBody = builder.build();
-    return openAiApiHandler.getTranscription(requestBody);
+  public SrtDto getTranscription(
+      String filename, InputStream audio, Consumer<TranscriptionProgress> onProgress)
+      throws IOException {
+    return new TranscriptionPipeline(openAiApiHandler).transcribe(filename, audio, onProgress);
   }
 }
@@ -0,0 +1,65 @@
+package com.odde.doughnut.services.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// The cues of SubRip subtitles, as returned by the transcription API.
+final class Srt {
+  private static final Pattern TIMING =
+      Pattern.compile(
+          "(\\d+):(\\d{2}):(\\d{2})[,.](\\d{3})\\s*-->\\s*(\\d+):(\\d{2}):(\\d{2})[,.](\\d{3})");
+
+  record Cue(long startMillis, long endMillis, String text) {
+    Cue shift(long millis) {
+      return new Cue(startMillis + millis, endMillis + millis, text);
+    }
+  }
+
+  private Srt() {}
+
+  static List<Cue> parse(String srt) {
+    List<Cue> cues = new ArrayList<>();
+    for (String block : srt.strip().split("\\R\\s*\\R")) {
+      String[] lines = block.strip().split("\\R");
+      for (int i = 0; i < lines.length; i++) {
+        Matcher timing = TIMING.matcher(lines[i]);
+        if (!timing.find()) continue;
+        String text = String.join("\n", List.of(lines).subList(i + 1, lines.length));
+        cues.add(new Cue(millis(timing, 1), millis(timing, 5), text));
+        break;
+      }
+    }
+    return cues;
+  }
+
+  static String format(List<Cue> cues) {
+    StringBuilder srt = new StringBuilder();
+    for (int i = 0; i < cues.size(); i++) {
+      Cue cue = cues.get(i);
+      srt.append(i + 1)
+          .append('\n')
+          .append(timestamp(cue.startMillis()))
+          .append(" --> ")
+          .append(timestamp(cue.endMillis()))
+          .append('\n')
+          .append(cue.text())
+          .append("\n\n");
+    }
+    return srt.toString();
+  }
+
+  private static long millis(Matcher timing, int group) {
+    return ((Long.parseLong(timing.group(group)) * 60 + Long.parseLong(timing.group(group + 1)))
+                    * 60
+                + Long.parseLong(timing.group(group + 2)))
+            * 1000
+        + Long.parseLong(timing.group(group + 3));
+  }
+
+  private static String timestamp(long millis) {
+    return "%02d:%02d:%02d,%03d"
+        .formatted(millis / 3_600_000, millis / 60_000 % 60, millis / 1000 % 60, millis % 1000);
+  }
+}
@@ -0,0 +1,144 @@
+package com.odde.doughnut.services.ai;
+
+import com.odde.doughnut.controllers.dto.SrtDto;
+import com.odde.doughnut.controllers.dto.TranscriptionProgress;
+import com.odde.doughnut.services.openAiApis.OpenAiApiHandler;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.RequestBody;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// Transcribes a long recording in segments, a few at a time, so that no single request runs into
+// the upload size limit or the timeout of the API. The SRT of each segment is shifted by the
+// start of the segment. At each cut, the later segment only hears the audio from the start of the
+// overlap, so a cue that starts before the overlap is taken from the earlier segment, however far
+// past the cut it goes. The later segment then takes over at the end of that cue; its cues that
+// lie mostly before it are the rest of the same words heard partly, and are dropped.
+public class TranscriptionPipeline {
+  static final Duration SEGMENT_LENGTH = Duration.ofMinutes(2);
+  static final Duration OVERLAP = Duration.ofSeconds(2);
+  static final long MAX_SEGMENT_BYTES = 20L * 1024 * 1024;
+  static final long MAX_UPLOAD_BYTES = 25L * 1024 * 1024;
+  static final int PARALLELISM = 4;
+
+  private final OpenAiApiHandler openAiApiHandler;
+  private final Duration segmentLength;
+  private final Duration overlap;
+  private final int parallelism;
+
+  public TranscriptionPipeline(OpenAiApiHandler openAiApiHandler) {
+    this(openAiApiHandler, SEGMENT_LENGTH, OVERLAP, PARALLELISM);
+  }
+
+  TranscriptionPipeline(
+      OpenAiApiHandler openAiApiHandler,
+      Duration segmentLength,
+      Duration overlap,
+      int parallelism) {
+    this.openAiApiHandler = openAiApiHandler;
+    this.segmentLength = segmentLength;
+    this.overlap = overlap;
+    this.parallelism = parallelism;
+  }
+
+  public SrtDto transcribe(
+      String filename, InputStream audio, Consumer<TranscriptionProgress> onProgress)
+      throws IOException {
+    List<AudioSegments.Segment> segments =
+        AudioSegments.split(filename, audio, segmentLength, overlap, MAX_SEGMENT_BYTES);
+    try {
+      if (Files.size(segments.getFirst().file()) > MAX_UPLOAD_BYTES) {
+        throw new ResponseStatusException(
+            HttpStatus.PAYLOAD_TOO_LARGE, "The audio is too large to be transcribed.");
+      }
+      List<String> srts = transcribeAll(segments, onProgress);
+      SrtDto srtDto = new SrtDto();
+      srtDto.setSrt(srts.size() == 1 ? srts.getFirst() : stitch(segments, srts));
+      return srtDto;
+    } finally {
+      segments.forEach(AudioSegments::delete);
+    }
+  }
+
+  private List<String> transcribeAll(
+      List<AudioSegments.Segment> segments, Consumer<TranscriptionProgress> onProgress) {
+    AtomicInteger transcribed = new AtomicInteger();
+    ExecutorService workers =
+        Executors.newFixedThreadPool(
+            parallelism, Thread.ofVirtual().name("transcription-", 0).factory());
+    try {
+      List<Future<String>> futures =
+          segments.stream()
+              .map(
+                  segment ->
+                      workers.submit(
+                          () -> {
+                            String srt = transcribe(segment);
+                            onProgress.accept(
+                                new TranscriptionProgress(
+                                    transcribed.incrementAndGet(), segments.size()));
+                            return srt;
+                          }))
+              .toList();
+      List<String> srts = new ArrayList<>();
+      for (Future<String> future : futures) {
+        srts.add(future.get());
+      }
+      return srts;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+      throw new IllegalStateException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } finally {
+      workers.shutdownNow();
+    }
+  }
+
+  private String transcribe(AudioSegments.Segment segment) throws IOException {
+    RequestBody requestFile =
+        RequestBody.create(segment.file().toFile(), MediaType.parse("multipart/form-data"));
+    RequestBody requestBody =
+        new MultipartBody.Builder()
+            .setType(MultipartBody.FORM)
+            .addPart(MultipartBody.Part.createFormData("file", segment.name(), requestFile))
+            .addFormDataPart("model", "whisper-1")
+            .addFormDataPart("response_format", "srt")
+            .build();
+    return openAiApiHandler.getTranscription(requestBody).getSrt();
+  }
+
+  private static String stitch(List<AudioSegments.Segment> segments, List<String> srts) {
+    List<Srt.Cue> cues = new ArrayList<>();
+    long takeOverAt = Long.MIN_VALUE;
+    for (int i = 0; i < segments.size(); i++) {
+      AudioSegments.Segment segment = segments.get(i);
+      long nextStart =
+          i + 1 < segments.size() ? segments.get(i + 1).offsetMillis() : Long.MAX_VALUE;
+      long from = takeOverAt;
+      List<Srt.Cue> kept =
+          Srt.parse(srts.get(i)).stream()
+              .map(cue -> cue.shift(segment.offsetMillis()))
+              .filter(cue -> (cue.startMillis() + cue.endMillis()) / 2 >= from)
+              .filter(cue -> cue.startMillis() < nextStart)
+              .toList();
+      cues.addAll(kept);
+      takeOverAt = kept.stream().mapToLong(Srt.Cue::endMillis).reduce(nextStart, Math::max);
+    }
+    return Srt.format(cues);
+  }
+}
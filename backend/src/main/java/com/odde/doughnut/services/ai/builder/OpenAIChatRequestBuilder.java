@@ -15,6 +15,7 @@ public class OpenAIChatRequestBuilder {
       "This is a PKM system using hierarchical notes, each with a topic and details, to capture atomic concepts.";
   public final List<ChatMessage> messages = new ArrayList<>();
   private final List<ChatTool> chatTools = new ArrayList<>();
+  private boolean stream = false;
   ChatCompletionRequest.ChatCompletionRequestBuilder builder = ChatCompletionRequest.builder();
 
   public static OpenAIChatRequestBuilder chatAboutNoteRequestBuilder(String modelName, Note note) {
@@ -34,6 +35,11 @@ public class OpenAIChatRequestBuilder {
     return this;
   }
 
+  public OpenAIChatRequestBuilder stream(boolean stream) {
+    this.stream = stream;
+    return this;
+  }
+
   public OpenAIChatRequestBuilder addTool(AiToolList tool) {
     tool.addToChat(this);
     return this;
@@ -47,12 +53,9 @@ public class OpenAIChatRequestBuilder {
     ChatCompletionRequest.ChatCompletionRequestBuilder requestBuilder =
         builder
             .messages(messages)
-            //
-            // an effort has been made to make the api call more responsive by using stream(true)
-            // however, due to the library limitation, we cannot do it yet.
-            // find more details here:
-            //    https://github.com/TheoKanning/openai-java/issues/83
-            .stream(false)
+            // the streamed response is read by OpenAiApiHandler.streamFirstToolCallArguments,
+            // as the library cannot stream tool calls itself
+            .stream(stream)
             .n(1);
     if (!chatTools.isEmpty()) {
       requestBuilder.tools(chatTools);
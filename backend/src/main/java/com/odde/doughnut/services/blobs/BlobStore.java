@@ -0,0 +1,19 @@
+package com.odde.doughnut.services.blobs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import org.springframework.core.io.Resource;
+
+// Stores attachment contents outside the database. Contents are addressed by the SHA-256 of
+// their bytes, so identical uploads are stored once. Derivatives, such as the thumbnails of an
+// image, are kept next to their source under a variant name and can be regenerated at any time.
+public interface BlobStore {
+  StoredBlob save(InputStream content) throws IOException;
+
+  Resource load(String contentKey);
+
+  Optional<Resource> findDerivative(String sourceKey, String variant);
+
+  Resource saveDerivative(String sourceKey, String variant, byte[] content) throws IOException;
+}
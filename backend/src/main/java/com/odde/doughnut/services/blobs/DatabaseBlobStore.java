@@ -0,0 +1,264 @@
+package com.odde.doughnut.services.blobs;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+// Keeps the contents in the blob_chunk table, a row per chunk numbered by seq, under the same
+// content keys as FileSystemBlobStore, with the derivatives under <key>/<variant>. The
+// blob_content row of a key holds its length and chunk size and is only written once all its
+// chunks are there. This is the store used when no root directory shared by all the instances
+// is configured. Neither an upload nor a download is ever held in memory as a whole: an upload
+// is spooled into a temporary file while its digest is computed and inserted chunk by chunk, and
+// a download reads one chunk at a time, seeking straight to the chunk it skips to.
+public class DatabaseBlobStore implements BlobStore {
+  static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+  // a content is only collected once it has not been saved for this long, so that an upload
+  // whose attachment is not committed yet keeps its content
+  static final Duration COLLECTION_GRACE = Duration.ofDays(1);
+  private static final String STAGING_PREFIX = "staging/";
+  private static final int COLLECTION_BATCH_SIZE = 100;
+  private static final String UNREFERENCED =
+      " bc.saved_at < ? AND NOT EXISTS (SELECT 1 FROM attachment_blob ab"
+          + " WHERE ab.content_key = SUBSTRING_INDEX(bc.blob_key, '/', 1))";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final int chunkSize;
+
+  public DatabaseBlobStore(JdbcTemplate jdbcTemplate) {
+    this(jdbcTemplate, DEFAULT_CHUNK_SIZE);
+  }
+
+  DatabaseBlobStore(JdbcTemplate jdbcTemplate, int chunkSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.chunkSize = chunkSize;
+  }
+
+  @Override
+  public StoredBlob save(InputStream content) throws IOException {
+    Path temporary = Files.createTempFile("blob-upload-", ".tmp");
+    try {
+      MessageDigest digest = FileSystemBlobStore.sha256();
+      long size;
+      try (InputStream in = new DigestInputStream(content, digest);
+          OutputStream out = Files.newOutputStream(temporary)) {
+        size = in.transferTo(out);
+      }
+      String contentKey = HexFormat.of().formatHex(digest.digest());
+      if (!touch(contentKey)) {
+        try (InputStream in = Files.newInputStream(temporary)) {
+          insert(contentKey, in, size);
+        }
+      }
+      return new StoredBlob(contentKey, size);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  @Override
+  public Resource load(String contentKey) {
+    return find(contentKey)
+        .orElseThrow(() -> new IllegalStateException("No blob content for " + contentKey));
+  }
+
+  @Override
+  public Optional<Resource> findDerivative(String sourceKey, String variant) {
+    return find(sourceKey + "/" + variant);
+  }
+
+  @Override
+  public Resource saveDerivative(String sourceKey, String variant, byte[] content)
+      throws IOException {
+    String blobKey = sourceKey + "/" + variant;
+    if (!touch(blobKey)) {
+      insert(blobKey, new ByteArrayInputStream(content), content.length);
+    }
+    return load(blobKey);
+  }
+
+  @Scheduled(cron = "${spring.blob-store.collection-cron:-}")
+  public void collect() {
+    removeUnreferencedSavedBefore(
+        new Timestamp(System.currentTimeMillis() - COLLECTION_GRACE.toMillis()));
+  }
+
+  // Removes the contents that no attachment blob refers to, with their derivatives. Each one is
+  // removed with its chunks in a single statement that checks again that it is not referenced
+  // and has not been saved since, so an upload of the same content in the meantime keeps it.
+  public int removeUnreferencedSavedBefore(Timestamp before) {
+    int removed = 0;
+    while (true) {
+      List<String> keys =
+          jdbcTemplate.queryForList(
+              "SELECT bc.blob_key FROM blob_content bc WHERE" + UNREFERENCED + " LIMIT ?",
+              String.class,
+              before,
+              COLLECTION_BATCH_SIZE);
+      if (keys.isEmpty()) return removed;
+      for (String key : keys) {
+        int deleted =
+            jdbcTemplate.update(
+                "DELETE bc, ch FROM blob_content bc"
+                    + " LEFT JOIN blob_chunk ch ON ch.blob_key = bc.blob_key"
+                    + " WHERE bc.blob_key = ? AND"
+                    + UNREFERENCED,
+                key,
+                before);
+        if (deleted > 0) removed++;
+      }
+    }
+  }
+
+  private Optional<Resource> find(String blobKey) {
+    return jdbcTemplate
+        .query(
+            "SELECT length, chunk_size FROM blob_content WHERE blob_key = ?",
+            (rs, rowNum) -> (Resource) new ChunkedResource(blobKey, rs.getLong(1), rs.getInt(2)),
+            blobKey)
+        .stream()
+        .findFirst();
+  }
+
+  // marks a content that is already stored as saved again, so that it is not collected
+  private boolean touch(String blobKey) {
+    return jdbcTemplate.update(
+            "UPDATE blob_content SET saved_at = NOW() WHERE blob_key = ?", blobKey)
+        > 0;
+  }
+
+  // The chunks are inserted under a key of their own and then moved under the blob key, so that
+  // two uploads of the same content at once do not interleave. The chunks the other upload has
+  // moved first are the same, so the ones that clash with them are left behind and removed. The
+  // blob_content row is written last, so a content is never found before all its chunks are.
+  private void insert(String blobKey, InputStream in, long length) throws IOException {
+    String stagingKey = STAGING_PREFIX + UUID.randomUUID();
+    try {
+      byte[] buffer = new byte[chunkSize];
+      int read;
+      int seq = 0;
+      while ((read = in.readNBytes(buffer, 0, chunkSize)) > 0) {
+        jdbcTemplate.update(
+            "INSERT INTO blob_chunk (blob_key, seq, bytes) VALUES (?, ?, ?)",
+            stagingKey,
+            seq++,
+            read == chunkSize ? buffer : Arrays.copyOf(buffer, read));
+      }
+      jdbcTemplate.update(
+          "UPDATE IGNORE blob_chunk SET blob_key = ? WHERE blob_key = ?", blobKey, stagingKey);
+      jdbcTemplate.update(
+          "INSERT INTO blob_content (blob_key, length, chunk_size, saved_at)"
+              + " VALUES (?, ?, ?, NOW()) ON DUPLICATE KEY UPDATE saved_at = NOW()",
+          blobKey,
+          length,
+          chunkSize);
+    } finally {
+      jdbcTemplate.update("DELETE FROM blob_chunk WHERE blob_key = ?", stagingKey);
+    }
+  }
+
+  private byte[] readChunk(String blobKey, long seq) {
+    List<byte[]> chunks =
+        jdbcTemplate.query(
+            "SELECT bytes FROM blob_chunk WHERE blob_key = ? AND seq = ?",
+            (rs, rowNum) -> rs.getBytes(1),
+            blobKey,
+            seq);
+    return chunks.stream().findFirst().orElse(null);
+  }
+
+  private class ChunkedResource extends AbstractResource {
+    private final String blobKey;
+    private final long length;
+    private final int chunkSize;
+
+    ChunkedResource(String blobKey, long length, int chunkSize) {
+      this.blobKey = blobKey;
+      this.length = length;
+      this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public String getDescription() {
+      return "blob content [" + blobKey + "]";
+    }
+
+    @Override
+    public long contentLength() {
+      return length;
+    }
+
+    // Keeps only the chunk at the current offset. Skipping moves the offset without reading, so
+    // a range request reads from the chunk its range starts in.
+    @Override
+    public InputStream getInputStream() {
+      return new InputStream() {
+        private long offset;
+        private byte[] chunk;
+        private long chunkStart;
+
+        @Override
+        public int read() throws IOException {
+          if (!fill()) return -1;
+          return chunk[(int) (offset++ - chunkStart)] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+          if (len == 0) return 0;
+          if (!fill()) return -1;
+          int position = (int) (offset - chunkStart);
+          int count = Math.min(len, chunk.length - position);
+          System.arraycopy(chunk, position, b, off, count);
+          offset += count;
+          return count;
+        }
+
+        @Override
+        public long skip(long n) {
+          if (n <= 0) return 0;
+          long skipped = Math.min(n, length - offset);
+          offset += skipped;
+          return skipped;
+        }
+
+        @Override
+        public int available() {
+          if (chunk == null || offset < chunkStart) return 0;
+          return (int) Math.max(0, chunkStart + chunk.length - offset);
+        }
+
+        private boolean fill() throws IOException {
+          if (offset >= length) return false;
+          if (chunk != null && offset >= chunkStart && offset < chunkStart + chunk.length) {
+            return true;
+          }
+          long seq = offset / chunkSize;
+          chunk = readChunk(blobKey, seq);
+          if (chunk == null || chunk.length == 0) {
+            throw new FileNotFoundException(getDescription() + " is gone");
+          }
+          chunkStart = seq * chunkSize;
+          return true;
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package com.odde.doughnut.services.blobs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+// Keeps each content in <root>/<first two hex digits of the key>/<key>, and its derivatives in
+// <root>/derivatives/<first two hex digits>/<key>/<variant>. The upload is streamed into a
+// temporary file while its digest is computed, then moved into place, so neither the upload nor
+// the download is ever held in memory as a whole.
+public class FileSystemBlobStore implements BlobStore {
+  private final Path root;
+
+  public FileSystemBlobStore(Path root) {
+    this.root = root;
+  }
+
+  @Override
+  public StoredBlob save(InputStream content) throws IOException {
+    Files.createDirectories(root);
+    Path temporary = Files.createTempFile(root, "upload-", ".tmp");
+    try {
+      MessageDigest digest = sha256();
+      long size;
+      try (InputStream in = new DigestInputStream(content, digest);
+          OutputStream out = Files.newOutputStream(temporary)) {
+        size = in.transferTo(out);
+      }
+      String contentKey = HexFormat.of().formatHex(digest.digest());
+      Path target = pathOf(contentKey);
+      if (!Files.exists(target)) {
+        Files.createDirectories(target.getParent());
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+      }
+      return new StoredBlob(contentKey, size);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  @Override
+  public Resource load(String contentKey) {
+    return new FileSystemResource(pathOf(contentKey));
+  }
+
+  @Override
+  public Optional<Resource> findDerivative(String sourceKey, String variant) {
+    Path path = derivativePathOf(sourceKey, variant);
+    if (!Files.exists(path)) {
+      return Optional.empty();
+    }
+    return Optional.of(new FileSystemResource(path));
+  }
+
+  @Override
+  public Resource saveDerivative(String sourceKey, String variant, byte[] content)
+      throws IOException {
+    Path target = derivativePathOf(sourceKey, variant);
+    Files.createDirectories(target.getParent());
+    Path temporary = Files.createTempFile(target.getParent(), variant + "-", ".tmp");
+    try {
+      Files.write(temporary, content);
+      Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+    return new FileSystemResource(target);
+  }
+
+  private Path derivativePathOf(String sourceKey, String variant) {
+    return pathOf(root.resolve("derivatives"), sourceKey).resolve(variant);
+  }
+
+  private Path pathOf(String contentKey) {
+    return pathOf(root, contentKey);
+  }
+
+  private static Path pathOf(Path directory, String key) {
+    return directory.resolve(key.substring(0, 2)).resolve(key);
+  }
+
+  static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.odde.doughnut.services.blobs;
+
+import com.odde.doughnut.algorithms.ImageUtils;
+import com.odde.doughnut.entities.Image;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Optional;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+// Serves uploaded images scaled down to a few fixed widths. A requested width is rounded up to
+// the next bucket so that only a handful of derivatives exist per image. Each one is generated
+// on the first request and then kept in the blob store. JPEG images stay JPEG and every other
+// PNG and BMP become PNG, which keeps transparency. Everything else, such as GIF (which may be
+// animated), SVG and WebP, is always served as the original.
+@Service
+public class ImageThumbnailService {
+  static final int[] WIDTH_BUCKETS = {160, 320, 640, 1280};
+
+  public record Thumbnail(Resource content, MediaType contentType, String eTag) {}
+
+  private final BlobStore blobStore;
+  private final ImageUtils imageUtils = new ImageUtils();
+
+  public ImageThumbnailService(BlobStore blobStore) {
+    this.blobStore = blobStore;
+  }
+
+  public Optional<Thumbnail> getThumbnail(Image image, Integer requestedWidth) throws IOException {
+    Integer width = widthBucket(requestedWidth);
+    String formatName = thumbnailFormatName(image.getContentType());
+    if (width == null || formatName == null) {
+      return Optional.empty();
+    }
+    String sourceKey = image.getBlob().getETag();
+    String variant = "w" + width + "." + formatName;
+    MediaType contentType = MediaType.parseMediaType("image/" + formatName);
+    Optional<Resource> cached = blobStore.findDerivative(sourceKey, variant);
+    if (cached.isPresent()) {
+      return Optional.of(new Thumbnail(cached.get(), contentType, sourceKey + "-" + variant));
+    }
+    byte[] data = imageUtils.toThumbnail(image.getBlob().getContent(blobStore), width, formatName);
+    if (data == null) {
+      return Optional.empty();
+    }
+    Resource saved = blobStore.saveDerivative(sourceKey, variant, data);
+    return Optional.of(new Thumbnail(saved, contentType, sourceKey + "-" + variant));
+  }
+
+  static Integer widthBucket(Integer requestedWidth) {
+    if (requestedWidth == null || requestedWidth <= 0) {
+      return null;
+    }
+    return Arrays.stream(WIDTH_BUCKETS)
+        .filter(bucket -> bucket >= requestedWidth)
+        .boxed()
+        .findFirst()
+        .orElse(null);
+  }
+
+  private static String thumbnailFormatName(String contentType) {
+    if (contentType == null) {
+      return null;
+    }
+    return switch (contentType) {
+      case "image/jpeg", "image/jpg" -> "jpeg";
+      case "image/png", "image/bmp" -> "png";
+      default -> null;
+    };
+  }
+}
@@ -0,0 +1,3 @@
+package com.odde.doughnut.services.blobs;
+
+public record StoredBlob(String contentKey, long size) {}
@@ -6,18 +6,59 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.springframework.stereotype.Component;
 
+// One HttpClient is shared by all the requests so that connections are pooled and reused.
+// Successful responses are cached for a while, as the Wikidata entities rarely change and the
+// same ones are fetched again and again while a note and its related notes are created.
 @Component
 public class HttpClientAdapter {
-  public HttpClientAdapter() {}
+  private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+  private record CachedResponse(String body, long expiresAtNanos) {}
+
+  private final HttpClient httpClient =
+      HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build();
+  private final long timeToLiveNanos;
+  private final Map<URI, CachedResponse> cache;
+
+  public HttpClientAdapter() {
+    this(Duration.ofHours(1), 2000);
+  }
+
+  HttpClientAdapter(Duration timeToLive, int maxCachedResponses) {
+    this.timeToLiveNanos = timeToLive.toNanos();
+    this.cache =
+        Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+              @Override
+              protected boolean removeEldestEntry(Map.Entry<URI, CachedResponse> eldest) {
+                return size() > maxCachedResponses;
+              }
+            });
+  }
 
   public String getResponseString(URI uri) throws IOException, InterruptedException {
-    return HttpClient.newBuilder()
-        .build()
-        .send(
-            HttpRequest.newBuilder(uri).build(),
-            HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
-        .body();
+    CachedResponse cached = cache.get(uri);
+    if (cached != null && cached.expiresAtNanos() - System.nanoTime() > 0) {
+      return cached.body();
+    }
+    HttpResponse<String> response =
+        httpClient.send(
+            HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).build(),
+            HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    if (response.statusCode() == 200) {
+      cache.put(uri, new CachedResponse(response.body(), System.nanoTime() + timeToLiveNanos));
+    }
+    return response.body();
+  }
+
+  public void clearCache() {
+    cache.clear();
   }
 }
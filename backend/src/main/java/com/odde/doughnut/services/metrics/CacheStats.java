@@ -0,0 +1,17 @@
+package com.odde.doughnut.services.metrics;
+
+import com.odde.doughnut.controllers.dto.CacheMetrics;
+import java.util.concurrent.atomic.LongAdder;
+
+class CacheStats {
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  void record(boolean hit) {
+    (hit ? hits : misses).increment();
+  }
+
+  CacheMetrics toMetrics(String name) {
+    return new CacheMetrics(name, hits.sum(), misses.sum());
+  }
+}
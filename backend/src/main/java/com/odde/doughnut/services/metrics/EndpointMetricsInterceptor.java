@@ -0,0 +1,58 @@
+package com.odde.doughnut.services.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+@Component
+public class EndpointMetricsInterceptor implements AsyncHandlerInterceptor {
+  private static final String STARTED_AT =
+      EndpointMetricsInterceptor.class.getName() + ".startedAt";
+
+  private final MetricsRegistry metricsRegistry;
+
+  public EndpointMetricsInterceptor(MetricsRegistry metricsRegistry) {
+    this.metricsRegistry = metricsRegistry;
+  }
+
+  @Override
+  public boolean preHandle(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (isRestController(handler)) {
+      request.setAttribute(STARTED_AT, System.nanoTime());
+      QueryCounter.start();
+    }
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(
+      HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    if (!(request.getAttribute(STARTED_AT) instanceof Long startedAt)) return;
+    request.removeAttribute(STARTED_AT);
+    QueryCount queryCount = QueryCounter.stop();
+    metricsRegistry.recordEndpoint(endpointOf(request), System.nanoTime() - startedAt, queryCount);
+  }
+
+  // streaming endpoints continue on another thread, where the counts are not available
+  @Override
+  public void afterConcurrentHandlingStarted(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    request.removeAttribute(STARTED_AT);
+    QueryCounter.stop();
+  }
+
+  private static boolean isRestController(Object handler) {
+    if (!(handler instanceof HandlerMethod handlerMethod)) return false;
+    String name = handlerMethod.getBeanType().getSimpleName();
+    return name.startsWith("Rest") && name.endsWith("Controller");
+  }
+
+  private static String endpointOf(HttpServletRequest request) {
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+  }
+}
@@ -0,0 +1,88 @@
+package com.odde.doughnut.services.metrics;
+
+import com.odde.doughnut.controllers.dto.CacheMetrics;
+import com.odde.doughnut.controllers.dto.EndpointMetrics;
+import com.odde.doughnut.controllers.dto.MetricsReport;
+import com.odde.doughnut.controllers.dto.StreamMetrics;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Service;
+
+// In-process metrics of the running instance. They are reset on restart, which is fine for
+// spotting query storms and slow endpoints right after a deployment.
+@Service
+public class MetricsRegistry {
+  public enum StreamEnd {
+    COMPLETED,
+    CLIENT_GONE,
+    TIMED_OUT,
+    FAILED
+  }
+
+  static final long[] LATENCY_BUCKETS_MILLIS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+
+  private final Map<String, TimingStats> endpoints = new ConcurrentHashMap<>();
+  private final Map<String, TimingStats> openAiCalls = new ConcurrentHashMap<>();
+  private final Map<String, CacheStats> aiResponseCache = new ConcurrentHashMap<>();
+  private final Map<String, StreamStats> streams = new ConcurrentHashMap<>();
+
+  public void recordEndpoint(String endpoint, long nanos, QueryCount queryCount) {
+    statsOf(endpoints, endpoint).record(nanos, queryCount);
+  }
+
+  public void recordOpenAiCall(String operation, long nanos) {
+    statsOf(openAiCalls, operation).record(nanos, QueryCount.NONE);
+  }
+
+  public void recordAiResponseCache(String model, boolean hit) {
+    aiResponseCache.computeIfAbsent(model, k -> new CacheStats()).record(hit);
+  }
+
+  public void recordStream(
+      String name,
+      StreamEnd end,
+      long eventsReceived,
+      long eventsSent,
+      long keepAlives,
+      long nanos) {
+    streams
+        .computeIfAbsent(name, k -> new StreamStats())
+        .record(end, eventsReceived, eventsSent, keepAlives, nanos);
+  }
+
+  public MetricsReport report() {
+    return new MetricsReport(
+        Arrays.stream(LATENCY_BUCKETS_MILLIS).boxed().toList(),
+        toMetrics(endpoints),
+        toMetrics(openAiCalls),
+        aiResponseCache.entrySet().stream()
+            .map(e -> e.getValue().toMetrics(e.getKey()))
+            .sorted(Comparator.comparing(CacheMetrics::getName))
+            .toList(),
+        streams.entrySet().stream()
+            .map(e -> e.getValue().toMetrics(e.getKey()))
+            .sorted(Comparator.comparing(StreamMetrics::getName))
+            .toList());
+  }
+
+  public void clear() {
+    endpoints.clear();
+    openAiCalls.clear();
+    aiResponseCache.clear();
+    streams.clear();
+  }
+
+  private static TimingStats statsOf(Map<String, TimingStats> stats, String name) {
+    return stats.computeIfAbsent(name, k -> new TimingStats(LATENCY_BUCKETS_MILLIS));
+  }
+
+  private static List<EndpointMetrics> toMetrics(Map<String, TimingStats> stats) {
+    return stats.entrySet().stream()
+        .map(e -> e.getValue().toMetrics(e.getKey()))
+        .sorted(Comparator.comparingLong(EndpointMetrics::getTotalMillis).reversed())
+        .toList();
+  }
+}
@@ -0,0 +1,37 @@
+package com.odde.doughnut.services.metrics;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+// Times every call to the OpenAI API until its response headers arrive. Object ids in the path
+// (thread_..., run_..., file-...) are collapsed so that calls group by operation.
+public class OpenAiCallTimer implements Interceptor {
+  private static final Pattern OBJECT_ID =
+      Pattern.compile(
+          "/(?:thread|run|asst|msg|step|call|file|vs|ftjob|ftckpt)[-_][A-Za-z0-9]+(?=/|$)");
+
+  private final MetricsRegistry metricsRegistry;
+
+  public OpenAiCallTimer(MetricsRegistry metricsRegistry) {
+    this.metricsRegistry = metricsRegistry;
+  }
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    Request request = chain.request();
+    long startedAt = System.nanoTime();
+    try {
+      return chain.proceed(request);
+    } finally {
+      metricsRegistry.recordOpenAiCall(operationOf(request), System.nanoTime() - startedAt);
+    }
+  }
+
+  static String operationOf(Request request) {
+    String path = OBJECT_ID.matcher(request.url().encodedPath()).replaceAll("/{id}");
+    return request.method() + " " + path;
+  }
+}
@@ -0,0 +1,5 @@
+package com.odde.doughnut.services.metrics;
+
+public record QueryCount(long statements, long entitiesLoaded) {
+  public static final QueryCount NONE = new QueryCount(0, 0);
+}
@@ -0,0 +1,39 @@
+package com.odde.doughnut.services.metrics;
+
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Counts the SQL statements Hibernate prepares and the entities it loads on the current thread,
+// between start() and stop(). Threads that never called start() are not counted.
+public class QueryCounter implements StatementInspector, PostLoadEventListener {
+  public static final QueryCounter INSTANCE = new QueryCounter();
+
+  private static final ThreadLocal<long[]> counts = new ThreadLocal<>();
+
+  private QueryCounter() {}
+
+  public static void start() {
+    counts.set(new long[2]);
+  }
+
+  public static QueryCount stop() {
+    long[] current = counts.get();
+    counts.remove();
+    if (current == null) return QueryCount.NONE;
+    return new QueryCount(current[0], current[1]);
+  }
+
+  @Override
+  public String inspect(String sql) {
+    long[] current = counts.get();
+    if (current != null) current[0]++;
+    return sql;
+  }
+
+  @Override
+  public void onPostLoad(PostLoadEvent event) {
+    long[] current = counts.get();
+    if (current != null) current[1]++;
+  }
+}
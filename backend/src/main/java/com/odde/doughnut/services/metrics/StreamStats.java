@@ -0,0 +1,44 @@
+package com.odde.doughnut.services.metrics;
+
+import com.odde.doughnut.controllers.dto.StreamMetrics;
+import java.util.concurrent.TimeUnit;
+
+class StreamStats {
+  private long count;
+  private final long[] ends = new long[MetricsRegistry.StreamEnd.values().length];
+  private long eventsReceived;
+  private long eventsSent;
+  private long keepAlives;
+  private long totalNanos;
+  private long maxNanos;
+
+  synchronized void record(
+      MetricsRegistry.StreamEnd end,
+      long eventsReceived,
+      long eventsSent,
+      long keepAlives,
+      long nanos) {
+    count++;
+    ends[end.ordinal()]++;
+    this.eventsReceived += eventsReceived;
+    this.eventsSent += eventsSent;
+    this.keepAlives += keepAlives;
+    totalNanos += nanos;
+    maxNanos = Math.max(maxNanos, nanos);
+  }
+
+  synchronized StreamMetrics toMetrics(String name) {
+    return new StreamMetrics(
+        name,
+        count,
+        ends[MetricsRegistry.StreamEnd.COMPLETED.ordinal()],
+        ends[MetricsRegistry.StreamEnd.CLIENT_GONE.ordinal()],
+        ends[MetricsRegistry.StreamEnd.TIMED_OUT.ordinal()],
+        ends[MetricsRegistry.StreamEnd.FAILED.ordinal()],
+        eventsReceived,
+        eventsSent,
+        keepAlives,
+        TimeUnit.NANOSECONDS.toMillis(totalNanos),
+        TimeUnit.NANOSECONDS.toMillis(maxNanos));
+  }
+}
@@ -0,0 +1,54 @@
+package com.odde.doughnut.services.metrics;
+
+import com.odde.doughnut.controllers.dto.EndpointMetrics;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+class TimingStats {
+  private final long[] bucketUpperBoundsMillis;
+  private final long[] bucketCounts;
+  private long count;
+  private long totalNanos;
+  private long maxNanos;
+  private long statements;
+  private long maxStatements;
+  private long entitiesLoaded;
+  private long maxEntitiesLoaded;
+
+  TimingStats(long[] bucketUpperBoundsMillis) {
+    this.bucketUpperBoundsMillis = bucketUpperBoundsMillis;
+    // the last bucket counts everything slower than the largest bound
+    this.bucketCounts = new long[bucketUpperBoundsMillis.length + 1];
+  }
+
+  synchronized void record(long nanos, QueryCount queryCount) {
+    count++;
+    totalNanos += nanos;
+    maxNanos = Math.max(maxNanos, nanos);
+    bucketCounts[bucketOf(TimeUnit.NANOSECONDS.toMillis(nanos))]++;
+    statements += queryCount.statements();
+    maxStatements = Math.max(maxStatements, queryCount.statements());
+    entitiesLoaded += queryCount.entitiesLoaded();
+    maxEntitiesLoaded = Math.max(maxEntitiesLoaded, queryCount.entitiesLoaded());
+  }
+
+  synchronized EndpointMetrics toMetrics(String name) {
+    return new EndpointMetrics(
+        name,
+        count,
+        TimeUnit.NANOSECONDS.toMillis(totalNanos),
+        TimeUnit.NANOSECONDS.toMillis(maxNanos),
+        Arrays.stream(bucketCounts).boxed().toList(),
+        statements,
+        maxStatements,
+        entitiesLoaded,
+        maxEntitiesLoaded);
+  }
+
+  private int bucketOf(long millis) {
+    for (int i = 0; i < bucketUpperBoundsMillis.length; i++) {
+      if (millis <= bucketUpperBoundsMillis[i]) return i;
+    }
+    return bucketUpperBoundsMillis.length;
+  }
+}
@@ -0,0 +1,133 @@
+package com.odde.doughnut.services.openAiApis;
+
+import static com.theokanning.openai.service.OpenAiService.defaultObjectMapper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.odde.doughnut.entities.AiResponseCacheEntry;
+import com.odde.doughnut.entities.repositories.AiResponseCacheRepository;
+import com.odde.doughnut.services.metrics.MetricsRegistry;
+import com.theokanning.openai.completion.chat.ChatCompletionChoice;
+import com.theokanning.openai.completion.chat.ChatCompletionRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+// Keeps the chat completion responses in the database, keyed by the model, the request with its
+// properties in a canonical order, and the updatedAt of the note the request is about, so that
+// asking the same thing about an unchanged note again does not call OpenAI. The least recently
+// used entries are removed when there are more than the configured maximum, which is checked
+// once every few inserts rather than on each of them. Only the evaluations of questions are
+// cached; a question is generated afresh every time, so that reviewing an unchanged note does
+// not keep asking the same question.
+@Service
+public class AiResponseCache {
+  static final Duration TOUCH_INTERVAL = Duration.ofHours(1);
+  private static final ObjectMapper objectMapper = defaultObjectMapper();
+  private static final ObjectMapper canonicalMapper = canonicalMapper();
+
+  private final boolean enabled;
+  private final int maxEntries;
+  private final AiResponseCacheRepository aiResponseCacheRepository;
+  private final MetricsRegistry metricsRegistry;
+  private final int trimEvery;
+  private final AtomicInteger insertsSinceTrim = new AtomicInteger();
+
+  public AiResponseCache(
+      @Value("${spring.ai-response-cache.enabled}") boolean enabled,
+      @Value("${spring.ai-response-cache.max-entries:10000}") int maxEntries,
+      AiResponseCacheRepository aiResponseCacheRepository,
+      MetricsRegistry metricsRegistry) {
+    this.enabled = enabled;
+    this.maxEntries = maxEntries;
+    this.aiResponseCacheRepository = aiResponseCacheRepository;
+    this.metricsRegistry = metricsRegistry;
+    this.trimEvery = Math.max(1, maxEntries / 100);
+  }
+
+  public Optional<ChatCompletionChoice> getOrLoad(
+      ChatCompletionRequest request,
+      Timestamp noteUpdatedAt,
+      Supplier<Optional<ChatCompletionChoice>> load) {
+    if (!enabled) return load.get();
+    String model = request.getModel();
+    String cacheKey = cacheKeyOf(request, noteUpdatedAt);
+    Optional<AiResponseCacheEntry> cached = aiResponseCacheRepository.findByCacheKey(cacheKey);
+    metricsRegistry.recordAiResponseCache(model, cached.isPresent());
+    if (cached.isPresent()) {
+      AiResponseCacheEntry entry = cached.get();
+      touch(entry);
+      return Optional.of(fromJson(entry.getResponse()));
+    }
+    Optional<ChatCompletionChoice> loaded = load.get();
+    loaded.ifPresent(choice -> put(cacheKey, model, choice));
+    return loaded;
+  }
+
+  // the least recently used order only needs to be roughly right, so a hit writes to the
+  // entry at most once every TOUCH_INTERVAL
+  private void touch(AiResponseCacheEntry entry) {
+    long now = System.currentTimeMillis();
+    if (now - entry.getLastUsedAt().getTime() < TOUCH_INTERVAL.toMillis()) return;
+    entry.setLastUsedAt(new Timestamp(now));
+    aiResponseCacheRepository.save(entry);
+  }
+
+  private void put(String cacheKey, String model, ChatCompletionChoice choice) {
+    aiResponseCacheRepository.insertOrTouch(
+        cacheKey, model, toJson(objectMapper, choice), new Timestamp(System.currentTimeMillis()));
+    if (insertsSinceTrim.incrementAndGet() < trimEvery) return;
+    insertsSinceTrim.set(0);
+    long overflow = aiResponseCacheRepository.count() - maxEntries;
+    if (overflow > 0) {
+      List<Integer> ids = aiResponseCacheRepository.findLeastRecentlyUsedIds(overflow);
+      aiResponseCacheRepository.deleteByIds(ids);
+    }
+  }
+
+  static String cacheKeyOf(ChatCompletionRequest request, Timestamp noteUpdatedAt) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    String canonical =
+        request.getModel() + "\n" + toJson(canonicalMapper, request) + "\n" + noteUpdatedAt;
+    return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static ObjectMapper canonicalMapper() {
+    ObjectMapper mapper =
+        defaultObjectMapper().enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    return mapper.setConfig(
+        mapper.getSerializationConfig().with(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY));
+  }
+
+  private static String toJson(ObjectMapper mapper, Object value) {
+    try {
+      return mapper.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Error converting the AI response to JSON", e);
+    }
+  }
+
+  private static ChatCompletionChoice fromJson(String json) {
+    try {
+      return objectMapper.readValue(json, ChatCompletionChoice.class);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Error reading the cached AI response", e);
+    }
+  }
+}
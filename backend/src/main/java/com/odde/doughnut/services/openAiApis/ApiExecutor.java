@@ -8,18 +8,29 @@ import com.odde.doughnut.exceptions.OpenAITimeoutException;
 import com.odde.doughnut.exceptions.OpenAiUnauthorizedException;
 import com.theokanning.openai.OpenAiHttpException;
 import io.reactivex.Single;
+import java.io.IOException;
 import java.net.SocketTimeoutException;
 import java.time.Duration;
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
+import okhttp3.ResponseBody;
 import org.springframework.http.HttpStatus;
+import retrofit2.Call;
+import retrofit2.Response;
 import retrofit2.Retrofit;
 import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
 import retrofit2.converter.jackson.JacksonConverterFactory;
 
 public record ApiExecutor() {
-  public static OpenAiApiExtended getOpenAiApi(String openAiToken, String baseUrl) {
+  public static OpenAiApiExtended getOpenAiApi(
+      String openAiToken, String baseUrl, Interceptor... interceptors) {
     ObjectMapper mapper = defaultObjectMapper();
-    OkHttpClient client = defaultClient(openAiToken, Duration.ofSeconds(60));
+    OkHttpClient.Builder clientBuilder =
+        defaultClient(openAiToken, Duration.ofSeconds(60)).newBuilder();
+    for (Interceptor interceptor : interceptors) {
+      clientBuilder.addInterceptor(interceptor);
+    }
+    OkHttpClient client = clientBuilder.build();
     Retrofit retrofit =
         new Retrofit.Builder()
             .baseUrl(baseUrl)
@@ -49,7 +60,40 @@ public record ApiExecutor() {
       if (cause instanceof SocketTimeoutException) {
         throw new OpenAITimeoutException(cause.getMessage());
       }
+      if (cause instanceof OpenAiUnavailableException) {
+        throw new OpenAIServiceErrorException(cause.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+      }
       throw e;
     }
   }
+
+  // for the streamed responses, which are read from the body as they arrive instead of being
+  // converted by retrofit
+  public static ResponseBody blockExecute(Call<ResponseBody> call) {
+    Response<ResponseBody> response;
+    try {
+      response = call.execute();
+    } catch (IOException e) {
+      throw whenReading(e);
+    }
+    if (response.isSuccessful()) {
+      return response.body();
+    }
+    if (HttpStatus.UNAUTHORIZED.value() == response.code()) {
+      throw new OpenAiUnauthorizedException(response.message());
+    }
+    HttpStatus status = HttpStatus.resolve(response.code());
+    throw new OpenAIServiceErrorException(
+        response.message(), status == null ? HttpStatus.BAD_GATEWAY : status);
+  }
+
+  public static RuntimeException whenReading(IOException e) {
+    if (e instanceof SocketTimeoutException) {
+      return new OpenAITimeoutException(e.getMessage());
+    }
+    if (e instanceof OpenAiUnavailableException) {
+      return new OpenAIServiceErrorException(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+    return new OpenAIServiceErrorException(e.getMessage(), HttpStatus.BAD_GATEWAY);
+  }
 }
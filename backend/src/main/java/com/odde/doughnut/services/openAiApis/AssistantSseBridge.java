@@ -0,0 +1,354 @@
+package com.odde.doughnut.services.openAiApis;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.odde.doughnut.services.metrics.MetricsRegistry;
+import com.odde.doughnut.services.metrics.MetricsRegistry.StreamEnd;
+import com.theokanning.openai.service.assistant_stream.AssistantSSE;
+import io.reactivex.Flowable;
+import io.reactivex.subscribers.DisposableSubscriber;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Forwards the events of an assistant run to the browser. The events are sent on the thread that
+// reads them from OpenAI, one at a time, so a slow browser slows down the reading instead of
+// piling up events in memory; the buffer in front of it is bounded all the same. When the
+// browser goes away or the stream times out, the run stream is cancelled so that the OpenAI
+// connection is not kept open for nobody. Consecutive text deltas of a message are merged for
+// a short while to send fewer tiny events, and a comment is sent when the stream has been quiet
+// for a while so that proxies do not drop the connection while the assistant is thinking.
+@Component
+public class AssistantSseBridge {
+  static final int MAX_COALESCED_CHARS = 1024;
+  static final String KEEP_ALIVE = "keep-alive";
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final long timeoutMillis;
+  private final long keepAliveIntervalNanos;
+  private final long coalesceWindowNanos;
+  private final int maxBufferedEvents;
+  private final MetricsRegistry metricsRegistry;
+  private final ExecutorService senders =
+      Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-bridge-", 0).factory());
+  private final ScheduledExecutorService timer =
+      Executors.newSingleThreadScheduledExecutor(
+          Thread.ofPlatform().name("sse-bridge-timer").daemon().factory());
+
+  @Autowired
+  public AssistantSseBridge(
+      @Value("${spring.sse-bridge.timeout:5m}") Duration timeout,
+      @Value("${spring.sse-bridge.keep-alive-interval:15s}") Duration keepAliveInterval,
+      @Value("${spring.sse-bridge.coalesce-window:50ms}") Duration coalesceWindow,
+      @Value("${spring.sse-bridge.max-buffered-events:256}") int maxBufferedEvents,
+      MetricsRegistry metricsRegistry) {
+    this.timeoutMillis = timeout.toMillis();
+    this.keepAliveIntervalNanos = keepAliveInterval.toNanos();
+    this.coalesceWindowNanos = coalesceWindow.toNanos();
+    this.maxBufferedEvents = maxBufferedEvents;
+    this.metricsRegistry = metricsRegistry;
+  }
+
+  public SseEmitter bridge(String name, Flowable<AssistantSSE> events) {
+    SseEmitter emitter = newEmitter(timeoutMillis);
+    new Bridge(name, emitter).start(events);
+    return emitter;
+  }
+
+  // Runs work that produces its own events on the senders, so that it stops with the application,
+  // and completes the stream when the work returns, or with the error it throws. The work is given
+  // a function that sends an event by name. When the browser goes away or the stream times out,
+  // the work is interrupted, as the run stream of a bridge is cancelled.
+  public SseEmitter stream(String name, Consumer<BiConsumer<String, Object>> work) {
+    SseEmitter emitter = newEmitter(timeoutMillis);
+    new Work(name, emitter).start(work);
+    return emitter;
+  }
+
+  protected SseEmitter newEmitter(long timeout) {
+    return new SseEmitter(timeout);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    timer.shutdownNow();
+    senders.shutdownNow();
+  }
+
+  private final class Work {
+    private final String name;
+    private final SseEmitter emitter;
+    private final long startedAt = System.nanoTime();
+    private final AtomicBoolean ended = new AtomicBoolean();
+    private final AtomicLong eventsSent = new AtomicLong();
+    private Future<?> running;
+
+    Work(String name, SseEmitter emitter) {
+      this.name = name;
+      this.emitter = emitter;
+    }
+
+    void start(Consumer<BiConsumer<String, Object>> work) {
+      running = senders.submit(() -> run(work));
+      emitter.onCompletion(() -> stop(StreamEnd.CLIENT_GONE));
+      emitter.onError(e -> stop(StreamEnd.CLIENT_GONE));
+      emitter.onTimeout(
+          () -> {
+            stop(StreamEnd.TIMED_OUT);
+            emitter.complete();
+          });
+    }
+
+    private void run(Consumer<BiConsumer<String, Object>> work) {
+      try {
+        work.accept(this::send);
+        if (end(StreamEnd.COMPLETED)) emitter.complete();
+      } catch (RuntimeException e) {
+        if (end(StreamEnd.FAILED)) emitter.completeWithError(e);
+      }
+    }
+
+    // an event of work that has been stopped stops it where it has not noticed the interrupt
+    private void send(String event, Object data) {
+      if (ended.get()) throw new CancellationException();
+      try {
+        emitter.send(SseEmitter.event().name(event).data(data));
+        eventsSent.incrementAndGet();
+      } catch (IOException e) {
+        if (end(StreamEnd.CLIENT_GONE)) emitter.completeWithError(e);
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    private void stop(StreamEnd how) {
+      if (end(how)) running.cancel(true);
+    }
+
+    // records how the stream ended; returns false if it has already ended
+    private boolean end(StreamEnd how) {
+      if (!ended.compareAndSet(false, true)) return false;
+      metricsRegistry.recordStream(
+          name, how, eventsSent.get(), eventsSent.get(), 0, System.nanoTime() - startedAt);
+      return true;
+    }
+  }
+
+  private final class Bridge extends DisposableSubscriber<AssistantSSE> {
+    private final String name;
+    private final SseEmitter emitter;
+    private final long startedAt = System.nanoTime();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicBoolean ended = new AtomicBoolean();
+    private long lastSentAt = startedAt;
+    private volatile long eventsReceived;
+    private volatile long eventsSent;
+    private volatile long keepAlives;
+    private ObjectNode pendingDelta;
+    private StringBuilder pendingText;
+    private ScheduledFuture<?> pendingFlush;
+    private ScheduledFuture<?> keepAlive;
+
+    Bridge(String name, SseEmitter emitter) {
+      this.name = name;
+      this.emitter = emitter;
+    }
+
+    void start(Flowable<AssistantSSE> events) {
+      emitter.onCompletion(() -> end(StreamEnd.CLIENT_GONE));
+      emitter.onError(e -> end(StreamEnd.CLIENT_GONE));
+      emitter.onTimeout(
+          () -> {
+            end(StreamEnd.TIMED_OUT);
+            emitter.complete();
+          });
+      if (keepAliveIntervalNanos > 0) {
+        keepAlive =
+            timer.scheduleAtFixedRate(
+                () -> senders.execute(this::keepAliveIfIdle),
+                keepAliveIntervalNanos,
+                keepAliveIntervalNanos,
+                TimeUnit.NANOSECONDS);
+      }
+      events.onBackpressureBuffer(maxBufferedEvents).subscribe(this);
+    }
+
+    @Override
+    protected void onStart() {
+      request(1);
+    }
+
+    @Override
+    public void onNext(AssistantSSE sse) {
+      lock.lock();
+      try {
+        if (ended.get()) return;
+        eventsReceived++;
+        if (!coalesce(sse)) {
+          flushPendingDelta();
+          if (ended.get()) return;
+          send(SseEmitter.event().name(sse.getEvent().eventName).data(sse.getData()));
+          if (Objects.equals(sse.getEvent().eventName, "done")) finish();
+        }
+        if (ended.get()) return;
+      } finally {
+        lock.unlock();
+      }
+      request(1);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      lock.lock();
+      try {
+        if (ended.get()) return;
+        flushPendingDelta();
+      } finally {
+        lock.unlock();
+      }
+      if (end(StreamEnd.FAILED)) emitter.completeWithError(t);
+    }
+
+    @Override
+    public void onComplete() {
+      lock.lock();
+      try {
+        if (ended.get()) return;
+        flushPendingDelta();
+        finish();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void finish() {
+      if (end(StreamEnd.COMPLETED)) emitter.complete();
+    }
+
+    // merges the text of a delta into the pending one of the same message content
+    private boolean coalesce(AssistantSSE sse) {
+      if (coalesceWindowNanos <= 0) return false;
+      if (!Objects.equals(sse.getEvent().eventName, "thread.message.delta")) return false;
+      JsonNode delta = readTree(sse.getData());
+      JsonNode text = textOf(delta);
+      if (text == null) return false;
+      if (pendingDelta != null && !sameContent(pendingDelta, delta)) flushPendingDelta();
+      if (pendingDelta == null) {
+        pendingDelta = (ObjectNode) delta;
+        pendingText = new StringBuilder();
+        pendingFlush =
+            timer.schedule(
+                () -> senders.execute(this::flushLater), coalesceWindowNanos, TimeUnit.NANOSECONDS);
+      }
+      pendingText.append(text.asText());
+      if (pendingText.length() >= MAX_COALESCED_CHARS) flushPendingDelta();
+      return true;
+    }
+
+    private void flushLater() {
+      lock.lock();
+      try {
+        if (!ended.get()) flushPendingDelta();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void flushPendingDelta() {
+      if (pendingDelta == null) return;
+      ObjectNode text = (ObjectNode) pendingDelta.path("delta").path("content").get(0).path("text");
+      text.put("value", pendingText.toString());
+      String data = pendingDelta.toString();
+      pendingDelta = null;
+      pendingText = null;
+      pendingFlush.cancel(false);
+      send(SseEmitter.event().name("thread.message.delta").data(data));
+    }
+
+    private void keepAliveIfIdle() {
+      lock.lock();
+      try {
+        if (ended.get() || System.nanoTime() - lastSentAt < keepAliveIntervalNanos) return;
+        if (sendNow(SseEmitter.event().comment(KEEP_ALIVE))) keepAlives++;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void send(SseEmitter.SseEventBuilder event) {
+      if (sendNow(event)) eventsSent++;
+    }
+
+    private boolean sendNow(SseEmitter.SseEventBuilder event) {
+      try {
+        emitter.send(event);
+        lastSentAt = System.nanoTime();
+        return true;
+      } catch (Exception e) {
+        if (end(StreamEnd.CLIENT_GONE)) emitter.completeWithError(e);
+        return false;
+      }
+    }
+
+    // cancels the run stream and records how the stream ended; a pending flush left scheduled
+    // finds the bridge ended and does nothing. Returns false if the bridge has already ended.
+    private boolean end(StreamEnd how) {
+      if (!ended.compareAndSet(false, true)) return false;
+      dispose();
+      if (keepAlive != null) keepAlive.cancel(false);
+      metricsRegistry.recordStream(
+          name, how, eventsReceived, eventsSent, keepAlives, System.nanoTime() - startedAt);
+      return true;
+    }
+  }
+
+  private static JsonNode readTree(String data) {
+    try {
+      return objectMapper.readTree(data);
+    } catch (JsonProcessingException e) {
+      return null;
+    }
+  }
+
+  // the text of a delta that has only one plain text content
+  private static JsonNode textOf(JsonNode delta) {
+    if (delta == null || !delta.isObject()) return null;
+    JsonNode content = delta.path("delta").path("content");
+    if (!content.isArray() || content.size() != 1) return null;
+    JsonNode item = content.get(0);
+    if (!"text".equals(item.path("type").asText())) return null;
+    JsonNode annotations = item.path("text").path("annotations");
+    if (!annotations.isMissingNode() && !annotations.isNull() && !annotations.isEmpty()) {
+      return null;
+    }
+    JsonNode value = item.path("text").path("value");
+    return value.isTextual() ? value : null;
+  }
+
+  private static boolean sameContent(JsonNode pending, JsonNode delta) {
+    return Objects.equals(pending.path("id"), delta.path("id"))
+        && Objects.equals(
+            pending.path("delta").path("content").get(0).path("index"),
+            delta.path("delta").path("content").get(0).path("index"));
+  }
+}
@@ -0,0 +1,45 @@
+package com.odde.doughnut.services.openAiApis;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+// Opens after a number of consecutive failures and rejects the calls until the open duration has
+// passed. Then a single trial call is let through; its success closes the breaker again and its
+// failure keeps it open for another period.
+final class CircuitBreaker {
+  private final int failureThreshold;
+  private final long openNanos;
+  private final LongSupplier nanoClock;
+  private int consecutiveFailures = 0;
+  private boolean open = false;
+  private boolean trialInFlight = false;
+  private long openedAt;
+
+  CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+    this.failureThreshold = failureThreshold;
+    this.openNanos = openDuration.toNanos();
+    this.nanoClock = nanoClock;
+  }
+
+  synchronized boolean tryPass() {
+    if (!open) return true;
+    if (trialInFlight || nanoClock.getAsLong() - openedAt < openNanos) return false;
+    trialInFlight = true;
+    return true;
+  }
+
+  synchronized void recordSuccess() {
+    consecutiveFailures = 0;
+    open = false;
+    trialInFlight = false;
+  }
+
+  synchronized void recordFailure() {
+    consecutiveFailures++;
+    trialInFlight = false;
+    if (open || consecutiveFailures >= failureThreshold) {
+      open = true;
+      openedAt = nanoClock.getAsLong();
+    }
+  }
+}
@@ -1,18 +1,21 @@
 package com.odde.doughnut.services.openAiApis;
 
+import static com.odde.doughnut.services.openAiApis.ApiExecutor.blockExecute;
 import static com.odde.doughnut.services.openAiApis.ApiExecutor.blockGet;
-import static java.lang.Thread.sleep;
+import static com.odde.doughnut.services.openAiApis.ApiExecutor.whenReading;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.odde.doughnut.controllers.dto.AiCompletionAnswerClarifyingQuestionParams;
 import com.odde.doughnut.controllers.dto.SrtDto;
 import com.odde.doughnut.exceptions.OpenAIServiceErrorException;
 import com.theokanning.openai.assistants.assistant.Assistant;
 import com.theokanning.openai.assistants.assistant.AssistantRequest;
+import com.theokanning.openai.assistants.assistant.ToolResources;
 import com.theokanning.openai.assistants.assistant.VectorStoreFileRequest;
 import com.theokanning.openai.assistants.message.Message;
 import com.theokanning.openai.assistants.message.MessageRequest;
-import com.theokanning.openai.assistants.run.Run;
 import com.theokanning.openai.assistants.run.RunCreateRequest;
 import com.theokanning.openai.assistants.run.SubmitToolOutputRequestItem;
 import com.theokanning.openai.assistants.run.SubmitToolOutputsRequest;
@@ -35,19 +38,39 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
 import java.util.*;
+import java.util.function.Consumer;
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
 import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
+import okio.BufferedSource;
 import org.springframework.http.HttpStatus;
 import retrofit2.Call;
 
 public class OpenAiApiHandler {
+  private static final ObjectMapper objectMapper = new ObjectMapper();
   private final OpenAiApi openAiApi;
+  private final AiResponseCache responseCache;
+  private final Timestamp noteUpdatedAt;
 
   public OpenAiApiHandler(OpenAiApi openAiApi) {
+    this(openAiApi, null, null);
+  }
+
+  private OpenAiApiHandler(
+      OpenAiApi openAiApi, AiResponseCache responseCache, Timestamp noteUpdatedAt) {
     this.openAiApi = openAiApi;
+    this.responseCache = responseCache;
+    this.noteUpdatedAt = noteUpdatedAt;
+  }
+
+  // the chat completions of the returned handler are served from the cache while the note they
+  // are about stays unchanged
+  public OpenAiApiHandler withResponseCache(
+      AiResponseCache responseCache, Timestamp noteUpdatedAt) {
+    return new OpenAiApiHandler(openAiApi, responseCache, noteUpdatedAt);
   }
 
   public String getOpenAiImage(String prompt) {
@@ -76,7 +99,49 @@ public class OpenAiApiHandler {
         .flatMap(x -> x.stream().findFirst());
   }
 
+  // the arguments of the first tool call are given to onPartialArguments every time more of them
+  // arrive, closed up to be valid JSON, and the complete arguments are returned at the end
+  public Optional<JsonNode> streamFirstToolCallArguments(
+      ChatCompletionRequest chatRequest, Consumer<JsonNode> onPartialArguments) {
+    StringBuilder arguments = new StringBuilder();
+    try (ResponseBody body = blockExecute(openAiApi.createChatCompletionStream(chatRequest))) {
+      BufferedSource source = body.source();
+      String line;
+      while ((line = source.readUtf8Line()) != null) {
+        if (!line.startsWith("data:")) continue;
+        String data = line.substring("data:".length()).trim();
+        if (data.equals("[DONE]")) break;
+        String fragment = firstToolCallArgumentsFragment(objectMapper.readTree(data));
+        if (fragment.isEmpty()) continue;
+        arguments.append(fragment);
+        PartialJson.parse(arguments).ifPresent(onPartialArguments);
+      }
+    } catch (IOException e) {
+      throw whenReading(e);
+    }
+    return parseArguments(arguments.toString());
+  }
+
+  private static Optional<JsonNode> parseArguments(String arguments) {
+    try {
+      return Optional.ofNullable(objectMapper.readTree(arguments)).filter(n -> !n.isMissingNode());
+    } catch (JsonProcessingException e) {
+      return Optional.empty();
+    }
+  }
+
+  private static String firstToolCallArgumentsFragment(JsonNode chunk) {
+    JsonNode toolCall = chunk.path("choices").path(0).path("delta").path("tool_calls").path(0);
+    if (toolCall.path("index").asInt(0) != 0) return "";
+    return toolCall.path("function").path("arguments").asText("");
+  }
+
   public Optional<ChatCompletionChoice> chatCompletion(ChatCompletionRequest request) {
+    if (responseCache == null) return requestChatCompletion(request);
+    return responseCache.getOrLoad(request, noteUpdatedAt, () -> requestChatCompletion(request));
+  }
+
+  private Optional<ChatCompletionChoice> requestChatCompletion(ChatCompletionRequest request) {
     return blockGet(openAiApi.createChatCompletion(request)).getChoices().stream().findFirst();
   }
 
@@ -89,21 +154,26 @@ public class OpenAiApiHandler {
     File tempFile = File.createTempFile(subFileName, suffix);
     try {
       Files.write(tempFile.toPath(), content.getBytes(), StandardOpenOption.WRITE);
-      RequestBody fileRequestBody =
-          RequestBody.create(tempFile, MediaType.parse("application/octet-stream"));
-      MultipartBody.Part filePart =
-          MultipartBody.Part.createFormData("file", tempFile.getName(), fileRequestBody);
-      RequestBody purposeBody = RequestBody.create(purpose, MediaType.parse("text/plain"));
-      try {
-        return blockGet(openAiApi.uploadFile(purposeBody, filePart)).getId();
-      } catch (Exception e) {
-        throw new OpenAIServiceErrorException("Upload failed.", HttpStatus.INTERNAL_SERVER_ERROR);
-      }
+      return uploadFile(tempFile, purpose);
     } finally {
       tempFile.delete();
     }
   }
 
+  // the file is streamed from the disk; it is uploaded under its own name
+  public String uploadFile(File file, String purpose) {
+    RequestBody fileRequestBody =
+        RequestBody.create(file, MediaType.parse("application/octet-stream"));
+    MultipartBody.Part filePart =
+        MultipartBody.Part.createFormData("file", file.getName(), fileRequestBody);
+    RequestBody purposeBody = RequestBody.create(purpose, MediaType.parse("text/plain"));
+    try {
+      return blockGet(openAiApi.uploadFile(purposeBody, filePart)).getId();
+    } catch (Exception e) {
+      throw new OpenAIServiceErrorException("Upload failed.", HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+  }
+
   public FineTuningJob triggerFineTuning(String fileId) {
     FineTuningJobRequest fineTuningJobRequest = new FineTuningJobRequest();
     fineTuningJobRequest.setTrainingFile(fileId);
@@ -131,18 +201,12 @@ public class OpenAiApiHandler {
     blockGet(openAiApi.createMessage(threadId, messageRequest));
   }
 
-  private Run retrieveRun(String threadId, String runId) {
-    return blockGet(openAiApi.retrieveRun(threadId, runId));
-  }
-
-  public Run createRun(String threadId, String assistantId) {
-    RunCreateRequest runCreateRequest = RunCreateRequest.builder().assistantId(assistantId).build();
-    return blockGet(openAiApi.createRun(threadId, runCreateRequest));
-  }
-
   public static Flowable<AssistantSSE> assistantStream(Call<ResponseBody> apiCall) {
     return Flowable.create(
-        emitter -> apiCall.enqueue(new AssistantResponseBodyCallback(emitter)),
+        emitter -> {
+          emitter.setCancellable(apiCall::cancel);
+          apiCall.enqueue(new AssistantResponseBodyCallback(emitter));
+        },
         BackpressureStrategy.BUFFER);
   }
 
@@ -152,52 +216,28 @@ public class OpenAiApiHandler {
     return assistantStream(openAiApi.createRunStream(threadId, runCreateRequest));
   }
 
-  public Run retrieveUntilCompletedOrRequiresAction(String threadId, Run currentRun) {
-    Run retrievedRun = currentRun;
-    int count = 0;
-    while (!(retrievedRun.getStatus().equals("completed"))
-        && !(retrievedRun.getStatus().equals("failed"))
-        && !(retrievedRun.getStatus().equals("requires_action"))) {
-      count++;
-      if (count > 15) {
-        break;
-      }
-      wait(count - 1);
-      retrievedRun = retrieveRun(threadId, currentRun.getId());
-    }
-    if (retrievedRun.getStatus().equals("requires_action")
-        || retrievedRun.getStatus().equals("completed")) {
-      return retrievedRun;
-    }
-    throw new RuntimeException("OpenAI run status: " + retrievedRun.getStatus());
-  }
-
-  private static void wait(int hundredMilliSeconds) {
-    try {
-      sleep(hundredMilliSeconds * 200L);
-    } catch (InterruptedException e) {
-      throw new RuntimeException(e);
-    }
-  }
-
-  public Run submitToolOutputs(
+  public Flowable<AssistantSSE> submitToolOutputsStream(
       AiCompletionAnswerClarifyingQuestionParams answerClarifyingQuestionParams) {
     SubmitToolOutputRequestItem toolOutputRequestItem =
         SubmitToolOutputRequestItem.builder()
             .toolCallId(answerClarifyingQuestionParams.getToolCallId())
             .output(answerClarifyingQuestionParams.getAnswer())
             .build();
-    List<SubmitToolOutputRequestItem> toolOutputRequestItems = new ArrayList<>();
-    toolOutputRequestItems.add(toolOutputRequestItem);
     SubmitToolOutputsRequest submitToolOutputsRequest =
-        SubmitToolOutputsRequest.builder().toolOutputs(toolOutputRequestItems).build();
-    return blockGet(
-        openAiApi.submitToolOutputs(
+        SubmitToolOutputsRequest.builder().toolOutputs(List.of(toolOutputRequestItem)).stream(true)
+            .build();
+    return assistantStream(
+        openAiApi.submitToolOutputsStream(
             answerClarifyingQuestionParams.getThreadId(),
             answerClarifyingQuestionParams.getRunId(),
             submitToolOutputsRequest));
   }
 
+  // the stream of a run ends when the run completes, fails or requires an action
+  public List<AssistantSSE> waitForRunEvents(Flowable<AssistantSSE> runStream) {
+    return blockGet(runStream.toList());
+  }
+
   public List<Message> getThreadMessages(String threadId, String runId) {
     Map<String, Object> options = new HashMap<>();
     options.put("order", "asc");
@@ -215,11 +255,34 @@ public class OpenAiApiHandler {
     return srtDto;
   }
 
-  public String createVectorFile(String assistantName, String fileId) {
-    VectorStoreRequest store = VectorStoreRequest.builder().name(assistantName).build();
-    String storeId = blockGet(openAiApi.createVectorStore(store)).getId();
+  public String createVectorStore(String name) {
+    VectorStoreRequest store = VectorStoreRequest.builder().name(name).build();
+    return blockGet(openAiApi.createVectorStore(store)).getId();
+  }
+
+  public void addVectorStoreFile(String vectorStoreId, String fileId) {
     VectorStoreFileRequest request = VectorStoreFileRequest.builder().fileId(fileId).build();
-    blockGet(openAiApi.createVectorStoreFile(storeId, request)).getId();
-    return storeId;
+    blockGet(openAiApi.createVectorStoreFile(vectorStoreId, request));
+  }
+
+  // removes the file from the vector store and then deletes the uploaded file itself
+  public void removeVectorStoreFile(String vectorStoreId, String fileId) {
+    blockGet(openAiApi.deleteVectorStoreFile(vectorStoreId, fileId));
+    blockGet(openAiApi.deleteFile(fileId));
+  }
+
+  public List<String> getVectorStoreIdsOfAssistant(String assistantId) {
+    ToolResources toolResources =
+        blockGet(openAiApi.retrieveAssistant(assistantId)).getToolResources();
+    if (toolResources == null || toolResources.getFileSearch() == null) return List.of();
+    return Objects.requireNonNullElse(toolResources.getFileSearch().getVectorStoreIds(), List.of());
+  }
+
+  // deletes the uploaded files of the vector store and then the store itself
+  public void deleteVectorStore(String vectorStoreId) {
+    blockGet(openAiApi.listVectorStoreFiles(vectorStoreId, Map.of()))
+        .getData()
+        .forEach(file -> blockGet(openAiApi.deleteFile(file.getId())));
+    blockGet(openAiApi.deleteVectorStore(vectorStoreId));
   }
 }
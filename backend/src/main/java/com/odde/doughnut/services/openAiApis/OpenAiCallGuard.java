@@ -0,0 +1,111 @@
+package com.odde.doughnut.services.openAiApis;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.Buffer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Bounds the number of concurrent OpenAI calls for each model, and stops calling OpenAI for a
+// while when it keeps failing, so that slow AI calls cannot take all the request threads and
+// the users get a quick error instead of waiting for the timeout. The model is read from the
+// JSON request body; the calls without one (runs, uploads, transcriptions) share one limit.
+// One guard is shared by the OpenAI clients of all the sessions.
+@Component
+public class OpenAiCallGuard implements Interceptor {
+  static final String OTHER = "other";
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final int maxConcurrentCallsPerModel;
+  private final long acquireTimeoutNanos;
+  private final CircuitBreaker circuitBreaker;
+  private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+  @Autowired
+  public OpenAiCallGuard(
+      @Value("${spring.openai.max-concurrent-calls-per-model:8}") int maxConcurrentCallsPerModel,
+      @Value("${spring.openai.acquire-timeout:30s}") Duration acquireTimeout,
+      @Value("${spring.openai.circuit-breaker.failure-threshold:5}") int failureThreshold,
+      @Value("${spring.openai.circuit-breaker.open-duration:30s}") Duration openDuration) {
+    this(
+        maxConcurrentCallsPerModel,
+        acquireTimeout,
+        new CircuitBreaker(failureThreshold, openDuration, System::nanoTime));
+  }
+
+  OpenAiCallGuard(
+      int maxConcurrentCallsPerModel, Duration acquireTimeout, CircuitBreaker circuitBreaker) {
+    this.maxConcurrentCallsPerModel = maxConcurrentCallsPerModel;
+    this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    this.circuitBreaker = circuitBreaker;
+  }
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    Request request = chain.request();
+    String model = modelOf(request);
+    Semaphore semaphore =
+        permits.computeIfAbsent(model, m -> new Semaphore(maxConcurrentCallsPerModel));
+    acquire(semaphore, model);
+    try {
+      if (!circuitBreaker.tryPass()) {
+        throw new OpenAiUnavailableException("OpenAI keeps failing, please try again later.");
+      }
+      Response response;
+      try {
+        response = chain.proceed(request);
+      } catch (IOException | RuntimeException e) {
+        circuitBreaker.recordFailure();
+        throw e;
+      }
+      if (response.code() >= 500 || response.code() == 429) {
+        circuitBreaker.recordFailure();
+      } else {
+        circuitBreaker.recordSuccess();
+      }
+      return response;
+    } finally {
+      semaphore.release();
+    }
+  }
+
+  private void acquire(Semaphore semaphore, String model) throws IOException {
+    try {
+      if (!semaphore.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+        throw new OpenAiUnavailableException(
+            "Too many concurrent OpenAI calls for " + model + ", please try again later.");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting to call OpenAI.");
+    }
+  }
+
+  static String modelOf(Request request) {
+    RequestBody body = request.body();
+    MediaType contentType = body == null ? null : body.contentType();
+    if (contentType == null || !"json".equals(contentType.subtype())) return OTHER;
+    try {
+      Buffer buffer = new Buffer();
+      body.writeTo(buffer);
+      JsonNode model = objectMapper.readTree(buffer.readUtf8()).get("model");
+      return model != null && model.isTextual() ? model.asText() : OTHER;
+    } catch (IOException e) {
+      return OTHER;
+    }
+  }
+}
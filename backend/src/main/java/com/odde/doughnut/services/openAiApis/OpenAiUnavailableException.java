@@ -0,0 +1,11 @@
+package com.odde.doughnut.services.openAiApis;
+
+import java.io.IOException;
+
+// Thrown from the OkHttp interceptor chain, which only lets IOExceptions through, when a call is
+// not sent to OpenAI at all.
+public class OpenAiUnavailableException extends IOException {
+  public OpenAiUnavailableException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,61 @@
+package com.odde.doughnut.services.openAiApis;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+
+// Reads the JSON received so far from a streamed tool call by closing whatever is still open.
+// A trailing key without its value yet gets a null value, so the fields that have arrived can be
+// shown before the rest of the arguments is generated.
+public final class PartialJson {
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private PartialJson() {}
+
+  public static Optional<JsonNode> parse(CharSequence prefix) {
+    StringBuilder json = new StringBuilder(prefix);
+    Deque<Character> closers = new ArrayDeque<>();
+    boolean inString = false;
+    boolean escaped = false;
+    for (int i = 0; i < prefix.length(); i++) {
+      char c = prefix.charAt(i);
+      if (inString) {
+        if (escaped) escaped = false;
+        else if (c == '\\') escaped = true;
+        else if (c == '"') inString = false;
+        continue;
+      }
+      switch (c) {
+        case '"' -> inString = true;
+        case '{' -> closers.push('}');
+        case '[' -> closers.push(']');
+        case '}', ']' -> closers.poll();
+        default -> {}
+      }
+    }
+    if (inString) {
+      if (escaped) json.setLength(json.length() - 1);
+      json.append('"');
+    }
+    complete(json);
+    closers.forEach(json::append);
+    try {
+      return Optional.of(objectMapper.readTree(json.toString())).filter(n -> !n.isMissingNode());
+    } catch (JsonProcessingException e) {
+      return Optional.empty();
+    }
+  }
+
+  private static void complete(StringBuilder json) {
+    int last = json.length() - 1;
+    while (last >= 0 && Character.isWhitespace(json.charAt(last))) last--;
+    json.setLength(last + 1);
+    if (last < 0) return;
+    char tail = json.charAt(last);
+    if (tail == ',') json.setLength(last);
+    else if (tail == ':') json.append("null");
+  }
+}
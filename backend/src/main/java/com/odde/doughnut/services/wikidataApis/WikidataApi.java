@@ -3,14 +3,24 @@ package com.odde.doughnut.services.wikidataApis;
 import com.fasterxml.jackson.databind.exc.MismatchedInputException;
 import com.odde.doughnut.controllers.dto.WikidataEntityData;
 import com.odde.doughnut.services.httpQuery.QueryBuilder;
+import com.odde.doughnut.services.wikidataApis.thirdPartyEntities.WikidataEntity;
 import com.odde.doughnut.services.wikidataApis.thirdPartyEntities.WikidataEntityDataHash;
 import com.odde.doughnut.services.wikidataApis.thirdPartyEntities.WikidataEntityHash;
 import com.odde.doughnut.services.wikidataApis.thirdPartyEntities.WikidataSearchResult;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import lombok.SneakyThrows;
 
 public record WikidataApi(QueryBuilder queryBuilder) {
+  // the most ids wbgetentities accepts in one request
+  static final int MAX_IDS_PER_REQUEST = 50;
+  private static final ExecutorService fetcher = Executors.newVirtualThreadPerTaskExecutor();
 
   private QueryBuilder queryWikidataApi(String action) {
     return queryBuilder.path("/w/api.php").queryParam("action", action);
@@ -43,6 +53,43 @@ public record WikidataApi(QueryBuilder queryBuilder) {
     }
   }
 
+  public WikidataEntityHash getEntityHashByIds(List<String> wikidataIds)
+      throws IOException, InterruptedException {
+    Map<String, WikidataEntity> entities = new HashMap<>();
+    for (int from = 0; from < wikidataIds.size(); from += MAX_IDS_PER_REQUEST) {
+      List<String> ids =
+          wikidataIds.subList(from, Math.min(from + MAX_IDS_PER_REQUEST, wikidataIds.size()));
+      WikidataEntityHash entityHash = getEntityHashById(String.join("|", ids));
+      if (entityHash != null && entityHash.getEntities() != null) {
+        entities.putAll(entityHash.getEntities());
+      }
+    }
+    WikidataEntityHash result = new WikidataEntityHash();
+    result.setEntities(entities);
+    return result;
+  }
+
+  public Optional<String> getEnglishTitle(String wikidataId) {
+    return getWikidataEntityData(wikidataId).map(e -> e.WikidataTitleInEnglish);
+  }
+
+  public CompletableFuture<Map<String, Optional<String>>> getEnglishTitlesAsync(
+      List<String> wikidataIds) {
+    List<CompletableFuture<Optional<String>>> titles =
+        wikidataIds.stream()
+            .map(id -> CompletableFuture.supplyAsync(() -> getEnglishTitle(id), fetcher))
+            .toList();
+    return CompletableFuture.allOf(titles.toArray(CompletableFuture[]::new))
+        .thenApply(
+            done -> {
+              Map<String, Optional<String>> result = new HashMap<>();
+              for (int i = 0; i < wikidataIds.size(); i++) {
+                result.put(wikidataIds.get(i), titles.get(i).join());
+              }
+              return result;
+            });
+  }
+
   @SneakyThrows
   public Optional<WikidataEntityData> getWikidataEntityData(String wikidataId) {
     return queryBuilder
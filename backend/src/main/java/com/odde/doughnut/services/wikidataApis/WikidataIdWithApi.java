@@ -6,14 +6,21 @@ import com.odde.doughnut.exceptions.DuplicateWikidataIdException;
 import com.odde.doughnut.factoryServices.ModelFactoryService;
 import com.odde.doughnut.services.wikidataApis.thirdPartyEntities.WikidataEntityHash;
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Stream;
 import org.apache.logging.log4j.util.Strings;
 
 public final class WikidataIdWithApi {
   private final String wikidataId;
   private final WikidataApi wikidataApi;
+  // fetched at most once, or all together for several ids by prefetch
+  private Optional<WikidataEntityModel> entityModel;
+  private Optional<String> englishTitle;
 
   public static WikidataIdWithApi create(String wikidataId, WikidataApi wikidataApi) {
     if (Strings.isBlank(wikidataId)) return null;
@@ -25,8 +32,41 @@ public final class WikidataIdWithApi {
     this.wikidataApi = wikidataApi;
   }
 
+  // Fetches the claims of all the ids in one request, and their titles concurrently.
+  public static void prefetch(List<WikidataIdWithApi> wikidataIdWithApis)
+      throws IOException, InterruptedException {
+    if (wikidataIdWithApis.isEmpty()) return;
+    WikidataApi wikidataApi = wikidataIdWithApis.getFirst().wikidataApi;
+    List<String> wikidataIds =
+        wikidataIdWithApis.stream().map(WikidataIdWithApi::wikidataId).distinct().toList();
+    CompletableFuture<Map<String, Optional<String>>> titles =
+        wikidataApi.getEnglishTitlesAsync(wikidataIds);
+    WikidataEntityHash entityHash = wikidataApi.getEntityHashByIds(wikidataIds);
+    Map<String, Optional<String>> englishTitles = join(titles);
+    wikidataIdWithApis.forEach(
+        w -> {
+          w.entityModel = entityHash.getEntityModel(w.wikidataId);
+          w.englishTitle = englishTitles.get(w.wikidataId);
+        });
+  }
+
+  // the titles are fetched on other threads, so their failures come wrapped
+  private static <T> T join(CompletableFuture<T> future) throws IOException, InterruptedException {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof IOException cause) throw cause;
+      if (e.getCause() instanceof InterruptedException cause) throw cause;
+      if (e.getCause() instanceof RuntimeException cause) throw cause;
+      throw e;
+    }
+  }
+
   public Optional<String> fetchEnglishTitleFromApi() {
-    return wikidataApi.getWikidataEntityData(wikidataId()).map(e -> e.WikidataTitleInEnglish);
+    if (englishTitle == null) {
+      englishTitle = wikidataApi.getEnglishTitle(wikidataId);
+    }
+    return englishTitle;
   }
 
   public Optional<WikidataEntityData> fetchWikidataEntityData() throws IOException {
@@ -35,9 +75,11 @@ public final class WikidataIdWithApi {
 
   private Optional<WikidataEntityModel> getWikidataEntityModel()
       throws IOException, InterruptedException {
-    WikidataEntityHash entityHash = wikidataApi.getEntityHashById(wikidataId);
-    if (entityHash == null) return Optional.empty();
-    return entityHash.getEntityModel(wikidataId);
+    if (entityModel == null) {
+      WikidataEntityHash entityHash = wikidataApi.getEntityHashById(wikidataId);
+      entityModel = entityHash == null ? Optional.empty() : entityHash.getEntityModel(wikidataId);
+    }
+    return entityModel;
   }
 
   public void extractWikidataInfoToNote(Note note) throws IOException, InterruptedException {
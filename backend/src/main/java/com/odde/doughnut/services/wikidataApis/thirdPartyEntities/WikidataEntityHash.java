@@ -3,10 +3,11 @@ package com.odde.doughnut.services.wikidataApis.thirdPartyEntities;
 import com.odde.doughnut.services.wikidataApis.WikidataEntityModel;
 import java.util.Map;
 import java.util.Optional;
+import lombok.Getter;
 import lombok.Setter;
 
 public class WikidataEntityHash {
-  @Setter private Map<String, WikidataEntity> entities;
+  @Getter @Setter private Map<String, WikidataEntity> entities;
 
   public Optional<WikidataEntityModel> getEntityModel(String wikidataId) {
     if (entities == null || !entities.containsKey(wikidataId)) {
@@ -1,15 +1,18 @@
 package com.odde.doughnut.testability;
 
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.EntityTransaction;
 import jakarta.persistence.Table;
 import jakarta.persistence.metamodel.EntityType;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.hibernate.metamodel.model.domain.JpaMetamodel;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -55,9 +58,18 @@ public class DBCleanerWorker {
     Set<EntityType<?>> entities = metamodel.getEntities();
 
     return entities.stream()
-        .map(e -> e.getJavaType().getAnnotation(Table.class))
-        .filter(Objects::nonNull)
-        .map(Table::name)
+        .flatMap(e -> Stream.concat(getTableName(e), getCollectionTableNames(e)))
         .collect(Collectors.toList());
   }
+
+  private Stream<String> getTableName(EntityType<?> entity) {
+    return Stream.ofNullable(entity.getJavaType().getAnnotation(Table.class)).map(Table::name);
+  }
+
+  private Stream<String> getCollectionTableNames(EntityType<?> entity) {
+    return Arrays.stream(entity.getJavaType().getDeclaredFields())
+        .map(f -> f.getAnnotation(CollectionTable.class))
+        .filter(Objects::nonNull)
+        .map(CollectionTable::name);
+  }
 }
@@ -0,0 +1,213 @@
+package com.odde.doughnut.testability;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// A canned OpenAI API for load testing without network access: run the app with the
+// openai-stub profile added, and the OpenAI clients are pointed here. Every call takes the
+// configured latency, like a slow model would, and answers with fixed content. Only the chat
+// completion, model and assistant thread endpoints are served; streamed chat completions and
+// runs send everything in one go.
+@RestController
+@Profile("openai-stub")
+@RequestMapping("/api/testability/openai-stub/v1")
+class OpenAiStubController {
+  private static final Map<String, String> toolCallArguments =
+      Map.of(
+          "ask_single_answer_multiple_choice_question",
+          """
+          {"multipleChoicesQuestion":{"stem":"Which one is the stub answer?",
+          "choices":["the stub answer","another choice","one more choice"]},
+          "correctChoiceIndex":0}""",
+          "evaluate_question",
+          """
+          {"correctChoices":[0],"feasibleQuestion":true}""",
+          "complete_note_details",
+          """
+          {"completion":" completed by the stub."}""");
+
+  private final Duration latency;
+
+  OpenAiStubController(@Value("${spring.openai-stub.latency:1s}") Duration latency) {
+    this.latency = latency;
+  }
+
+  @PostMapping("/chat/completions")
+  public ResponseEntity<?> createChatCompletion(@RequestBody JsonNode request)
+      throws JsonProcessingException {
+    simulateLatency();
+    JsonNode tools = request.path("tools");
+    Map<String, Object> message;
+    String finishReason;
+    if (tools.isEmpty()) {
+      message = Map.of("role", "assistant", "content", "This is a stub completion.");
+      finishReason = "stop";
+    } else {
+      String functionName = tools.get(0).path("function").path("name").asText();
+      Map<String, Object> toolCall =
+          Map.of(
+              "index",
+              0,
+              "id",
+              "call_stub",
+              "type",
+              "function",
+              "function",
+              Map.of(
+                  "name",
+                  functionName,
+                  "arguments",
+                  toolCallArguments.getOrDefault(functionName, "{}")));
+      message = Map.of("role", "assistant", "tool_calls", List.of(toolCall));
+      finishReason = "tool_calls";
+    }
+    if (request.path("stream").asBoolean()) {
+      return ResponseEntity.ok()
+          .contentType(MediaType.TEXT_EVENT_STREAM)
+          .body(streamOf(request, message, finishReason));
+    }
+    return ResponseEntity.ok(
+        Map.of(
+            "id",
+            "chatcmpl-stub",
+            "object",
+            "chat.completion",
+            "created",
+            now(),
+            "model",
+            request.path("model").asText(),
+            "choices",
+            List.of(Map.of("index", 0, "message", message, "finish_reason", finishReason))));
+  }
+
+  private String streamOf(JsonNode request, Map<String, Object> message, String finishReason)
+      throws JsonProcessingException {
+    Map<String, Object> chunk =
+        Map.of(
+            "id",
+            "chatcmpl-stub",
+            "object",
+            "chat.completion.chunk",
+            "created",
+            now(),
+            "model",
+            request.path("model").asText(),
+            "choices",
+            List.of(Map.of("index", 0, "delta", message, "finish_reason", finishReason)));
+    return "data: " + new ObjectMapper().writeValueAsString(chunk) + "\n\ndata: [DONE]\n\n";
+  }
+
+  @GetMapping("/models")
+  public Map<String, Object> listModels() {
+    simulateLatency();
+    return Map.of(
+        "object",
+        "list",
+        "data",
+        List.of(Map.of("id", "gpt-4o-mini", "object", "model", "created", 0, "owned_by", "stub")));
+  }
+
+  @PostMapping("/threads")
+  public Map<String, Object> createThread() {
+    simulateLatency();
+    return Map.of("id", "thread_stub", "object", "thread", "created_at", now());
+  }
+
+  @PostMapping("/threads/{threadId}/messages")
+  public Map<String, Object> createMessage(@PathVariable String threadId) {
+    simulateLatency();
+    return message(threadId, "user", "");
+  }
+
+  @GetMapping("/threads/{threadId}/messages")
+  public Map<String, Object> listMessages(@PathVariable String threadId) {
+    simulateLatency();
+    return Map.of(
+        "object",
+        "list",
+        "data",
+        List.of(message(threadId, "assistant", "This is a stub reply.")),
+        "has_more",
+        false);
+  }
+
+  @PostMapping("/threads/{threadId}/runs")
+  public ResponseEntity<?> createRun(@PathVariable String threadId, @RequestBody JsonNode request)
+      throws JsonProcessingException {
+    simulateLatency();
+    if (request.path("stream").asBoolean()) {
+      return runStreamOf(threadId);
+    }
+    return ResponseEntity.ok(completedRun(threadId));
+  }
+
+  @PostMapping("/threads/{threadId}/runs/{runId}/submit_tool_outputs")
+  public ResponseEntity<String> submitToolOutputs(@PathVariable String threadId)
+      throws JsonProcessingException {
+    simulateLatency();
+    return runStreamOf(threadId);
+  }
+
+  private ResponseEntity<String> runStreamOf(String threadId) throws JsonProcessingException {
+    ObjectMapper objectMapper = new ObjectMapper();
+    String events =
+        "event: thread.message.completed\ndata: "
+            + objectMapper.writeValueAsString(
+                message(threadId, "assistant", "This is a stub reply."))
+            + "\n\nevent: thread.run.completed\ndata: "
+            + objectMapper.writeValueAsString(completedRun(threadId))
+            + "\n\nevent: done\ndata: [DONE]\n\n";
+    return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(events);
+  }
+
+  private static Map<String, Object> message(String threadId, String role, String text) {
+    return Map.of(
+        "id",
+        "msg_stub",
+        "object",
+        "thread.message",
+        "created_at",
+        now(),
+        "thread_id",
+        threadId,
+        "role",
+        role,
+        "content",
+        List.of(Map.of("type", "text", "text", Map.of("value", text, "annotations", List.of()))));
+  }
+
+  private static Map<String, Object> completedRun(String threadId) {
+    return Map.of(
+        "id",
+        "run_stub",
+        "object",
+        "thread.run",
+        "created_at",
+        now(),
+        "thread_id",
+        threadId,
+        "status",
+        "completed");
+  }
+
+  private static long now() {
+    return System.currentTimeMillis() / 1000;
+  }
+
+  private void simulateLatency() {
+    try {
+      Thread.sleep(latency);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
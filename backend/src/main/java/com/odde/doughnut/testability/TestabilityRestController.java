@@ -10,6 +10,9 @@ import com.odde.doughnut.models.TimestampOperations;
 import com.odde.doughnut.models.UserModel;
 import com.odde.doughnut.services.GithubService;
 import com.odde.doughnut.services.NoteConstructionService;
+import com.odde.doughnut.services.QuizQuestionPrefetchService;
+import com.odde.doughnut.services.ReviewQueueService;
+import com.odde.doughnut.services.httpQuery.HttpClientAdapter;
 import com.odde.doughnut.testability.model.QuizQuestionsTestData;
 import jakarta.persistence.EntityManagerFactory;
 import java.io.IOException;
@@ -37,11 +40,17 @@ class TestabilityRestController {
   @Autowired UserModel currentUser;
   @Autowired ModelFactoryService modelFactoryService;
   @Autowired TestabilitySettings testabilitySettings;
+  @Autowired ReviewQueueService reviewQueueService;
+  @Autowired QuizQuestionPrefetchService quizQuestionPrefetchService;
+  @Autowired HttpClientAdapter httpClientAdapter;
 
   @PostMapping("/clean_db_and_reset_testability_settings")
   @Transactional
   public String resetDBAndTestabilitySettings() {
     new DBCleanerWorker(emf).truncateAllTables();
+    reviewQueueService.clear();
+    quizQuestionPrefetchService.clear();
+    httpClientAdapter.clearCache();
     createUser("old_learner", "Old Learner");
     createUser("another_old_learner", "Another Old Learner");
     createUser("admin", "admin");
@@ -10,6 +10,7 @@ import java.util.Map;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.annotation.ApplicationScope;
 
@@ -30,6 +31,11 @@ public class TestabilitySettings {
         }
       };
 
+  @Value("${spring.openai.base-url:https://api.openai.com/v1/}")
+  void setDefaultOpenAiApiUrl(String openAiApiUrl) {
+    this.serviceUrls.put("openAi", openAiApiUrl);
+  }
+
   public void timeTravelTo(Timestamp timestamp) {
     this.timestamp = timestamp;
     if (nonRandomizer == null) {
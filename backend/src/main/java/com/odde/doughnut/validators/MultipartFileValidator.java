@@ -2,6 +2,7 @@ package com.odde.doughnut.validators;
 
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
+import java.util.List;
 import org.springframework.web.multipart.MultipartFile;
 
 public class MultipartFileValidator
@@ -9,11 +10,15 @@ public class MultipartFileValidator
 
   private String[] allowedContentTypes;
   private long maxFileSize;
+  private long maxFileSizeOfOtherTypes;
+  private List<String> largeContentTypes;
 
   @Override
   public void initialize(ValidateMultipartFile constraintAnnotation) {
     this.allowedContentTypes = constraintAnnotation.allowedTypes();
     this.maxFileSize = constraintAnnotation.maxSize();
+    this.maxFileSizeOfOtherTypes = constraintAnnotation.maxSizeOfOtherTypes();
+    this.largeContentTypes = List.of(constraintAnnotation.largeTypes());
   }
 
   @Override
@@ -53,11 +58,14 @@ public class MultipartFileValidator
       return false;
     }
 
-    if (size > maxFileSize) {
+    long limit =
+        maxFileSizeOfOtherTypes > 0 && !largeContentTypes.contains(contentType)
+            ? maxFileSizeOfOtherTypes
+            : maxFileSize;
+    if (size > limit) {
       context.disableDefaultConstraintViolation();
       context
-          .buildConstraintViolationWithTemplate(
-              "File size exceeds the limit: " + maxFileSize + " bytes.")
+          .buildConstraintViolationWithTemplate("File size exceeds the limit: " + limit + " bytes.")
           .addConstraintViolation();
       return false;
     }
@@ -20,4 +20,10 @@ public @interface ValidateMultipartFile {
   String[] allowedTypes();
 
   long maxSize() default 10 * 1024 * 1024; // 10 MB
+
+  // when set, only the files of the types in largeTypes may be as large as maxSize, and the files
+  // of the other allowed types are limited to this size
+  long maxSizeOfOtherTypes() default 0;
+
+  String[] largeTypes() default {};
 }
@@ -0,0 +1,78 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+// The search tokens cannot be produced in SQL. The tokenizer is a frozen copy of SearchTokenizer
+// as it was when this migration was written, so that changing SearchTokenizer later does not
+// change what this migration does; the notes saved afterwards are tokenized by SearchTokenizer.
+// The notes are read a page at a time by id, because the MySQL driver would otherwise load
+// the whole result set into memory.
+public class V200000128__Backfill_note_search_token extends BaseJavaMigration {
+  private static final int PAGE_SIZE = 1000;
+  private static final String SELECT_PAGE =
+      "SELECT id, topic_constructor, description FROM note WHERE id > ? ORDER BY id LIMIT "
+          + PAGE_SIZE;
+  private static final String INSERT_TOKEN =
+      "INSERT IGNORE INTO note_search_token (note_id, token, in_topic) VALUES (?, ?, ?)";
+  private static final int MAX_TOKEN_LENGTH = 50;
+  private static final Pattern HTML_TAG = Pattern.compile("<[^>]*>");
+  private static final Pattern TOKEN =
+      Pattern.compile(
+          "\\p{IsHan}|\\p{IsKatakana}|\\p{IsHiragana}"
+              + "|[\\p{L}\\p{M}\\p{N}&&[^\\p{IsHan}\\p{IsKatakana}\\p{IsHiragana}]]+");
+
+  @Override
+  public void migrate(Context context) throws SQLException {
+    Connection connection = context.getConnection();
+    try (PreparedStatement select = connection.prepareStatement(SELECT_PAGE);
+        PreparedStatement insert = connection.prepareStatement(INSERT_TOKEN)) {
+      int lastId = 0;
+      while (true) {
+        int read = 0;
+        select.setInt(1, lastId);
+        try (ResultSet notes = select.executeQuery()) {
+          while (notes.next()) {
+            lastId = notes.getInt("id");
+            addTokens(insert, lastId, notes.getString("topic_constructor"), true);
+            addTokens(insert, lastId, notes.getString("description"), false);
+            read++;
+          }
+        }
+        insert.executeBatch();
+        if (read < PAGE_SIZE) return;
+      }
+    }
+  }
+
+  private void addTokens(PreparedStatement insert, int noteId, String text, boolean inTopic)
+      throws SQLException {
+    for (String token : tokens(text)) {
+      insert.setInt(1, noteId);
+      insert.setString(2, token);
+      insert.setBoolean(3, inTopic);
+      insert.addBatch();
+    }
+  }
+
+  private static Set<String> tokens(String text) {
+    Set<String> result = new LinkedHashSet<>();
+    if (text == null) return result;
+    Matcher matcher = TOKEN.matcher(HTML_TAG.matcher(text).replaceAll(" "));
+    while (matcher.find()) {
+      String token = matcher.group().toLowerCase(Locale.ROOT);
+      if (token.length() > MAX_TOKEN_LENGTH) token = token.substring(0, MAX_TOKEN_LENGTH);
+      result.add(token);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,10 @@
+ALTER TABLE note ADD COLUMN ancestor_path VARCHAR(1000) CHARACTER SET ascii NOT NULL DEFAULT '/';
+CREATE INDEX idx_note_ancestor_path ON note (ancestor_path);
+
+WITH RECURSIVE note_path (id, path) AS (
+    SELECT id, CAST('/' AS CHAR(1000) CHARACTER SET ascii) FROM note WHERE parent_id IS NULL
+    UNION ALL
+    SELECT child.id, CONCAT(note_path.path, child.parent_id, '/')
+    FROM note child JOIN note_path ON child.parent_id = note_path.id
+)
+UPDATE note JOIN note_path ON note.id = note_path.id SET note.ancestor_path = note_path.path;
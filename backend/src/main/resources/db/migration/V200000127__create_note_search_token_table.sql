@@ -0,0 +1,8 @@
+CREATE TABLE note_search_token (
+    note_id int unsigned NOT NULL,
+    token VARCHAR(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL,
+    in_topic tinyint NOT NULL DEFAULT '0',
+    PRIMARY KEY (note_id, token, in_topic),
+    KEY idx_note_search_token_token (token),
+    FOREIGN KEY (note_id) REFERENCES note(id) ON DELETE CASCADE
+);
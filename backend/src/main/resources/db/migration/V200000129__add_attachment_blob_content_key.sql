@@ -0,0 +1,6 @@
+ALTER TABLE attachment_blob
+  ADD COLUMN `content_key` CHAR(64) CHARACTER SET ascii NULL,
+  ADD COLUMN `size` BIGINT NULL,
+  ADD INDEX `idx_attachment_blob_content_key` (`content_key`);
+
+UPDATE attachment_blob SET `size` = LENGTH(`data`) WHERE `data` IS NOT NULL;
@@ -0,0 +1,24 @@
+ALTER TABLE linking_note
+  ADD COLUMN `link_type` TINYINT UNSIGNED NULL,
+  ADD INDEX `idx_linking_note_link_type` (`link_type`, `note_id`);
+
+UPDATE linking_note ln
+  JOIN note n ON n.id = ln.note_id
+  SET ln.link_type = CASE LOWER(SUBSTRING(n.topic_constructor, 2))
+    WHEN 'no link' THEN 0
+    WHEN 'related to' THEN 1
+    WHEN 'a specialization of' THEN 2
+    WHEN 'an application of' THEN 3
+    WHEN 'an instance of' THEN 4
+    WHEN 'a part of' THEN 6
+    WHEN 'tagged by' THEN 8
+    WHEN 'an attribute of' THEN 10
+    WHEN 'the opposite of' THEN 12
+    WHEN 'author of' THEN 14
+    WHEN 'using' THEN 15
+    WHEN 'an example of' THEN 17
+    WHEN 'before' THEN 19
+    WHEN 'similar to' THEN 22
+    WHEN 'confused with' THEN 23
+  END
+  WHERE n.topic_constructor LIKE ':%';
@@ -0,0 +1,10 @@
+ALTER TABLE quiz_question_and_answer
+  ADD COLUMN `content_hash` CHAR(64) CHARACTER SET ascii NULL,
+  ADD COLUMN `last_served_at` timestamp NULL,
+  ADD INDEX `idx_quiz_question_and_answer_note_content_hash` (`note_id`, `content_hash`);
+
+UPDATE quiz_question_and_answer SET last_served_at = created_at;
+
+ALTER TABLE quiz_question_and_answer
+  MODIFY COLUMN `last_served_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  ADD INDEX `idx_quiz_question_and_answer_last_served_at` (`last_served_at`);
@@ -0,0 +1,11 @@
+CREATE TABLE `ai_response_cache` (
+  `id` int unsigned NOT NULL AUTO_INCREMENT,
+  `cache_key` char(64) CHARACTER SET ascii NOT NULL,
+  `model` varchar(255) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `response` mediumtext CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NOT NULL,
+  `created_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  `last_used_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uq_ai_response_cache_cache_key` (`cache_key`),
+  KEY `idx_ai_response_cache_last_used_at` (`last_used_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
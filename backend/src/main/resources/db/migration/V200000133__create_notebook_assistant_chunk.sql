@@ -0,0 +1,14 @@
+ALTER TABLE `notebook_assistant`
+  ADD COLUMN `vector_store_id` varchar(255) CHARACTER SET ascii DEFAULT NULL;
+
+CREATE TABLE `notebook_assistant_chunk` (
+  `id` int unsigned NOT NULL AUTO_INCREMENT,
+  `notebook_assistant_id` int unsigned NOT NULL,
+  `chunk_key` varchar(64) CHARACTER SET ascii NOT NULL,
+  `content_hash` char(64) CHARACTER SET ascii NOT NULL,
+  `file_id` varchar(255) CHARACTER SET ascii NOT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uq_notebook_assistant_chunk_key` (`notebook_assistant_id`, `chunk_key`),
+  CONSTRAINT `fk_notebook_assistant_chunk_notebook_assistant_id`
+    FOREIGN KEY (`notebook_assistant_id`) REFERENCES `notebook_assistant` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
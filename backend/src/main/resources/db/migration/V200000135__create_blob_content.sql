@@ -0,0 +1,5 @@
+CREATE TABLE `blob_content` (
+  `blob_key` varchar(255) CHARACTER SET ascii NOT NULL,
+  `content` longblob NOT NULL,
+  PRIMARY KEY (`blob_key`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
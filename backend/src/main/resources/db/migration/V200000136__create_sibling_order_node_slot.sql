@@ -0,0 +1,6 @@
+CREATE TABLE `sibling_order_node_slot` (
+  `slot` smallint unsigned NOT NULL,
+  `holder` char(36) CHARACTER SET ascii NOT NULL,
+  `heartbeat_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`slot`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
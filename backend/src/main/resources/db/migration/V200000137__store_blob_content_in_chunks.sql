@@ -0,0 +1,22 @@
+CREATE TABLE `blob_chunk` (
+  `blob_key` varchar(255) CHARACTER SET ascii NOT NULL,
+  `seq` int unsigned NOT NULL,
+  `bytes` longblob NOT NULL,
+  PRIMARY KEY (`blob_key`, `seq`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+DELETE FROM `blob_content` WHERE `blob_key` LIKE 'staging/%';
+
+ALTER TABLE `blob_content`
+  ADD COLUMN `length` bigint NOT NULL DEFAULT 0,
+  ADD COLUMN `chunk_size` int NOT NULL DEFAULT 1,
+  ADD COLUMN `saved_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  ADD INDEX `idx_blob_content_saved_at` (`saved_at`);
+
+-- the contents stored so far become a single chunk each
+UPDATE `blob_content` SET `length` = LENGTH(`content`), `chunk_size` = GREATEST(LENGTH(`content`), 1);
+
+INSERT INTO `blob_chunk` (`blob_key`, `seq`, `bytes`)
+  SELECT `blob_key`, 0, `content` FROM `blob_content` WHERE LENGTH(`content`) > 0;
+
+ALTER TABLE `blob_content` DROP COLUMN `content`;
@@ -2,7 +2,9 @@ package com.odde.doughnut.algorithms;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.sameInstance;
 
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
@@ -57,6 +59,7 @@ class ClozeDescriptionTest {
     "cat/dog(animal/weather), dog day is a hot weather,   [...] day is a hot <...>",
     "6,               6year,                              [...]year",
     "cat,             <p class='cat'>a cat</p>,           <p class='cat'>a [...]</p>",
+    "/cat,            a dog and a cat,                    a dog and a [...]",
   })
   void clozeDescription(String title, String details, String expectedClozeDescription) {
     assertThat(
@@ -82,6 +85,35 @@ class ClozeDescriptionTest {
         containsString("$2"));
   }
 
+  @Test
+  void shouldReuseTheCompiledPatternOfTheSameTitle() {
+    assertThat(
+        ClozePattern.of(List.of(new NoteTitle("cat/dog"))),
+        sameInstance(ClozePattern.of(List.of(new NoteTitle("cat/dog")))));
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "dog(hot dog),     hot dog,                           hot [...]",
+    "dog(hot dog),     /hot dog/,                         /.../",
+    "hot dog(dog),     hot dog,                           [...]",
+  })
+  void theEarlierStagesWinWhereTheMatchesOverlap(
+      String title, String details, String expectedClozeDescription) {
+    assertThat(
+        new ClozedString(clozeReplacement, details).hide(new NoteTitle(title)).clozeDetails(),
+        containsString(expectedClozeDescription));
+  }
+
+  @Test
+  void textLookingLikeAnInternalPlaceholderIsKept() {
+    assertThat(
+        new ClozedString(clozeReplacement, "__f_u_l_l__ cat")
+            .hide(new NoteTitle("cat"))
+            .clozeDetails(),
+        containsString("__f_u_l_l__ [...]"));
+  }
+
   @Test
   void theReplacementsShouldNotInterfereEachOther() {
     ClozeReplacement clozeReplacement = new ClozeReplacement("/..~/", "/.../", "(...)", "<...>");
@@ -5,7 +5,6 @@ import static org.hamcrest.Matchers.equalTo;
 
 import com.odde.doughnut.testability.MakeMeWithoutDB;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import javax.imageio.ImageIO;
 import org.junit.jupiter.api.Test;
@@ -40,9 +39,8 @@ class ImageUtilsTest {
 
   private BufferedImage resizeImage(InputStreamSource stream, String originalFilename)
       throws IOException {
-    byte[] bytes = new ImageUtils().toResizedImageByteArray(stream, originalFilename);
-    BufferedImage output = ImageIO.read(new ByteArrayInputStream(bytes));
-    return output;
+    InputStreamSource resized = new ImageUtils().toResizedImage(stream, originalFilename);
+    return ImageIO.read(resized.getInputStream());
   }
 
   private InputStreamSource buildImage(int width, int height) throws IOException {
@@ -0,0 +1,39 @@
+package com.odde.doughnut.algorithms;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+import org.junit.jupiter.api.Test;
+
+class SearchTokenizerTest {
+  @Test
+  void nullText() {
+    assertThat(new SearchTokenizer(null).tokens(), empty());
+  }
+
+  @Test
+  void lowerCasedWordsWithoutDuplication() {
+    assertThat(new SearchTokenizer("Viva la Vida, viva!").tokens(), contains("viva", "la", "vida"));
+  }
+
+  @Test
+  void htmlTagsAreNotTokens() {
+    assertThat(
+        new SearchTokenizer("<p>Some <strong>text</strong></p>").tokens(),
+        contains("some", "text"));
+  }
+
+  @Test
+  void eachCjkCharacterIsAToken() {
+    assertThat(new SearchTokenizer("日本語abc").tokens(), contains("日", "本", "語", "abc"));
+  }
+
+  @Test
+  void longTokensAreTruncated() {
+    String longWord = "a".repeat(SearchTokenizer.MAX_TOKEN_LENGTH + 10);
+    assertThat(
+        new SearchTokenizer(longWord).tokens(),
+        contains("a".repeat(SearchTokenizer.MAX_TOKEN_LENGTH)));
+  }
+}
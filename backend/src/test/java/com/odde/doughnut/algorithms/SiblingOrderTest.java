@@ -0,0 +1,121 @@
+package com.odde.doughnut.algorithms;
+
+import static com.odde.doughnut.algorithms.SiblingOrder.MINIMUM_SIBLING_ORDER_INCREMENT;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class SiblingOrderTest {
+  @Nested
+  class GoodEnoughOrderNumber {
+    @Test
+    void noTwoThreadsGetTheSameNumber() throws Exception {
+      int threads = 16;
+      int numbersPerThread = 10_000;
+      Set<Long> numbers = ConcurrentHashMap.newKeySet();
+      CountDownLatch start = new CountDownLatch(1);
+      try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+        List<Future<Boolean>> increasing = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+          increasing.add(
+              executor.submit(
+                  () -> {
+                    start.await();
+                    long last = Long.MIN_VALUE;
+                    boolean alwaysIncreasing = true;
+                    for (int i = 0; i < numbersPerThread; i++) {
+                      long number = SiblingOrder.getGoodEnoughOrderNumber();
+                      alwaysIncreasing &= number > last;
+                      last = number;
+                      numbers.add(number);
+                    }
+                    return alwaysIncreasing;
+                  }));
+        }
+        start.countDown();
+        for (Future<Boolean> future : increasing) {
+          assertThat(future.get(), is(true));
+        }
+      }
+      assertThat(numbers, hasSize(threads * numbersPerThread));
+    }
+
+    @Test
+    void theNumbersOfANodeCarryItsSlot() {
+      int previous = SiblingOrder.getNodeSlot();
+      try {
+        SiblingOrder.useNodeSlot(7);
+        long number = SiblingOrder.getGoodEnoughOrderNumber();
+        assertThat(number % MINIMUM_SIBLING_ORDER_INCREMENT, equalTo(0L));
+        assertThat(
+            number / MINIMUM_SIBLING_ORDER_INCREMENT % SiblingOrder.NODE_SLOTS, equalTo(7L));
+      } finally {
+        SiblingOrder.useNodeSlot(previous);
+      }
+    }
+  }
+
+  @Nested
+  class PlaceAt {
+    private final long[] orders = {1000, 2000, 3000};
+
+    @Test
+    void inTheMiddleOfTheGap() {
+      SiblingOrder.Placement placement = SiblingOrder.placeAt(orders, 1);
+      assertThat(placement.order(), equalTo(1500L));
+      assertThat(placement.renumbered().length, equalTo(0));
+    }
+
+    @Test
+    void beforeTheFirst() {
+      assertThat(SiblingOrder.placeAt(orders, 0).order(), equalTo(0L));
+    }
+
+    @Test
+    void afterTheLast() {
+      assertThat(SiblingOrder.placeAt(orders, 3).order(), equalTo(4000L));
+    }
+
+    @Test
+    void spreadsTheCrowdedSiblingsWhenThereIsNoGap() {
+      long[] crowded = {1000, 1001, 1002, 9000, 20000};
+      SiblingOrder.Placement placement = SiblingOrder.placeAt(crowded, 2);
+      assertThat(placement.from(), equalTo(1));
+      assertThat(placement.renumbered().length, equalTo(2));
+      assertThat(placement.renumbered()[0], lessThan(placement.order()));
+      assertThat(placement.order(), lessThan(placement.renumbered()[1]));
+      assertThat(placement.renumbered()[0], greaterThan(1000L));
+      assertThat(placement.renumbered()[1], lessThan(9000L));
+    }
+
+    @Test
+    void keepsRoomForPlacingAtTheSameSpotAgainAndAgain() {
+      List<Long> siblings = new ArrayList<>();
+      for (long i = 0; i < 10; i++) siblings.add(i * MINIMUM_SIBLING_ORDER_INCREMENT);
+      int renumbered = 0;
+      for (int i = 0; i < 1000; i++) {
+        long[] orders = siblings.stream().mapToLong(Long::longValue).toArray();
+        SiblingOrder.Placement placement = SiblingOrder.placeAt(orders, 5);
+        for (int j = 0; j < placement.renumbered().length; j++) {
+          siblings.set(placement.from() + j, placement.renumbered()[j]);
+        }
+        siblings.add(5, placement.order());
+        renumbered += placement.renumbered().length;
+      }
+      for (int i = 1; i < siblings.size(); i++) {
+        assertThat(siblings.get(i), greaterThan(siblings.get(i - 1)));
+      }
+      assertThat(renumbered, lessThan(1000 * 20));
+    }
+  }
+}
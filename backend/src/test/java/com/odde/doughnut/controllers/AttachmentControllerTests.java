@@ -4,17 +4,29 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import com.odde.doughnut.entities.AttachmentBlob;
 import com.odde.doughnut.entities.Audio;
 import com.odde.doughnut.entities.Image;
+import com.odde.doughnut.entities.Note;
 import com.odde.doughnut.entities.User;
 import com.odde.doughnut.exceptions.UnexpectedNoAccessRightException;
 import com.odde.doughnut.models.UserModel;
+import com.odde.doughnut.services.NotebookAccessService;
+import com.odde.doughnut.services.blobs.BlobStore;
+import com.odde.doughnut.services.blobs.ImageThumbnailService;
 import com.odde.doughnut.testability.MakeMe;
+import com.odde.doughnut.testability.builders.NoteBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import javax.imageio.ImageIO;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
@@ -25,19 +37,24 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 class AttachmentControllerTests {
   @Autowired MakeMe makeMe;
+  @Autowired BlobStore blobStore;
+  @Autowired ImageThumbnailService imageThumbnailService;
+  @Autowired NotebookAccessService notebookAccessService;
   AttachmentController controller;
   UserModel currentUser;
 
   @BeforeEach
   void setup() {
     currentUser = makeMe.aUser().toModelPlease();
-    controller = new AttachmentController(currentUser);
+    controller =
+        new AttachmentController(
+            currentUser, blobStore, imageThumbnailService, notebookAccessService);
   }
 
   @Test
-  void imageDownload() {
+  void imageDownload() throws IOException {
     Image image = makeMe.anImage().please();
-    ResponseEntity<byte[]> resp = controller.showImage(image, "filename");
+    ResponseEntity<Resource> resp = controller.showImage(image, "filename", null);
     assertThat(resp.getStatusCode(), Matchers.equalTo(HttpStatus.OK));
     assertThat(resp.getHeaders().getContentType().toString(), Matchers.equalTo("image/png"));
     assertThat(
@@ -58,11 +75,109 @@ class AttachmentControllerTests {
   @Test
   void getContent() throws UnexpectedNoAccessRightException {
     Audio audio = makeMe.anAudio().user(currentUser.getEntity()).please();
-    ResponseEntity<byte[]> resp = controller.downloadAudio(audio);
+    ResponseEntity<Resource> resp = controller.downloadAudio(audio);
     assertThat(resp.getStatusCode(), equalTo(HttpStatus.OK));
     assertThat(resp.getHeaders().getContentType().toString(), equalTo("audio/mp3"));
     assertThat(
         resp.getHeaders().getContentDisposition().toString(),
         equalTo("attachment; filename=\"example.mp3\""));
   }
+
+  @Test
+  void servesTheContentFromTheBlobStoreWithItsKeyAsETag() throws IOException {
+    byte[] content = "stored image".getBytes();
+    Image image = makeMe.anImage().please();
+    image.setBlob(AttachmentBlob.store(blobStore, new ByteArrayInputStream(content)));
+    ResponseEntity<Resource> resp = controller.showImage(image, "filename", null);
+    assertThat(resp.getBody().getContentAsByteArray(), equalTo(content));
+    assertThat(resp.getHeaders().getETag(), equalTo("\"" + image.getBlob().getContentKey() + "\""));
+  }
+
+  @Nested
+  class CacheControlOfImages {
+    Note note;
+
+    @BeforeEach
+    void setup() {
+      NoteBuilder noteBuilder = makeMe.aNote();
+      noteBuilder.withUploadedImage();
+      note = noteBuilder.please();
+    }
+
+    Image image() {
+      return note.getNoteAccessory().getImageAttachment();
+    }
+
+    @Test
+    void isPrivateForAnImageNotInTheBazaar() throws IOException {
+      ResponseEntity<Resource> resp = controller.showImage(image(), "filename", null);
+      assertThat(resp.getHeaders().getCacheControl(), Matchers.containsString("private"));
+    }
+
+    @Test
+    void becomesPublicOnceTheNotebookIsSharedToTheBazaar() throws IOException {
+      controller.showImage(image(), "filename", null);
+      makeMe.aBazaarNotebook(note.getNotebook()).please();
+      ResponseEntity<Resource> resp = controller.showImage(image(), "filename", null);
+      assertThat(resp.getHeaders().getCacheControl(), Matchers.containsString("public"));
+    }
+
+    @Test
+    void isPublicForAnImageInTheBazaar() throws IOException {
+      makeMe.aBazaarNotebook(note.getNotebook()).please();
+      ResponseEntity<Resource> resp = controller.showImage(image(), "filename", null);
+      assertThat(resp.getHeaders().getCacheControl(), Matchers.containsString("public"));
+    }
+  }
+
+  @Nested
+  class Thumbnails {
+    Image image;
+
+    @BeforeEach
+    void setup() throws IOException {
+      image = makeMe.anImage().please();
+      try (InputStream in =
+          makeMe.anUploadedImage().metrics(1000, 500).toInputSteamSource().getInputStream()) {
+        image.setBlob(AttachmentBlob.store(blobStore, in));
+      }
+    }
+
+    @Test
+    void scalesDownToTheNextWidthBucket() throws IOException {
+      ResponseEntity<Resource> resp = controller.showImage(image, "filename", 300);
+      assertThat(resp.getHeaders().getContentType().toString(), equalTo("image/png"));
+      try (InputStream in = resp.getBody().getInputStream()) {
+        assertThat(ImageIO.read(in).getWidth(), equalTo(320));
+      }
+    }
+
+    @Test
+    void canBeCachedForever() throws IOException {
+      ResponseEntity<Resource> resp = controller.showImage(image, "filename", 300);
+      assertThat(resp.getHeaders().getCacheControl(), Matchers.containsString("immutable"));
+    }
+
+    @Test
+    void isGeneratedOnlyOnce() throws IOException {
+      ResponseEntity<Resource> first = controller.showImage(image, "filename", 300);
+      ResponseEntity<Resource> second = controller.showImage(image, "filename", 320);
+      assertThat(second.getHeaders().getETag(), equalTo(first.getHeaders().getETag()));
+      assertThat(second.getBody().getFile(), equalTo(first.getBody().getFile()));
+    }
+
+    @Test
+    void servesTheOriginalWhenItIsNarrowerThanTheBucket() throws IOException {
+      ResponseEntity<Resource> resp = controller.showImage(image, "filename", 1280);
+      assertThat(
+          resp.getHeaders().getETag(), equalTo("\"" + image.getBlob().getContentKey() + "\""));
+    }
+
+    @Test
+    void servesTheOriginalWhenItCannotBeDecoded() throws IOException {
+      Image notAnImage = makeMe.anImage().please();
+      ResponseEntity<Resource> resp = controller.showImage(notAnImage, "filename", 300);
+      assertThat(resp.getBody().getContentAsByteArray(), equalTo("DEADBEEF".getBytes()));
+    }
+  }
 }
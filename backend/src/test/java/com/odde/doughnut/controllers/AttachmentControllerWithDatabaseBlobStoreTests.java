@@ -0,0 +1,112 @@
+package com.odde.doughnut.controllers;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.odde.doughnut.entities.AttachmentBlob;
+import com.odde.doughnut.entities.Audio;
+import com.odde.doughnut.entities.Image;
+import com.odde.doughnut.entities.User;
+import com.odde.doughnut.services.blobs.BlobStore;
+import com.odde.doughnut.services.blobs.DatabaseBlobStore;
+import com.odde.doughnut.testability.MakeMe;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+// The test profile keeps the blobs on the file system; these requests go through the store that
+// is used when no shared root is configured. The user authenticates as "user" of the test
+// profile, with the same external identifier.
+@SpringBootTest(properties = "spring.blob-store.root=")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class AttachmentControllerWithDatabaseBlobStoreTests {
+  private static final String BASIC_AUTHORIZATION =
+      "Basic " + Base64.getEncoder().encodeToString("user:password".getBytes());
+
+  @Autowired MockMvc mockMvc;
+  @Autowired MakeMe makeMe;
+  @Autowired BlobStore blobStore;
+  User user;
+
+  @BeforeEach
+  void setup() {
+    user = makeMe.aUser().please();
+    user.setExternalIdentifier("user");
+    makeMe.refresh(user);
+  }
+
+  @Test
+  void usesTheDatabaseBlobStore() {
+    assertThat(blobStore, instanceOf(DatabaseBlobStore.class));
+  }
+
+  @Test
+  void downloadsAnAudio() throws Exception {
+    Audio audio = anAudioOf("hello world");
+    mockMvc
+        .perform(
+            get("/attachments/audio/" + audio.getId())
+                .header(HttpHeaders.AUTHORIZATION, BASIC_AUTHORIZATION))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+        .andExpect(content().bytes("hello world".getBytes()));
+  }
+
+  @Test
+  void servesARangeOfAnAudio() throws Exception {
+    Audio audio = anAudioOf("hello world");
+    mockMvc
+        .perform(
+            get("/attachments/audio/" + audio.getId())
+                .header(HttpHeaders.AUTHORIZATION, BASIC_AUTHORIZATION)
+                .header(HttpHeaders.RANGE, "bytes=6-10"))
+        .andExpect(status().isPartialContent())
+        .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 6-10/11"))
+        .andExpect(content().bytes("world".getBytes()));
+  }
+
+  @Test
+  void servesAThumbnailSavedInTheDatabase() throws Exception {
+    Image image = makeMe.anImage().please();
+    try (InputStream in =
+        makeMe.anUploadedImage().metrics(1000, 500).toInputSteamSource().getInputStream()) {
+      image.setBlob(AttachmentBlob.store(blobStore, in));
+    }
+    makeMe.refresh(image);
+    byte[] thumbnail =
+        mockMvc
+            .perform(
+                get("/attachments/images/" + image.getId() + "/example.png?width=300")
+                    .header(HttpHeaders.AUTHORIZATION, BASIC_AUTHORIZATION))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+    assertThat(ImageIO.read(new ByteArrayInputStream(thumbnail)).getWidth(), equalTo(320));
+  }
+
+  private Audio anAudioOf(String content) throws IOException {
+    Audio audio = makeMe.anAudio().user(user).please();
+    audio.setBlob(AttachmentBlob.store(blobStore, new ByteArrayInputStream(content.getBytes())));
+    makeMe.refresh(audio);
+    return audio;
+  }
+}
@@ -9,6 +9,7 @@ import static org.mockito.Mockito.when;
 import com.odde.doughnut.controllers.dto.*;
 import com.odde.doughnut.entities.Note;
 import com.odde.doughnut.models.UserModel;
+import com.odde.doughnut.services.blobs.BlobStore;
 import com.odde.doughnut.services.openAiApis.OpenAiApiExtended;
 import com.odde.doughnut.testability.MakeMe;
 import io.reactivex.Single;
@@ -32,6 +33,7 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 class RestAiAudioControllerTests {
   @Autowired MakeMe makeMe;
+  @Autowired BlobStore blobStore;
   private UserModel userModel;
   RestAiAudioController controller;
   @Mock OpenAiApiExtended openAiApi;
@@ -40,7 +42,7 @@ class RestAiAudioControllerTests {
   void setup() {
     userModel = makeMe.aUser().toModelPlease();
 
-    controller = new RestAiAudioController(openAiApi);
+    controller = new RestAiAudioController(openAiApi, blobStore);
   }
 
   @Nested
@@ -13,12 +13,14 @@ import com.odde.doughnut.entities.NotebookAssistant;
 import com.odde.doughnut.exceptions.UnexpectedNoAccessRightException;
 import com.odde.doughnut.models.UserModel;
 import com.odde.doughnut.services.GlobalSettingsService;
+import com.odde.doughnut.services.openAiApis.AssistantSseBridge;
 import com.odde.doughnut.testability.*;
 import com.theokanning.openai.assistants.message.Message;
 import com.theokanning.openai.assistants.message.MessageRequest;
 import com.theokanning.openai.assistants.run.RunCreateRequest;
 import com.theokanning.openai.client.OpenAiApi;
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -30,6 +32,7 @@ import org.mockito.Mock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
@@ -42,6 +45,8 @@ public class RestAiControllerChatTests {
   @Mock private OpenAiApi openAiApi;
 
   @Autowired MakeMe makeMe;
+  @Autowired AssistantSseBridge assistantSseBridge;
+  @Autowired PlatformTransactionManager transactionManager;
   RestAiController controller;
   UserModel currentUser;
   Note note;
@@ -53,7 +58,12 @@ public class RestAiControllerChatTests {
     currentUser = makeMe.aUser().toModelPlease();
     controller =
         new RestAiController(
-            openAiApi, makeMe.modelFactoryService, currentUser, testabilitySettings);
+            openAiApi,
+            makeMe.modelFactoryService,
+            currentUser,
+            testabilitySettings,
+            transactionManager,
+            assistantSseBridge);
     note = makeMe.aNote().creatorAndOwner(currentUser).please();
     openAIAssistantMocker = new OpenAIAssistantMocker(openAiApi);
   }
@@ -85,10 +95,11 @@ public class RestAiControllerChatTests {
     @Test
     void chatWithAIAndGetResponse() throws UnexpectedNoAccessRightException {
       SseEmitter res = controller.chat(note, new ChatRequest("What's your name?", null));
-      assertThat(res.getTimeout()).isNull();
+      assertThat(res.getTimeout()).isEqualTo(Duration.ofMinutes(5).toMillis());
       List<ResponseBodyEmitter.DataWithMediaType> events =
           peekIntoEmitterWithExtremelyInappropriateIntimacy(res);
-      assertThat(events.size()).isEqualTo(18);
+      // the four deltas are sent as one, followed by the run step and the done events
+      assertThat(events.size()).isEqualTo(9);
     }
 
     @Test
@@ -158,7 +169,9 @@ public class RestAiControllerChatTests {
                     openAiApi,
                     makeMe.modelFactoryService,
                     makeMe.aUser().toModelPlease(),
-                    testabilitySettings)
+                    testabilitySettings,
+                    transactionManager,
+                    assistantSseBridge)
                 .chat(note, new ChatRequest("What's your name?", null)));
   }
 
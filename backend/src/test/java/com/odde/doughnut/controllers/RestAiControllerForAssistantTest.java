@@ -11,16 +11,22 @@ import com.odde.doughnut.entities.NotebookAssistant;
 import com.odde.doughnut.exceptions.UnexpectedNoAccessRightException;
 import com.odde.doughnut.models.UserModel;
 import com.odde.doughnut.services.GlobalSettingsService;
+import com.odde.doughnut.services.openAiApis.AssistantSseBridge;
 import com.odde.doughnut.testability.MakeMe;
 import com.odde.doughnut.testability.TestabilitySettings;
+import com.theokanning.openai.DeleteResult;
+import com.theokanning.openai.OpenAiResponse;
 import com.theokanning.openai.assistants.assistant.Assistant;
 import com.theokanning.openai.assistants.assistant.AssistantRequest;
+import com.theokanning.openai.assistants.assistant.FileSearchResources;
+import com.theokanning.openai.assistants.assistant.ToolResources;
 import com.theokanning.openai.assistants.vector_store.VectorStore;
 import com.theokanning.openai.assistants.vector_store_file.VectorStoreFile;
 import com.theokanning.openai.client.OpenAiApi;
 import com.theokanning.openai.file.File;
 import io.reactivex.Single;
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import okhttp3.MultipartBody;
 import okhttp3.RequestBody;
@@ -34,6 +40,7 @@ import org.mockito.Mock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
 
 @SpringBootTest
@@ -46,6 +53,8 @@ class RestAiControllerForAssistantTest {
   Note note;
   @Mock OpenAiApi openAiApi;
   @Autowired MakeMe makeMe;
+  @Autowired AssistantSseBridge assistantSseBridge;
+  @Autowired PlatformTransactionManager transactionManager;
   TestabilitySettings testabilitySettings = new TestabilitySettings();
 
   @BeforeEach
@@ -54,7 +63,12 @@ class RestAiControllerForAssistantTest {
     note = makeMe.aNote().please();
     controller =
         new RestAiController(
-            openAiApi, makeMe.modelFactoryService, currentUser, testabilitySettings);
+            openAiApi,
+            makeMe.modelFactoryService,
+            currentUser,
+            testabilitySettings,
+            transactionManager,
+            assistantSseBridge);
   }
 
   @Nested
@@ -78,7 +92,9 @@ class RestAiControllerForAssistantTest {
                 openAiApi,
                 makeMe.modelFactoryService,
                 makeMe.aUser().toModelPlease(),
-                testabilitySettings);
+                testabilitySettings,
+                transactionManager,
+                assistantSseBridge);
         assertThrows(
             UnexpectedNoAccessRightException.class, () -> controller.recreateAllAssistants());
       }
@@ -131,7 +147,7 @@ class RestAiControllerForAssistantTest {
       when(openAiApi.uploadFile(any(RequestBody.class), any(MultipartBody.Part.class)))
           .then(
               (invocation) -> {
-                uploadedFileContent = getBuffer(invocation.getArgument(1));
+                uploadedFileContent += getBuffer(invocation.getArgument(1));
                 File item = new File();
                 item.setId("new-file-id");
                 return Single.just(item);
@@ -145,7 +161,9 @@ class RestAiControllerForAssistantTest {
               openAiApi,
               makeMe.modelFactoryService,
               makeMe.aUser().toModelPlease(),
-              testabilitySettings);
+              testabilitySettings,
+              transactionManager,
+              assistantSseBridge);
       assertThrows(
           UnexpectedNoAccessRightException.class,
           () -> controller.recreateNotebookAssistant(notebook, notebookAssistantCreationParams));
@@ -196,17 +214,85 @@ class RestAiControllerForAssistantTest {
       assertThat(uploadedFileContent).contains(child.getTopicConstructor());
     }
 
-    @Test
-    void shouldNotCreateNewRecordIfExist() throws UnexpectedNoAccessRightException, IOException {
+    @Nested
+    class RecreateWithTheKnowledgeUploaded {
+      Note child;
+
+      @BeforeEach
+      void setup() throws UnexpectedNoAccessRightException, IOException {
+        child = makeMe.aNote().under(notebook.getHeadNote()).please();
+        makeMe.aNote().under(notebook.getHeadNote()).please();
+        controller.recreateNotebookAssistant(notebook, notebookAssistantCreationParams);
+        doReturn(Single.just("deleted")).when(openAiApi).deleteVectorStoreFile(any(), any());
+        doReturn(Single.just("deleted")).when(openAiApi).deleteFile(any());
+      }
+
+      @Test
+      void reuseTheVectorStore() throws UnexpectedNoAccessRightException, IOException {
+        controller.recreateNotebookAssistant(notebook, notebookAssistantCreationParams);
+        verify(openAiApi, times(1)).createVectorStore(any());
+      }
+
+      @Test
+      void uploadNothingIfNothingChanged() throws UnexpectedNoAccessRightException, IOException {
+        controller.recreateNotebookAssistant(notebook, notebookAssistantCreationParams);
+        verify(openAiApi, times(3))
+            .uploadFile(any(RequestBody.class), any(MultipartBody.Part.class));
+      }
+
+      @Test
+      void uploadOnlyTheChangedSubtree() throws UnexpectedNoAccessRightException, IOException {
+        child.setDetails("changed details");
+        uploadedFileContent = "";
+        controller.recreateNotebookAssistant(notebook, notebookAssistantCreationParams);
+        verify(openAiApi, times(4))
+            .uploadFile(any(RequestBody.class), any(MultipartBody.Part.class));
+        assertThat(uploadedFileContent).contains("changed details");
+        verify(openAiApi).deleteVectorStoreFile("new-vector-store-id", "new-file-id");
+        verify(openAiApi).deleteFile("new-file-id");
+      }
+    }
+
+    @Nested
+    class AnAssistantCreatedBeforeTheVectorStoreWasKept {
       NotebookAssistant notebookAssistant = new NotebookAssistant();
-      notebookAssistant.setAssistantId("previous-assistant-id");
-      notebookAssistant.setCreatedAt(makeMe.aTimestamp().please());
-      notebookAssistant.setCreator(currentUser.getEntity());
-      notebookAssistant.setNotebook(notebook);
-      makeMe.modelFactoryService.save(notebookAssistant);
-      controller.recreateNotebookAssistant(notebook, notebookAssistantCreationParams);
-      makeMe.refresh(notebookAssistant);
-      assertThat(notebookAssistant.getAssistantId()).isEqualTo("created-assistant-id");
+
+      @BeforeEach
+      void setup() {
+        notebookAssistant.setAssistantId("previous-assistant-id");
+        notebookAssistant.setCreatedAt(makeMe.aTimestamp().please());
+        notebookAssistant.setCreator(currentUser.getEntity());
+        notebookAssistant.setNotebook(notebook);
+        makeMe.modelFactoryService.save(notebookAssistant);
+        FileSearchResources fileSearchResources = new FileSearchResources();
+        fileSearchResources.setVectorStoreIds(List.of("old-vector-store-id"));
+        Assistant previousAssistant = new Assistant();
+        previousAssistant.setToolResources(new ToolResources(null, fileSearchResources));
+        when(openAiApi.retrieveAssistant("previous-assistant-id"))
+            .thenReturn(Single.just(previousAssistant));
+        VectorStoreFile oldFile = new VectorStoreFile();
+        oldFile.setId("old-file-id");
+        OpenAiResponse<VectorStoreFile> oldFiles = new OpenAiResponse<>();
+        oldFiles.setData(List.of(oldFile));
+        when(openAiApi.listVectorStoreFiles(eq("old-vector-store-id"), any()))
+            .thenReturn(Single.just(oldFiles));
+        doReturn(Single.just(new DeleteResult())).when(openAiApi).deleteFile(any());
+        doReturn(Single.just(new DeleteResult())).when(openAiApi).deleteVectorStore(any());
+      }
+
+      @Test
+      void shouldNotCreateNewRecordIfExist() throws UnexpectedNoAccessRightException {
+        controller.recreateNotebookAssistant(notebook, notebookAssistantCreationParams);
+        makeMe.refresh(notebookAssistant);
+        assertThat(notebookAssistant.getAssistantId()).isEqualTo("created-assistant-id");
+      }
+
+      @Test
+      void deleteTheOldVectorStore() throws UnexpectedNoAccessRightException {
+        controller.recreateNotebookAssistant(notebook, notebookAssistantCreationParams);
+        verify(openAiApi).deleteFile("old-file-id");
+        verify(openAiApi).deleteVectorStore("old-vector-store-id");
+      }
     }
 
     private static String getBuffer(MultipartBody.Part part) {
@@ -14,6 +14,7 @@ import com.odde.doughnut.entities.Note;
 import com.odde.doughnut.models.UserModel;
 import com.odde.doughnut.services.GlobalSettingsService;
 import com.odde.doughnut.services.ai.NoteDetailsCompletion;
+import com.odde.doughnut.services.openAiApis.AssistantSseBridge;
 import com.odde.doughnut.testability.MakeMe;
 import com.odde.doughnut.testability.OpenAIAssistantMocker;
 import com.odde.doughnut.testability.TestabilitySettings;
@@ -38,6 +39,7 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -51,6 +53,8 @@ class RestAiControllerTest {
   Note note;
   @Mock OpenAiApi openAiApi;
   @Autowired MakeMe makeMe;
+  @Autowired AssistantSseBridge assistantSseBridge;
+  @Autowired PlatformTransactionManager transactionManager;
   TestabilitySettings testabilitySettings = new TestabilitySettings();
 
   @BeforeEach
@@ -59,7 +63,12 @@ class RestAiControllerTest {
     note = makeMe.aNote().please();
     controller =
         new RestAiController(
-            openAiApi, makeMe.modelFactoryService, currentUser, testabilitySettings);
+            openAiApi,
+            makeMe.modelFactoryService,
+            currentUser,
+            testabilitySettings,
+            transactionManager,
+            assistantSseBridge);
   }
 
   @Nested
@@ -86,7 +95,9 @@ class RestAiControllerTest {
                       openAiApi,
                       makeMe.modelFactoryService,
                       makeMe.aNullUserModelPlease(),
-                      testabilitySettings)
+                      testabilitySettings,
+                      transactionManager,
+                      assistantSseBridge)
                   .getCompletion(note, params));
     }
 
@@ -97,9 +108,9 @@ class RestAiControllerTest {
         openAIAssistantMocker
             .mockThreadCreation("this-thread")
             .mockCreateMessage()
-            .mockCreateRunInProcess("my-run-id")
+            .aRun("my-run-id")
             .aRunThatRequireAction(new NoteDetailsCompletion("blue planet"), COMPLETE_NOTE_DETAILS)
-            .mockRetrieveRun();
+            .mockRunStream();
       }
 
       @Test
@@ -110,7 +121,7 @@ class RestAiControllerTest {
         controller.getCompletion(note, params);
         ArgumentCaptor<RunCreateRequest> runRequest =
             ArgumentCaptor.forClass(RunCreateRequest.class);
-        verify(openAiApi).createRun(any(), runRequest.capture());
+        verify(openAiApi).createRunStream(any(), runRequest.capture());
         assertEquals("my-assistant-id", runRequest.getValue().getAssistantId());
       }
 
@@ -191,7 +202,9 @@ class RestAiControllerTest {
                       openAiApi,
                       makeMe.modelFactoryService,
                       makeMe.aNullUserModelPlease(),
-                      testabilitySettings)
+                      testabilitySettings,
+                      transactionManager,
+                      assistantSseBridge)
                   .generateImage("create an image"));
     }
 
@@ -374,15 +374,20 @@ class RestNoteControllerTests {
       noteAccessoriesDTO.setUploadImage(makeMe.anUploadedImage().toMultiplePartFilePlease());
       controller.updateNoteAccessories(note, noteAccessoriesDTO);
       assertThat(note.getNoteAccessory().getImageAttachment(), is(not(nullValue())));
-      note.getNoteAccessory().getImageAttachment().getBlob().getData();
+      assertThat(
+          note.getNoteAccessory().getImageAttachment().getBlob().getContentKey(),
+          is(not(nullValue())));
     }
 
     @Test
     void shouldSaveTheBlogData() throws UnexpectedNoAccessRightException, IOException {
       noteAccessoriesDTO.setUploadImage(makeMe.anUploadedImage().toMultiplePartFilePlease());
       controller.updateNoteAccessories(note, noteAccessoriesDTO);
-      byte[] data = note.getNoteAccessory().getImageAttachment().getBlob().getData();
-      assertThat(data.length, is(68));
+      AttachmentBlob blob = note.getNoteAccessory().getImageAttachment().getBlob();
+      assertThat(blob.getSize(), is(68L));
+      assertThat(
+          blob.getContent(makeMe.modelFactoryService.blobStore).getContentAsByteArray().length,
+          is(68));
     }
 
     @Test
@@ -1,20 +1,36 @@
 package com.odde.doughnut.controllers;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odde.doughnut.controllers.dto.NoteExportLine;
+import com.odde.doughnut.controllers.dto.NoteTopic;
+import com.odde.doughnut.controllers.dto.RedirectToNoteResponse;
+import com.odde.doughnut.entities.LinkType;
+import com.odde.doughnut.entities.LinkingNote;
 import com.odde.doughnut.entities.Note;
 import com.odde.doughnut.entities.Notebook;
 import com.odde.doughnut.entities.NotebookSettings;
 import com.odde.doughnut.entities.User;
+import com.odde.doughnut.entities.repositories.NoteSearchScope;
 import com.odde.doughnut.exceptions.UnexpectedNoAccessRightException;
 import com.odde.doughnut.factoryServices.ModelFactoryService;
 import com.odde.doughnut.models.UserModel;
+import com.odde.doughnut.services.NotebookTransferService;
 import com.odde.doughnut.testability.MakeMe;
 import com.odde.doughnut.testability.TestabilitySettings;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -30,6 +46,7 @@ import org.springframework.web.server.ResponseStatusException;
 @Transactional
 class RestNotebookControllerTest {
   @Autowired ModelFactoryService modelFactoryService;
+  @Autowired NotebookTransferService notebookTransferService;
 
   @Autowired MakeMe makeMe;
   private UserModel userModel;
@@ -41,7 +58,9 @@ class RestNotebookControllerTest {
   void setup() {
     userModel = makeMe.aUser().toModelPlease();
     topNote = makeMe.aNote().creatorAndOwner(userModel).please();
-    controller = new RestNotebookController(modelFactoryService, userModel, testabilitySettings);
+    controller =
+        new RestNotebookController(
+            modelFactoryService, notebookTransferService, userModel, testabilitySettings);
   }
 
   @Nested
@@ -49,7 +68,9 @@ class RestNotebookControllerTest {
     @Test
     void whenNotLogin() {
       userModel = modelFactoryService.toUserModel(null);
-      controller = new RestNotebookController(modelFactoryService, userModel, testabilitySettings);
+      controller =
+          new RestNotebookController(
+              modelFactoryService, notebookTransferService, userModel, testabilitySettings);
       assertThrows(ResponseStatusException.class, () -> controller.myNotebooks());
     }
 
@@ -58,7 +79,9 @@ class RestNotebookControllerTest {
       User user = new User();
       userModel = modelFactoryService.toUserModel(user);
       List<Notebook> notebooks = userModel.getEntity().getOwnership().getNotebooks();
-      controller = new RestNotebookController(modelFactoryService, userModel, testabilitySettings);
+      controller =
+          new RestNotebookController(
+              modelFactoryService, notebookTransferService, userModel, testabilitySettings);
       assertEquals(notebooks, controller.myNotebooks().notebooks);
     }
   }
@@ -111,6 +134,7 @@ class RestNotebookControllerTest {
       controller =
           new RestNotebookController(
               modelFactoryService,
+              notebookTransferService,
               modelFactoryService.toUserModel(anotherUser),
               testabilitySettings);
       assertThrows(
@@ -123,4 +147,189 @@ class RestNotebookControllerTest {
       assertThat(noteBriefs, hasSize(1));
     }
   }
+
+  @Nested
+  class Trash {
+    private Note deleted;
+
+    @BeforeEach
+    void setup() {
+      makeMe.aNote("kept").under(topNote).please();
+      deleted = makeMe.aNote("thrown away").under(topNote).softDeleted().please();
+      makeMe.refresh(topNote.getNotebook());
+      makeMe.refresh(topNote);
+    }
+
+    @Test
+    void theDeletedNotesAreLeftOutOfTheLoadedCollections() {
+      assertThat(topNote.getChildren(), hasSize(1));
+      assertThat(topNote.getNotebook().getNotes(), hasSize(2));
+    }
+
+    @Test
+    void listsOnlyTheDeletedNotes() throws UnexpectedNoAccessRightException {
+      List<NoteTopic> trash = controller.trash(topNote.getNotebook());
+      assertThat(trash, hasSize(1));
+      assertThat(trash.getFirst().getId(), equalTo(deleted.getId()));
+    }
+
+    @Test
+    void whenNotAuthorized() {
+      User anotherUser = makeMe.aUser().please();
+      controller =
+          new RestNotebookController(
+              modelFactoryService,
+              notebookTransferService,
+              modelFactoryService.toUserModel(anotherUser),
+              testabilitySettings);
+      assertThrows(
+          UnexpectedNoAccessRightException.class, () -> controller.trash(topNote.getNotebook()));
+    }
+  }
+
+  @Nested
+  class ExportAndImportNotebook {
+    private Note head;
+    private Note child1;
+    private Note child2;
+
+    @BeforeEach
+    void setup() {
+      head = makeMe.aNote("head").creatorAndOwner(userModel).please();
+      child1 = makeMe.aNote("child1").under(head).please();
+      makeMe.aNote("grandchild", "deep").under(child1).please();
+      child2 = makeMe.aNote("child2").under(head).please();
+      makeMe.aLink().between(child2, child1).please();
+      makeMe.refresh(head);
+    }
+
+    private String export(Notebook notebook) throws Exception {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      controller.exportNotebook(notebook).writeTo(out);
+      return out.toString(UTF_8);
+    }
+
+    private List<NoteExportLine> exportedLines(Notebook notebook) throws Exception {
+      return export(notebook)
+          .lines()
+          .map(
+              line -> {
+                try {
+                  return new ObjectMapper().readValue(line, NoteExportLine.class);
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              })
+          .toList();
+    }
+
+    private Note importNotebook(String ndjson) throws IOException {
+      RedirectToNoteResponse response =
+          controller.importNotebook(new ByteArrayInputStream(ndjson.getBytes(UTF_8)));
+      return makeMe.refresh(modelFactoryService.entityManager.find(Note.class, response.noteId));
+    }
+
+    @Test
+    void whenNotAuthorized() {
+      User anotherUser = makeMe.aUser().please();
+      controller =
+          new RestNotebookController(
+              modelFactoryService,
+              notebookTransferService,
+              modelFactoryService.toUserModel(anotherUser),
+              testabilitySettings);
+      assertThrows(
+          UnexpectedNoAccessRightException.class,
+          () -> controller.exportNotebook(head.getNotebook()));
+    }
+
+    @Test
+    void exportsEveryNoteAfterItsParentInTreeOrder() throws Exception {
+      List<NoteExportLine> lines = exportedLines(head.getNotebook());
+      assertThat(
+          lines.stream().map(NoteExportLine::getTopicConstructor).toList(),
+          contains("head", "child1", "grandchild", "child2", ":a specialization of"));
+      assertThat(
+          lines.stream().map(NoteExportLine::getParentPosition).toList(),
+          contains(null, 0, 1, 0, 3));
+      assertThat(lines.getLast().getTargetId(), equalTo(child1.getId()));
+    }
+
+    @Test
+    void leavesOutTheDeletedNotesWithTheirDescendants() throws Exception {
+      Note deleted = makeMe.aNote("deleted").under(head).softDeleted().please();
+      makeMe.aNote("under deleted").under(deleted).please();
+      makeMe.refresh(head);
+      assertThat(exportedLines(head.getNotebook()), hasSize(5));
+    }
+
+    @Test
+    void importsTheExportAsANewNotebook() throws Exception {
+      Note imported = importNotebook(export(head.getNotebook()));
+      assertThat(imported.getId(), not(equalTo(head.getId())));
+      assertThat(imported.getTopicConstructor(), equalTo("head"));
+      assertThat(
+          imported.getChildren().stream().map(Note::getTopicConstructor).toList(),
+          contains("child1", "child2"));
+      Note grandchild = imported.getChildren().getFirst().getChildren().getFirst();
+      assertThat(grandchild.getDetails(), equalTo("deep"));
+      assertThat(grandchild.getNotebook(), equalTo(imported.getNotebook()));
+      assertThat(
+          grandchild.getAncestorIds(),
+          contains(imported.getId(), imported.getChildren().getFirst().getId()));
+    }
+
+    @Test
+    void pointsTheLinksToTheImportedNotes() throws Exception {
+      Note imported = importNotebook(export(head.getNotebook()));
+      LinkingNote link = imported.getChildren().getLast().getLinks().getFirst();
+      assertThat(link.getLinkType(), equalTo(LinkType.SPECIALIZE));
+      assertThat(link.getTargetNote(), equalTo(imported.getChildren().getFirst()));
+    }
+
+    @Test
+    void makesTheImportedNotesSearchable() throws Exception {
+      Note imported = importNotebook(export(head.getNotebook()));
+      NoteSearchScope scope =
+          new NoteSearchScope(null, imported.getNotebook().getId(), false, false);
+      assertThat(
+          modelFactoryService.noteRepository.searchByTokenPrefixes(
+              scope, List.of("grandchild"), 0, 10),
+          hasSize(1));
+    }
+
+    @Test
+    void dropsALinkWhoseTargetCannotBeReferredTo() throws Exception {
+      User anotherUser = makeMe.aUser().please();
+      Note elsewhere = makeMe.aNote("elsewhere").creatorAndOwner(anotherUser).please();
+      String ndjson =
+          """
+          {"topicConstructor":"head"}
+          {"topicConstructor":":related to","parentPosition":0,"targetId":%d}
+          """
+              .formatted(elsewhere.getId());
+      Note imported = importNotebook(ndjson);
+      assertThat(imported.getLinks(), empty());
+    }
+
+    @Test
+    void rejectsANoteThatDoesNotFollowItsParent() {
+      String ndjson =
+          """
+          {"topicConstructor":"head"}
+          {"topicConstructor":"lost","parentPosition":5}
+          """;
+      assertThrows(ResponseStatusException.class, () -> importNotebook(ndjson));
+    }
+
+    @Test
+    void rejectsALinkOfAnUnknownType() {
+      String ndjson =
+          """
+          {"topicConstructor":"head"}
+          {"topicConstructor":":unknown","parentPosition":0,"targetId":1}
+          """;
+      assertThrows(ResponseStatusException.class, () -> importNotebook(ndjson));
+    }
+  }
 }
@@ -21,6 +21,7 @@ import com.odde.doughnut.models.UserModel;
 import com.odde.doughnut.services.GlobalSettingsService;
 import com.odde.doughnut.services.ai.MCQWithAnswer;
 import com.odde.doughnut.services.ai.QuestionEvaluation;
+import com.odde.doughnut.services.openAiApis.AssistantSseBridge;
 import com.odde.doughnut.testability.MakeMe;
 import com.odde.doughnut.testability.OpenAIChatCompletionMock;
 import com.odde.doughnut.testability.TestabilitySettings;
@@ -39,6 +40,7 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -49,6 +51,8 @@ class RestQuizQuestionAndAnswerControllerTests {
   @Mock OpenAiApi openAiApi;
   @Autowired ModelFactoryService modelFactoryService;
   @Autowired MakeMe makeMe;
+  @Autowired PlatformTransactionManager transactionManager;
+  @Autowired AssistantSseBridge assistantSseBridge;
   private UserModel currentUser;
   private final TestabilitySettings testabilitySettings = new TestabilitySettings();
   OpenAIChatCompletionMock openAIChatCompletionMock;
@@ -61,12 +65,22 @@ class RestQuizQuestionAndAnswerControllerTests {
     currentUser = makeMe.aUser().toModelPlease();
     controller =
         new RestQuizQuestionController(
-            openAiApi, modelFactoryService, currentUser, testabilitySettings);
+            openAiApi,
+            modelFactoryService,
+            currentUser,
+            testabilitySettings,
+            transactionManager,
+            assistantSseBridge);
   }
 
   RestQuizQuestionController nullUserController() {
     return new RestQuizQuestionController(
-        openAiApi, modelFactoryService, makeMe.aNullUserModelPlease(), testabilitySettings);
+        openAiApi,
+        modelFactoryService,
+        makeMe.aNullUserModelPlease(),
+        testabilitySettings,
+        transactionManager,
+        assistantSseBridge);
   }
 
   @Nested
@@ -267,11 +281,19 @@ class RestQuizQuestionAndAnswerControllerTests {
                     openAiApi,
                     makeMe.modelFactoryService,
                     makeMe.aNullUserModelPlease(),
-                    testabilitySettings);
+                    testabilitySettings,
+                    transactionManager,
+                    assistantSseBridge);
             restAiController.generateQuestion(note);
           });
     }
 
+    @Test
+    void streamWithNoteThatCannotAccess() {
+      assertThrows(
+          ResponseStatusException.class, () -> nullUserController().generateQuestionStream(note));
+    }
+
     @Test
     void createQuizQuestion() {
       openAIChatCompletionMock.mockChatCompletionAndReturnToolCall(jsonQuestion, "");
@@ -313,7 +335,9 @@ class RestQuizQuestionAndAnswerControllerTests {
                     openAiApi,
                     makeMe.modelFactoryService,
                     makeMe.aNullUserModelPlease(),
-                    testabilitySettings);
+                    testabilitySettings,
+                    transactionManager,
+                    assistantSseBridge);
             restAiController.generateAIQuestionWithoutSave(note);
           });
     }
@@ -352,7 +376,9 @@ class RestQuizQuestionAndAnswerControllerTests {
                     openAiApi,
                     makeMe.modelFactoryService,
                     makeMe.aNullUserModelPlease(),
-                    testabilitySettings);
+                    testabilitySettings,
+                    transactionManager,
+                    assistantSseBridge);
             restAiController.regenerate(quizQuestionAndAnswer.getQuizQuestion());
           });
     }
@@ -397,11 +423,20 @@ class RestQuizQuestionAndAnswerControllerTests {
                     openAiApi,
                     makeMe.modelFactoryService,
                     makeMe.aNullUserModelPlease(),
-                    testabilitySettings);
+                    testabilitySettings,
+                    transactionManager,
+                    assistantSseBridge);
             restAiController.contest(quizQuestion.getQuizQuestion());
           });
     }
 
+    @Test
+    void streamWithNoteThatCannotAccess() {
+      assertThrows(
+          ResponseStatusException.class,
+          () -> nullUserController().contestStream(quizQuestion.getQuizQuestion()));
+    }
+
     @Test
     void rejected() {
       openAIChatCompletionMock.mockChatCompletionAndReturnToolCall(questionEvaluation, "");
@@ -0,0 +1,156 @@
+package com.odde.doughnut.controllers;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import com.odde.doughnut.controllers.dto.QuizQuestionContestResult;
+import com.odde.doughnut.controllers.dto.QuizQuestionInNotebook;
+import com.odde.doughnut.entities.Note;
+import com.odde.doughnut.entities.QuizQuestion;
+import com.odde.doughnut.entities.QuizQuestionAndAnswer;
+import com.odde.doughnut.factoryServices.ModelFactoryService;
+import com.odde.doughnut.models.UserModel;
+import com.odde.doughnut.services.ai.MCQWithAnswer;
+import com.odde.doughnut.services.ai.QuestionEvaluation;
+import com.odde.doughnut.services.metrics.MetricsRegistry;
+import com.odde.doughnut.services.openAiApis.AssistantSseBridge;
+import com.odde.doughnut.testability.CommittedData;
+import com.odde.doughnut.testability.MakeMe;
+import com.odde.doughnut.testability.OpenAIChatCompletionMock;
+import com.odde.doughnut.testability.RecordingSseEmitter;
+import com.odde.doughnut.testability.TestabilitySettings;
+import com.theokanning.openai.client.OpenAiApi;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// The streams are generated on a background thread, outside of the request and of any
+// transaction, so these tests work on committed data, as the application does.
+@SpringBootTest
+@ActiveProfiles("test")
+class RestQuizQuestionControllerStreamTests {
+  @Mock OpenAiApi openAiApi;
+  @Autowired ModelFactoryService modelFactoryService;
+  @Autowired MakeMe makeMe;
+  @Autowired CommittedData committedData;
+  @Autowired PlatformTransactionManager transactionManager;
+  AssistantSseBridge assistantSseBridge;
+  RestQuizQuestionController controller;
+  OpenAIChatCompletionMock openAIChatCompletionMock;
+  Integer noteId;
+  Note note;
+
+  @BeforeEach
+  void setup() {
+    openAIChatCompletionMock = new OpenAIChatCompletionMock(openAiApi);
+    assistantSseBridge =
+        new AssistantSseBridge(
+            Duration.ofMinutes(1),
+            Duration.ofMinutes(1),
+            Duration.ZERO,
+            16,
+            new MetricsRegistry()) {
+          @Override
+          protected SseEmitter newEmitter(long timeout) {
+            return new RecordingSseEmitter(timeout);
+          }
+        };
+    UserModel currentUser = committedData.commit(() -> makeMe.aUser().toModelPlease());
+    noteId =
+        committedData.commit(
+            () -> {
+              Note top = makeMe.aNote("solar system").please();
+              return makeMe.aNote("sun").under(top).please().getId();
+            });
+    note = modelFactoryService.noteRepository.findById(noteId).orElseThrow();
+    controller =
+        new RestQuizQuestionController(
+            openAiApi,
+            modelFactoryService,
+            currentUser,
+            new TestabilitySettings(),
+            transactionManager,
+            assistantSseBridge);
+  }
+
+  @AfterEach
+  void cleanUp() {
+    assistantSseBridge.shutdown();
+    committedData.cleanUp();
+  }
+
+  private static RecordingSseEmitter ended(SseEmitter emitter) throws InterruptedException {
+    RecordingSseEmitter recording = (RecordingSseEmitter) emitter;
+    assertThat(recording.awaitEnd(Duration.ofSeconds(5)), is(true));
+    assertThat(recording.getError(), nullValue());
+    return recording;
+  }
+
+  @Test
+  void streamsTheGeneratedQuestionAndSavesIt() throws InterruptedException {
+    MCQWithAnswer jsonQuestion =
+        makeMe
+            .aMCQWithAnswer()
+            .stem("What is the sun?")
+            .choices("a star", "a planet")
+            .correctChoiceIndex(0)
+            .please();
+    openAIChatCompletionMock.mockChatCompletionStreamAndReturnToolCall(jsonQuestion, 10);
+
+    RecordingSseEmitter emitter = ended(controller.generateQuestionStream(note));
+
+    assertThat(emitter.getEventNames(), hasItem("partial"));
+    emitter.getEvents().stream()
+        .filter(event -> "partial".equals(event.name()))
+        .forEach(event -> assertThat(event.data().toString(), not(containsString("correct"))));
+    assertThat(emitter.getEventNames().getLast(), equalTo("done"));
+    QuizQuestionInNotebook done = (QuizQuestionInNotebook) emitter.getEvents().getLast().data();
+    assertThat(
+        done.getQuizQuestion().getMultipleChoicesQuestion().getStem(),
+        equalTo("What is the sun?"));
+    List<String> savedStems =
+        committedData.commit(
+            () ->
+                modelFactoryService.noteRepository.findById(noteId).orElseThrow()
+                    .getQuizQuestionAndAnswers().stream()
+                    .map(q -> q.getQuizQuestion().getMultipleChoicesQuestion().getStem())
+                    .toList());
+    assertThat(savedStems, contains("What is the sun?"));
+  }
+
+  @Test
+  void streamsTheEvaluationOfAContestedQuestion() throws InterruptedException {
+    Integer quizQuestionId =
+        committedData.commit(
+            () -> {
+              MCQWithAnswer mcqWithAnswer = makeMe.aMCQWithAnswer().please();
+              Note theNote = modelFactoryService.entityManager.find(Note.class, noteId);
+              QuizQuestionAndAnswer question =
+                  makeMe.aQuestion().ofAIGeneratedQuestion(mcqWithAnswer, theNote).please();
+              return question.getQuizQuestion().getId();
+            });
+    QuizQuestion quizQuestion =
+        modelFactoryService.quizQuestionRepository.findById(quizQuestionId).orElseThrow();
+    QuestionEvaluation questionEvaluation = new QuestionEvaluation();
+    questionEvaluation.correctChoices = new int[] {0};
+    questionEvaluation.feasibleQuestion = true;
+    questionEvaluation.comment = "what a horrible question!";
+    openAIChatCompletionMock.mockChatCompletionStreamAndReturnToolCall(questionEvaluation, 10);
+
+    RecordingSseEmitter emitter = ended(controller.contestStream(quizQuestion));
+
+    assertThat(emitter.getEventNames(), hasItem("partial"));
+    assertThat(emitter.getEventNames().getLast(), equalTo("done"));
+    QuizQuestionContestResult done =
+        (QuizQuestionContestResult) emitter.getEvents().getLast().data();
+    assertThat(done.rejected, is(true));
+  }
+}
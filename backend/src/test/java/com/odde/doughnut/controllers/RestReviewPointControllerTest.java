@@ -12,6 +12,7 @@ import com.odde.doughnut.entities.ReviewPoint;
 import com.odde.doughnut.exceptions.UnexpectedNoAccessRightException;
 import com.odde.doughnut.factoryServices.ModelFactoryService;
 import com.odde.doughnut.models.UserModel;
+import com.odde.doughnut.services.QuizQuestionPrefetchService;
 import com.odde.doughnut.testability.MakeMe;
 import com.odde.doughnut.testability.TestabilitySettings;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,6 +30,7 @@ import org.springframework.web.server.ResponseStatusException;
 class RestReviewPointControllerTest {
   @Autowired ModelFactoryService modelFactoryService;
   @Autowired MakeMe makeMe;
+  @Autowired QuizQuestionPrefetchService quizQuestionPrefetchService;
 
   private final TestabilitySettings testabilitySettings = new TestabilitySettings();
   private UserModel userModel;
@@ -38,7 +40,8 @@ class RestReviewPointControllerTest {
   void setup() {
     userModel = makeMe.aUser().toModelPlease();
     controller =
-        new RestReviewPointController(null, modelFactoryService, userModel, testabilitySettings);
+        new RestReviewPointController(
+            null, modelFactoryService, userModel, testabilitySettings, quizQuestionPrefetchService);
   }
 
   @Nested
@@ -3,16 +3,20 @@ package com.odde.doughnut.controllers;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.odde.doughnut.controllers.dto.DueReviewPoints;
 import com.odde.doughnut.controllers.dto.InitialInfo;
+import com.odde.doughnut.controllers.dto.ReviewStatus;
 import com.odde.doughnut.entities.*;
 import com.odde.doughnut.exceptions.UnexpectedNoAccessRightException;
 import com.odde.doughnut.factoryServices.ModelFactoryService;
 import com.odde.doughnut.models.TimestampOperations;
 import com.odde.doughnut.models.UserModel;
+import com.odde.doughnut.services.ReviewQueueService;
 import com.odde.doughnut.testability.MakeMe;
 import com.odde.doughnut.testability.TestabilitySettings;
 import java.sql.Timestamp;
@@ -34,6 +38,7 @@ import org.springframework.web.server.ResponseStatusException;
 class RestReviewsControllerTests {
   @Autowired ModelFactoryService modelFactoryService;
   @Autowired MakeMe makeMe;
+  @Autowired ReviewQueueService reviewQueueService;
   private UserModel currentUser;
   private final TestabilitySettings testabilitySettings = new TestabilitySettings();
 
@@ -42,12 +47,17 @@ class RestReviewsControllerTests {
   @BeforeEach
   void setup() {
     currentUser = makeMe.aUser().toModelPlease();
-    controller = new RestReviewsController(modelFactoryService, currentUser, testabilitySettings);
+    controller =
+        new RestReviewsController(
+            modelFactoryService, currentUser, reviewQueueService, testabilitySettings);
   }
 
   RestReviewsController nullUserController() {
     return new RestReviewsController(
-        modelFactoryService, makeMe.aNullUserModelPlease(), testabilitySettings);
+        modelFactoryService,
+        makeMe.aNullUserModelPlease(),
+        reviewQueueService,
+        testabilitySettings);
   }
 
   @Nested
@@ -57,6 +67,42 @@ class RestReviewsControllerTests {
       assertThrows(
           ResponseStatusException.class, () -> nullUserController().overview("Asia/Shanghai"));
     }
+
+    @Test
+    void shouldRefreshTheOverviewAfterANoteIsInitiallyReviewed() {
+      Note note = makeMe.aNote().creatorAndOwner(currentUser).please();
+      assertThat(controller.overview("Asia/Shanghai").toInitialReviewCount, equalTo(1));
+      InitialInfo info = new InitialInfo();
+      info.noteId = note.getId();
+      info.skipReview = false;
+      controller.create(info);
+      assertThat(controller.overview("Asia/Shanghai").toInitialReviewCount, equalTo(0));
+    }
+
+    @Test
+    void shouldRefreshTheOverviewOfASubscriberWhenANoteIsAdded() {
+      Note head = makeMe.aNote().please();
+      UserModel subscriber = makeMe.aUser().toModelPlease();
+      makeMe
+          .aSubscription()
+          .forNotebook(head.getNotebook())
+          .forUser(subscriber.getEntity())
+          .daily(5)
+          .please();
+      RestReviewsController subscriberController =
+          new RestReviewsController(
+              modelFactoryService, subscriber, reviewQueueService, testabilitySettings);
+      ReviewStatus before = subscriberController.overview("Asia/Shanghai");
+      makeMe.aNote().under(head).please();
+      assertThat(subscriberController.overview("Asia/Shanghai"), not(sameInstance(before)));
+    }
+
+    @Test
+    void shouldKeepTheOverviewOfOtherUsersWhenANoteIsAdded() {
+      ReviewStatus before = controller.overview("Asia/Shanghai");
+      makeMe.aNote().creatorAndOwner(makeMe.aUser().please()).please();
+      assertThat(controller.overview("Asia/Shanghai"), sameInstance(before));
+    }
   }
 
   @Nested
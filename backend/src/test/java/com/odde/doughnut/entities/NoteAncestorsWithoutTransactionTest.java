@@ -0,0 +1,39 @@
+package com.odde.doughnut.entities;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+import com.odde.doughnut.testability.CommittedData;
+import com.odde.doughnut.testability.MakeMe;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class NoteAncestorsWithoutTransactionTest {
+  @Autowired MakeMe makeMe;
+  @Autowired CommittedData committedData;
+
+  @AfterEach
+  void cleanUp() {
+    committedData.cleanUp();
+  }
+
+  @Test
+  void loadsTheAncestorsOfANoteOutsideOfAnyTransaction() {
+    Integer noteId =
+        committedData.commit(
+            () -> {
+              Note top = makeMe.aNote("top").please();
+              Note middle = makeMe.aNote("middle").under(top).please();
+              return makeMe.aNote("subject").under(middle).please().getId();
+            });
+    Note subject = makeMe.modelFactoryService.noteRepository.findById(noteId).orElseThrow();
+    assertThat(
+        subject.getAncestors().stream().map(Note::getTopicConstructor).toList(),
+        contains("top", "middle"));
+  }
+}
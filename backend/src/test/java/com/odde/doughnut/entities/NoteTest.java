@@ -5,6 +5,9 @@ import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.odde.doughnut.testability.MakeMe;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -29,6 +32,46 @@ public class NoteTest {
     assertThat(parent.getChildren(), containsInRelativeOrder(note1, note2));
   }
 
+  @Test
+  void softDeletingTheChildrenWhileGoingThroughThem() {
+    Note parent = makeMe.aNote().please();
+    Note note1 = makeMe.aNote().under(parent).please();
+    Note note2 = makeMe.aNote().under(parent).please();
+    List<Note> children = parent.getChildren();
+    children.forEach(child -> child.softDelete(new Timestamp(System.currentTimeMillis())));
+    assertThat(children, contains(note1, note2));
+    assertThat(parent.getChildren(), empty());
+  }
+
+  @Test
+  void restoringAChildPutsItBackInOrder() {
+    Note parent = makeMe.aNote().please();
+    Note note1 = makeMe.aNote().under(parent).softDeleted().please();
+    Note note2 = makeMe.aNote().under(parent).please();
+    assertThat(parent.getChildren(), contains(note2));
+    note1.restoreSoftDeleted();
+    assertThat(parent.getChildren(), contains(note1, note2));
+  }
+
+  @Test
+  void theAncestorPathCannotBeWorkedOutBeforeTheParentIsSaved() {
+    Note parent = makeMe.aNote().inMemoryPlease();
+    Note child = makeMe.aNote().under(parent).inMemoryPlease();
+    assertThrows(IllegalStateException.class, child::refreshAncestorPath);
+  }
+
+  @Test
+  void theAncestorsAreTakenFromTheKnownNotes() {
+    Note top = makeMe.aNote().please();
+    Note middle = makeMe.aNote().under(top).please();
+    Note subject = makeMe.aNote().under(middle).please();
+    Note knownMiddle = makeMe.aNote().inMemoryPlease();
+    assertThat(
+        subject.getAncestors(Map.of(top.getId(), top, middle.getId(), knownMiddle)),
+        contains(top, knownMiddle));
+    assertThat(subject.getAncestors(Map.of(top.getId(), top)), contains(top, middle));
+  }
+
   @Test
   void shortDetails() {
     Note note =
@@ -175,6 +175,35 @@ class QuizQuestionAndAnswerTest {
     }
   }
 
+  @Nested
+  class Deduplication {
+    Note top;
+    Note note;
+
+    @BeforeEach
+    void setup() {
+      top = makeMe.aNote().please();
+      note = makeMe.aNote().under(top).please();
+      makeMe.aNote().under(top).please();
+    }
+
+    @Test
+    void theSameQuestionForTheSameNoteIsStoredOnce() {
+      QuizQuestionAndAnswer first = generateQuizQuestion(note);
+      QuizQuestionAndAnswer second = generateQuizQuestion(note);
+      assertThat(second.getId(), equalTo(first.getId()));
+      assertThat(first.getContentHash(), equalTo(first.computeContentHash()));
+    }
+
+    @Test
+    void aDifferentQuestionIsStoredSeparately() {
+      QuizQuestionAndAnswer first = generateQuizQuestion(note);
+      randomizer.alwaysChoose = "last";
+      QuizQuestionAndAnswer second = generateQuizQuestion(note);
+      assertThat(second.getId(), not(equalTo(first.getId())));
+    }
+  }
+
   private QuizQuestionAndAnswer generateQuizQuestion(
       Note note, Randomizer randomizer1, AiQuestionGenerator aiQuestionGenerator) {
     QuizQuestionGenerator quizQuestionGenerator =
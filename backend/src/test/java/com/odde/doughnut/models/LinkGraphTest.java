@@ -0,0 +1,94 @@
+package com.odde.doughnut.models;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+import com.odde.doughnut.entities.LinkType;
+import com.odde.doughnut.entities.LinkingNote;
+import com.odde.doughnut.entities.Note;
+import com.odde.doughnut.entities.User;
+import com.odde.doughnut.testability.MakeMe;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class LinkGraphTest {
+  @Autowired MakeMe makeMe;
+  User user;
+  Note top;
+  Note source;
+  Note target;
+
+  @BeforeEach
+  void setup() {
+    user = makeMe.aUser().please();
+    top = makeMe.aNote("top").creatorAndOwner(user).please();
+    source = makeMe.aNote("source").under(top).please();
+    target = makeMe.aNote("target").under(top).please();
+  }
+
+  @Test
+  void theLinkTypeIsStoredInItsOwnColumn() {
+    makeMe.aLink().between(source, target, LinkType.PART).please();
+    List<LinkEdge> edges =
+        makeMe.modelFactoryService.noteRepository.findAllLinkEdgesFromNotebook(
+            top.getNotebook().getId());
+    assertThat(edges.stream().map(LinkEdge::type).toList(), contains(LinkType.PART));
+  }
+
+  @Test
+  void linksFromANoteOfTheGivenTypes() {
+    Note other = makeMe.aNote("other").under(top).please();
+    LinkingNote part = makeMe.aLink().between(source, target, LinkType.PART).please();
+    makeMe.aLink().between(source, other, LinkType.TAGGED_BY).please();
+    assertThat(
+        linkIdsFrom(source, makeMe.modelFactoryService.toLinkGraph(user), LinkType.PART),
+        contains(part.getId()));
+  }
+
+  @Test
+  void siblingLinksOfTheSameType() {
+    Note other = makeMe.aNote("other").under(top).please();
+    LinkingNote link = makeMe.aLink().between(source, target, LinkType.PART).please();
+    LinkingNote sibling = makeMe.aLink().between(other, target, LinkType.PART).please();
+    makeMe.aLink().between(top, target, LinkType.TAGGED_BY).please();
+    LinkGraph graph = makeMe.modelFactoryService.toLinkGraph(user);
+    assertThat(
+        graph.siblingLinksOfSameLinkType(LinkEdge.of(link)).map(LinkEdge::linkId).toList(),
+        contains(sibling.getId()));
+  }
+
+  @Test
+  void linksToANotebookTheViewerCannotReferToAreNotFollowed() {
+    Note foreign = makeMe.aNote("foreign").creatorAndOwner(makeMe.aUser().please()).please();
+    makeMe.aLink().between(source, foreign, LinkType.PART).please();
+    assertThat(
+        linkIdsFrom(source, makeMe.modelFactoryService.toLinkGraph(user), LinkType.PART), empty());
+  }
+
+  @Test
+  void theGraphLoadsTheLinksOfANotebookOnce() {
+    LinkingNote part = makeMe.aLink().between(source, target, LinkType.PART).please();
+    LinkGraph graph = makeMe.modelFactoryService.toLinkGraph(user);
+    linkIdsFrom(source, graph, LinkType.PART);
+    makeMe.aLink().between(target, source, LinkType.PART).please();
+    assertThat(linkIdsFrom(source, graph, LinkType.PART), contains(part.getId()));
+    assertThat(linkIdsFrom(target, graph, LinkType.PART), equalTo(List.of()));
+  }
+
+  private List<Integer> linkIdsFrom(Note note, LinkGraph graph, LinkType type) {
+    return graph
+        .linksFrom(note.getId(), note.getNotebook().getId(), List.of(type))
+        .map(LinkEdge::linkId)
+        .toList();
+  }
+}
@@ -9,6 +9,8 @@ import com.odde.doughnut.exceptions.CyclicLinkDetectedException;
 import com.odde.doughnut.exceptions.MovementNotPossibleException;
 import com.odde.doughnut.factoryServices.ModelFactoryService;
 import com.odde.doughnut.testability.MakeMe;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -87,6 +89,20 @@ public class NoteMotionModelTest {
     assertOrder(firstChild, secondChild);
   }
 
+  @Test
+  void moveIntoTheSameGapAgainAndAgain()
+      throws CyclicLinkDetectedException, MovementNotPossibleException {
+    List<Note> expected = new ArrayList<>(List.of(firstChild, secondChild));
+    for (int i = 0; i < 40; i++) {
+      Note subject = makeMe.aNote().under(topNote).please();
+      makeMe.refresh(topNote);
+      move(subject, firstChild, false);
+      expected.add(1, subject);
+    }
+    makeMe.refresh(topNote);
+    assertThat(topNote.getChildren(), contains(expected.toArray()));
+  }
+
   @Nested
   class WhenThereIsAThirdLevel {
     Note thirdLevel;
@@ -117,6 +133,18 @@ public class NoteMotionModelTest {
       assertThat(thirdLevel.getAncestors(), contains(topNote, secondChild, firstChild));
       assertThat(forthLevel.getAncestors(), contains(topNote, secondChild, firstChild, thirdLevel));
     }
+
+    @Test
+    void moveWithOwnChildUpdatesTheAncestorPaths()
+        throws CyclicLinkDetectedException, MovementNotPossibleException {
+      move(firstChild, secondChild, true);
+      assertThat(
+          forthLevel.getAncestorIds(),
+          contains(topNote.getId(), secondChild.getId(), firstChild.getId(), thirdLevel.getId()));
+      assertThat(
+          modelFactoryService.toNoteModel(secondChild).getAllNoneLinkDescendants().toList(),
+          contains(firstChild, thirdLevel, forthLevel));
+    }
   }
 
   @Nested
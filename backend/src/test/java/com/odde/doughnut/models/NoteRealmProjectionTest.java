@@ -0,0 +1,88 @@
+package com.odde.doughnut.models;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odde.doughnut.controllers.dto.NoteRealm;
+import com.odde.doughnut.entities.Note;
+import com.odde.doughnut.entities.User;
+import com.odde.doughnut.factoryServices.ModelFactoryService;
+import com.odde.doughnut.testability.MakeMe;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional
+public class NoteRealmProjectionTest {
+  @Autowired ModelFactoryService modelFactoryService;
+  @Autowired ObjectMapper objectMapper;
+  @Autowired MakeMe makeMe;
+  User user;
+  Note head;
+
+  @BeforeEach
+  void setup() {
+    user = makeMe.aUser().please();
+    head = makeMe.aHeadNote("head").creatorAndOwner(user).please();
+  }
+
+  private Note noteWith(int count) {
+    Note note = makeMe.aNote("subject").under(head).please();
+    for (int i = 0; i < count; i++) {
+      makeMe.aNote("child " + i).under(note).please();
+      Note target = makeMe.aNote("target " + i).under(head).please();
+      makeMe.aLink().between(note, target).please();
+      Note source = makeMe.aNote("source " + i).under(head).please();
+      makeMe.aLink().between(source, note).please();
+    }
+    return note;
+  }
+
+  private NoteRealm load(Note note) throws JsonProcessingException {
+    NoteRealm noteRealm = modelFactoryService.toNoteRealmProjection(user).load(note);
+    objectMapper.writeValueAsString(noteRealm);
+    return noteRealm;
+  }
+
+  private long queriesToLoad(Note note) throws JsonProcessingException {
+    modelFactoryService.entityManager.flush();
+    modelFactoryService.entityManager.clear();
+    Note detached = modelFactoryService.entityManager.find(Note.class, note.getId());
+    Statistics statistics =
+        modelFactoryService
+            .entityManager
+            .getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+    statistics.clear();
+    load(detached);
+    return statistics.getPrepareStatementCount();
+  }
+
+  @Test
+  void loadsChildrenAndRefers() throws JsonProcessingException {
+    Note note = noteWith(2);
+    modelFactoryService.entityManager.flush();
+    modelFactoryService.entityManager.clear();
+    NoteRealm noteRealm = load(modelFactoryService.entityManager.find(Note.class, note.getId()));
+    assertThat(noteRealm.getChildren(), hasSize(4));
+    assertThat(noteRealm.getRefers(), hasSize(2));
+  }
+
+  @Test
+  void theNumberOfQueriesDoesNotGrowWithChildrenAndRefers() throws JsonProcessingException {
+    queriesToLoad(noteWith(1));
+    long withOne = queriesToLoad(noteWith(1));
+    long withFive = queriesToLoad(noteWith(5));
+    assertThat(withFive, equalTo(withOne));
+  }
+}
@@ -71,6 +71,47 @@ public class UserModelSearchTest {
     assertTrue(search().isEmpty());
   }
 
+  @Test
+  void theSearchMatchesTheDetails() {
+    Note anotherNote = makeMe.aNote("Some Note", "the capital of Japan").under(note).please();
+    searchTerm.setSearchKey("capit");
+    assertThat(search(), contains(anotherNote.getNoteTopic()));
+  }
+
+  @Test
+  void everyTermOfTheSearchKeyHasToMatch() {
+    Note anotherNote = makeMe.aNote("Tokyo tower").under(note).please();
+    makeMe.aNote("Tokyo station").under(note).please();
+    searchTerm.setSearchKey("tok tow");
+    assertThat(search(), contains(anotherNote.getNoteTopic()));
+  }
+
+  @Test
+  void notesMatchingTheTopicAreRankedFirst() {
+    Note matchingDetails = makeMe.aNote("Japan", "Tokyo is the capital").under(note).please();
+    Note matchingTopic = makeMe.aNote("Tokyo", "a city").under(note).please();
+    searchTerm.setSearchKey("tokyo");
+    assertThat(search(), contains(matchingTopic.getNoteTopic(), matchingDetails.getNoteTopic()));
+  }
+
+  @Test
+  void theSearchResultIsPaged() {
+    makeMe.aNote("Tokyo 1").under(note).please();
+    Note second = makeMe.aNote("Tokyo 2").under(note).please();
+    searchTerm.setSearchKey("tokyo");
+    searchTerm.setPageSize(1);
+    searchTerm.setPageIndex(1);
+    assertThat(search(), contains(second.getNoteTopic()));
+  }
+
+  @Test
+  void aSearchKeyWithoutTokensMatchesTheTopicLiterally() {
+    Note anotherNote = makeMe.aNote("C++").under(note).please();
+    makeMe.aNote("C").under(note).please();
+    searchTerm.setSearchKey("++");
+    assertThat(search(), contains(anotherNote.getNoteTopic()));
+  }
+
   @Nested
   class ThereIsANoteBookInMyCircle {
     Note noteInTheSameNotebook;
@@ -0,0 +1,166 @@
+package com.odde.doughnut.models.quizFacotries;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import com.odde.doughnut.entities.LinkType;
+import com.odde.doughnut.entities.LinkingNote;
+import com.odde.doughnut.entities.Note;
+import com.odde.doughnut.entities.User;
+import com.odde.doughnut.factoryServices.quizFacotries.QuizQuestionGenerator;
+import com.odde.doughnut.factoryServices.quizFacotries.QuizQuestionServant;
+import com.odde.doughnut.models.ReviewPointCache;
+import com.odde.doughnut.models.UserModel;
+import com.odde.doughnut.models.randomizers.NonRandomizer;
+import com.odde.doughnut.testability.MakeMe;
+import java.util.Arrays;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional
+class QuizQuestionServantTest {
+  @Autowired MakeMe makeMe;
+  User user;
+  Note top;
+  Note target;
+
+  @BeforeEach
+  void setup() {
+    user = makeMe.aUser().please();
+    top = makeMe.aNote("top").creatorAndOwner(user).please();
+    target = makeMe.aNote("target").under(top).please();
+  }
+
+  // the source has no description, so that the question generation does not stop at a
+  // description question before looking for the siblings with review points
+  private LinkingNote linkWithSiblings(int count) {
+    Note linkSource = makeMe.aNote().withNoDescription().under(top).please();
+    LinkingNote link = makeMe.aLink().between(linkSource, target, LinkType.PART).please();
+    for (int i = 0; i < count; i++) {
+      Note source = makeMe.aNote("source " + i).under(top).please();
+      LinkingNote sibling = makeMe.aLink().between(source, target, LinkType.PART).please();
+      makeMe.aReviewPointFor(sibling).by(user).please();
+    }
+    return link;
+  }
+
+  private QuizQuestionServant newServant() {
+    return new QuizQuestionServant(user, new NonRandomizer(), makeMe.modelFactoryService);
+  }
+
+  @Test
+  void onlySiblingLinksWithReviewPointsAreCandidates() {
+    LinkingNote link = linkWithSiblings(1);
+    LinkingNote withoutReviewPoint =
+        makeMe.aLink().between(makeMe.aNote().under(top).please(), target, LinkType.PART).please();
+    List<LinkingNote> candidates =
+        newServant().getSiblingLinksOfSameLinkTypeHavingReviewPoint(link).toList();
+    assertThat(candidates.size(), equalTo(1));
+    assertThat(candidates.contains(withoutReviewPoint), equalTo(false));
+  }
+
+  @Test
+  void reviewPointsOfTheWholeCohortAreLookedUpInOneQuery() {
+    assertThat(reviewPointQueriesFor(linkWithSiblings(1)), equalTo(1L));
+    assertThat(reviewPointQueriesFor(linkWithSiblings(5)), equalTo(1L));
+  }
+
+  @Test
+  void reviewPointsAlreadyLookedUpAreNotQueriedAgain() {
+    LinkingNote link = linkWithSiblings(3);
+    QuizQuestionServant servant = newServant();
+    servant.getSiblingLinksOfSameLinkTypeHavingReviewPoint(link).toList();
+    Statistics statistics = statistics();
+    statistics.clear();
+    servant.getSiblingLinksOfSameLinkTypeHavingReviewPoint(link).toList();
+    assertThat(reviewPointQueries(statistics), equalTo(0L));
+  }
+
+  @Test
+  void theCurrentUserSharesOneCacheBetweenTheQuestionAndTheAnswer() {
+    UserModel currentUser = makeMe.modelFactoryService.toUserModel(user);
+    ReviewPointCache reviewPointCache = currentUser.getReviewPointCacheFor(user);
+    assertThat(currentUser.getReviewPointCacheFor(user), sameInstance(reviewPointCache));
+    List<LinkingNote> candidates =
+        new QuizQuestionServant(
+                user, new NonRandomizer(), makeMe.modelFactoryService, reviewPointCache)
+            .getSiblingLinksOfSameLinkTypeHavingReviewPoint(linkWithSiblings(3))
+            .toList();
+    Statistics statistics = statistics();
+    statistics.clear();
+    candidates.forEach(
+        candidate -> assertThat(reviewPointCache.getReviewPointFor(candidate), notNullValue()));
+    assertThat(reviewPointQueries(statistics), equalTo(0L));
+  }
+
+  @Test
+  void anotherUserDoesNotShareTheCacheOfTheCurrentUser() {
+    UserModel currentUser = makeMe.modelFactoryService.toUserModel(user);
+    User anotherUser = makeMe.aUser().please();
+    assertThat(
+        currentUser.getReviewPointCacheFor(anotherUser),
+        not(sameInstance(currentUser.getReviewPointCacheFor(user))));
+  }
+
+  @Test
+  void theStatementsOfAWholeQuestionGenerationDoNotGrowWithTheCohort() {
+    Statistics statistics = statistics();
+    generateAQuestionFor(linkWithSiblings(1));
+    long statementsForOne = statistics.getPrepareStatementCount();
+    assertThat(reviewPointQueries(statistics), equalTo(1L));
+    generateAQuestionFor(linkWithSiblings(5));
+    assertThat(statistics.getPrepareStatementCount(), lessThanOrEqualTo(statementsForOne));
+    assertThat(reviewPointQueries(statistics), equalTo(1L));
+  }
+
+  private void generateAQuestionFor(LinkingNote link) {
+    makeMe.modelFactoryService.entityManager.flush();
+    statistics().clear();
+    NonRandomizer randomizer = new NonRandomizer();
+    randomizer.setAlwaysChoose("last");
+    try {
+      new QuizQuestionGenerator(user, link, randomizer, makeMe.modelFactoryService)
+          .generateAQuestionOfRandomType(null);
+    } catch (ResponseStatusException e) {
+      // the statements are counted whether a question could be generated or not
+    }
+  }
+
+  private long reviewPointQueriesFor(LinkingNote link) {
+    makeMe.modelFactoryService.entityManager.flush();
+    Statistics statistics = statistics();
+    statistics.clear();
+    newServant().getSiblingLinksOfSameLinkTypeHavingReviewPoint(link).toList();
+    return reviewPointQueries(statistics);
+  }
+
+  private static long reviewPointQueries(Statistics statistics) {
+    return Arrays.stream(statistics.getQueries())
+        .filter(query -> query.contains("review_point"))
+        .mapToLong(query -> statistics.getQueryStatistics(query).getExecutionCount())
+        .sum();
+  }
+
+  private Statistics statistics() {
+    return makeMe
+        .modelFactoryService
+        .entityManager
+        .getEntityManagerFactory()
+        .unwrap(SessionFactory.class)
+        .getStatistics();
+  }
+}
@@ -26,7 +26,6 @@ import com.theokanning.openai.OpenAiHttpException;
 import com.theokanning.openai.assistants.run.SubmitToolOutputRequestItem;
 import com.theokanning.openai.assistants.run.SubmitToolOutputsRequest;
 import com.theokanning.openai.client.OpenAiApi;
-import io.reactivex.Single;
 import java.net.SocketTimeoutException;
 import okhttp3.MediaType;
 import okhttp3.ResponseBody;
@@ -34,7 +33,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
-import retrofit2.HttpException;
 import retrofit2.Response;
 
 class AiAdvisorServiceAutoCompleteTest {
@@ -60,20 +58,19 @@ class AiAdvisorServiceAutoCompleteTest {
     @Test
     void aiUnderstandHowToCompete() {
       openAIAssistantThreadMocker
-          .mockCreateRunInProcess("my-run-id")
+          .aRun("my-run-id")
           .aRunThatRequireAction(
               new NoteDetailsCompletion(" must come down"), COMPLETE_NOTE_DETAILS)
-          .mockRetrieveRun();
+          .mockRunStream();
       assertEquals(" must come down", getAiCompletionAndResult("what goes up"));
     }
 
     @Test
     void aiTryToChatWithoutCallingAnyTool() {
       openAIAssistantThreadMocker
-          .mockCreateRunInProcess("my-run-id")
+          .aRun("my-run-id")
           .aRunThatCompleted()
-          .mockRetrieveRun()
-          .mockListMessages("Interesting idea.");
+          .mockRunStream("Interesting idea.");
       assertEquals(
           "Interesting idea.",
           getAiCompletionResponse("what goes up")
@@ -88,17 +85,13 @@ class AiAdvisorServiceAutoCompleteTest {
     @Test
     void getAiSuggestion_givenAString_whenHttpError_returnsEmptySuggestion()
         throws JsonProcessingException {
-      HttpException httpException = BuildOpenAiException(400);
-      Mockito.when(openAiApi.createRun(ArgumentMatchers.any(), ArgumentMatchers.any()))
-          .thenReturn(Single.error(httpException));
+      openAIAssistantThreadMocker.mockRunStreamFailure(BuildOpenAiErrorResponse(400));
       assertThrows(OpenAiHttpException.class, () -> getAiCompletionAndResult(""));
     }
 
     @Test
     void getAiSuggestion_when_timeout() {
-      RuntimeException exception = new RuntimeException(new SocketTimeoutException());
-      Mockito.when(openAiApi.createRun(ArgumentMatchers.any(), ArgumentMatchers.any()))
-          .thenReturn(Single.error(exception));
+      openAIAssistantThreadMocker.mockRunStreamFailure(new SocketTimeoutException());
       OpenAITimeoutException result =
           assertThrows(OpenAITimeoutException.class, () -> getAiCompletionAndResult(""));
       assertThat(result.getErrorBody().getErrorType(), equalTo(ApiError.ErrorType.OPENAI_TIMEOUT));
@@ -106,9 +99,7 @@ class AiAdvisorServiceAutoCompleteTest {
 
     @Test
     void getAiSuggestion_when_got_502() throws JsonProcessingException {
-      RuntimeException exception = BuildOpenAiException(502);
-      Mockito.when(openAiApi.createRun(ArgumentMatchers.any(), ArgumentMatchers.any()))
-          .thenReturn(Single.error(exception));
+      openAIAssistantThreadMocker.mockRunStreamFailure(BuildOpenAiErrorResponse(502));
       OpenAIServiceErrorException result =
           assertThrows(OpenAIServiceErrorException.class, () -> getAiCompletionAndResult(""));
       assertThat(
@@ -118,9 +109,7 @@ class AiAdvisorServiceAutoCompleteTest {
 
     @Test
     void getAiSuggestion_given_invalidToken_return_401() throws JsonProcessingException {
-      HttpException httpException = BuildOpenAiException(401);
-      Mockito.when(openAiApi.createRun(ArgumentMatchers.any(), ArgumentMatchers.any()))
-          .thenReturn(Single.error(httpException));
+      openAIAssistantThreadMocker.mockRunStreamFailure(BuildOpenAiErrorResponse(401));
       OpenAiUnauthorizedException exception =
           assertThrows(OpenAiUnauthorizedException.class, () -> getAiCompletionAndResult(""));
       assertThat(exception.getMessage(), containsString("401"));
@@ -190,7 +179,8 @@ class AiAdvisorServiceAutoCompleteTest {
         ArgumentCaptor<SubmitToolOutputsRequest> captor =
             ArgumentCaptor.forClass(SubmitToolOutputsRequest.class);
         verify(openAiApi)
-            .submitToolOutputs(ArgumentMatchers.any(), ArgumentMatchers.any(), captor.capture());
+            .submitToolOutputsStream(
+                ArgumentMatchers.any(), ArgumentMatchers.any(), captor.capture());
         SubmitToolOutputRequestItem submit = captor.getValue().getToolOutputs().get(0);
         assertThat(submit.getToolCallId(), equalTo("tool-call-id"));
         assertThat(submit.getOutput(), containsString("green tea"));
@@ -213,14 +203,13 @@ class AiAdvisorServiceAutoCompleteTest {
     }
   }
 
-  private static HttpException BuildOpenAiException(int statusCode) throws JsonProcessingException {
+  private static Response<ResponseBody> BuildOpenAiErrorResponse(int statusCode)
+      throws JsonProcessingException {
     OpenAiError error = new OpenAiError(new OpenAiError.OpenAiErrorDetails());
     error.error.setMessage("%d".formatted(statusCode));
-    return new HttpException(
-        Response.error(
-            statusCode,
-            ResponseBody.create(
-                defaultObjectMapper().writeValueAsString(error),
-                MediaType.parse("application/json"))));
+    return Response.error(
+        statusCode,
+        ResponseBody.create(
+            defaultObjectMapper().writeValueAsString(error), MediaType.parse("application/json")));
   }
 }
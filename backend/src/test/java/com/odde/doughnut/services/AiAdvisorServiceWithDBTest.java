@@ -1,15 +1,21 @@
 package com.odde.doughnut.services;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.odde.doughnut.controllers.dto.QuizQuestionContestResult;
 import com.odde.doughnut.entities.Note;
 import com.odde.doughnut.entities.QuizQuestionAndAnswer;
+import com.odde.doughnut.entities.repositories.AiResponseCacheRepository;
 import com.odde.doughnut.services.ai.AiQuestionGenerator;
 import com.odde.doughnut.services.ai.MCQWithAnswer;
 import com.odde.doughnut.services.ai.QuestionEvaluation;
+import com.odde.doughnut.services.metrics.MetricsRegistry;
+import com.odde.doughnut.services.openAiApis.AiResponseCache;
 import com.odde.doughnut.testability.MakeMe;
 import com.odde.doughnut.testability.OpenAIChatCompletionMock;
 import com.theokanning.openai.client.OpenAiApi;
@@ -32,6 +38,7 @@ class AiAdvisorServiceWithDBTest {
   private AiQuestionGenerator aiQuestionGenerator;
   @Mock private OpenAiApi openAiApi;
   @Autowired MakeMe makeMe;
+  @Autowired AiResponseCacheRepository aiResponseCacheRepository;
 
   @BeforeEach
   void Setup() {
@@ -93,4 +100,44 @@ class AiAdvisorServiceWithDBTest {
           () -> aiQuestionGenerator.getQuizQuestionContestResult(quizQuestion));
     }
   }
+
+  @Nested
+  class WithAResponseCache {
+    AiQuestionGenerator cachedGenerator;
+    OpenAIChatCompletionMock openAIChatCompletionMock;
+    Note note;
+
+    @BeforeEach
+    void setUp() {
+      AiResponseCache responseCache =
+          new AiResponseCache(true, 10, aiResponseCacheRepository, new MetricsRegistry());
+      cachedGenerator =
+          new AiQuestionGenerator(
+              openAiApi, new GlobalSettingsService(makeMe.modelFactoryService), responseCache);
+      openAIChatCompletionMock = new OpenAIChatCompletionMock(openAiApi);
+      note = makeMe.aNote().please();
+    }
+
+    @Test
+    void reviewingAnUnchangedNoteAgainGetsANewQuestion() {
+      openAIChatCompletionMock.mockChatCompletionAndReturnToolCall(
+          makeMe.aMCQWithAnswer().please(), "");
+      cachedGenerator.getAiGeneratedQuestion(note);
+      cachedGenerator.getAiGeneratedQuestion(note);
+      verify(openAiApi, times(2)).createChatCompletion(any());
+    }
+
+    @Test
+    void evaluatingTheSameQuestionAgainIsServedFromTheCache() {
+      QuestionEvaluation questionEvaluation = new QuestionEvaluation();
+      questionEvaluation.correctChoices = new int[] {0};
+      questionEvaluation.feasibleQuestion = true;
+      openAIChatCompletionMock.mockChatCompletionAndReturnToolCall(questionEvaluation, "");
+      QuizQuestionAndAnswer quizQuestion =
+          makeMe.aQuestion().ofAIGeneratedQuestion(makeMe.aMCQWithAnswer().please(), note).please();
+      cachedGenerator.getQuizQuestionContestResult(quizQuestion);
+      cachedGenerator.getQuizQuestionContestResult(quizQuestion);
+      verify(openAiApi, times(1)).createChatCompletion(any());
+    }
+  }
 }
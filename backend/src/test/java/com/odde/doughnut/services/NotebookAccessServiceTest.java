@@ -0,0 +1,97 @@
+package com.odde.doughnut.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import com.odde.doughnut.entities.Notebook;
+import com.odde.doughnut.entities.User;
+import com.odde.doughnut.models.CircleModel;
+import com.odde.doughnut.models.NotebookAccess;
+import com.odde.doughnut.testability.MakeMe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class NotebookAccessServiceTest {
+  @Autowired MakeMe makeMe;
+  @Autowired NotebookAccessService notebookAccessService;
+  User user;
+  Notebook notebookOfAnotherUser;
+
+  @BeforeEach
+  void setup() {
+    user = makeMe.aUser().please();
+    notebookOfAnotherUser =
+        makeMe.aNote().creatorAndOwner(makeMe.aUser().please()).please().getNotebook();
+  }
+
+  private NotebookAccess access() {
+    return notebookAccessService.of(user);
+  }
+
+  @Test
+  void ownsTheNotebooksOfTheUser() {
+    Notebook notebook = makeMe.aNote().creatorAndOwner(user).please().getNotebook();
+    assertThat(access().owns(notebook), is(true));
+    assertThat(access().owns(notebookOfAnotherUser), is(false));
+  }
+
+  @Test
+  void aNewNotebookIsOwnedRightAfterTheAccessIsCached() {
+    assertThat(access().owns(notebookOfAnotherUser), is(false));
+    Notebook notebook = makeMe.aNote().creatorAndOwner(user).please().getNotebook();
+    assertThat(access().owns(notebook), is(true));
+  }
+
+  @Test
+  void ownsTheNotebooksOfTheCirclesOfTheUser() {
+    CircleModel circle = makeMe.aCircle().hasMember(user).toModelPlease();
+    Notebook notebook = makeMe.aNote().inCircle(circle).please().getNotebook();
+    assertThat(access().owns(notebook), is(true));
+  }
+
+  @Test
+  void ownsTheNotebooksOfACircleRightAfterJoiningIt() {
+    CircleModel circle = makeMe.aCircle().toModelPlease();
+    Notebook notebook = makeMe.aNote().inCircle(circle).please().getNotebook();
+    assertThat(access().owns(notebook), is(false));
+    circle.joinAndSave(user);
+    assertThat(access().owns(notebook), is(true));
+  }
+
+  @Nested
+  class Subscribing {
+    @Test
+    void canReferToButNotOwnASubscribedNotebook() {
+      makeMe.aSubscription().forUser(user).forNotebook(notebookOfAnotherUser).please();
+      assertThat(access().canReferTo(notebookOfAnotherUser), is(true));
+      assertThat(access().owns(notebookOfAnotherUser), is(false));
+    }
+
+    @Test
+    void theCachedAccessIsDroppedWhenSubscribing() {
+      assertThat(access().canReferTo(notebookOfAnotherUser), is(false));
+      makeMe.aSubscription().forUser(user).forNotebook(notebookOfAnotherUser).please();
+      assertThat(access().canReferTo(notebookOfAnotherUser.getId()), is(true));
+    }
+  }
+
+  @Nested
+  class Bazaar {
+    @Test
+    void anyoneCanReadANotebookInTheBazaar() {
+      assertThat(notebookAccessService.of(null).canRead(notebookOfAnotherUser), is(false));
+      makeMe.aBazaarNotebook(notebookOfAnotherUser).please();
+      assertThat(notebookAccessService.of(null).canRead(notebookOfAnotherUser), is(true));
+      assertThat(access().canRead(notebookOfAnotherUser), is(true));
+      assertThat(access().canReferTo(notebookOfAnotherUser), is(false));
+    }
+  }
+}
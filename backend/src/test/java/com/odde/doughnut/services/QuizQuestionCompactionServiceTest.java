@@ -0,0 +1,106 @@
+package com.odde.doughnut.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import com.odde.doughnut.entities.Note;
+import com.odde.doughnut.entities.QuizQuestionAndAnswer;
+import com.odde.doughnut.services.ai.MCQWithAnswer;
+import com.odde.doughnut.testability.MakeMe;
+import java.sql.Timestamp;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class QuizQuestionCompactionServiceTest {
+  @Autowired MakeMe makeMe;
+  @Autowired QuizQuestionCompactionService quizQuestionCompactionService;
+  Note note;
+  Timestamp longAgo = new Timestamp(0);
+  Timestamp cutoff = new Timestamp(1000);
+
+  @BeforeEach
+  void setup() {
+    note = makeMe.aNote().please();
+  }
+
+  QuizQuestionAndAnswer anOldQuestion() {
+    MCQWithAnswer mcqWithAnswer = makeMe.aMCQWithAnswer().please();
+    QuizQuestionAndAnswer question =
+        makeMe.aQuestion().ofAIGeneratedQuestion(mcqWithAnswer, note).inMemoryPlease();
+    question.setCreatedAt(longAgo);
+    question.setLastServedAt(longAgo);
+    question.setContentHash(question.computeContentHash());
+    return makeMe.modelFactoryService.save(question);
+  }
+
+  boolean exists(QuizQuestionAndAnswer question) {
+    return makeMe.modelFactoryService.quizQuestionAndAnswerRepository.existsById(question.getId());
+  }
+
+  @Test
+  void removesOldUnansweredQuestionsWithTheirContent() {
+    QuizQuestionAndAnswer question = anOldQuestion();
+    Integer quizQuestionId = question.getQuizQuestion().getId();
+    assertThat(
+        quizQuestionCompactionService.removeUnansweredQuestionsLastServedBefore(cutoff),
+        equalTo(1));
+    assertThat(exists(question), equalTo(false));
+    assertThat(
+        makeMe.modelFactoryService.quizQuestionRepository.existsById(quizQuestionId),
+        equalTo(false));
+  }
+
+  @Test
+  void keepsNewerQuestions() {
+    QuizQuestionAndAnswer question = anOldQuestion();
+    quizQuestionCompactionService.removeUnansweredQuestionsLastServedBefore(longAgo);
+    assertThat(exists(question), equalTo(true));
+  }
+
+  @Test
+  void keepsOldQuestionsThatWereServedRecently() {
+    QuizQuestionAndAnswer question = anOldQuestion();
+    question.setLastServedAt(new Timestamp(System.currentTimeMillis()));
+    makeMe.modelFactoryService.save(question);
+    quizQuestionCompactionService.removeUnansweredQuestionsLastServedBefore(cutoff);
+    assertThat(exists(question), equalTo(true));
+  }
+
+  @Test
+  void keepsAnsweredQuestions() {
+    QuizQuestionAndAnswer question = anOldQuestion();
+    makeMe.anAnswer().forQuestion(question).choiceIndex(0).please();
+    quizQuestionCompactionService.removeUnansweredQuestionsLastServedBefore(cutoff);
+    assertThat(exists(question), equalTo(true));
+  }
+
+  @Test
+  void keepsApprovedQuestions() {
+    QuizQuestionAndAnswer question = anOldQuestion();
+    question.setApproved(true);
+    makeMe.modelFactoryService.save(question);
+    quizQuestionCompactionService.removeUnansweredQuestionsLastServedBefore(cutoff);
+    assertThat(exists(question), equalTo(true));
+  }
+
+  @Test
+  void keepsOldQuestionsAddedByHand() {
+    MCQWithAnswer mcqWithAnswer = makeMe.aMCQWithAnswer().please();
+    QuizQuestionAndAnswer question =
+        makeMe.aQuestion().ofAIGeneratedQuestion(mcqWithAnswer, note).inMemoryPlease();
+    question.setCreatedAt(longAgo);
+    question.setLastServedAt(longAgo);
+    new QuizQuestionService(null, makeMe.modelFactoryService).addQuestion(note, question);
+    assertThat(
+        quizQuestionCompactionService.removeUnansweredQuestionsLastServedBefore(cutoff),
+        equalTo(0));
+    assertThat(exists(question), equalTo(true));
+  }
+}
@@ -0,0 +1,57 @@
+package com.odde.doughnut.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import com.odde.doughnut.entities.Note;
+import com.odde.doughnut.entities.QuizQuestionAndAnswer;
+import com.odde.doughnut.entities.ReviewPoint;
+import com.odde.doughnut.models.UserModel;
+import com.odde.doughnut.testability.MakeMe;
+import java.sql.Timestamp;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class QuizQuestionPrefetchServiceTest {
+  @Autowired MakeMe makeMe;
+  @Autowired QuizQuestionPrefetchService quizQuestionPrefetchService;
+  Note note;
+  ReviewPoint reviewPoint;
+
+  @BeforeEach
+  void setup() {
+    UserModel userModel = makeMe.aUser().toModelPlease();
+    note = makeMe.aNote().details("description long enough.").please();
+    makeMe.aNote().under(note).please();
+    reviewPoint = makeMe.aReviewPointFor(note).by(userModel).please();
+    quizQuestionPrefetchService.clear();
+  }
+
+  @Test
+  void nothingIsServedWhenNothingWasPrepared() {
+    assertThat(quizQuestionPrefetchService.take(reviewPoint), equalTo(Optional.empty()));
+  }
+
+  @Test
+  void servesThePreparedQuestionOnce() {
+    quizQuestionPrefetchService.prepare(reviewPoint.getId());
+    Optional<QuizQuestionAndAnswer> question = quizQuestionPrefetchService.take(reviewPoint);
+    assertThat(question.map(q -> q.getNote().getId()), equalTo(Optional.of(note.getId())));
+    assertThat(quizQuestionPrefetchService.take(reviewPoint), equalTo(Optional.empty()));
+  }
+
+  @Test
+  void dropsTheQuestionWhenTheNoteHasBeenUpdatedSince() {
+    quizQuestionPrefetchService.prepare(reviewPoint.getId());
+    note.setUpdatedAt(new Timestamp(note.getUpdatedAt().getTime() + 1000));
+    assertThat(quizQuestionPrefetchService.take(reviewPoint), equalTo(Optional.empty()));
+  }
+}
@@ -0,0 +1,57 @@
+package com.odde.doughnut.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.odde.doughnut.controllers.dto.ReviewStatus;
+import com.odde.doughnut.entities.User;
+import com.odde.doughnut.models.Reviewing;
+import com.odde.doughnut.models.UserModel;
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ReviewQueueServiceTest {
+  ReviewQueueService reviewQueueService = new ReviewQueueService();
+  UserModel userModel = mock(UserModel.class);
+  Reviewing reviewing = mock(Reviewing.class);
+  Timestamp now = new Timestamp(System.currentTimeMillis());
+  ZoneId timeZone = ZoneId.of("Asia/Shanghai");
+
+  @BeforeEach
+  void setup() {
+    User user = mock(User.class);
+    when(user.getId()).thenReturn(7);
+    when(userModel.getEntity()).thenReturn(user);
+    when(userModel.createReviewing(any(), any())).thenReturn(reviewing);
+  }
+
+  @Test
+  void keepsTheReviewStatusBetweenRequests() {
+    ReviewStatus status = new ReviewStatus();
+    when(reviewing.getReviewStatus()).thenReturn(status);
+    reviewQueueService.getReviewStatus(userModel, now, timeZone);
+    assertThat(reviewQueueService.getReviewStatus(userModel, now, timeZone), sameInstance(status));
+    verify(userModel, times(1)).createReviewing(any(), any());
+  }
+
+  @Test
+  void aStatusComputedBeforeAnInvalidationIsNotKept() {
+    when(reviewing.getReviewStatus())
+        .thenAnswer(
+            invocation -> {
+              reviewQueueService.invalidate(7);
+              return new ReviewStatus();
+            })
+        .thenReturn(new ReviewStatus());
+    reviewQueueService.getReviewStatus(userModel, now, timeZone);
+    reviewQueueService.getReviewStatus(userModel, now, timeZone);
+    verify(userModel, times(2)).createReviewing(any(), any());
+  }
+}
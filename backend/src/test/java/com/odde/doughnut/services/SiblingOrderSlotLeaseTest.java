@@ -0,0 +1,87 @@
+package com.odde.doughnut.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+// The leases are committed, as they are on the nodes, and released after each test.
+@SpringBootTest
+@ActiveProfiles("test")
+class SiblingOrderSlotLeaseTest {
+  @Autowired JdbcTemplate jdbcTemplate;
+  List<SiblingOrderSlotLease> leases = new ArrayList<>();
+
+  private SiblingOrderSlotLease aNode() {
+    SiblingOrderSlotLease lease = new SiblingOrderSlotLease(-1, jdbcTemplate);
+    leases.add(lease);
+    return lease;
+  }
+
+  @AfterEach
+  void release() {
+    leases.forEach(SiblingOrderSlotLease::release);
+  }
+
+  private void expire(int slot) {
+    jdbcTemplate.update(
+        "UPDATE sibling_order_node_slot SET heartbeat_at = NOW() - INTERVAL ? SECOND"
+            + " WHERE slot = ?",
+        SiblingOrderSlotLease.LEASE.toSeconds() + 1,
+        slot);
+  }
+
+  private String holderOf(int slot) {
+    return jdbcTemplate.queryForObject(
+        "SELECT holder FROM sibling_order_node_slot WHERE slot = ?", String.class, slot);
+  }
+
+  @Test
+  void twoNodesLeaseDifferentSlots() {
+    int first = aNode().lease().orElseThrow();
+    int second = aNode().lease().orElseThrow();
+    assertThat(second, not(equalTo(first)));
+  }
+
+  @Test
+  void aSlotIsNotTakenWhileItsLeaseIsKept() {
+    int slot = aNode().lease().orElseThrow();
+    assertThat(aNode().claim(slot), is(false));
+  }
+
+  @Test
+  void aSlotWhoseLeaseHasRunOutIsTakenOver() {
+    SiblingOrderSlotLease stopped = aNode();
+    int slot = stopped.lease().orElseThrow();
+    String stoppedHolder = holderOf(slot);
+    expire(slot);
+    assertThat(aNode().claim(slot), is(true));
+    assertThat(holderOf(slot), not(equalTo(stoppedHolder)));
+    jdbcTemplate.update("DELETE FROM sibling_order_node_slot WHERE slot = ?", slot);
+  }
+
+  @Test
+  void theHeartbeatKeepsTheLease() {
+    SiblingOrderSlotLease node = aNode();
+    int slot = node.lease().orElseThrow();
+    String holder = holderOf(slot);
+    node.heartbeat();
+    assertThat(holderOf(slot), equalTo(holder));
+    assertThat(
+        jdbcTemplate.queryForObject(
+            "SELECT heartbeat_at > NOW() - INTERVAL 1 MINUTE FROM sibling_order_node_slot"
+                + " WHERE slot = ?",
+            Boolean.class,
+            slot),
+        is(true));
+  }
+}
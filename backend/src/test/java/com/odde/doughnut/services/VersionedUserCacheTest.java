@@ -0,0 +1,91 @@
+package com.odde.doughnut.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+class VersionedUserCacheTest {
+  VersionedUserCache<Integer> cache = new VersionedUserCache<>(10);
+  AtomicInteger loads = new AtomicInteger();
+
+  Integer get(Integer userId) {
+    return cache.get(userId, value -> true, loads::incrementAndGet);
+  }
+
+  @AfterEach
+  void clearSynchronization() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void keepsTheValueBetweenRequests() {
+    get(7);
+    assertThat(get(7), equalTo(1));
+  }
+
+  @Test
+  void doesNotKeepAValueThatIsNoLongerUsable() {
+    get(7);
+    assertThat(cache.get(7, value -> false, loads::incrementAndGet), equalTo(2));
+  }
+
+  @Test
+  void invalidatesOnlyTheUser() {
+    get(7);
+    get(8);
+    cache.invalidate(7);
+    assertThat(get(7), equalTo(3));
+    assertThat(get(8), equalTo(2));
+  }
+
+  @Test
+  void invalidatesEveryUser() {
+    get(7);
+    cache.invalidateAll();
+    assertThat(get(7), equalTo(2));
+  }
+
+  @Test
+  void aValueLoadedBeforeAnInvalidationIsNotKept() {
+    cache.get(
+        7,
+        value -> true,
+        () -> {
+          cache.invalidate(7);
+          return loads.incrementAndGet();
+        });
+    assertThat(get(7), equalTo(2));
+  }
+
+  @Test
+  void aValueLoadedDuringARolledBackTransactionIsNotKept() {
+    TransactionSynchronizationManager.initSynchronization();
+    cache.invalidate(7);
+    get(7);
+    completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+    assertThat(get(7), equalTo(2));
+  }
+
+  @Test
+  void aValueLoadedDuringACommittedTransactionIsNotKept() {
+    TransactionSynchronizationManager.initSynchronization();
+    cache.invalidateAll();
+    get(7);
+    completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+    assertThat(get(7), equalTo(2));
+  }
+
+  private static void completeTransaction(int status) {
+    var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+    TransactionSynchronizationManager.clearSynchronization();
+    TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+  }
+}
@@ -0,0 +1,222 @@
+package com.odde.doughnut.services.ai;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.odde.doughnut.controllers.dto.TranscriptionProgress;
+import com.odde.doughnut.services.openAiApis.OpenAiApiExtended;
+import com.odde.doughnut.services.openAiApis.OpenAiApiHandler;
+import io.reactivex.Single;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+class TranscriptionPipelineTest {
+  static final String SEGMENT_SRT =
+      """
+      1
+      00:00:00,100 --> 00:00:00,900
+      first
+
+      2
+      00:00:01,000 --> 00:00:01,400
+      second
+      """;
+
+  OpenAiApiExtended openAiApi = mock(OpenAiApiExtended.class);
+  TranscriptionPipeline pipeline =
+      new TranscriptionPipeline(
+          new OpenAiApiHandler(openAiApi), Duration.ofSeconds(2), Duration.ofMillis(500), 2);
+  List<TranscriptionProgress> progress = new CopyOnWriteArrayList<>();
+
+  @BeforeEach
+  void setup() {
+    when(openAiApi.createTranscriptionSrt(any(RequestBody.class)))
+        .thenAnswer(invocation -> Single.just(ResponseBody.create(SEGMENT_SRT, null)));
+  }
+
+  private static byte[] wavOfSeconds(int seconds) throws IOException {
+    AudioFormat format = new AudioFormat(8000, 16, 1, true, false);
+    byte[] pcm = new byte[8000 * 2 * seconds];
+    ByteArrayOutputStream wav = new ByteArrayOutputStream();
+    AudioSystem.write(
+        new AudioInputStream(new ByteArrayInputStream(pcm), format, 8000L * seconds),
+        AudioFileFormat.Type.WAVE,
+        wav);
+    return wav.toByteArray();
+  }
+
+  @Test
+  void transcribesAnAudioThatCannotBeCutInOneRequest() throws IOException {
+    String srt =
+        pipeline
+            .transcribe("talk.mp3", new ByteArrayInputStream(new byte[] {1, 2, 3}), progress::add)
+            .getSrt();
+    assertThat(srt, equalTo(SEGMENT_SRT));
+    verify(openAiApi, times(1)).createTranscriptionSrt(any(RequestBody.class));
+  }
+
+  @Test
+  void transcribesAWavInOverlappingSegments() throws IOException {
+    pipeline.transcribe("talk.wav", new ByteArrayInputStream(wavOfSeconds(5)), progress::add);
+    verify(openAiApi, times(3)).createTranscriptionSrt(any(RequestBody.class));
+  }
+
+  @Test
+  void shiftsTheCuesAndTakesAWordCutOffFromTheLaterSegment() throws IOException {
+    // 3 seconds are cut into 0-2s and 1.5-3s
+    when(openAiApi.createTranscriptionSrt(any(RequestBody.class)))
+        .thenAnswer(
+            invocation ->
+                Single.just(
+                    ResponseBody.create(
+                        isOfSegment(invocation.getArgument(0), "segment-1.wav")
+                            ? """
+                            1
+                            00:00:00,100 --> 00:00:00,900
+                            one
+
+                            2
+                            00:00:01,550 --> 00:00:01,900
+                            overlap
+
+                            3
+                            00:00:01,950 --> 00:00:02,000
+                            cu
+                            """
+                            : """
+                            1
+                            00:00:00,050 --> 00:00:00,400
+                            overlap
+
+                            2
+                            00:00:00,450 --> 00:00:00,900
+                            cut
+
+                            3
+                            00:00:01,000 --> 00:00:01,300
+                            two
+                            """,
+                        null)));
+    String srt =
+        pipeline
+            .transcribe("talk.wav", new ByteArrayInputStream(wavOfSeconds(3)), progress::add)
+            .getSrt();
+    assertThat(
+        srt,
+        equalTo(
+            """
+            1
+            00:00:00,100 --> 00:00:00,900
+            one
+
+            2
+            00:00:01,550 --> 00:00:01,900
+            overlap
+
+            3
+            00:00:01,950 --> 00:00:02,400
+            cut
+
+            4
+            00:00:02,500 --> 00:00:02,800
+            two
+
+            """));
+  }
+
+  @Test
+  void takesACueThatStartsBeforeTheOverlapFromTheEarlierSegment() throws IOException {
+    // 3 seconds are cut into 0-2s and 1.5-3s; the second cue is longer than the overlap
+    when(openAiApi.createTranscriptionSrt(any(RequestBody.class)))
+        .thenAnswer(
+            invocation ->
+                Single.just(
+                    ResponseBody.create(
+                        isOfSegment(invocation.getArgument(0), "segment-1.wav")
+                            ? """
+                            1
+                            00:00:00,100 --> 00:00:00,900
+                            one
+
+                            2
+                            00:00:01,000 --> 00:00:02,000
+                            a long sentence
+                            """
+                            : """
+                            1
+                            00:00:00,000 --> 00:00:00,450
+                            sentence
+
+                            2
+                            00:00:00,600 --> 00:00:01,000
+                            two
+                            """,
+                        null)));
+    String srt =
+        pipeline
+            .transcribe("talk.wav", new ByteArrayInputStream(wavOfSeconds(3)), progress::add)
+            .getSrt();
+    assertThat(
+        srt,
+        equalTo(
+            """
+            1
+            00:00:00,100 --> 00:00:00,900
+            one
+
+            2
+            00:00:01,000 --> 00:00:02,000
+            a long sentence
+
+            3
+            00:00:02,100 --> 00:00:02,500
+            two
+
+            """));
+  }
+
+  @Test
+  void rejectsAnAudioThatCannotBeCutAndIsTooLargeForTheApi() {
+    byte[] audio = new byte[(int) TranscriptionPipeline.MAX_UPLOAD_BYTES + 1];
+    assertThrows(
+        ResponseStatusException.class,
+        () -> pipeline.transcribe("talk.mp3", new ByteArrayInputStream(audio), progress::add));
+    verify(openAiApi, times(0)).createTranscriptionSrt(any(RequestBody.class));
+  }
+
+  private static boolean isOfSegment(RequestBody requestBody, String name) throws IOException {
+    Buffer buffer = new Buffer();
+    requestBody.writeTo(buffer);
+    return buffer.readUtf8().contains("filename=\"" + name + "\"");
+  }
+
+  @Test
+  void reportsTheProgressOfEachSegment() throws IOException {
+    pipeline.transcribe("talk.wav", new ByteArrayInputStream(wavOfSeconds(5)), progress::add);
+    assertThat(progress, hasSize(3));
+    assertThat(
+        progress.stream().map(TranscriptionProgress::getTranscribedSegments).toList(),
+        containsInAnyOrder(1, 2, 3));
+    assertThat(progress.getFirst().getTotalSegments(), equalTo(3));
+  }
+}
@@ -0,0 +1,173 @@
+package com.odde.doughnut.services.blobs;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.odde.doughnut.configs.BlobStoreConfiguration;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class DatabaseBlobStoreTest {
+  @Autowired JdbcTemplate jdbcTemplate;
+  DatabaseBlobStore store;
+
+  @BeforeEach
+  void setup() {
+    store = new DatabaseBlobStore(jdbcTemplate);
+  }
+
+  @Test
+  void loadsWhatWasSaved() throws IOException {
+    StoredBlob stored = store.save(new ByteArrayInputStream("hello".getBytes()));
+    assertThat(stored.size(), equalTo(5L));
+    byte[] loaded = store.load(stored.contentKey()).getContentAsByteArray();
+    assertThat(loaded, equalTo("hello".getBytes()));
+  }
+
+  @Test
+  void isTheStoreWhenNoSharedRootIsConfigured() {
+    assertThat(
+        new BlobStoreConfiguration().blobStore("", jdbcTemplate),
+        instanceOf(DatabaseBlobStore.class));
+  }
+
+  @Test
+  void writesAndReadsAContentLargerThanAChunk() throws IOException {
+    store = new DatabaseBlobStore(jdbcTemplate, 4);
+    StoredBlob stored = store.save(new ByteArrayInputStream("hello world".getBytes()));
+    assertThat(stored.size(), equalTo(11L));
+    Resource resource = store.load(stored.contentKey());
+    assertThat(resource.contentLength(), equalTo(11L));
+    try (InputStream in = resource.getInputStream()) {
+      assertThat(in.readAllBytes(), equalTo("hello world".getBytes()));
+    }
+  }
+
+  @Test
+  void leavesNoStagingRowsBehind() throws IOException {
+    store = new DatabaseBlobStore(jdbcTemplate, 4);
+    store.save(new ByteArrayInputStream("hello world".getBytes()));
+    store.save(new ByteArrayInputStream("hello world".getBytes()));
+    assertThat(
+        jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM blob_chunk WHERE blob_key LIKE 'staging/%'", Integer.class),
+        equalTo(0));
+  }
+
+  @Test
+  void keepsAChunkPerRow() throws IOException {
+    store = new DatabaseBlobStore(jdbcTemplate, 4);
+    StoredBlob stored = store.save(new ByteArrayInputStream("hello world".getBytes()));
+    assertThat(
+        jdbcTemplate.queryForList(
+            "SELECT LENGTH(bytes) FROM blob_chunk WHERE blob_key = ? ORDER BY seq",
+            Integer.class,
+            stored.contentKey()),
+        equalTo(List.of(4, 4, 3)));
+  }
+
+  @Test
+  void skipsToTheChunkOfTheOffset() throws IOException {
+    store = new DatabaseBlobStore(jdbcTemplate, 4);
+    StoredBlob stored = store.save(new ByteArrayInputStream("hello world".getBytes()));
+    jdbcTemplate.update(
+        "DELETE FROM blob_chunk WHERE blob_key = ? AND seq = 0", stored.contentKey());
+    try (InputStream in = store.load(stored.contentKey()).getInputStream()) {
+      assertThat(in.skip(6), equalTo(6L));
+      assertThat(in.readAllBytes(), equalTo("world".getBytes()));
+    }
+  }
+
+  @Test
+  void skipsNoFurtherThanTheEnd() throws IOException {
+    store = new DatabaseBlobStore(jdbcTemplate, 4);
+    StoredBlob stored = store.save(new ByteArrayInputStream("hello world".getBytes()));
+    try (InputStream in = store.load(stored.contentKey()).getInputStream()) {
+      assertThat(in.skip(20), equalTo(11L));
+      assertThat(in.read(), equalTo(-1));
+    }
+  }
+
+  @Test
+  void usesTheSameKeysAsTheFileSystemStore() throws IOException {
+    StoredBlob stored = store.save(new ByteArrayInputStream("hello".getBytes()));
+    StoredBlob again = store.save(new ByteArrayInputStream("hello".getBytes()));
+    assertThat(again.contentKey(), equalTo(stored.contentKey()));
+    assertThat(
+        stored.contentKey(),
+        equalTo("2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824"));
+  }
+
+  @Test
+  void keepsTheDerivativesOfAContent() throws IOException {
+    StoredBlob stored = store.save(new ByteArrayInputStream("hello".getBytes()));
+    assertThat(store.findDerivative(stored.contentKey(), "w320.png"), equalTo(Optional.empty()));
+    store.saveDerivative(stored.contentKey(), "w320.png", "small".getBytes());
+    byte[] loaded =
+        store.findDerivative(stored.contentKey(), "w320.png").get().getContentAsByteArray();
+    assertThat(loaded, equalTo("small".getBytes()));
+  }
+
+  @Nested
+  class Collection {
+    final Timestamp dayAgo = new Timestamp(System.currentTimeMillis() - 86_400_000L);
+    StoredBlob stored;
+
+    @BeforeEach
+    void setup() throws IOException {
+      stored = store.save(new ByteArrayInputStream("hello".getBytes()));
+      store.saveDerivative(stored.contentKey(), "w320.png", "small".getBytes());
+      jdbcTemplate.update("UPDATE blob_content SET saved_at = NOW() - INTERVAL 2 DAY");
+    }
+
+    @Test
+    void removesAContentNoAttachmentRefersTo() {
+      assertThat(store.removeUnreferencedSavedBefore(dayAgo), equalTo(2));
+      assertThrows(IllegalStateException.class, () -> store.load(stored.contentKey()));
+      assertThat(store.findDerivative(stored.contentKey(), "w320.png"), equalTo(Optional.empty()));
+      assertThat(
+          jdbcTemplate.queryForObject(
+              "SELECT COUNT(*) FROM blob_chunk WHERE blob_key LIKE ?",
+              Integer.class,
+              stored.contentKey() + "%"),
+          equalTo(0));
+    }
+
+    @Test
+    void keepsAReferencedContentWithItsDerivatives() {
+      jdbcTemplate.update(
+          "INSERT INTO attachment_blob (content_key, size) VALUES (?, ?)",
+          stored.contentKey(),
+          stored.size());
+      assertThat(store.removeUnreferencedSavedBefore(dayAgo), equalTo(0));
+      assertThat(
+          store.findDerivative(stored.contentKey(), "w320.png").isPresent(), equalTo(true));
+    }
+
+    @Test
+    void keepsAContentThatIsSavedAgain() throws IOException {
+      store.save(new ByteArrayInputStream("hello".getBytes()));
+      store.removeUnreferencedSavedBefore(dayAgo);
+      byte[] loaded = store.load(stored.contentKey()).getContentAsByteArray();
+      assertThat(loaded, equalTo("hello".getBytes()));
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package com.odde.doughnut.services.blobs;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileSystemBlobStoreTest {
+  @TempDir Path root;
+
+  @Test
+  void loadsWhatWasSaved() throws IOException {
+    FileSystemBlobStore store = new FileSystemBlobStore(root);
+    StoredBlob stored = store.save(new ByteArrayInputStream("hello".getBytes()));
+    assertThat(stored.size(), equalTo(5L));
+    byte[] loaded = store.load(stored.contentKey()).getContentAsByteArray();
+    assertThat(loaded, equalTo("hello".getBytes()));
+  }
+
+  @Test
+  void storesTheSameContentOnlyOnce() throws IOException {
+    FileSystemBlobStore store = new FileSystemBlobStore(root);
+    StoredBlob first = store.save(new ByteArrayInputStream("hello".getBytes()));
+    StoredBlob second = store.save(new ByteArrayInputStream("hello".getBytes()));
+    assertThat(second.contentKey(), equalTo(first.contentKey()));
+    try (Stream<Path> files = Files.walk(root)) {
+      assertThat(files.filter(Files::isRegularFile).count(), equalTo(1L));
+    }
+  }
+
+  @Test
+  void differentContentHasDifferentKeys() throws IOException {
+    FileSystemBlobStore store = new FileSystemBlobStore(root);
+    StoredBlob first = store.save(new ByteArrayInputStream("hello".getBytes()));
+    StoredBlob second = store.save(new ByteArrayInputStream("world".getBytes()));
+    assertThat(second.contentKey(), not(equalTo(first.contentKey())));
+  }
+}
@@ -0,0 +1,73 @@
+package com.odde.doughnut.services.httpQuery;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import com.odde.doughnut.testability.StubHttpServer;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HttpClientAdapterTest {
+  StubHttpServer server;
+  HttpClientAdapter httpClientAdapter = new HttpClientAdapter(Duration.ofHours(1), 2);
+
+  @BeforeEach
+  void setup() throws IOException {
+    server = new StubHttpServer(uri -> "response of " + uri.getPath());
+  }
+
+  @AfterEach
+  void teardown() {
+    server.close();
+  }
+
+  private String get(String path) throws IOException, InterruptedException {
+    return httpClientAdapter.getResponseString(URI.create(server.url() + path));
+  }
+
+  @Test
+  void shouldFetchTheSameUriOnlyOnce() throws IOException, InterruptedException {
+    get("/a");
+    assertThat(get("/a"), equalTo("response of /a"));
+    assertThat(server.requests(), hasSize(1));
+  }
+
+  @Test
+  void shouldEvictTheLeastRecentlyUsedResponse() throws IOException, InterruptedException {
+    get("/a");
+    get("/b");
+    get("/a");
+    get("/c");
+    get("/a");
+    get("/b");
+    assertThat(server.requests(), hasSize(4));
+  }
+
+  @Test
+  void shouldNotCacheFailedResponses() throws IOException, InterruptedException {
+    server.respondWithStatus(500);
+    get("/a");
+    get("/a");
+    assertThat(server.requests(), hasSize(2));
+  }
+
+  @Test
+  void shouldFetchAgainAfterTheCacheIsCleared() throws IOException, InterruptedException {
+    get("/a");
+    httpClientAdapter.clearCache();
+    get("/a");
+    assertThat(server.requests(), hasSize(2));
+  }
+
+  @Test
+  void shouldFetchAgainAfterTheResponseExpires() throws IOException, InterruptedException {
+    httpClientAdapter = new HttpClientAdapter(Duration.ZERO, 2);
+    get("/a");
+    get("/a");
+    assertThat(server.requests(), hasSize(2));
+  }
+}
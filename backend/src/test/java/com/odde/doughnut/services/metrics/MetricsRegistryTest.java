@@ -0,0 +1,69 @@
+package com.odde.doughnut.services.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import com.odde.doughnut.controllers.dto.EndpointMetrics;
+import com.odde.doughnut.controllers.dto.MetricsReport;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Request;
+import org.junit.jupiter.api.Test;
+
+class MetricsRegistryTest {
+  MetricsRegistry metricsRegistry = new MetricsRegistry();
+
+  private static long millis(long millis) {
+    return TimeUnit.MILLISECONDS.toNanos(millis);
+  }
+
+  @Test
+  void aggregatesLatencyAndQueriesPerEndpoint() {
+    metricsRegistry.recordEndpoint("GET /api/notes/{note}", millis(3), new QueryCount(4, 10));
+    metricsRegistry.recordEndpoint("GET /api/notes/{note}", millis(30), new QueryCount(20, 7));
+    EndpointMetrics metrics = metricsRegistry.report().getEndpoints().getFirst();
+    assertThat(metrics.getName(), equalTo("GET /api/notes/{note}"));
+    assertThat(metrics.getCount(), equalTo(2L));
+    assertThat(metrics.getTotalMillis(), equalTo(33L));
+    assertThat(metrics.getMaxMillis(), equalTo(30L));
+    assertThat(metrics.getStatements(), equalTo(24L));
+    assertThat(metrics.getMaxStatements(), equalTo(20L));
+    assertThat(metrics.getEntitiesLoaded(), equalTo(17L));
+    assertThat(metrics.getMaxEntitiesLoaded(), equalTo(10L));
+  }
+
+  @Test
+  void countsLatencyInHistogramBuckets() {
+    metricsRegistry.recordEndpoint("GET /api/bazaar", millis(3), QueryCount.NONE);
+    metricsRegistry.recordEndpoint("GET /api/bazaar", millis(30), QueryCount.NONE);
+    metricsRegistry.recordEndpoint("GET /api/bazaar", millis(60000), QueryCount.NONE);
+    MetricsReport report = metricsRegistry.report();
+    assertThat(
+        report.getLatencyBucketsMillis(),
+        contains(5L, 10L, 25L, 50L, 100L, 250L, 500L, 1000L, 2500L, 5000L));
+    assertThat(
+        report.getEndpoints().getFirst().getLatencyHistogram(),
+        contains(1L, 0L, 0L, 1L, 0L, 0L, 0L, 0L, 0L, 0L, 1L));
+  }
+
+  @Test
+  void listsTheEndpointsTakingMostTimeFirst() {
+    metricsRegistry.recordEndpoint("GET /api/bazaar", millis(3), QueryCount.NONE);
+    metricsRegistry.recordEndpoint("GET /api/reviews/overview", millis(30), QueryCount.NONE);
+    assertThat(
+        metricsRegistry.report().getEndpoints().stream().map(EndpointMetrics::getName).toList(),
+        contains("GET /api/reviews/overview", "GET /api/bazaar"));
+  }
+
+  @Test
+  void groupsOpenAiCallsByOperation() {
+    Request request =
+        new Request.Builder()
+            .url(
+                "https://api.openai.com/v1/threads/thread_abc123"
+                    + "/runs/run_Xy9/submit_tool_outputs")
+            .build();
+    assertThat(
+        OpenAiCallTimer.operationOf(request),
+        equalTo("GET /v1/threads/{id}/runs/{id}/submit_tool_outputs"));
+  }
+}
@@ -0,0 +1,38 @@
+package com.odde.doughnut.services.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import com.odde.doughnut.entities.Note;
+import com.odde.doughnut.factoryServices.ModelFactoryService;
+import com.odde.doughnut.testability.MakeMe;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class QueryCounterTest {
+  @Autowired ModelFactoryService modelFactoryService;
+  @Autowired MakeMe makeMe;
+
+  @Test
+  void countsStatementsAndLoadedEntitiesOfTheCurrentThread() {
+    Note note = makeMe.aNote().please();
+    modelFactoryService.entityManager.flush();
+    modelFactoryService.entityManager.clear();
+    QueryCounter.start();
+    modelFactoryService.noteRepository.findById(note.getId());
+    QueryCount queryCount = QueryCounter.stop();
+    assertThat(queryCount.statements(), greaterThanOrEqualTo(1L));
+    assertThat(queryCount.entitiesLoaded(), greaterThanOrEqualTo(1L));
+  }
+
+  @Test
+  void doesNotCountWithoutStarting() {
+    assertThat(QueryCounter.stop(), equalTo(QueryCount.NONE));
+  }
+}
@@ -0,0 +1,138 @@
+package com.odde.doughnut.services.openAiApis;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odde.doughnut.controllers.dto.CacheMetrics;
+import com.odde.doughnut.entities.AiResponseCacheEntry;
+import com.odde.doughnut.entities.repositories.AiResponseCacheRepository;
+import com.odde.doughnut.services.metrics.MetricsRegistry;
+import com.odde.doughnut.testability.MakeMe;
+import com.theokanning.openai.completion.chat.ChatCompletionChoice;
+import com.theokanning.openai.completion.chat.ChatCompletionRequest;
+import com.theokanning.openai.completion.chat.UserMessage;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class AiResponseCacheTest {
+  @Autowired MakeMe makeMe;
+  @Autowired AiResponseCacheRepository aiResponseCacheRepository;
+  MetricsRegistry metricsRegistry = new MetricsRegistry();
+  AiResponseCache aiResponseCache;
+  Timestamp noteUpdatedAt = new Timestamp(1000);
+  int loads = 0;
+
+  @BeforeEach
+  void setup() {
+    aiResponseCache = new AiResponseCache(true, 2, aiResponseCacheRepository, metricsRegistry);
+  }
+
+  private ChatCompletionRequest request(String content) {
+    return ChatCompletionRequest.builder()
+        .model("gpt-4o")
+        .messages(List.of(new UserMessage(content)))
+        .build();
+  }
+
+  private Optional<ChatCompletionChoice> complete(String content, Timestamp updatedAt) {
+    return aiResponseCache.getOrLoad(
+        request(content),
+        updatedAt,
+        () -> {
+          loads++;
+          return makeMe
+              .openAiCompletionResult()
+              .toolCall("a_tool", new ObjectMapper().createObjectNode().put("answer", content))
+              .please()
+              .getChoices()
+              .stream()
+              .findFirst();
+        });
+  }
+
+  @Test
+  void servesTheSameRequestFromTheCache() {
+    complete("question", noteUpdatedAt);
+    Optional<ChatCompletionChoice> cached = complete("question", noteUpdatedAt);
+    assertThat(loads, equalTo(1));
+    assertThat(
+        cached.get().getMessage().getToolCalls().getFirst().getFunction().getArguments().toString(),
+        equalTo("{\"answer\":\"question\"}"));
+  }
+
+  @Test
+  void aMissThatLosesTheRaceToInsertStillGetsItsResponse() {
+    Optional<ChatCompletionChoice> result =
+        aiResponseCache.getOrLoad(
+            request("question"), noteUpdatedAt, () -> complete("question", noteUpdatedAt));
+    assertThat(result.isPresent(), equalTo(true));
+    assertThat(aiResponseCacheRepository.count(), equalTo(1L));
+  }
+
+  @Test
+  void asksAgainWhenTheNoteHasBeenUpdated() {
+    complete("question", noteUpdatedAt);
+    complete("question", new Timestamp(2000));
+    assertThat(loads, equalTo(2));
+  }
+
+  @Test
+  void removesTheLeastRecentlyUsedResponses() {
+    complete("first", noteUpdatedAt);
+    complete("second", noteUpdatedAt);
+    complete("third", noteUpdatedAt);
+    assertThat(aiResponseCacheRepository.count(), equalTo(2L));
+    complete("first", noteUpdatedAt);
+    assertThat(loads, equalTo(4));
+  }
+
+  @Test
+  void countsHitsAndMissesPerModel() {
+    complete("question", noteUpdatedAt);
+    complete("question", noteUpdatedAt);
+    CacheMetrics metrics = metricsRegistry.report().getAiResponseCache().getFirst();
+    assertThat(metrics, equalTo(new CacheMetrics("gpt-4o", 1, 1)));
+  }
+
+  @Test
+  void callsThroughWhenDisabled() {
+    aiResponseCache = new AiResponseCache(false, 2, aiResponseCacheRepository, metricsRegistry);
+    complete("question", noteUpdatedAt);
+    complete("question", noteUpdatedAt);
+    assertThat(loads, equalTo(2));
+    assertThat(aiResponseCacheRepository.count(), equalTo(0L));
+  }
+
+  @Test
+  void aHitSoonAfterTheLastUseDoesNotWrite() {
+    complete("question", noteUpdatedAt);
+    AiResponseCacheEntry entry = aiResponseCacheRepository.findAll().iterator().next();
+    Timestamp lastUsedAt = entry.getLastUsedAt();
+    complete("question", noteUpdatedAt);
+    assertThat(entry.getLastUsedAt(), equalTo(lastUsedAt));
+  }
+
+  @Test
+  void aHitLongAfterTheLastUseMarksTheEntryAsUsed() {
+    complete("question", noteUpdatedAt);
+    AiResponseCacheEntry entry = aiResponseCacheRepository.findAll().iterator().next();
+    Timestamp longAgo =
+        new Timestamp(
+            System.currentTimeMillis() - AiResponseCache.TOUCH_INTERVAL.toMillis() - 1000);
+    entry.setLastUsedAt(longAgo);
+    aiResponseCacheRepository.save(entry);
+    complete("question", noteUpdatedAt);
+    assertThat(entry.getLastUsedAt().getTime(), greaterThan(longAgo.getTime()));
+  }
+}
@@ -0,0 +1,214 @@
+package com.odde.doughnut.services.openAiApis;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.odde.doughnut.controllers.dto.StreamMetrics;
+import com.odde.doughnut.services.metrics.MetricsRegistry;
+import com.odde.doughnut.testability.RecordingSseEmitter;
+import com.theokanning.openai.assistants.StreamEvent;
+import com.theokanning.openai.service.assistant_stream.AssistantSSE;
+import io.reactivex.Flowable;
+import io.reactivex.processors.PublishProcessor;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class AssistantSseBridgeTest {
+  MetricsRegistry metricsRegistry = new MetricsRegistry();
+  AssistantSseBridge bridge;
+
+  @BeforeEach
+  void setup() {
+    useBridge(Duration.ofMinutes(1), Duration.ofMinutes(1));
+  }
+
+  @AfterEach
+  void shutdown() {
+    bridge.shutdown();
+  }
+
+  private void useBridge(Duration keepAliveInterval, Duration coalesceWindow) {
+    if (bridge != null) bridge.shutdown();
+    bridge =
+        new AssistantSseBridge(
+            Duration.ofMinutes(5), keepAliveInterval, coalesceWindow, 16, metricsRegistry) {
+          @Override
+          protected SseEmitter newEmitter(long timeout) {
+            return new RecordingSseEmitter(timeout);
+          }
+        };
+  }
+
+  private RecordingSseEmitter bridge(Flowable<AssistantSSE> events) {
+    return (RecordingSseEmitter) bridge.bridge("chat", events);
+  }
+
+  private static AssistantSSE sse(StreamEvent event, String data) {
+    AssistantSSE sse = mock(AssistantSSE.class);
+    when(sse.getEvent()).thenReturn(event);
+    when(sse.getData()).thenReturn(data);
+    return sse;
+  }
+
+  private static AssistantSSE delta(String messageId, String text) {
+    return sse(
+        StreamEvent.THREAD_MESSAGE_DELTA,
+        "{\"id\":\""
+            + messageId
+            + "\",\"object\":\"thread.message.delta\",\"delta\":{\"content\":"
+            + "[{\"index\":0,\"type\":\"text\",\"text\":{\"value\":\""
+            + text
+            + "\"}}]}}");
+  }
+
+  private static final AssistantSSE runStepCompleted =
+      sse(StreamEvent.THREAD_RUN_STEP_COMPLETED, "{\"id\":\"step\"}");
+  private static final AssistantSSE done = sse(StreamEvent.DONE, "[DONE]");
+
+  private static String dataOf(RecordingSseEmitter emitter, int index) {
+    return String.valueOf(emitter.getEvents().get(index).data());
+  }
+
+  private static void waitUntil(Supplier<Boolean> condition) throws InterruptedException {
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (!condition.get() && System.nanoTime() < deadline) Thread.sleep(5);
+  }
+
+  @Test
+  void mergesTheTextDeltasOfAMessageBeforeTheNextEvent() {
+    RecordingSseEmitter emitter =
+        bridge(Flowable.just(delta("m1", "I"), delta("m1", " am"), runStepCompleted, done));
+    assertThat(
+        emitter.getEventNames(),
+        contains("thread.message.delta", "thread.run.step.completed", "done"));
+    assertThat(dataOf(emitter, 0), containsString("\"value\":\"I am\""));
+  }
+
+  @Test
+  void doesNotMergeTheDeltasOfDifferentMessages() {
+    RecordingSseEmitter emitter =
+        bridge(Flowable.just(delta("m1", "Hi"), delta("m2", "Bye"), done));
+    assertThat(emitter.getEventNames(), hasSize(3));
+    assertThat(dataOf(emitter, 0), containsString("\"value\":\"Hi\""));
+    assertThat(dataOf(emitter, 1), containsString("\"value\":\"Bye\""));
+  }
+
+  @Test
+  void sendsEveryDeltaWhenCoalescingIsOff() {
+    useBridge(Duration.ofMinutes(1), Duration.ZERO);
+    RecordingSseEmitter emitter = bridge(Flowable.just(delta("m1", "I"), delta("m1", " am"), done));
+    assertThat(emitter.getEventNames(), hasSize(3));
+  }
+
+  @Test
+  void flushesTheMergedDeltaAfterTheWindow() throws InterruptedException {
+    useBridge(Duration.ofMinutes(1), Duration.ofMillis(10));
+    RecordingSseEmitter emitter =
+        bridge(Flowable.just(delta("m1", "thinking")).concatWith(Flowable.never()));
+    waitUntil(() -> !emitter.getEvents().isEmpty());
+    assertThat(dataOf(emitter, 0), containsString("\"value\":\"thinking\""));
+  }
+
+  @Test
+  void sendsAKeepAliveWhenTheRunIsQuiet() throws InterruptedException {
+    useBridge(Duration.ofMillis(10), Duration.ofMinutes(1));
+    RecordingSseEmitter emitter = bridge(Flowable.never());
+    waitUntil(() -> !emitter.getEvents().isEmpty());
+    assertThat(emitter.getEvents().getFirst().comment(), equalTo(AssistantSseBridge.KEEP_ALIVE));
+  }
+
+  @Test
+  void recordsTheCompletedStream() {
+    bridge(Flowable.just(delta("m1", "I"), delta("m1", " am"), done));
+    StreamMetrics metrics = metricsRegistry.report().getStreams().getFirst();
+    assertThat(metrics.getName(), equalTo("chat"));
+    assertThat(metrics.getCompleted(), equalTo(1L));
+    assertThat(metrics.getEventsReceived(), equalTo(3L));
+    assertThat(metrics.getEventsSent(), equalTo(2L));
+  }
+
+  @Test
+  void cancelsTheQuietRunWhenTheBrowserIsGone() {
+    PublishProcessor<AssistantSSE> run = PublishProcessor.create();
+    RecordingSseEmitter emitter = bridge(run);
+    emitter.browserGone();
+    assertThat(run.hasSubscribers(), is(false));
+    assertThat(metricsRegistry.report().getStreams().getFirst().getClientGone(), equalTo(1L));
+  }
+
+  @Test
+  void failsTheStreamWhenTheRunFails() {
+    RecordingSseEmitter emitter = bridge(Flowable.error(new RuntimeException("broken")));
+    assertThat(metricsRegistry.report().getStreams().getFirst().getFailed(), equalTo(1L));
+    assertThat(emitter.getError().getMessage(), equalTo("broken"));
+  }
+
+  @Nested
+  class Streaming {
+    private RecordingSseEmitter stream(Consumer<BiConsumer<String, Object>> work) {
+      return (RecordingSseEmitter) bridge.stream("contest", work);
+    }
+
+    @Test
+    void sendsTheEventsOfTheWorkAndRecordsTheStream() throws InterruptedException {
+      RecordingSseEmitter emitter =
+          stream(
+              send -> {
+                send.accept("partial", "{}");
+                send.accept("done", "result");
+              });
+      assertThat(emitter.awaitEnd(Duration.ofSeconds(5)), is(true));
+      waitUntil(() -> !metricsRegistry.report().getStreams().isEmpty());
+      assertThat(emitter.getEventNames(), contains("partial", "done"));
+      assertThat(emitter.getEvents().get(1).data(), equalTo("result"));
+      StreamMetrics metrics = metricsRegistry.report().getStreams().getFirst();
+      assertThat(metrics.getCompleted(), equalTo(1L));
+      assertThat(metrics.getEventsSent(), equalTo(2L));
+    }
+
+    @Test
+    void failsTheStreamWhenTheWorkFails() throws InterruptedException {
+      RecordingSseEmitter emitter =
+          stream(
+              send -> {
+                throw new RuntimeException("broken");
+              });
+      assertThat(emitter.awaitEnd(Duration.ofSeconds(5)), is(true));
+      waitUntil(() -> !metricsRegistry.report().getStreams().isEmpty());
+      assertThat(metricsRegistry.report().getStreams().getFirst().getFailed(), equalTo(1L));
+    }
+
+    @Test
+    void interruptsTheWorkWhenTheBrowserIsGone() throws InterruptedException {
+      CountDownLatch started = new CountDownLatch(1);
+      AtomicBoolean interrupted = new AtomicBoolean();
+      RecordingSseEmitter emitter =
+          stream(
+              send -> {
+                started.countDown();
+                try {
+                  Thread.sleep(Duration.ofMinutes(1));
+                } catch (InterruptedException e) {
+                  interrupted.set(true);
+                }
+              });
+      assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+      emitter.browserGone();
+      waitUntil(interrupted::get);
+      assertThat(interrupted.get(), is(true));
+      assertThat(metricsRegistry.report().getStreams().getFirst().getClientGone(), equalTo(1L));
+    }
+  }
+}
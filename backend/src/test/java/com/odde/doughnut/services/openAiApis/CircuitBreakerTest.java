@@ -0,0 +1,53 @@
+package com.odde.doughnut.services.openAiApis;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+  AtomicLong now = new AtomicLong(0);
+  CircuitBreaker circuitBreaker = new CircuitBreaker(2, Duration.ofNanos(100), now::get);
+
+  @Test
+  void staysClosedUntilTheThresholdIsReached() {
+    circuitBreaker.recordFailure();
+    assertThat(circuitBreaker.tryPass(), equalTo(true));
+    circuitBreaker.recordSuccess();
+    circuitBreaker.recordFailure();
+    assertThat(circuitBreaker.tryPass(), equalTo(true));
+  }
+
+  @Test
+  void rejectsCallsWhenOpen() {
+    circuitBreaker.recordFailure();
+    circuitBreaker.recordFailure();
+    assertThat(circuitBreaker.tryPass(), equalTo(false));
+  }
+
+  @Test
+  void letsOneTrialThroughAfterTheOpenDuration() {
+    circuitBreaker.recordFailure();
+    circuitBreaker.recordFailure();
+    now.set(100);
+    assertThat(circuitBreaker.tryPass(), equalTo(true));
+    assertThat(circuitBreaker.tryPass(), equalTo(false));
+    circuitBreaker.recordSuccess();
+    assertThat(circuitBreaker.tryPass(), equalTo(true));
+  }
+
+  @Test
+  void aFailedTrialKeepsItOpenForAnotherPeriod() {
+    circuitBreaker.recordFailure();
+    circuitBreaker.recordFailure();
+    now.set(100);
+    circuitBreaker.tryPass();
+    circuitBreaker.recordFailure();
+    now.set(150);
+    assertThat(circuitBreaker.tryPass(), equalTo(false));
+    now.set(200);
+    assertThat(circuitBreaker.tryPass(), equalTo(true));
+  }
+}
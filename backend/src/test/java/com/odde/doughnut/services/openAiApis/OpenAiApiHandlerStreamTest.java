@@ -0,0 +1,82 @@
+package com.odde.doughnut.services.openAiApis;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.odde.doughnut.exceptions.OpenAIServiceErrorException;
+import com.odde.doughnut.exceptions.OpenAiUnauthorizedException;
+import com.odde.doughnut.testability.OpenAIChatCompletionMock;
+import com.theokanning.openai.client.OpenAiApi;
+import com.theokanning.openai.completion.chat.ChatCompletionRequest;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import org.junit.jupiter.api.Test;
+import retrofit2.Call;
+import retrofit2.Response;
+
+class OpenAiApiHandlerStreamTest {
+  OpenAiApi openAiApi = mock(OpenAiApi.class);
+  OpenAiApiHandler handler = new OpenAiApiHandler(openAiApi);
+  ChatCompletionRequest request = ChatCompletionRequest.builder().stream(true).build();
+  List<JsonNode> partials = new ArrayList<>();
+
+  @Test
+  void returnsTheCompleteArguments() {
+    new OpenAIChatCompletionMock(openAiApi)
+        .mockChatCompletionStreamAndReturnToolCall(Map.of("stem", "What is blue?"), 5);
+    Optional<JsonNode> arguments = handler.streamFirstToolCallArguments(request, partials::add);
+    assertThat(arguments.get().get("stem").asText(), equalTo("What is blue?"));
+  }
+
+  @Test
+  void givesThePartialArgumentsAsTheyArrive() {
+    new OpenAIChatCompletionMock(openAiApi)
+        .mockChatCompletionStreamAndReturnToolCall(Map.of("stem", "What is blue?"), 5);
+    handler.streamFirstToolCallArguments(request, partials::add);
+    assertThat(partials, hasSize(greaterThan(1)));
+    assertThat(partials.getFirst().get("stem").asText(), equalTo("W"));
+    assertThat(partials.getLast().get("stem").asText(), equalTo("What is blue?"));
+  }
+
+  @Test
+  void emptyWhenThereIsNoToolCall() throws IOException {
+    String sse = "data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\"hi\"}}]}\n\n";
+    stubResponse(Response.success(ResponseBody.create(sse, MediaType.parse("text/event-stream"))));
+    Optional<JsonNode> arguments = handler.streamFirstToolCallArguments(request, partials::add);
+    assertThat(arguments, equalTo(Optional.empty()));
+    assertThat(partials, empty());
+  }
+
+  @Test
+  void unauthorized() throws IOException {
+    stubResponse(Response.error(401, ResponseBody.create("", MediaType.parse("application/json"))));
+    assertThrows(
+        OpenAiUnauthorizedException.class,
+        () -> handler.streamFirstToolCallArguments(request, partials::add));
+  }
+
+  @Test
+  void serviceError() throws IOException {
+    stubResponse(Response.error(503, ResponseBody.create("", MediaType.parse("application/json"))));
+    assertThrows(
+        OpenAIServiceErrorException.class,
+        () -> handler.streamFirstToolCallArguments(request, partials::add));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void stubResponse(Response<ResponseBody> response) throws IOException {
+    Call<ResponseBody> call = mock(Call.class);
+    when(call.execute()).thenReturn(response);
+    when(openAiApi.createChatCompletionStream(any())).thenReturn(call);
+  }
+}
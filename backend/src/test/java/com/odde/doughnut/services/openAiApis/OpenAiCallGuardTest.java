@@ -0,0 +1,86 @@
+package com.odde.doughnut.services.openAiApis;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.odde.doughnut.testability.StubHttpServer;
+import java.io.IOException;
+import java.time.Duration;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OpenAiCallGuardTest {
+  StubHttpServer server;
+
+  @BeforeEach
+  void setup() throws IOException {
+    server = new StubHttpServer(uri -> "{}");
+  }
+
+  @AfterEach
+  void teardown() {
+    server.close();
+  }
+
+  private int call(OpenAiCallGuard guard) throws IOException {
+    OkHttpClient client = new OkHttpClient.Builder().addInterceptor(guard).build();
+    try (Response response = client.newCall(chatRequest("gpt-4o")).execute()) {
+      return response.code();
+    }
+  }
+
+  private Request chatRequest(String model) {
+    RequestBody body =
+        RequestBody.create(
+            "{\"model\":\"" + model + "\"}", MediaType.parse("application/json; charset=utf-8"));
+    return new Request.Builder().url(server.url() + "/chat/completions").post(body).build();
+  }
+
+  private OpenAiCallGuard guard(int maxConcurrentCalls, int failureThreshold) {
+    return new OpenAiCallGuard(
+        maxConcurrentCalls,
+        Duration.ofMillis(10),
+        new CircuitBreaker(failureThreshold, Duration.ofHours(1), System::nanoTime));
+  }
+
+  @Test
+  void readsTheModelFromTheJsonBody() {
+    assertThat(OpenAiCallGuard.modelOf(chatRequest("gpt-4o")), equalTo("gpt-4o"));
+  }
+
+  @Test
+  void callsWithoutAJsonBodyShareOneLimit() {
+    Request request = new Request.Builder().url(server.url() + "/models").build();
+    assertThat(OpenAiCallGuard.modelOf(request), equalTo(OpenAiCallGuard.OTHER));
+  }
+
+  @Test
+  void passesTheCallThrough() throws IOException {
+    assertThat(call(guard(1, 1)), equalTo(200));
+    assertThat(server.requests(), hasSize(1));
+  }
+
+  @Test
+  void rejectsTheCallWhenTheModelHasNoPermitLeft() {
+    OpenAiCallGuard guard = guard(0, 1);
+    assertThrows(OpenAiUnavailableException.class, () -> call(guard));
+    assertThat(server.requests(), empty());
+  }
+
+  @Test
+  void stopsCallingAfterRepeatedServerErrors() throws IOException {
+    server.respondWithStatus(500);
+    OpenAiCallGuard guard = guard(1, 2);
+    call(guard);
+    call(guard);
+    assertThrows(OpenAiUnavailableException.class, () -> call(guard));
+    assertThat(server.requests(), hasSize(2));
+  }
+}
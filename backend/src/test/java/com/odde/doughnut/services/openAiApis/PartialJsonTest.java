@@ -0,0 +1,51 @@
+package com.odde.doughnut.services.openAiApis;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class PartialJsonTest {
+  private static String parsed(String prefix) {
+    return PartialJson.parse(prefix).map(Object::toString).orElse("<none>");
+  }
+
+  @Test
+  void completeJsonStaysTheSame() {
+    String json = "{\"stem\":\"a\",\"choices\":[\"b\"]}";
+    assertThat(parsed(json), equalTo(json));
+  }
+
+  @Test
+  void closesTheOpenStringAndBrackets() {
+    assertThat(
+        parsed("{\"question\":{\"stem\":\"What is"),
+        equalTo("{\"question\":{\"stem\":\"What is\"}}"));
+    assertThat(parsed("{\"choices\":[\"red\", \"bl"), equalTo("{\"choices\":[\"red\",\"bl\"]}"));
+  }
+
+  @Test
+  void keyWithoutValueYetIsNull() {
+    assertThat(
+        parsed("{\"stem\":\"a\",\"choices\": "), equalTo("{\"stem\":\"a\",\"choices\":null}"));
+  }
+
+  @Test
+  void dropsTrailingCommaAndEscape() {
+    assertThat(parsed("{\"stem\":\"a\","), equalTo("{\"stem\":\"a\"}"));
+    assertThat(parsed("{\"stem\":\"say \\"), equalTo("{\"stem\":\"say \"}"));
+  }
+
+  @Test
+  void bracketsInsideStringsAreText() {
+    assertThat(parsed("{\"stem\":\"[x] {y"), equalTo("{\"stem\":\"[x] {y\"}"));
+  }
+
+  @Test
+  void nothingWhenItCannotBeReadYet() {
+    assertThat(PartialJson.parse(""), equalTo(Optional.empty()));
+    assertThat(PartialJson.parse("{\"stem\""), equalTo(Optional.empty()));
+    assertThat(PartialJson.parse("{\"correct\": tr"), equalTo(Optional.empty()));
+  }
+}
@@ -0,0 +1,66 @@
+package com.odde.doughnut.services.wikidataApis;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import com.odde.doughnut.services.WikidataService;
+import com.odde.doughnut.services.httpQuery.HttpClientAdapter;
+import com.odde.doughnut.testability.MakeMeWithoutDB;
+import com.odde.doughnut.testability.StubHttpServer;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class WikidataApiTest {
+  MakeMeWithoutDB makeMe = new MakeMeWithoutDB();
+  StubHttpServer server;
+  WikidataApi wikidataApi;
+
+  @BeforeEach
+  void setup() throws IOException {
+    server = new StubHttpServer(this::respond);
+    wikidataApi = new WikidataService(new HttpClientAdapter(), server.url()).wikidataApi();
+  }
+
+  @AfterEach
+  void teardown() {
+    server.close();
+  }
+
+  private String respond(URI uri) {
+    String path = uri.getPath();
+    if (path.startsWith("/wiki/Special:EntityData/")) {
+      String id = path.substring("/wiki/Special:EntityData/".length()).replace(".json", "");
+      return makeMe.wikidataEntityJson().entityId(id).entitleTitle("title of " + id).please();
+    }
+    return "{\"entities\":{}}";
+  }
+
+  @Test
+  void shouldGetTheClaimsOfSeveralEntitiesInOneRequest() throws IOException, InterruptedException {
+    wikidataApi.getEntityHashByIds(List.of("Q1", "Q2", "Q3"));
+    assertThat(server.requests(), hasSize(1));
+    assertThat(server.requests().getFirst().getQuery(), containsString("ids=Q1|Q2|Q3"));
+  }
+
+  @Test
+  void shouldSplitTooManyIdsIntoSeveralRequests() throws IOException, InterruptedException {
+    List<String> ids = IntStream.rangeClosed(1, 51).mapToObj(i -> "Q" + i).toList();
+    wikidataApi.getEntityHashByIds(ids);
+    assertThat(server.requests(), hasSize(2));
+  }
+
+  @Test
+  void shouldGetTheEnglishTitlesOfSeveralEntities() {
+    Map<String, Optional<String>> titles =
+        wikidataApi.getEnglishTitlesAsync(List.of("Q1", "Q2")).join();
+    assertThat(titles.get("Q1"), equalTo(Optional.of("title of Q1")));
+    assertThat(titles.get("Q2"), equalTo(Optional.of("title of Q2")));
+  }
+}
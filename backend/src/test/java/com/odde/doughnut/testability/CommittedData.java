@@ -0,0 +1,35 @@
+package com.odde.doughnut.testability;
+
+import com.odde.doughnut.services.NotebookAccessService;
+import com.odde.doughnut.services.QuizQuestionPrefetchService;
+import com.odde.doughnut.services.ReviewQueueService;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// For the tests that exercise code running outside of any transaction, such as the work done on
+// a background thread. The data they need is committed, so it cannot be rolled back, and has to
+// be cleaned up after the test together with the caches that may hold on to its ids.
+@Component
+public class CommittedData {
+  @Autowired EntityManagerFactory emf;
+  @Autowired PlatformTransactionManager transactionManager;
+  @Autowired ReviewQueueService reviewQueueService;
+  @Autowired NotebookAccessService notebookAccessService;
+  @Autowired QuizQuestionPrefetchService quizQuestionPrefetchService;
+
+  public <T> T commit(Supplier<T> supplier) {
+    return new TransactionTemplate(transactionManager).execute(status -> supplier.get());
+  }
+
+  public void cleanUp() {
+    new DBCleanerWorker(emf).truncateAllTables();
+    reviewQueueService.clear();
+    notebookAccessService.invalidateAll();
+    notebookAccessService.invalidateBazaar();
+    quizQuestionPrefetchService.clear();
+  }
+}
@@ -1,8 +1,10 @@
 package com.odde.doughnut.testability;
 
+import static com.theokanning.openai.service.OpenAiService.defaultObjectMapper;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.theokanning.openai.OpenAiResponse;
 import com.theokanning.openai.assistants.message.Message;
 import com.theokanning.openai.assistants.message.MessageContent;
@@ -10,19 +12,20 @@ import com.theokanning.openai.assistants.message.content.Text;
 import com.theokanning.openai.assistants.run.Run;
 import com.theokanning.openai.client.OpenAiApi;
 import io.reactivex.Single;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
 import org.mockito.Mockito;
 
 public record OpenAIAssistantRunCompletedMocker(OpenAiApi openAiApi, String threadId, Run run) {
   public void mockListMessages(String msg) {
-    Text txt = new Text(msg, List.of());
-    MessageContent cnt = new MessageContent();
-    cnt.setText(txt);
-    List<MessageContent> contentList = List.of(cnt);
     OpenAiResponse<Message> msgs = new OpenAiResponse<>();
-    msgs.setData(List.of(Message.builder().content(contentList).build()));
+    msgs.setData(List.of(message(msg)));
     Map<String, Object> options = new HashMap<>();
     options.put("order", "asc");
     if (run != null) {
@@ -31,14 +34,45 @@ public record OpenAIAssistantRunCompletedMocker(OpenAiApi openAiApi, String thre
     Mockito.doReturn(Single.just(msgs)).when(openAiApi).listMessages(threadId, options);
   }
 
-  public OpenAIAssistantRunCompletedMocker mockRetrieveRun() {
-    Mockito.doReturn(Single.just(run)).when(openAiApi).retrieveRun(eq(threadId), any());
-    return this;
+  public void mockRunStream(String... messages) {
+    Mockito.doReturn(new ResponseBodyCallStub(runStream(messages)))
+        .when(openAiApi)
+        .createRunStream(eq(threadId), any());
   }
 
-  public void mockSubmitOutput() {
-    Mockito.doReturn(Single.just(run))
+  public void mockSubmitOutput(String... messages) {
+    Mockito.doReturn(new ResponseBodyCallStub(runStream(messages)))
         .when(openAiApi)
-        .submitToolOutputs(eq(threadId), any(), any());
+        .submitToolOutputsStream(eq(threadId), any(), any());
+  }
+
+  private ResponseBody runStream(String... messages) {
+    String events =
+        Stream.concat(
+                Arrays.stream(messages)
+                    .map(msg -> toSSEString("thread.message.completed", message(msg))),
+                Stream.of(
+                    toSSEString("thread.run." + run.getStatus(), run), toSSEString("done", "DONE")))
+            .collect(Collectors.joining());
+    return ResponseBody.create(events, MediaType.parse("text/event-stream"));
+  }
+
+  private static Message message(String msg) {
+    Text txt = new Text(msg, List.of());
+    MessageContent cnt = new MessageContent();
+    cnt.setText(txt);
+    return Message.builder().content(List.of(cnt)).build();
+  }
+
+  private static String toSSEString(String streamEvent, Object dataObject) {
+    try {
+      return "event: "
+          + streamEvent
+          + "\ndata: "
+          + defaultObjectMapper().writeValueAsString(dataObject)
+          + "\n\n";
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
   }
 }
@@ -5,10 +5,12 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 import com.theokanning.openai.assistants.message.Message;
-import com.theokanning.openai.assistants.run.*;
 import com.theokanning.openai.client.OpenAiApi;
 import io.reactivex.Single;
+import java.io.IOException;
+import okhttp3.ResponseBody;
 import org.mockito.Mockito;
+import retrofit2.Response;
 
 public record OpenAIAssistantThreadMocker(OpenAiApi openAiApi, String threadId) {
   public OpenAIAssistantThreadMocker mockCreateMessage() {
@@ -16,15 +18,22 @@ public record OpenAIAssistantThreadMocker(OpenAiApi openAiApi, String threadId)
     return this;
   }
 
-  public OpenAIAssistantCreatedRunMocker mockCreateRunInProcess(String runId) {
-    Run run = new Run();
-    run.setId(runId);
-    run.setStatus("processing");
-    run.setThreadId(threadId);
-    Mockito.doReturn(Single.just(run)).when(openAiApi).createRun(any(), any());
+  public OpenAIAssistantCreatedRunMocker aRun(String runId) {
     return new OpenAIAssistantCreatedRunMocker(openAiApi, threadId, runId);
   }
 
+  public void mockRunStreamFailure(Response<ResponseBody> errorResponse) {
+    Mockito.doReturn(new ResponseBodyCallStub(errorResponse, null))
+        .when(openAiApi)
+        .createRunStream(any(), any());
+  }
+
+  public void mockRunStreamFailure(IOException failure) {
+    Mockito.doReturn(new ResponseBodyCallStub(null, failure))
+        .when(openAiApi)
+        .createRunStream(any(), any());
+  }
+
   public OpenAIAssistantRunStreamMocker andARunStream(String runId) {
     return new OpenAIAssistantRunStreamMocker(openAiApi, runId);
   }
@@ -4,10 +4,15 @@ import static com.odde.doughnut.services.ai.builder.OpenAIChatRequestBuilder.ask
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
 import com.theokanning.openai.client.OpenAiApi;
 import com.theokanning.openai.completion.chat.ChatCompletionResult;
 import io.reactivex.Single;
 import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 
@@ -23,6 +28,31 @@ public record OpenAIChatCompletionMock(OpenAiApi openAiApi) {
         functionName, makeMe.openAiCompletionResult().toolCall(functionName, arguments).please());
   }
 
+  // like OpenAI, the stream sends the arguments in small fragments
+  public void mockChatCompletionStreamAndReturnToolCall(Object result, int fragmentLength) {
+    String arguments = new ObjectMapper().valueToTree(result).toString();
+    String sse =
+        IntStream.iterate(0, i -> i < arguments.length(), i -> i + fragmentLength)
+                .mapToObj(
+                    i ->
+                        toolCallChunk(
+                            arguments.substring(
+                                i, Math.min(i + fragmentLength, arguments.length()))))
+                .collect(Collectors.joining())
+            + "data: [DONE]\n\n";
+    ResponseBody responseBody = ResponseBody.create(sse, MediaType.parse("text/event-stream"));
+    Mockito.doReturn(new ResponseBodyCallStub(responseBody))
+        .when(openAiApi)
+        .createChatCompletionStream(ArgumentMatchers.any());
+  }
+
+  private static String toolCallChunk(String argumentsFragment) {
+    return "data: {\"choices\":[{\"index\":0,\"delta\":{\"tool_calls\":[{\"index\":0,"
+        + "\"function\":{\"arguments\":"
+        + new TextNode(argumentsFragment)
+        + "}}]}}]}\n\n";
+  }
+
   private void mockChatCompletion(String functionName, ChatCompletionResult toBeReturned) {
     if (Objects.equals(functionName, askClarificationQuestion)) {
       throw new RuntimeException();
@@ -0,0 +1,108 @@
+package com.odde.doughnut.testability;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// An SseEmitter that records the events sent to it, as there is no response to write them to in
+// the tests. A test can also play the part of the container and run the callbacks it would run
+// when the browser goes away.
+public class RecordingSseEmitter extends SseEmitter {
+  public record Event(String name, String comment, Object data) {}
+
+  private final List<Event> events = new CopyOnWriteArrayList<>();
+  private final CountDownLatch ended = new CountDownLatch(1);
+  private final List<Runnable> completionCallbacks = new CopyOnWriteArrayList<>();
+  private final List<Consumer<Throwable>> errorCallbacks = new CopyOnWriteArrayList<>();
+  private volatile Throwable error;
+
+  public RecordingSseEmitter(Long timeout) {
+    super(timeout);
+  }
+
+  @Override
+  public void send(SseEventBuilder builder) throws IOException {
+    if (ended.getCount() == 0) {
+      throw new IllegalStateException("The emitter has already completed");
+    }
+    String name = null;
+    String comment = null;
+    List<Object> data = new ArrayList<>();
+    for (DataWithMediaType part : builder.build()) {
+      if (!isFraming(part)) {
+        data.add(part.getData());
+        continue;
+      }
+      for (String line : part.getData().toString().split("\n")) {
+        if (line.startsWith("event:")) {
+          name = line.substring("event:".length());
+        } else if (line.startsWith(":")) {
+          comment = line.substring(1);
+        }
+      }
+    }
+    events.add(new Event(name, comment, data.isEmpty() ? null : data.getFirst()));
+  }
+
+  // the text around the data, such as "event:name\ndata:", is sent as plain text
+  private static boolean isFraming(DataWithMediaType part) {
+    return part.getMediaType() != null
+        && part.getMediaType().isCompatibleWith(MediaType.TEXT_PLAIN);
+  }
+
+  @Override
+  public void complete() {
+    super.complete();
+    ended.countDown();
+  }
+
+  @Override
+  public void completeWithError(Throwable ex) {
+    error = ex;
+    super.completeWithError(ex);
+    ended.countDown();
+  }
+
+  @Override
+  public void onCompletion(Runnable callback) {
+    super.onCompletion(callback);
+    completionCallbacks.add(callback);
+  }
+
+  @Override
+  public void onError(Consumer<Throwable> callback) {
+    super.onError(callback);
+    errorCallbacks.add(callback);
+  }
+
+  // what the container does when the connection is closed by the browser
+  public void browserGone() {
+    ended.countDown();
+    errorCallbacks.forEach(callback -> callback.accept(new IOException("Broken pipe")));
+    completionCallbacks.forEach(Runnable::run);
+  }
+
+  public List<Event> getEvents() {
+    return events;
+  }
+
+  public List<String> getEventNames() {
+    return events.stream().map(Event::name).filter(Objects::nonNull).toList();
+  }
+
+  public Throwable getError() {
+    return error;
+  }
+
+  public boolean awaitEnd(Duration timeout) throws InterruptedException {
+    return ended.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+  }
+}
@@ -1,5 +1,6 @@
 package com.odde.doughnut.testability;
 
+import java.io.IOException;
 import okhttp3.Request;
 import okhttp3.ResponseBody;
 import okio.Timeout;
@@ -8,20 +9,31 @@ import retrofit2.Callback;
 import retrofit2.Response;
 
 class ResponseBodyCallStub implements Call<ResponseBody> {
-  private final ResponseBody responseBody;
+  private final Response<ResponseBody> response;
+  private final IOException failure;
 
   public ResponseBodyCallStub(ResponseBody responseBody) {
-    this.responseBody = responseBody;
+    this(Response.success(responseBody), null);
+  }
+
+  public ResponseBodyCallStub(Response<ResponseBody> response, IOException failure) {
+    this.response = response;
+    this.failure = failure;
   }
 
   @Override
-  public Response<ResponseBody> execute() {
-    return Response.success(responseBody);
+  public Response<ResponseBody> execute() throws IOException {
+    if (failure != null) throw failure;
+    return response;
   }
 
   @Override
   public void enqueue(Callback<ResponseBody> callback) {
-    callback.onResponse(this, Response.success(responseBody));
+    if (failure != null) {
+      callback.onFailure(this, failure);
+      return;
+    }
+    callback.onResponse(this, response);
   }
 
   @Override
@@ -0,0 +1,52 @@
+package com.odde.doughnut.testability;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+// A local HTTP server answering every request with the given function of the request URI,
+// and remembering the requests it received.
+public class StubHttpServer implements AutoCloseable {
+  private final HttpServer server;
+  private final List<URI> requests = new CopyOnWriteArrayList<>();
+  private int status = 200;
+
+  public StubHttpServer(Function<URI, String> responder) throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext(
+        "/",
+        exchange -> {
+          requests.add(exchange.getRequestURI());
+          byte[] body = responder.apply(exchange.getRequestURI()).getBytes(StandardCharsets.UTF_8);
+          exchange.sendResponseHeaders(status, body.length);
+          try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+          }
+        });
+    server.start();
+  }
+
+  public StubHttpServer respondWithStatus(int status) {
+    this.status = status;
+    return this;
+  }
+
+  public String url() {
+    return "http://localhost:" + server.getAddress().getPort();
+  }
+
+  public List<URI> requests() {
+    return requests;
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+}
@@ -20,7 +20,7 @@ public class AnswerViewedByUserBuilder extends EntityBuilder<AnsweredQuestion> {
         makeMe
             .modelFactoryService
             .toAnswerModel(answerBuilder.please(needPersist))
-            .getAnswerViewedByUser(null);
+            .getAnswerViewedByUser(makeMe.modelFactoryService.toReviewPointCache(null));
   }
 
   public AnswerViewedByUserBuilder validQuestionOfType(QuizQuestionFactory quizQuestionFactory) {
@@ -183,8 +183,7 @@ public class NoteBuilder extends EntityBuilder<Note> {
   }
 
   public NoteBuilder softDeleted() {
-    Timestamp timestamp = new Timestamp(System.currentTimeMillis());
-    entity.setDeletedAt(timestamp);
+    entity.softDelete(new Timestamp(System.currentTimeMillis()));
     return this;
   }
 
@@ -58,6 +58,15 @@ public class UploadAudioDtoValidatorTest {
     assertThat(propertyPath.toString(), equalTo("uploadAudioFile"));
   }
 
+  @Test
+  void allowsALargerWavAsItCanBeCutIntoSegments() {
+    String filename = "big_file.wav";
+    byte[] bytes = new byte[1024 * 1024 * 20 + 1];
+    audioUploadDTO.setUploadAudioFile(
+        new MockMultipartFile(filename, filename, "audio/wav", bytes));
+    assertThat(getViolations(), is(empty()));
+  }
+
   private Set<ConstraintViolation<AudioUploadDTO>> getViolations() {
     return validator.validate(audioUploadDTO);
   }
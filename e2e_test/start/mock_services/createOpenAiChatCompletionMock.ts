@@ -32,10 +32,40 @@ const openAiChatCompletionStubber = (
   bodyToMatch: BodyToMatch,
   bodyNotToMatch?: BodyToMatch,
 ) => {
+  // a streamed request is answered in one chunk; its stub goes first, as the stub of the
+  // plain request would match it too
+  const stubChatCompletionStream = (
+    message: ChatMessageInResponse,
+    finishReason: "length" | "stop" | "function_call",
+  ): Promise<void> => {
+    const delta =
+      "tool_calls" in message
+        ? {
+            ...message,
+            tool_calls: message.tool_calls.map((toolCall, index) => ({
+              index,
+              ...toolCall,
+            })),
+          }
+        : message
+    const chunk = {
+      object: "chat.completion.chunk",
+      choices: [{ delta, index: 0, finish_reason: finishReason }],
+    }
+    return serviceMocker.mockPostMatchsAndNotMatches(
+      `/chat/completions`,
+      { ...bodyToMatch, stream: true },
+      bodyNotToMatch,
+      [`data: ${JSON.stringify(chunk)}\n\ndata: [DONE]\n\n`],
+      { "Content-Type": "text/event-stream" },
+    )
+  }
+
   const stubChatCompletion = (
     message: ChatMessageInResponse,
     finishReason: "length" | "stop" | "function_call",
   ): Promise<void> => {
+    stubChatCompletionStream(message, finishReason)
     return serviceMocker.mockPostMatchsAndNotMatches(
       `/chat/completions`,
       bodyToMatch,
@@ -1,5 +1,4 @@
 import ServiceMocker from "../../support/ServiceMocker"
-import { MessageToMatch } from "./MessageToMatch"
 
 const openAiAssistantCreatedRunMocker = (
   serviceMocker: ServiceMocker,
@@ -7,21 +6,9 @@ const openAiAssistantCreatedRunMocker = (
   runId: string,
 ) => {
   return {
-    stubRetrieveRunsThatCompleted() {
-      const responses = [
-        {
-          id: runId,
-          status: "completed",
-        },
-      ]
-      serviceMocker.stubGetterWithMutipleResponses(
-        `/threads/${threadId}/runs/${runId}`,
-        {},
-        responses,
-      )
-      return this
-    },
-    stubRetrieveRunsThatRequireAction(hashes: Record<string, string>[]) {
+    // the run stream created by the first message requires the first action, and each
+    // submitted tool output continues the run with the next one
+    stubRunStreamsThatRequireAction(hashes: Record<string, string>[]) {
       const createRequiresActionRun = (
         functionName: string,
         argumentsObj: unknown,
@@ -61,47 +48,30 @@ const openAiAssistantCreatedRunMocker = (
         }
       })
 
-      serviceMocker.stubGetterWithMutipleResponses(
-        `/threads/${threadId}/runs/${runId}`,
-        {},
-        responses,
-      )
-      return this
-    },
+      const runStreams = responses.map(
+        (run) =>
+          `event: thread.run.requires_action
+data: ${JSON.stringify(run)}
 
-    async stubSubmitToolOutputs() {
-      await serviceMocker.stubPoster(
-        `/threads/${threadId}/runs/${runId}/submit_tool_outputs`,
-        {
-          id: runId,
-          status: "queued",
-        },
-      )
+event: done
+data: [DONE]
 
-      return this
-    },
-    async stubListMessages(msgs: MessageToMatch[]) {
-      return await serviceMocker.stubGetter(
-        `/threads/${threadId}/messages`,
-        {
-          run_id: runId,
-        },
-        {
-          object: "list",
-          data: msgs.map((msg) => ({
-            object: "thread.message",
-            role: msg.role,
-            content: [
-              {
-                type: "text",
-                text: {
-                  value: msg.content,
-                },
-              },
-            ],
-          })),
-        },
+`,
       )
+      const headers = { "Content-Type": "text/event-stream" }
+      serviceMocker.stubPosterWithMultipleResponses(
+        `/threads/${threadId}/runs`,
+        runStreams.slice(0, 1),
+        headers,
+      )
+      if (runStreams.length > 1) {
+        serviceMocker.stubPosterWithMultipleResponses(
+          `/threads/${threadId}/runs/${runId}/submit_tool_outputs`,
+          runStreams.slice(1),
+          headers,
+        )
+      }
+      return this
     },
   }
 }
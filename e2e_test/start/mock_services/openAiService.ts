@@ -125,12 +125,7 @@ const openAiService = () => {
       return this
     },
 
-    stubCreateRuns(threadId: string, runIds: string[]) {
-      serviceMocker.stubPosterWithMultipleResponses(`/threads/${threadId}/runs`,
-        runIds.map((runId) => ({
-        id: runId,
-        status: "queued",
-      })))
+    aThreadWithRuns(threadId: string, runIds: string[]) {
       return openAiAssistantThreadMocker(serviceMocker, threadId, runIds)
     },
 
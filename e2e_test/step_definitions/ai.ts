@@ -69,14 +69,13 @@ Given(
     mock_services
       .openAi()
       .stubCreateThread("thread-abc123")
-      .stubCreateRuns("thread-abc123", ["run-run-id"])
+      .aThreadWithRuns("thread-abc123", ["run-run-id"])
       .stubCreateMessage({
         role: "user",
         content: "Please complete",
       })
       .aRun("run-run-id")
-      .stubRetrieveRunsThatRequireAction(data.hashes())
-      .stubSubmitToolOutputs()
+      .stubRunStreamsThatRequireAction(data.hashes())
   }
 )
 
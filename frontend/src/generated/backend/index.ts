@@ -22,6 +22,7 @@ export type { Attachment } from './models/Attachment';
 export type { Audio } from './models/Audio';
 export type { AudioUploadDTO } from './models/AudioUploadDTO';
 export type { BazaarNotebook } from './models/BazaarNotebook';
+export type { CacheMetrics } from './models/CacheMetrics';
 export type { ChatRequest } from './models/ChatRequest';
 export type { Circle } from './models/Circle';
 export type { CircleForUserView } from './models/CircleForUserView';
@@ -33,6 +34,7 @@ export type { Delta } from './models/Delta';
 export type { DeltaContent } from './models/DeltaContent';
 export type { DueReviewPoints } from './models/DueReviewPoints';
 export type { DummyForGeneratingTypes } from './models/DummyForGeneratingTypes';
+export type { EndpointMetrics } from './models/EndpointMetrics';
 export type { FailureReport } from './models/FailureReport';
 export type { FailureReportForView } from './models/FailureReportForView';
 export type { FileCitation } from './models/FileCitation';
@@ -51,6 +53,7 @@ export type { MCQWithAnswer } from './models/MCQWithAnswer';
 export type { Message } from './models/Message';
 export type { MessageContent } from './models/MessageContent';
 export type { MessageDelta } from './models/MessageDelta';
+export type { MetricsReport } from './models/MetricsReport';
 export type { MultipleChoicesQuestion } from './models/MultipleChoicesQuestion';
 export type { Note } from './models/Note';
 export type { NoteAccessoriesDTO } from './models/NoteAccessoriesDTO';
@@ -88,6 +91,7 @@ export type { SearchTerm } from './models/SearchTerm';
 export type { SelfEvaluation } from './models/SelfEvaluation';
 export type { SrtDto } from './models/SrtDto';
 export type { SseEmitter } from './models/SseEmitter';
+export type { StreamMetrics } from './models/StreamMetrics';
 export type { Subscription } from './models/Subscription';
 export type { SubscriptionDTO } from './models/SubscriptionDTO';
 export type { SuggestedQuestionForFineTuning } from './models/SuggestedQuestionForFineTuning';
@@ -96,6 +100,7 @@ export type { Text } from './models/Text';
 export type { TimeTravel } from './models/TimeTravel';
 export type { TimeTravelRelativeToNow } from './models/TimeTravelRelativeToNow';
 export type { Tool } from './models/Tool';
+export type { TranscriptionProgress } from './models/TranscriptionProgress';
 export type { User } from './models/User';
 export type { UserDTO } from './models/UserDTO';
 export type { UserForOtherUserView } from './models/UserForOtherUserView';
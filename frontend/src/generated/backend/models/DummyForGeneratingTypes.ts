@@ -3,7 +3,9 @@
 /* tslint:disable */
 /* eslint-disable */
 import type { MessageDelta } from './MessageDelta';
+import type { TranscriptionProgress } from './TranscriptionProgress';
 export type DummyForGeneratingTypes = {
     messageDelta?: MessageDelta;
+    transcriptionProgress?: TranscriptionProgress;
 };
 
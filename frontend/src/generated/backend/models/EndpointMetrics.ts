@@ -0,0 +1,16 @@
+/* generated using openapi-typescript-codegen -- do not edit */
+/* istanbul ignore file */
+/* tslint:disable */
+/* eslint-disable */
+export type EndpointMetrics = {
+    name?: string;
+    count?: number;
+    totalMillis?: number;
+    maxMillis?: number;
+    latencyHistogram?: Array<number>;
+    statements?: number;
+    maxStatements?: number;
+    entitiesLoaded?: number;
+    maxEntitiesLoaded?: number;
+};
+
@@ -0,0 +1,15 @@
+/* generated using openapi-typescript-codegen -- do not edit */
+/* istanbul ignore file */
+/* tslint:disable */
+/* eslint-disable */
+import type { CacheMetrics } from './CacheMetrics';
+import type { EndpointMetrics } from './EndpointMetrics';
+import type { StreamMetrics } from './StreamMetrics';
+export type MetricsReport = {
+    latencyBucketsMillis?: Array<number>;
+    endpoints?: Array<EndpointMetrics>;
+    openAiCalls?: Array<EndpointMetrics>;
+    aiResponseCache?: Array<CacheMetrics>;
+    streams?: Array<StreamMetrics>;
+};
+
@@ -6,5 +6,7 @@ export type SearchTerm = {
     searchKey: string;
     allMyNotebooksAndSubscriptions?: boolean;
     allMyCircles?: boolean;
+    pageIndex?: number;
+    pageSize?: number;
 };
 
@@ -0,0 +1,18 @@
+/* generated using openapi-typescript-codegen -- do not edit */
+/* istanbul ignore file */
+/* tslint:disable */
+/* eslint-disable */
+export type StreamMetrics = {
+    name?: string;
+    count?: number;
+    completed?: number;
+    clientGone?: number;
+    timedOut?: number;
+    failed?: number;
+    eventsReceived?: number;
+    eventsSent?: number;
+    keepAlives?: number;
+    totalMillis?: number;
+    maxMillis?: number;
+};
+
@@ -4,6 +4,7 @@
 /* eslint-disable */
 import type { AudioUploadDTO } from '../models/AudioUploadDTO';
 import type { SrtDto } from '../models/SrtDto';
+import type { SseEmitter } from '../models/SseEmitter';
 import type { CancelablePromise } from '../core/CancelablePromise';
 import type { BaseHttpRequest } from '../core/BaseHttpRequest';
 export class RestAiAudioControllerService {
@@ -26,6 +27,29 @@ export class RestAiAudioControllerService {
             },
         });
     }
+    /**
+     * @param note
+     * @param formData
+     * @returns SseEmitter OK
+     * @throws ApiError
+     */
+    public convertNoteAudioToSrtStream(
+        note: number,
+        formData?: AudioUploadDTO,
+    ): CancelablePromise<SseEmitter> {
+        return this.httpRequest.request({
+            method: 'POST',
+            url: '/api/notes/{note}/audio-to-srt-stream',
+            path: {
+                'note': note,
+            },
+            formData: formData,
+            mediaType: 'multipart/form-data',
+            errors: {
+                500: `Internal Server Error`,
+            },
+        });
+    }
     /**
      * @param note
      * @returns SrtDto OK
@@ -2,10 +2,24 @@
 /* istanbul ignore file */
 /* tslint:disable */
 /* eslint-disable */
+import type { MetricsReport } from '../models/MetricsReport';
 import type { CancelablePromise } from '../core/CancelablePromise';
 import type { BaseHttpRequest } from '../core/BaseHttpRequest';
 export class RestHealthCheckControllerService {
     constructor(public readonly httpRequest: BaseHttpRequest) {}
+    /**
+     * @returns MetricsReport OK
+     * @throws ApiError
+     */
+    public metrics(): CancelablePromise<MetricsReport> {
+        return this.httpRequest.request({
+            method: 'GET',
+            url: '/api/metrics',
+            errors: {
+                500: `Internal Server Error`,
+            },
+        });
+    }
     /**
      * @returns string OK
      * @throws ApiError
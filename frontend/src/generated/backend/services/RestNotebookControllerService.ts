@@ -7,6 +7,7 @@ import type { NotebookSettings } from '../models/NotebookSettings';
 import type { NotebooksViewedByUser } from '../models/NotebooksViewedByUser';
 import type { NoteBrief } from '../models/NoteBrief';
 import type { NoteCreationDTO } from '../models/NoteCreationDTO';
+import type { NoteTopic } from '../models/NoteTopic';
 import type { RedirectToNoteResponse } from '../models/RedirectToNoteResponse';
 import type { CancelablePromise } from '../core/CancelablePromise';
 import type { BaseHttpRequest } from '../core/BaseHttpRequest';
@@ -72,6 +73,24 @@ export class RestNotebookControllerService {
             },
         });
     }
+    /**
+     * @param requestBody
+     * @returns RedirectToNoteResponse OK
+     * @throws ApiError
+     */
+    public importNotebook(
+        requestBody: string,
+    ): CancelablePromise<RedirectToNoteResponse> {
+        return this.httpRequest.request({
+            method: 'POST',
+            url: '/api/notebooks/import',
+            body: requestBody,
+            mediaType: 'application/x-ndjson',
+            errors: {
+                500: `Internal Server Error`,
+            },
+        });
+    }
     /**
      * @returns NotebooksViewedByUser OK
      * @throws ApiError
@@ -104,4 +123,42 @@ export class RestNotebookControllerService {
             },
         });
     }
+    /**
+     * @param notebook
+     * @returns NoteTopic OK
+     * @throws ApiError
+     */
+    public trash(
+        notebook: number,
+    ): CancelablePromise<Array<NoteTopic>> {
+        return this.httpRequest.request({
+            method: 'GET',
+            url: '/api/notebooks/{notebook}/trash',
+            path: {
+                'notebook': notebook,
+            },
+            errors: {
+                500: `Internal Server Error`,
+            },
+        });
+    }
+    /**
+     * @param notebook
+     * @returns string OK
+     * @throws ApiError
+     */
+    public exportNotebook(
+        notebook: number,
+    ): CancelablePromise<string> {
+        return this.httpRequest.request({
+            method: 'GET',
+            url: '/api/notebooks/{notebook}/export',
+            path: {
+                'notebook': notebook,
+            },
+            errors: {
+                500: `Internal Server Error`,
+            },
+        });
+    }
 }
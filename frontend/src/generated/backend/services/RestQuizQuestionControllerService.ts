@@ -9,6 +9,7 @@ import type { QuizQuestion } from '../models/QuizQuestion';
 import type { QuizQuestionAndAnswer } from '../models/QuizQuestionAndAnswer';
 import type { QuizQuestionContestResult } from '../models/QuizQuestionContestResult';
 import type { QuizQuestionInNotebook } from '../models/QuizQuestionInNotebook';
+import type { SseEmitter } from '../models/SseEmitter';
 import type { SuggestedQuestionForFineTuning } from '../models/SuggestedQuestionForFineTuning';
 import type { CancelablePromise } from '../core/CancelablePromise';
 import type { BaseHttpRequest } from '../core/BaseHttpRequest';
@@ -75,6 +76,25 @@ export class RestQuizQuestionControllerService {
             },
         });
     }
+    /**
+     * @param quizQuestion
+     * @returns SseEmitter OK
+     * @throws ApiError
+     */
+    public contestStream(
+        quizQuestion: number,
+    ): CancelablePromise<SseEmitter> {
+        return this.httpRequest.request({
+            method: 'POST',
+            url: '/api/quiz-questions/{quizQuestion}/contest-stream',
+            path: {
+                'quizQuestion': quizQuestion,
+            },
+            errors: {
+                500: `Internal Server Error`,
+            },
+        });
+    }
     /**
      * @param quizQuestion
      * @returns QuizQuestionContestResult OK
@@ -201,6 +221,25 @@ export class RestQuizQuestionControllerService {
             },
         });
     }
+    /**
+     * @param note
+     * @returns SseEmitter OK
+     * @throws ApiError
+     */
+    public generateQuestionStream(
+        note: number,
+    ): CancelablePromise<SseEmitter> {
+        return this.httpRequest.request({
+            method: 'POST',
+            url: '/api/quiz-questions/generate-question-stream',
+            query: {
+                'note': note,
+            },
+            errors: {
+                500: `Internal Server Error`,
+            },
+        });
+    }
     /**
      * @param note
      * @returns QuizQuestionAndAnswer OK
@@ -4,7 +4,7 @@ import {
   OpenAPIConfig,
 } from "@/generated/backend"
 import { ApiRequestOptions } from "@/generated/backend/core/ApiRequestOptions"
-import { getQueryString } from "@/generated/backend/core/request"
+import { getFormData, getQueryString } from "@/generated/backend/core/request"
 import createEventSourceWithBody from "./createEventSourceWithBody"
 
 // getUrl
@@ -44,7 +44,12 @@ export default class EventSourceHttpRequestImpl extends BaseHttpRequest {
       try {
         const url = getUrl(this.config, options)
         if (!onCancel.isCancelled) {
-          createEventSourceWithBody(url, options.body, this.onMessage, this.onError)
+          createEventSourceWithBody(
+            url,
+            getFormData(options) ?? options.body,
+            this.onMessage,
+            this.onError
+          )
           resolve(undefined as unknown as T)
         }
       } catch (error) {
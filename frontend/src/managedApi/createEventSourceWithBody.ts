@@ -1,12 +1,16 @@
 async function createEventSourceWithBody(url: string, body: unknown, onMessage: (event: string, data: string) => void, onError?: (error: unknown) => void) {
     try {
+        // a FormData body is sent as multipart, with the boundary set by fetch
+        const isFormData = body instanceof FormData
         const response = await fetch(url, {
             method: 'POST',
-            headers: {
-                'Content-Type': 'application/json',
-                'Accept': 'text/event-stream'
-            },
-            body: JSON.stringify(body),
+            headers: isFormData
+                ? { 'Accept': 'text/event-stream' }
+                : {
+                    'Content-Type': 'application/json',
+                    'Accept': 'text/event-stream'
+                },
+            body: isFormData ? body : JSON.stringify(body),
         })
 
         if (!response.ok) {
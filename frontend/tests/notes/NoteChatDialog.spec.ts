@@ -20,11 +20,18 @@ const createWrapper = async () => {
   return wrapper
 }
 
+const replyWith = (event: string, data: unknown) => {
+  helper.managedApi.eventSource.eventSourceRequest.onMessage(
+    event,
+    JSON.stringify(data),
+  )
+}
+
 describe("NoteChatDialog TestMe", () => {
   const mockedGenerateQuestion = vitest.fn()
 
   beforeEach(() => {
-    helper.managedApi.restQuizQuestionController.generateQuestion =
+    helper.managedApi.eventSource.restQuizQuestionController.generateQuestionStream =
       mockedGenerateQuestion
   })
 
@@ -34,21 +41,32 @@ describe("NoteChatDialog TestMe", () => {
     .please()
 
   it("render the question returned", async () => {
-    mockedGenerateQuestion.mockResolvedValue(quizQuestionInNotebook)
     const wrapper = await createWrapper()
     wrapper.find("button").trigger("click")
     await flushPromises()
+    replyWith("done", quizQuestionInNotebook)
+    await flushPromises()
     expect(wrapper.text()).toContain("any question?")
     expect(wrapper.text()).toContain("option A")
     expect(wrapper.text()).toContain("option C")
     expect(mockedGenerateQuestion).toHaveBeenCalledWith(note.id)
   })
 
+  it("shows the stem while the question is being generated", async () => {
+    const wrapper = await createWrapper()
+    wrapper.find("button").trigger("click")
+    await flushPromises()
+    replyWith("partial", { stem: "any que" })
+    await flushPromises()
+    expect(wrapper.find(".partial-question").text()).toBe("any que")
+  })
+
   it("scroll to bottom", async () => {
-    mockedGenerateQuestion.mockResolvedValue(quizQuestionInNotebook)
     const wrapper = await createWrapper()
     wrapper.find("button").trigger("click")
     await flushPromises()
+    replyWith("done", quizQuestionInNotebook)
+    await flushPromises()
     expect(scrollToElement).toHaveBeenCalled()
   })
 
@@ -61,20 +79,27 @@ describe("NoteChatDialog TestMe", () => {
       .withQuestionStem("is it raining?")
       .please()
 
+    const contest = async () => {
+      wrapper.find("a#try-again").trigger("click")
+      await flushPromises()
+      replyWith("done", {})
+      await flushPromises()
+    }
+
     beforeEach(async () => {
-      mockedGenerateQuestion.mockResolvedValueOnce(quizQuestionInNotebook)
-      helper.managedApi.restQuizQuestionController.contest =
-        mockedContest.mockResolvedValue({})
+      helper.managedApi.eventSource.restQuizQuestionController.contestStream =
+        mockedContest
       helper.managedApi.restQuizQuestionController.regenerate =
         mockedRegenerate.mockResolvedValue(newQuestion)
       wrapper = await createWrapper()
       wrapper.find("button").trigger("click")
       await flushPromises()
+      replyWith("done", quizQuestionInNotebook)
+      await flushPromises()
     })
 
     it("calls the api", async () => {
-      wrapper.find("a#try-again").trigger("click")
-      await flushPromises()
+      await contest()
       expect(mockedContest).toHaveBeenCalledWith(
         quizQuestionInNotebook.quizQuestion.id,
       )
@@ -84,15 +109,13 @@ describe("NoteChatDialog TestMe", () => {
     })
 
     it("regenerate question when asked", async () => {
-      wrapper.find("a#try-again").trigger("click")
-      await flushPromises()
+      await contest()
       expect(wrapper.text()).toContain("any question?")
       expect(wrapper.text()).toContain("is it raining?")
     })
 
     it("should scroll to the end", async () => {
-      wrapper.find("a#try-again").trigger("click")
-      await flushPromises()
+      await contest()
       expect(scrollToElement).toHaveBeenCalled()
     })
   })